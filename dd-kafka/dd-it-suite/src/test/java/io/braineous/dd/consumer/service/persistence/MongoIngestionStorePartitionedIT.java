@@ -0,0 +1,195 @@
+package io.braineous.dd.consumer.service.persistence;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import io.braineous.dd.ingestion.persistence.IngestionBucketRouter;
+import io.braineous.dd.ingestion.persistence.IngestionReceipt;
+import io.braineous.dd.ingestion.persistence.MongoIngestionStore;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk storeIngestions on the injected (single collection) store, and the time-bucketed layout on a
+ * store wired by hand with an hourly router.
+ */
+@QuarkusTest
+public class MongoIngestionStorePartitionedIT {
+
+    @Inject
+    MongoIngestionStore store;
+
+    @Inject
+    MongoClient mongoClient;
+
+    @BeforeEach
+    @AfterEach
+    void reset() {
+        MongoDatabase db = mongoClient.getDatabase(MongoIngestionStore.DB);
+        for (String name : db.listCollectionNames().into(new ArrayList<String>())) {
+            if (name.equals(IngestionBucketRouter.BASE) || name.startsWith(IngestionBucketRouter.PREFIX)) {
+                db.getCollection(name).drop();
+            }
+        }
+    }
+
+    @Test
+    void storeIngestions_bulk_insertsTouchesAndSharesInBatchDuplicates() {
+        IngestionReceipt pre = store.storeIngestion(payload("ING-A", "snap-a"));
+        assertTrue(pre.ok());
+        Date preAt = legacy().find(new Document("ingestionId", "ING-A")).first().getDate("createdAt");
+
+        List<IngestionReceipt> out = store.storeIngestions(List.of(
+                payload("ING-A", "snap-a"),
+                payload("ING-B", "snap-b"),
+                payload("ING-B", "snap-b"),
+                payload("ING-C", "snap-c"),
+                "{\"ingestionId\":\"ING-D\"}"
+        ));
+
+        assertEquals(5, out.size());
+        assertEquals("ING-A", out.get(0).ingestionId());
+        assertEquals("ING-B", out.get(1).ingestionId());
+        assertEquals("ING-B", out.get(2).ingestionId());
+        assertEquals("ING-C", out.get(3).ingestionId());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(out.get(i).ok(), "receipt " + i);
+        }
+        assertFalse(out.get(4).ok());
+        assertEquals("DD-ING-graphView_null", out.get(4).why().reason());
+
+        // one doc per id; the resend only moved createdAt
+        assertEquals(3L, legacy().countDocuments());
+        Date touchedAt = legacy().find(new Document("ingestionId", "ING-A")).first().getDate("createdAt");
+        assertFalse(touchedAt.before(preAt));
+    }
+
+    @Test
+    void partitioned_writesGoToTheCurrentBucket_andReadsStillSeeTheLegacyCollection() {
+        Instant legacyAt = Instant.now().minus(3, ChronoUnit.DAYS);
+        legacy().insertOne(doc("ING-OLD", "snap-old", legacyAt));
+
+        MongoIngestionStore partitioned = partitionedStore(0L);
+        IngestionReceipt r = partitioned.storeIngestion(payload("ING-NEW", "snap-new"));
+        assertTrue(r.ok());
+
+        String bucket = router(0L).bucketFor(Instant.now());
+        assertEquals(1L, mongoClient.getDatabase(MongoIngestionStore.DB).getCollection(bucket)
+                .countDocuments(new Document("ingestionId", "ING-NEW")));
+        assertEquals(0L, legacy().countDocuments(new Document("ingestionId", "ING-NEW")));
+
+        // lookups probe the legacy collection last
+        assertEquals("ING-OLD", partitioned.findEventsByIngestionId("ING-OLD").get("ingestionId").getAsString());
+        assertEquals("ING-OLD", partitioned.resolveIngestionId(null, "snap-old"));
+
+        // windows read it first: legacy docs predate every bucket
+        JsonArray window = partitioned.findEventsByTimeWindow(
+                legacyAt.minus(1, ChronoUnit.HOURS).toString(),
+                Instant.now().plus(1, ChronoUnit.HOURS).toString());
+        assertEquals(2, window.size());
+        assertEquals("ING-OLD", window.get(0).getAsJsonObject().get("ingestionId").getAsString());
+        assertEquals("ING-NEW", window.get(1).getAsJsonObject().get("ingestionId").getAsString());
+    }
+
+    @Test
+    void partitioned_resendOfALegacyId_movesItIntoTheCurrentBucket() {
+        legacy().insertOne(doc("ING-OLD", "snap-old", Instant.now().minus(3, ChronoUnit.DAYS)));
+
+        MongoIngestionStore partitioned = partitionedStore(0L);
+        List<IngestionReceipt> out = partitioned.storeIngestions(List.of(payload("ING-OLD", "snap-old")));
+        assertTrue(out.get(0).ok());
+        assertEquals("ING-OLD", out.get(0).ingestionId());
+
+        String bucket = router(0L).bucketFor(Instant.now());
+        assertEquals(0L, legacy().countDocuments());
+        assertEquals(1L, mongoClient.getDatabase(MongoIngestionStore.DB).getCollection(bucket)
+                .countDocuments(new Document("ingestionId", "ING-OLD")));
+    }
+
+    @Test
+    void partitioned_bucketRoll_dropsExpiredBucketsInTheBackground() throws Exception {
+        MongoDatabase db = mongoClient.getDatabase(MongoIngestionStore.DB);
+        Instant oldAt = Instant.now().minus(3, ChronoUnit.DAYS);
+        String expired = router(1L).bucketFor(oldAt);
+        db.getCollection(expired).insertOne(doc("ING-EXPIRED", "snap-expired", oldAt));
+
+        // first write is a roll: it must not wait for the drop
+        MongoIngestionStore partitioned = partitionedStore(1L);
+        IngestionReceipt r = partitioned.storeIngestion(payload("ING-NEW", "snap-new"));
+        assertTrue(r.ok());
+
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (bucketExists(expired) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50L);
+        }
+        assertFalse(bucketExists(expired));
+        assertTrue(bucketExists(router(1L).bucketFor(Instant.now())));
+        assertEquals(new JsonObject(), partitioned.findEventsByIngestionId("ING-EXPIRED"));
+    }
+
+    //-----------------------------------------------
+    private MongoCollection<Document> legacy() {
+        return mongoClient.getDatabase(MongoIngestionStore.DB).getCollection(MongoIngestionStore.COL);
+    }
+
+    private boolean bucketExists(String name) {
+        return mongoClient.getDatabase(MongoIngestionStore.DB)
+                .listCollectionNames().into(new ArrayList<String>()).contains(name);
+    }
+
+    // refresh 0: every read re-lists, so collections created or dropped by the test are seen at once
+    private static IngestionBucketRouter router(long retentionHours) {
+        return new IngestionBucketRouter(IngestionBucketRouter.Granularity.HOURLY, retentionHours, 2, 0L);
+    }
+
+    private MongoIngestionStore partitionedStore(long retentionHours) {
+        MongoIngestionStore s = new MongoIngestionStore();
+        set(s, "mongoClient", mongoClient);
+        set(s, "router", router(retentionHours));
+        return s;
+    }
+
+    private static String payload(String ingestionId, String snap) {
+        JsonObject view = new JsonObject();
+        view.addProperty(MongoIngestionStore.F_SNAPSHOT_HASH, snap);
+
+        JsonObject p = new JsonObject();
+        p.addProperty("ingestionId", ingestionId);
+        p.add("view", view);
+        return p.toString();
+    }
+
+    private static Document doc(String ingestionId, String snap, Instant createdAt) {
+        return new Document()
+                .append("ingestionId", ingestionId)
+                .append(MongoIngestionStore.F_SNAPSHOT_HASH, snap)
+                .append(MongoIngestionStore.F_PAYLOAD_HASH, "ph-" + ingestionId)
+                .append("payload", payload(ingestionId, snap))
+                .append("createdAt", Date.from(createdAt));
+    }
+
+    private static void set(Object target, String fieldName, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(fieldName);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed setting field '" + fieldName + "': " + String.valueOf(e), e);
+        }
+    }
+}
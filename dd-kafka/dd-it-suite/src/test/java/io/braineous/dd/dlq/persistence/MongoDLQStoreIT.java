@@ -11,8 +11,14 @@ public class MongoDLQStoreIT {
     @jakarta.inject.Inject
     DLQStore store;
 
+    @jakarta.inject.Inject
+    io.braineous.dd.quarkus.core.index.MongoIndexManager indexManager;
+
     @org.junit.jupiter.api.BeforeEach
     void setup() {
+        // the collections are dropped between tests: let each first write re-run the index fallback
+        System.setProperty(MongoDLQStore.P_INDEX_RECHECK_MS, "0");
+
         var db = mongo.getDatabase("dd");
 
         db.getCollection("dlq_system").drop();
@@ -26,6 +32,8 @@ public class MongoDLQStoreIT {
 
         db.getCollection("dlq_system").drop();
         db.getCollection("dlq_domain").drop();
+
+        System.clearProperty(MongoDLQStore.P_INDEX_RECHECK_MS);
     }
 
 
@@ -71,6 +79,56 @@ public class MongoDLQStoreIT {
         Assertions.assertEquals(payload, doc.getString("payload"));
     }
 
+    @org.junit.jupiter.api.Test
+    void storeSystemFailures_insertsBatch_skipsBlank() {
+        String a = "it-" + java.util.UUID.randomUUID();
+        String b = "it-" + java.util.UUID.randomUUID();
+
+        store.storeSystemFailures(java.util.Arrays.asList(a, "  ", null, b));
+
+        var col = mongo.getDatabase("dd").getCollection("dlq_system");
+        Assertions.assertEquals(2L, col.countDocuments());
+
+        var doc = col.find(com.mongodb.client.model.Filters.eq("payload", b)).first();
+        Assertions.assertNotNull(doc);
+        Assertions.assertNotNull(doc.getString("dlqId"));
+        Assertions.assertEquals("system", doc.getString("kind"));
+        Assertions.assertNotNull(doc.getDate("createdAt"));
+        Assertions.assertNotNull(doc.getString("payloadSha256"));
+    }
+
+    @org.junit.jupiter.api.Test
+    void writeSystemFailures_streamsSameJsonAsFind() throws Exception {
+        String a = "it-" + java.util.UUID.randomUUID();
+        // escaping must match too: quotes, backslash, control chars, non-ASCII, html-ish
+        String b = "it-\"q\" \\ \n\t\u0001 <a&b='c'> \u00e9\u2028 " + java.util.UUID.randomUUID();
+        store.storeSystemFailures(java.util.Arrays.asList(a, b));
+
+        String from = java.time.Instant.now().minusSeconds(60).toString();
+        String to = java.time.Instant.now().plusSeconds(60).toString();
+
+        java.io.StringWriter w = new java.io.StringWriter();
+        store.writeSystemFailuresByTimeWindow(from, to, w);
+
+        // byte for byte, not just the same tree
+        Assertions.assertEquals(
+                store.findSystemFailureByTimeWindow(from, to).toString(),
+                w.toString());
+
+        String dlqId = store.findSystemFailureByTimeWindow(from, to)
+                .get(0).getAsJsonObject().get("dlqId").getAsString();
+
+        java.io.StringWriter one = new java.io.StringWriter();
+        store.writeSystemFailureById(dlqId, one);
+        Assertions.assertEquals(
+                store.findSystemFailureById(dlqId).toString(),
+                one.toString());
+
+        java.io.StringWriter none = new java.io.StringWriter();
+        store.writeSystemFailuresByTimeWindow("bad", to, none);
+        Assertions.assertEquals("[]", none.toString());
+    }
+
     @org.junit.jupiter.api.Test
     void indexes_areCreated_onFirstWrite_forBothCollections() {
         // act (first write triggers ensureIndexes)
@@ -146,6 +204,31 @@ public class MongoDLQStoreIT {
         );
     }
 
+    @org.junit.jupiter.api.Test
+    void indexes_areRebuilt_afterCollectionDrop() {
+        store.storeSystemFailure("it-" + java.util.UUID.randomUUID());
+        mongo.getDatabase("dd").getCollection("dlq_system").drop();
+
+        // act: the next write (recheck interval 0 in setup) rebuilds the dropped collection's indexes
+        store.storeSystemFailure("it-" + java.util.UUID.randomUUID());
+
+        assertDlqIndexes("dlq_system");
+    }
+
+    @org.junit.jupiter.api.Test
+    void indexes_areCreated_byIndexManagerBootstrap_forBothCollections() {
+        // collections exist but were never written through the store
+        var db = mongo.getDatabase("dd");
+        db.getCollection("dlq_system").insertOne(new org.bson.Document("seed", 1));
+        db.getCollection("dlq_domain").insertOne(new org.bson.Document("seed", 1));
+
+        // act
+        indexManager.bootstrap();
+
+        assertDlqIndexes("dlq_system");
+        assertDlqIndexes("dlq_domain");
+    }
+
     @org.junit.jupiter.api.Test
     void blankOrNullPayload_isIgnored_noInsert() {
         var db = mongo.getDatabase("dd");
@@ -164,6 +247,35 @@ public class MongoDLQStoreIT {
         org.junit.jupiter.api.Assertions.assertEquals(0L, domCount);
     }
 
+    //------------------------------------------------------------------------------------------------
+    private void assertDlqIndexes(String name) {
+        var indexes = mongo.getDatabase("dd").getCollection(name)
+                .listIndexes().into(new java.util.ArrayList<>());
 
-}
+        Assertions.assertTrue(
+                indexes.stream().anyMatch(d -> {
+                    var key = (org.bson.Document) d.get("key");
+                    var partial = (org.bson.Document) d.get("partialFilterExpression");
+                    return key != null
+                            && Integer.valueOf(1).equals(key.getInteger("dlqId"))
+                            && d.getBoolean("unique", false)
+                            && partial != null
+                            && partial.containsKey("dlqId");
+                }),
+                "Expected unique partial index on dlqId for " + name);
+
+        Assertions.assertTrue(
+                indexes.stream().anyMatch(d -> {
+                    var key = (org.bson.Document) d.get("key");
+                    return key != null && Integer.valueOf(-1).equals(key.getInteger("createdAt"));
+                }),
+                "Expected index on createdAt desc for " + name);
 
+        Assertions.assertTrue(
+                indexes.stream().anyMatch(d -> {
+                    var key = (org.bson.Document) d.get("key");
+                    return key != null && Integer.valueOf(1).equals(key.getInteger("payloadSha256"));
+                }),
+                "Expected index on payloadSha256 for " + name);
+    }
+}
@@ -84,6 +84,132 @@ public class MongoReplayStoreIT {
         assertNotNull(out.get(0).timestamp());
     }
 
+    @Test
+    void streamByTimeWindow_sameOrderAsFind_withoutMaterializing() {
+
+        MongoCollection<Document> col =
+                mongoClient.getDatabase(MongoReplayStore.DB)
+                        .getCollection(MongoReplayStore.INGESTION_COL);
+
+        Instant t1 = Instant.parse("2026-01-15T17:00:01Z");
+        Instant t2 = Instant.parse("2026-01-15T17:00:02Z");
+
+        col.insertOne(new Document().append("ingestionId", "ID-1").append("payload", "P1").append("createdAt", Date.from(t2)));
+        col.insertOne(new Document().append("ingestionId", "ID-0").append("payload", "P0").append("createdAt", Date.from(t1)));
+        col.insertOne(new Document().append("ingestionId", "ID-0b").append("payload", "P0b").append("createdAt", Date.from(t1)));
+
+        ReplayRequest req = new ReplayRequest();
+        set(req, "fromTime", "2026-01-15T17:00:00Z");
+        set(req, "toTime", "2026-01-15T17:00:10Z");
+
+        java.util.List<String> streamed = new java.util.ArrayList<String>();
+        int matched = store.streamByTimeWindow(req, e -> streamed.add(e.payload()));
+
+        java.util.List<String> listed = new java.util.ArrayList<String>();
+        for (ReplayEvent e : store.findByTimeWindow(req)) {
+            listed.add(e.payload());
+        }
+
+        assertEquals(3, matched);
+        assertEquals(listed, streamed);
+        assertEquals("P1", streamed.get(2));
+
+        set(req, "fromTime", "not-an-instant");
+        assertEquals(0, store.streamByTimeWindow(req, e -> fail("no events expected")));
+    }
+
+    @Test
+    void streamByTimeWindow_reopensAfterCursorNotFound_withoutLossOrDuplicates() {
+
+        MongoCollection<Document> col =
+                mongoClient.getDatabase(MongoReplayStore.DB)
+                        .getCollection(MongoReplayStore.INGESTION_COL);
+
+        // more than one cursor batch (500), so the stream needs getMore after the first one
+        Instant t0 = Instant.parse("2026-01-15T17:00:00Z");
+        java.util.List<Document> docs = new java.util.ArrayList<Document>();
+        for (int i = 0; i < 1_200; i++) {
+            docs.add(new Document().append("ingestionId", "ID-" + i).append("payload", "P" + i)
+                    .append("createdAt", Date.from(t0.plusMillis(i / 3))));
+        }
+        col.insertMany(docs);
+
+        ReplayRequest req = new ReplayRequest();
+        set(req, "fromTime", "2026-01-15T16:00:00Z");
+        set(req, "toTime", "2026-01-15T18:00:00Z");
+
+        java.util.List<String> expected = new java.util.ArrayList<String>();
+        for (ReplayEvent e : store.findByTimeWindow(req)) {
+            expected.add(e.payload());
+        }
+
+        // the server drops the open cursor while the sink holds an event (a paced replay outliving it)
+        int[] killed = new int[]{0};
+        java.util.List<String> streamed = new java.util.ArrayList<String>();
+        int matched = store.streamByTimeWindow(req, e -> {
+            streamed.add(e.payload());
+            if (streamed.size() == 10 || streamed.size() == 700) {
+                killed[0] += killIdleCursors(MongoReplayStore.INGESTION_COL);
+            }
+        });
+
+        assertEquals(2, killed[0]);
+        assertEquals(1_200, matched);
+        assertEquals(expected, streamed);
+    }
+
+    @Test
+    void streamByIngestionIds_mergesChunks_inGlobalOrder_evenAfterCursorNotFound() {
+
+        MongoCollection<Document> col =
+                mongoClient.getDatabase(MongoReplayStore.DB)
+                        .getCollection(MongoReplayStore.INGESTION_COL);
+
+        // 1,200 ids = three $in chunks of 500/500/200, with createdAt scattered across the chunks
+        Instant t0 = Instant.parse("2026-01-15T17:00:00Z");
+        java.util.List<Document> docs = new java.util.ArrayList<Document>();
+        java.util.List<String> ids = new java.util.ArrayList<String>();
+        for (int i = 0; i < 1_200; i++) {
+            docs.add(new Document().append("ingestionId", "ID-" + i).append("payload", "P" + i)
+                    .append("createdAt", Date.from(t0.plusMillis((i * 7L) % 400L))));
+            ids.add("ID-" + i);
+        }
+        col.insertMany(docs);
+
+        // duplicates, blanks and unknown ids are dropped by the chunking, not replayed twice
+        ids.add(" ID-3 ");
+        ids.add("   ");
+        ids.add(null);
+        ids.add("ID-missing");
+
+        ReplayRequest req = new ReplayRequest();
+        set(req, "fromTime", "2026-01-15T16:00:00Z");
+        set(req, "toTime", "2026-01-15T18:00:00Z");
+
+        java.util.List<String> expected = new java.util.ArrayList<String>();
+        for (ReplayEvent e : store.findByTimeWindow(req)) {
+            expected.add(e.payload());
+        }
+
+        java.util.List<String> merged = new java.util.ArrayList<String>();
+        assertEquals(1_200, store.streamByIngestionIds(ids, e -> merged.add(e.payload())));
+        assertEquals(expected, merged);
+
+        // the server drops the chunk cursors mid-merge: each one reopens after what it handed over
+        int[] killed = new int[]{0};
+        java.util.List<String> resumed = new java.util.ArrayList<String>();
+        int matched = store.streamByIngestionIds(ids, e -> {
+            resumed.add(e.payload());
+            if (resumed.size() == 10 || resumed.size() == 600) {
+                killed[0] += killIdleCursors(MongoReplayStore.INGESTION_COL);
+            }
+        });
+
+        assertTrue(killed[0] >= 2, "killed=" + killed[0]);
+        assertEquals(1_200, matched);
+        assertEquals(expected, resumed);
+    }
+
     @Test
     void findByTimeWindow_fromNotBeforeTo_returnsEmpty() {
 
@@ -199,6 +325,25 @@ public class MongoReplayStoreIT {
     }
 
     // ---------------------------------------------------------------------------------
+    // kills the server-side cursors currently open on db.collection; returns how many
+    private int killIdleCursors(String collection) {
+        java.util.List<Document> open = mongoClient.getDatabase("admin").aggregate(java.util.List.of(
+                new Document("$currentOp", new Document("idleCursors", true)),
+                new Document("$match", new Document("type", "idleCursor")
+                        .append("ns", MongoReplayStore.DB + "." + collection))
+        )).into(new java.util.ArrayList<Document>());
+
+        java.util.List<Long> ids = new java.util.ArrayList<Long>();
+        for (Document op : open) {
+            ids.add(((Document) op.get("cursor")).getLong("cursorId"));
+        }
+        if (!ids.isEmpty()) {
+            mongoClient.getDatabase(MongoReplayStore.DB)
+                    .runCommand(new Document("killCursors", collection).append("cursors", ids));
+        }
+        return ids.size();
+    }
+
     private static void set(Object target, String fieldName, Object value) {
         if (target == null) {
             throw new IllegalArgumentException("target cannot be null");
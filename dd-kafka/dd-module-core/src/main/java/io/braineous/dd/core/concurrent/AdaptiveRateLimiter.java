@@ -0,0 +1,69 @@
+package io.braineous.dd.core.concurrent;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Non-blocking token bucket whose rate adapts AIMD-style to downstream health:
+ * each success adds maxRate/50 permits/s (up to maxRate), each failure halves it (down to minRate).
+ *
+ * Burst capacity is one second's worth at the current rate.
+ */
+public class AdaptiveRateLimiter {
+
+    private final double minRate;
+    private final double maxRate;
+    private final double step;
+    private final LongSupplier nanoClock;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+
+    public AdaptiveRateLimiter(double minRate, double maxRate) {
+        this(minRate, maxRate, System::nanoTime);
+    }
+
+    public AdaptiveRateLimiter(double minRate, double maxRate, LongSupplier nanoClock) {
+        this.minRate = Math.max(0.001d, minRate);
+        this.maxRate = Math.max(this.minRate, maxRate);
+        this.step = this.maxRate / 50.0d;
+        this.nanoClock = nanoClock;
+
+        this.rate = this.maxRate;
+        this.tokens = this.maxRate;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1.0d) {
+            return false;
+        }
+        tokens -= 1.0d;
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + step);
+    }
+
+    public synchronized void onFailure() {
+        rate = Math.max(minRate, rate / 2.0d);
+        tokens = Math.min(tokens, rate);
+    }
+
+    public synchronized double rate() {
+        return rate;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - lastRefill;
+        if (elapsed <= 0L) {
+            return;
+        }
+        lastRefill = now;
+        tokens = Math.min(rate, tokens + (elapsed / 1_000_000_000.0d) * rate);
+    }
+}
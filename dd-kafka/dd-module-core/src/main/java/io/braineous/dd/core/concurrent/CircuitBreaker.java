@@ -0,0 +1,113 @@
+package io.braineous.dd.core.concurrent;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker.
+ *
+ * CLOSED: every call allowed; failureThreshold failures in a row open it.
+ * OPEN: nothing allowed until openMs has elapsed, then HALF_OPEN.
+ * HALF_OPEN: up to halfOpenProbes calls in flight; that many successes close it, any failure re-opens.
+ *
+ * Callers pair every {@link #tryAcquire()} == true with exactly one onSuccess/onFailure.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final int halfOpenProbes;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    // -------- metrics --------
+    private long opened;
+    private long rejected;
+
+    public CircuitBreaker(int failureThreshold, long openMs, int halfOpenProbes) {
+        this(failureThreshold, openMs, halfOpenProbes, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openMs, int halfOpenProbes, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = Math.max(0L, openMs);
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+        this.clock = clock;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openMs) {
+                rejected++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                rejected++;
+                return false;
+            }
+            probesInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            probeSuccesses++;
+            if (probeSuccesses >= halfOpenProbes) {
+                state = State.CLOSED;
+                consecutiveFailures = 0;
+            }
+            return;
+        }
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    public synchronized State state() {
+        // report the lazy OPEN -> HALF_OPEN transition without consuming a probe
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized long openedCount() {
+        return opened;
+    }
+
+    public synchronized long rejectedCount() {
+        return rejected;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.getAsLong();
+        consecutiveFailures = 0;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        opened++;
+    }
+}
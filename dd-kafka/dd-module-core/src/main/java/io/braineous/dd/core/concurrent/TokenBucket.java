@@ -0,0 +1,74 @@
+package io.braineous.dd.core.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Blocking token bucket at a fixed rate (permits/s). acquire(n) always takes its n permits and, when
+ * that overdraws the bucket, sleeps until the debt is paid back. Requests larger than the burst are
+ * allowed (they just wait longer), so one oversized item cannot stall a caller forever.
+ *
+ * Burst capacity is one second's worth.
+ */
+public class TokenBucket {
+
+    public interface Sleeper {
+        void sleepNanos(long nanos) throws InterruptedException;
+    }
+
+    private final double rate;
+    private final LongSupplier nanoClock;
+    private final Sleeper sleeper;
+
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double ratePerSecond) {
+        this(ratePerSecond, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    public TokenBucket(double ratePerSecond, LongSupplier nanoClock, Sleeper sleeper) {
+        this.rate = Math.max(0.001d, ratePerSecond);
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+
+        this.tokens = this.rate;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * @return nanos slept (0 when the permits were available)
+     */
+    public long acquire(double permits) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= Math.max(0.0d, permits);
+            waitNanos = (tokens >= 0.0d) ? 0L : (long) Math.ceil((-tokens / rate) * 1_000_000_000.0d);
+        }
+        if (waitNanos > 0L) {
+            sleeper.sleepNanos(waitNanos);
+        }
+        return waitNanos;
+    }
+
+    public double rate() {
+        return rate;
+    }
+
+    public synchronized double available() {
+        refill();
+        return tokens;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        long elapsed = now - lastRefill;
+        if (elapsed <= 0L) {
+            return;
+        }
+        lastRefill = now;
+        tokens = Math.min(rate, tokens + (elapsed / 1_000_000_000.0d) * rate);
+    }
+}
@@ -0,0 +1,23 @@
+package io.braineous.dd.core.config;
+
+/**
+ * Typed reads of the dd.* system-property knobs. A missing, blank or unparsable value falls back to
+ * the default, so a bad setting never fails startup.
+ */
+public final class DDProps {
+
+    private DDProps() {
+    }
+
+    public static long longProp(String name, long def) {
+        try {
+            String v = System.getProperty(name);
+            if (v == null || v.trim().isEmpty()) {
+                return def;
+            }
+            return Long.parseLong(v.trim());
+        } catch (Exception ignored) {
+            return def;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.braineous.dd.core.identity;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * The identities DD derives from a payload's UTF-8 bytes:
+ *
+ *   sha256Hex  payload hash (ingestion receipts, DLQ payloadSha256)
+ *   factId     name-based UUID v3, identical to UUID.nameUUIDFromBytes
+ *   xxHash64   non-cryptographic; lane sharding and in-memory structures only
+ *
+ * Digests are per-thread and reused; hex is table-based. These are the single implementation the
+ * stores, receipts, fact extraction and lanes delegate to.
+ */
+public final class PayloadIdentity {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> digest("SHA-256"));
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> digest("MD5"));
+
+    private static final VarHandle LONG_LE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_BE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_LE =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    private PayloadIdentity() {
+    }
+
+    //-----helpers----------------------------------------------------
+    public static String sha256Hex(String s) {
+        return hex(sha256(s.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static String sha256Hex(byte[] bytes) {
+        return hex(sha256(bytes));
+    }
+
+    public static byte[] sha256(byte[] bytes) {
+        // digest() resets, so the per-thread instance is clean for the next call
+        return SHA256.get().digest(bytes);
+    }
+
+    /**
+     * Name-based UUID (v3, MD5) of the bytes; same value as UUID.nameUUIDFromBytes.
+     */
+    public static String factId(byte[] bytes) {
+        byte[] md5 = MD5.get().digest(bytes);
+        md5[6] &= 0x0f;
+        md5[6] |= 0x30;
+        md5[8] &= 0x3f;
+        md5[8] |= (byte) 0x80;
+
+        long msb = (long) LONG_BE.get(md5, 0);
+        long lsb = (long) LONG_BE.get(md5, 8);
+        return new UUID(msb, lsb).toString();
+    }
+
+    public static String hex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xff;
+            out[j++] = HEX[v >>> 4];
+            out[j++] = HEX[v & 0x0f];
+        }
+        return new String(out);
+    }
+
+    public static long xxHash64(String s) {
+        return xxHash64(s.getBytes(StandardCharsets.UTF_8), 0L);
+    }
+
+    /**
+     * XXH64 (reference algorithm, little-endian lanes).
+     */
+    public static long xxHash64(byte[] b, long seed) {
+        int len = b.length;
+        int i = 0;
+        long h;
+
+        if (len >= 32) {
+            long v1 = seed + P1 + P2;
+            long v2 = seed + P2;
+            long v3 = seed;
+            long v4 = seed - P1;
+
+            int limit = len - 32;
+            do {
+                v1 = round(v1, (long) LONG_LE.get(b, i));
+                v2 = round(v2, (long) LONG_LE.get(b, i + 8));
+                v3 = round(v3, (long) LONG_LE.get(b, i + 16));
+                v4 = round(v4, (long) LONG_LE.get(b, i + 24));
+                i += 32;
+            } while (i <= limit);
+
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                    + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = seed + P5;
+        }
+
+        h += len;
+
+        while (i + 8 <= len) {
+            h ^= round(0L, (long) LONG_LE.get(b, i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+            i += 8;
+        }
+        if (i + 4 <= len) {
+            h ^= ((int) INT_LE.get(b, i) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += 4;
+        }
+        while (i < len) {
+            h ^= (b[i] & 0xFFL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+            i++;
+        }
+
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long merge(long acc, long val) {
+        acc ^= round(0L, val);
+        return acc * P1 + P4;
+    }
+
+    private static MessageDigest digest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + "_unavailable", e);
+        }
+    }
+}
@@ -2,12 +2,12 @@ package io.braineous.dd.core.model;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import io.braineous.dd.core.identity.PayloadIdentity;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import java.util.Base64;
-import java.util.UUID;
 
 public class DDEvent {
 
@@ -135,11 +135,8 @@ public class DDEvent {
             // 1. Decode payload bytes
             byte[] payloadBytes = Base64.getDecoder().decode(this.value);
 
-            // 2. Derive deterministic UUID from bytes
-            UUID factUuid = UUID.nameUUIDFromBytes(payloadBytes);
-
-            // 3. Return canonical FactId
-            return factUuid.toString();
+            // 2. Derive deterministic UUID from bytes (canonical FactId, same as UUID.nameUUIDFromBytes)
+            return PayloadIdentity.factId(payloadBytes);
         }
 
     }
@@ -0,0 +1,204 @@
+package io.braineous.dd.dlq.service;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonObject;
+import io.braineous.dd.core.config.DDProps;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fire-and-forget front for {@link DLQOrchestrator} on the request/consumer paths.
+ *
+ * With dd.dlq.async.enabled=true, failures are put on a bounded queue (many producers, one sender
+ * thread) and the caller returns immediately; when the queue is full the caller dispatches inline
+ * (back-pressure, counted as overflowInline) so no record is dropped.
+ * Disabled (default), calls go straight through to the orchestrator, exactly as before.
+ * On shutdown the queue stops accepting and is drained for up to dd.dlq.async.shutdown.timeout.ms;
+ * a caller that enqueued just as shutdown began drains what is left itself, and no sender is
+ * started once shutdown has begun.
+ */
+@ApplicationScoped
+public class DLQDispatcher {
+
+    public static final String P_ENABLED          = "dd.dlq.async.enabled";
+    public static final String P_CAPACITY         = "dd.dlq.async.queue.capacity";
+    public static final String P_SHUTDOWN_TIMEOUT = "dd.dlq.async.shutdown.timeout.ms";
+
+    @Inject
+    DLQOrchestrator orchestrator;
+
+    private final int capacity;
+    private final long shutdownTimeoutMs;
+
+    private volatile BlockingQueue<Task> queue;
+    private volatile Thread sender;
+    private volatile boolean accepting = true;
+
+    // -------- metrics --------
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong overflowInline = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public DLQDispatcher() {
+        this((int) DDProps.longProp(P_CAPACITY, 10_000L), DDProps.longProp(P_SHUTDOWN_TIMEOUT, 5_000L));
+    }
+
+    public DLQDispatcher(DLQOrchestrator orchestrator, int capacity, long shutdownTimeoutMs) {
+        this(capacity, shutdownTimeoutMs);
+        this.orchestrator = orchestrator;
+    }
+
+    private DLQDispatcher(int capacity, long shutdownTimeoutMs) {
+        this.capacity = Math.max(1, capacity);
+        this.shutdownTimeoutMs = Math.max(0L, shutdownTimeoutMs);
+    }
+
+    public static boolean enabled() {
+        return "true".equalsIgnoreCase(System.getProperty(P_ENABLED, "false"));
+    }
+
+    public void domainFailure(Exception exception, String ingestionStr) {
+        submit(true, exception, ingestionStr);
+    }
+
+    public void systemFailure(Exception exception, String ingestionStr) {
+        submit(false, exception, ingestionStr);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread t;
+        synchronized (this) {
+            accepting = false;
+            t = sender;
+        }
+        if (t == null) {
+            return;
+        }
+        try {
+            t.join(shutdownTimeoutMs);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        if (t.isAlive()) {
+            t.interrupt();
+            Console.log("dlq_dispatch_shutdown_undrained", depth());
+        }
+    }
+
+    public int depth() {
+        BlockingQueue<Task> q = queue;
+        return (q == null) ? 0 : q.size();
+    }
+
+    public JsonObject stats() {
+        JsonObject out = new JsonObject();
+        out.addProperty("enabled", enabled());
+        out.addProperty("capacity", capacity);
+        out.addProperty("depth", depth());
+        out.addProperty("enqueued", enqueued.get());
+        out.addProperty("overflowInline", overflowInline.get());
+        out.addProperty("dispatched", dispatched.get());
+        out.addProperty("failed", failed.get());
+        return out;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private void submit(boolean domain, Exception exception, String ingestionStr) {
+        Task task = new Task(domain, exception, ingestionStr);
+
+        BlockingQueue<Task> q = enabled() ? queue() : null;
+        if (q == null) {
+            // inline: also the path once shutdown has begun, so late failures are not lost
+            dispatch(task);
+            return;
+        }
+
+        if (!q.offer(task)) {
+            // full: slow this caller down rather than lose the record
+            long n = overflowInline.incrementAndGet();
+            if (n == 1L || n % 100L == 0L) {
+                Console.log("dlq_dispatch_queue_full", "inline=" + n);
+            }
+            dispatch(task);
+            return;
+        }
+        enqueued.incrementAndGet();
+
+        if (!accepting) {
+            // shutdown began after queue(): the sender may already have seen an empty queue and exited
+            Task left;
+            while ((left = q.poll()) != null) {
+                dispatch(left);
+            }
+        }
+    }
+
+    private void dispatch(Task task) {
+        try {
+            if (task.domain) {
+                orchestrator.orchestrateDomainFailure(task.exception, task.ingestionStr);
+            } else {
+                orchestrator.orchestrateSystemFailure(task.exception, task.ingestionStr);
+            }
+            dispatched.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            Console.log("dlq_dispatch_failed", String.valueOf(e));
+        }
+    }
+
+    // null once shutdown has begun
+    private BlockingQueue<Task> queue() {
+        BlockingQueue<Task> q = queue;
+        if (q != null && accepting) {
+            return q;
+        }
+        synchronized (this) {
+            if (!accepting) {
+                return null;
+            }
+            if (queue == null) {
+                queue = new ArrayBlockingQueue<Task>(capacity);
+                Thread t = new Thread(this::runSender, "dd-dlq-dispatch");
+                t.setDaemon(true);
+                sender = t;
+                t.start();
+            }
+            return queue;
+        }
+    }
+
+    private void runSender() {
+        BlockingQueue<Task> q = queue;
+        try {
+            while (accepting || !q.isEmpty()) {
+                Task task = q.poll(100L, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    dispatch(task);
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Task {
+        private final boolean domain;
+        private final Exception exception;
+        private final String ingestionStr;
+
+        private Task(boolean domain, Exception exception, String ingestionStr) {
+            this.domain = domain;
+            this.exception = exception;
+            this.ingestionStr = ingestionStr;
+        }
+    }
+}
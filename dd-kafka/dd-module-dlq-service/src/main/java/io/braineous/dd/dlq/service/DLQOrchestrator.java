@@ -6,13 +6,20 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import io.braineous.dd.core.model.CaptureStore;
+import io.braineous.dd.core.model.Why;
 import io.braineous.dd.core.processor.GsonJsonSerializer;
 import io.braineous.dd.core.processor.HttpPoster;
 import io.braineous.dd.core.processor.JsonSerializer;
+import io.braineous.dd.dlq.DlqProcessor;
 import io.braineous.dd.dlq.model.DLQResult;
+import io.braineous.dd.dlq.service.client.DLQBatchSender;
 import io.braineous.dd.dlq.service.client.DLQClient;
+import io.braineous.dd.dlq.service.client.DLQGuard;
 import io.braineous.dd.dlq.service.client.DLQHttpPoster;
+import io.braineous.dd.dlq.service.client.DLQInProcessPoster;
+import io.braineous.dd.dlq.service.journal.DLQJournalSpooler;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
 
 @ApplicationScoped
@@ -21,9 +28,30 @@ public class DLQOrchestrator {
     private static final String SYSTEM_ENDPOINT = "/system_failure";
 
 
+    // dd.dlq.transport: auto (default) | http | inprocess
+    public static final String P_TRANSPORT = "dd.dlq.transport";
+
     private HttpPoster httpPoster = new DLQHttpPoster();
     private final JsonSerializer serializer = new GsonJsonSerializer();
 
+    // present when dd-module-dlq's DlqProcessor is a bean in this JVM
+    @Inject
+    Instance<DlqProcessor> dlqProcessor;
+
+    // setHttpPoster() always wins over transport selection
+    private volatile boolean explicitPoster;
+    private volatile HttpPoster transport;
+
+    // only created when dd.dlq.batch.enabled=true
+    private volatile DLQBatchSender batchSender;
+
+    // only created when dd.dlq.breaker.enabled=true
+    private volatile DLQGuard guard;
+
+    // only opened when dd.dlq.journal.enabled=true (null if the directory could not be opened)
+    private volatile DLQJournalSpooler journal;
+    private volatile boolean journalOpened;
+
 
     public DLQOrchestrator() {
     }
@@ -31,6 +59,38 @@ public class DLQOrchestrator {
 
     public void setHttpPoster(HttpPoster httpPoster) {
         this.httpPoster = httpPoster;
+        this.explicitPoster = true;
+    }
+
+    @jakarta.annotation.PreDestroy
+    void shutdown() {
+        DLQBatchSender b = batchSender;
+        if (b != null) {
+            b.close();
+        }
+        DLQGuard g = guard;
+        if (g != null) {
+            g.close();
+        }
+        DLQJournalSpooler j = journal;
+        if (j != null) {
+            j.close();
+        }
+    }
+
+    public JsonObject batchStats() {
+        DLQBatchSender b = batchSender;
+        return (b == null) ? new JsonObject() : b.stats();
+    }
+
+    public JsonObject guardStats() {
+        DLQGuard g = guard;
+        return (g == null) ? new JsonObject() : g.stats();
+    }
+
+    public JsonObject journalStats() {
+        DLQJournalSpooler j = journal;
+        return (j == null) ? new JsonObject() : j.stats();
     }
 
     //-------------------------------------------------------------------------
@@ -90,8 +150,7 @@ public class DLQOrchestrator {
         CaptureStore store = CaptureStore.getInstance();
         String endpoint = DOMAIN_ENDPOINT;
 
-        DLQResult result = DLQClient.getInstance()
-                .invoke(httpPoster, serializer, endpoint, ddEventJson, ddEventJson);
+        DLQResult result = send(endpoint, ddEventJson);
 
         //for IT Test
         store.addDomainFailure(ddEventJson.toString());
@@ -157,8 +216,7 @@ public class DLQOrchestrator {
         CaptureStore store = CaptureStore.getInstance();
         String endpoint = SYSTEM_ENDPOINT;
 
-        DLQResult result = DLQClient.getInstance()
-                .invoke(httpPoster, serializer, endpoint, ddEventJson, ddEventJson);
+        DLQResult result = send(endpoint, ddEventJson);
 
         //for IT Test
         store.addSystemFailure(ddEventJson.toString());
@@ -166,4 +224,152 @@ public class DLQOrchestrator {
 
         return result;
     }
+
+    //----------------------------------------------------------------------------------------------
+    private DLQResult send(String endpoint, JsonObject ddEventJson) {
+        if (!DLQBatchSender.enabled()) {
+            if (DLQGuard.enabled()) {
+                return guarded(endpoint, ddEventJson);
+            }
+            DLQResult result = DLQClient.getInstance()
+                    .invoke(poster(), serializer, endpoint, ddEventJson, ddEventJson);
+            if (result != null && !result.isOk() && DLQJournalSpooler.enabled()) {
+                spill(null, endpoint, ddEventJson, "call_failed");
+            }
+            return result;
+        }
+
+        // batched: hand off and return; the sender ships it with its neighbours
+        long t0 = System.nanoTime();
+        boolean queued = batchSender().offer(endpoint, serializer.toJson(ddEventJson));
+        long durationMs = (System.nanoTime() - t0) / 1_000_000L;
+
+        String batchEndpoint = endpoint + DLQBatchSender.BATCH_SUFFIX;
+        if (queued) {
+            return DLQResult.ok(ddEventJson, batchEndpoint, 202, durationMs);
+        }
+        spill(endpoint, serializer.toJson(ddEventJson), "batch_full");
+        return DLQResult.fail(ddEventJson, batchEndpoint, null, durationMs,
+                new Why("DD-DLQ-batch_full", "dlq batch buffer full; record spilled"));
+    }
+
+    // batch path: the caller already has its 202, so a record that does not ship goes where the
+    // sync path's failures go
+    private void spill(String endpoint, String body, String reason) {
+        spill(DLQGuard.enabled() ? guard() : null, endpoint, body, reason);
+    }
+
+    // sync path only: the batch path never blocks the caller, failed batches spill below
+    private DLQResult guarded(String endpoint, JsonObject ddEventJson) {
+        DLQGuard g = guard();
+
+        String rejectedBy = g.admit();
+        if (rejectedBy != null) {
+            spill(g, endpoint, ddEventJson, rejectedBy);
+            return DLQResult.fail(ddEventJson, endpoint, null, 0L,
+                    new Why(rejectedBy, "dlq emission deferred; record spilled"));
+        }
+
+        DLQResult result = DLQClient.getInstance()
+                .invoke(poster(), serializer, endpoint, ddEventJson, ddEventJson);
+
+        boolean ok = result != null && result.isOk();
+        g.record(ok, result == null ? null : result.getDurationMs());
+        if (!ok) {
+            spill(g, endpoint, ddEventJson, "call_failed");
+        }
+        return result;
+    }
+
+    // durable journal first (when enabled); the guard's in-memory spill is the fallback
+    private void spill(DLQGuard g, String endpoint, JsonObject ddEventJson, String reason) {
+        spill(g, endpoint, serializer.toJson(ddEventJson), reason);
+    }
+
+    private void spill(DLQGuard g, String endpoint, String body, String reason) {
+        DLQJournalSpooler j = DLQJournalSpooler.enabled() ? journal() : null;
+        if (j != null && j.spool(endpoint, body)) {
+            return;
+        }
+        if (g != null) {
+            g.spill(endpoint, body, reason);
+            return;
+        }
+        Console.log("dlq_record_lost", reason + " " + endpoint);
+    }
+
+    private DLQJournalSpooler journal() {
+        if (journalOpened) {
+            return journal;
+        }
+        synchronized (this) {
+            if (!journalOpened) {
+                journal = DLQJournalSpooler.fromProperties(this::poster);
+                journalOpened = true;
+            }
+            return journal;
+        }
+    }
+
+    private DLQGuard guard() {
+        DLQGuard g = guard;
+        if (g != null) {
+            return g;
+        }
+        synchronized (this) {
+            if (guard == null) {
+                guard = new DLQGuard(this::poster);
+            }
+            return guard;
+        }
+    }
+
+    private DLQBatchSender batchSender() {
+        DLQBatchSender b = batchSender;
+        if (b != null) {
+            return b;
+        }
+        synchronized (this) {
+            if (batchSender == null) {
+                batchSender = new DLQBatchSender(this::poster,
+                        (endpoint, body) -> spill(endpoint, body, "batch_failed"));
+            }
+            return batchSender;
+        }
+    }
+
+    HttpPoster poster() {
+        if (explicitPoster) {
+            return httpPoster;
+        }
+
+        HttpPoster t = transport;
+        if (t == null) {
+            t = selectTransport();
+            transport = t;
+        }
+        return t;
+    }
+
+    private HttpPoster selectTransport() {
+        String mode = System.getProperty(P_TRANSPORT, "auto").trim().toLowerCase();
+
+        boolean colocated = false;
+        try {
+            colocated = dlqProcessor != null && dlqProcessor.isResolvable();
+        } catch (Exception ignored) {
+            // no CDI container (plain unit tests)
+        }
+
+        if ("inprocess".equals(mode) || ("auto".equals(mode) && colocated)) {
+            if (colocated) {
+                Console.log("dlq_transport", "inprocess");
+                return new DLQInProcessPoster(dlqProcessor.get());
+            }
+            Console.log("dlq_transport_inprocess_unavailable", "falling back to http");
+        }
+
+        Console.log("dlq_transport", "http");
+        return httpPoster;
+    }
 }
@@ -0,0 +1,282 @@
+package io.braineous.dd.dlq.service.client;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.core.processor.HttpPoster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces DLQ posts per endpoint and ships them as one "{endpoint}/batch" call.
+ *
+ * A batch goes out when it reaches maxBatch records or lingerMs after its first record, whichever
+ * comes first. Callers never block on the network: offer() only appends to an in-memory buffer
+ * (bounded by maxPending; beyond that records are rejected and counted).
+ *
+ * Callers are answered before the batch ships, so a batch that fails (non-2xx or exception) hands
+ * each of its records to onFailed (endpoint, body) instead of losing them.
+ *
+ * Wire format: JSON array of strings, each element being exactly the body the single-record
+ * endpoint would have received (keeps payloadSha256 identical across both paths).
+ */
+public class DLQBatchSender {
+
+    public static final String P_ENABLED     = "dd.dlq.batch.enabled";
+    public static final String P_MAX_SIZE    = "dd.dlq.batch.max.size";
+    public static final String P_LINGER_MS   = "dd.dlq.batch.linger.ms";
+    public static final String P_MAX_PENDING = "dd.dlq.batch.max.pending";
+
+    public static final String BATCH_SUFFIX = "/batch";
+
+    private final Supplier<HttpPoster> poster;
+    private final BiConsumer<String, String> onFailed;
+    private final int maxBatch;
+    private final long lingerMs;
+    private final long maxPending;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<String, Lane>();
+    private final ScheduledExecutorService flusher;
+
+    // -------- metrics --------
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong recordsSent = new AtomicLong();
+    private final AtomicLong batchesFailed = new AtomicLong();
+    private final AtomicLong recordsFailed = new AtomicLong();
+
+    public DLQBatchSender(Supplier<HttpPoster> poster, BiConsumer<String, String> onFailed) {
+        this(poster, onFailed,
+                (int) DDProps.longProp(P_MAX_SIZE, 100L),
+                DDProps.longProp(P_LINGER_MS, 50L),
+                DDProps.longProp(P_MAX_PENDING, 10_000L));
+    }
+
+    public DLQBatchSender(Supplier<HttpPoster> poster, int maxBatch, long lingerMs, long maxPending) {
+        this(poster, null, maxBatch, lingerMs, maxPending);
+    }
+
+    public DLQBatchSender(Supplier<HttpPoster> poster, BiConsumer<String, String> onFailed,
+                          int maxBatch, long lingerMs, long maxPending) {
+        this.poster = poster;
+        this.onFailed = onFailed;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.lingerMs = Math.max(0L, lingerMs);
+        this.maxPending = Math.max(1L, maxPending);
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dd-dlq-batch");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static boolean enabled() {
+        return "true".equalsIgnoreCase(System.getProperty(P_ENABLED, "false"));
+    }
+
+    /**
+     * @return false if the buffer is full (record not queued)
+     */
+    public boolean offer(String endpoint, String body) {
+        if (endpoint == null || body == null) {
+            return false;
+        }
+
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            rejected.incrementAndGet();
+            return false;
+        }
+        enqueued.incrementAndGet();
+
+        Lane lane = lanes.computeIfAbsent(endpoint, Lane::new);
+
+        List<String> full = null;
+        boolean first;
+        synchronized (lane) {
+            lane.buf.add(body);
+            first = lane.buf.size() == 1;
+            if (lane.buf.size() >= maxBatch) {
+                full = lane.drain();
+            }
+        }
+
+        try {
+            if (full != null) {
+                final List<String> batch = full;
+                flusher.execute(() -> send(endpoint, batch));
+            } else if (first) {
+                flusher.schedule(() -> flush(lane), lingerMs, TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            // executor shut down: ship inline rather than lose it
+            flush(lane);
+            if (full != null) {
+                send(endpoint, full);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ships everything buffered right now (on the calling thread).
+     */
+    public void flush() {
+        for (Lane lane : lanes.values()) {
+            flush(lane);
+        }
+    }
+
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public long pending() {
+        return pending.get();
+    }
+
+    public JsonObject stats() {
+        JsonObject out = new JsonObject();
+        out.addProperty("maxBatch", maxBatch);
+        out.addProperty("lingerMs", lingerMs);
+        out.addProperty("maxPending", maxPending);
+        out.addProperty("pending", pending.get());
+        out.addProperty("enqueued", enqueued.get());
+        out.addProperty("rejected", rejected.get());
+        out.addProperty("batchesSent", batchesSent.get());
+        out.addProperty("recordsSent", recordsSent.get());
+        out.addProperty("batchesFailed", batchesFailed.get());
+        out.addProperty("recordsFailed", recordsFailed.get());
+        return out;
+    }
+
+    /**
+     * Inverse of the wire format: one entry per non-blank element. String elements are passed through
+     * untouched; inline objects are tolerated (toString()).
+     */
+    public static List<String> decode(String body) {
+        List<String> out = new ArrayList<String>();
+        if (body == null || body.trim().isEmpty()) {
+            return out;
+        }
+
+        try {
+            JsonElement root = JsonParser.parseString(body);
+            if (!root.isJsonArray()) {
+                Console.log("dlq_batch_not_array", body.length());
+                return out;
+            }
+
+            for (JsonElement e : root.getAsJsonArray()) {
+                if (e == null || e.isJsonNull()) {
+                    continue;
+                }
+                String p = e.isJsonPrimitive() ? e.getAsString() : e.toString();
+                if (!p.trim().isEmpty()) {
+                    out.add(p);
+                }
+            }
+        } catch (Exception e) {
+            Console.log("dlq_batch_parse_failed", String.valueOf(e));
+        }
+        return out;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private void flush(Lane lane) {
+        List<String> batch;
+        synchronized (lane) {
+            batch = lane.drain();
+        }
+        if (batch != null) {
+            send(lane.endpoint, batch);
+        }
+    }
+
+    private void send(String endpoint, List<String> batch) {
+        int n = batch.size();
+        try {
+            HttpPoster p = (poster == null) ? null : poster.get();
+            if (p == null) {
+                throw new IllegalStateException("httpPoster is null");
+            }
+
+            JsonArray arr = new JsonArray();
+            for (String b : batch) {
+                arr.add(b);
+            }
+
+            int status = p.post(endpoint + BATCH_SUFFIX, arr.toString());
+            if (status >= 200 && status < 300) {
+                batchesSent.incrementAndGet();
+                recordsSent.addAndGet(n);
+                return;
+            }
+
+            batchesFailed.incrementAndGet();
+            recordsFailed.addAndGet(n);
+            Console.log("dlq_batch_non_2xx", endpoint + " status=" + status + " records=" + n);
+            failed(endpoint, batch);
+        } catch (Exception e) {
+            batchesFailed.incrementAndGet();
+            recordsFailed.addAndGet(n);
+            Console.log("dlq_batch_send_failed", endpoint + " records=" + n + " " + e);
+            failed(endpoint, batch);
+        } finally {
+            pending.addAndGet(-n);
+        }
+    }
+
+    private void failed(String endpoint, List<String> batch) {
+        if (onFailed == null) {
+            return;
+        }
+        for (String body : batch) {
+            try {
+                onFailed.accept(endpoint, body);
+            } catch (Exception e) {
+                Console.log("dlq_batch_on_failed_error", endpoint + " " + e);
+            }
+        }
+    }
+
+    private static final class Lane {
+        private final String endpoint;
+        private ArrayList<String> buf = new ArrayList<String>();
+
+        private Lane(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        // caller holds the lane monitor
+        private List<String> drain() {
+            if (buf.isEmpty()) {
+                return null;
+            }
+            List<String> out = buf;
+            buf = new ArrayList<String>();
+            return out;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package io.braineous.dd.dlq.service.client;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonObject;
+import io.braineous.dd.core.concurrent.AdaptiveRateLimiter;
+import io.braineous.dd.core.concurrent.CircuitBreaker;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.core.processor.HttpPoster;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a sick DLQ endpoint from stalling the failure paths that call it.
+ *
+ * admit() is a non-blocking gate (adaptive rate limiter, then circuit breaker). Anything not admitted,
+ * or admitted but failed, goes to a bounded in-memory spill (oldest dropped on overflow) and is only
+ * logged on a sample. A daemon drains the spill through the same gate once the breaker lets calls through.
+ * Calls slower than slowCallMs count as failures for the breaker and the limiter.
+ */
+public class DLQGuard {
+
+    public static final String P_ENABLED          = "dd.dlq.breaker.enabled";
+    public static final String P_FAILURES         = "dd.dlq.breaker.failure.threshold";
+    public static final String P_OPEN_MS          = "dd.dlq.breaker.open.ms";
+    public static final String P_PROBES           = "dd.dlq.breaker.halfopen.probes";
+    public static final String P_SLOW_CALL_MS     = "dd.dlq.breaker.slow.call.ms";
+    public static final String P_RATE_MIN         = "dd.dlq.rate.min.per.sec";
+    public static final String P_RATE_MAX         = "dd.dlq.rate.max.per.sec";
+    public static final String P_SPILL_CAPACITY   = "dd.dlq.spill.capacity";
+    public static final String P_LOG_EVERY        = "dd.dlq.spill.log.every";
+    public static final String P_DRAIN_MS         = "dd.dlq.spill.drain.interval.ms";
+
+    public static final String WHY_CIRCUIT_OPEN = "DD-DLQ-circuit_open";
+    public static final String WHY_RATE_LIMITED = "DD-DLQ-rate_limited";
+
+    private static final int DRAIN_BATCH = 100;
+
+    private final CircuitBreaker breaker;
+    private final AdaptiveRateLimiter limiter;
+    private final long slowCallMs;
+    private final int spillCapacity;
+    private final long logEvery;
+
+    private final ArrayDeque<String[]> spill = new ArrayDeque<String[]>();
+
+    private final Supplier<HttpPoster> poster;
+    private final long drainMs;
+    private volatile ScheduledExecutorService drainer;
+
+    // -------- metrics --------
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong spillDropped = new AtomicLong();
+    private final AtomicLong drained = new AtomicLong();
+    private final AtomicLong slowCalls = new AtomicLong();
+
+    public DLQGuard(Supplier<HttpPoster> poster) {
+        this(new CircuitBreaker(
+                        (int) DDProps.longProp(P_FAILURES, 5L),
+                        DDProps.longProp(P_OPEN_MS, 10_000L),
+                        (int) DDProps.longProp(P_PROBES, 3L)),
+                new AdaptiveRateLimiter(
+                        DDProps.longProp(P_RATE_MIN, 5L),
+                        DDProps.longProp(P_RATE_MAX, 500L)),
+                DDProps.longProp(P_SLOW_CALL_MS, 2_000L),
+                (int) DDProps.longProp(P_SPILL_CAPACITY, 10_000L),
+                DDProps.longProp(P_LOG_EVERY, 100L),
+                poster,
+                DDProps.longProp(P_DRAIN_MS, 1_000L));
+    }
+
+    public DLQGuard(CircuitBreaker breaker,
+                    AdaptiveRateLimiter limiter,
+                    long slowCallMs,
+                    int spillCapacity,
+                    long logEvery,
+                    Supplier<HttpPoster> poster,
+                    long drainMs) {
+        this.breaker = breaker;
+        this.limiter = limiter;
+        this.slowCallMs = Math.max(1L, slowCallMs);
+        this.spillCapacity = Math.max(1, spillCapacity);
+        this.logEvery = Math.max(1L, logEvery);
+        this.poster = poster;
+        this.drainMs = drainMs;
+    }
+
+    public static boolean enabled() {
+        return "true".equalsIgnoreCase(System.getProperty(P_ENABLED, "false"));
+    }
+
+    /**
+     * @return null when the call may proceed (caller must then {@link #record}), else the WHY code
+     */
+    public String admit() {
+        // limiter first: a breaker permit (half-open probe) cannot be handed back
+        if (!limiter.tryAcquire()) {
+            return WHY_RATE_LIMITED;
+        }
+        if (!breaker.tryAcquire()) {
+            return WHY_CIRCUIT_OPEN;
+        }
+        return null;
+    }
+
+    public void record(boolean ok, Long durationMs) {
+        boolean slow = durationMs != null && durationMs > slowCallMs;
+        if (slow) {
+            slowCalls.incrementAndGet();
+        }
+
+        if (ok && !slow) {
+            breaker.onSuccess();
+            limiter.onSuccess();
+        } else {
+            breaker.onFailure();
+            limiter.onFailure();
+        }
+    }
+
+    public void spill(String endpoint, String body, String reason) {
+        if (endpoint == null || body == null) {
+            return;
+        }
+
+        synchronized (spill) {
+            if (spill.size() >= spillCapacity) {
+                spill.pollFirst();
+                spillDropped.incrementAndGet();
+            }
+            spill.addLast(new String[]{endpoint, body});
+        }
+
+        long n = spilled.incrementAndGet();
+        if (n == 1L || n % logEvery == 0L) {
+            Console.log("dlq_spill_sampled", reason + " spilled=" + n
+                    + " dropped=" + spillDropped.get() + " breaker=" + breaker.state());
+        }
+
+        ensureDrainer();
+    }
+
+    /**
+     * Re-sends up to max spilled records while the breaker lets calls through (closed, or half-open
+     * probes, which is also how an idle guard recovers). Returns how many went out.
+     */
+    public int drain(int max) {
+        HttpPoster p = (poster == null) ? null : poster.get();
+        if (p == null) {
+            return 0;
+        }
+
+        int sent = 0;
+        while (sent < max && breaker.state() != CircuitBreaker.State.OPEN) {
+            String[] next;
+            synchronized (spill) {
+                next = spill.pollFirst();
+            }
+            if (next == null) {
+                break;
+            }
+
+            if (admit() != null) {
+                requeue(next);
+                break;
+            }
+
+            long t0 = System.nanoTime();
+            boolean ok;
+            try {
+                int status = p.post(next[0], next[1]);
+                ok = status >= 200 && status < 300;
+            } catch (Exception e) {
+                ok = false;
+            }
+            record(ok, (System.nanoTime() - t0) / 1_000_000L);
+
+            if (!ok) {
+                requeue(next);
+                break;
+            }
+            sent++;
+            drained.incrementAndGet();
+        }
+        return sent;
+    }
+
+    public int spillSize() {
+        synchronized (spill) {
+            return spill.size();
+        }
+    }
+
+    public CircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    public void close() {
+        ScheduledExecutorService d = drainer;
+        if (d != null) {
+            d.shutdownNow();
+        }
+    }
+
+    public JsonObject stats() {
+        JsonObject out = new JsonObject();
+        out.addProperty("state", String.valueOf(breaker.state()));
+        out.addProperty("opened", breaker.openedCount());
+        out.addProperty("rejected", breaker.rejectedCount());
+        out.addProperty("rate", limiter.rate());
+        out.addProperty("slowCalls", slowCalls.get());
+        out.addProperty("spillSize", spillSize());
+        out.addProperty("spilled", spilled.get());
+        out.addProperty("spillDropped", spillDropped.get());
+        out.addProperty("drained", drained.get());
+        return out;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private void requeue(String[] item) {
+        synchronized (spill) {
+            if (spill.size() >= spillCapacity) {
+                spillDropped.incrementAndGet();
+                return;
+            }
+            spill.addFirst(item);
+        }
+    }
+
+    private void ensureDrainer() {
+        if (drainer != null || drainMs <= 0L) {
+            return;
+        }
+        synchronized (this) {
+            if (drainer != null) {
+                return;
+            }
+            ScheduledExecutorService d = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "dd-dlq-spill-drain");
+                t.setDaemon(true);
+                return t;
+            });
+            d.scheduleWithFixedDelay(() -> {
+                try {
+                    drain(DRAIN_BATCH);
+                } catch (Exception e) {
+                    Console.log("dlq_spill_drain_failed", String.valueOf(e));
+                }
+            }, drainMs, drainMs, TimeUnit.MILLISECONDS);
+            drainer = d;
+        }
+    }
+}
@@ -3,11 +3,20 @@ package io.braineous.dd.dlq.service.client;
 import ai.braineous.cgo.config.ConfigService;
 import ai.braineous.rag.prompt.observe.Console;
 import io.braineous.dd.core.config.DDConfigService;
+import io.braineous.dd.core.config.DDProps;
 import io.braineous.dd.core.processor.HttpPoster;
 import jakarta.enterprise.context.ApplicationScoped;
 
 public class DLQHttpPoster implements HttpPoster {
 
+    public static final String P_CONNECT_TIMEOUT_MS = "dd.dlq.http.connect.timeout.ms";
+    public static final String P_REQUEST_TIMEOUT_MS = "dd.dlq.http.request.timeout.ms";
+
+    // one pooled client for all posts; bounded connect so a dead DLQ host fails fast
+    private static final java.net.http.HttpClient CLIENT = java.net.http.HttpClient.newBuilder()
+            .connectTimeout(java.time.Duration.ofMillis(Math.max(1L, DDProps.longProp(P_CONNECT_TIMEOUT_MS, 2_000L))))
+            .build();
+
     @Override
     public int post(String endpoint, String jsonBody) throws Exception {
         DDConfigService ddCfgSvc = new DDConfigService();
@@ -16,19 +25,18 @@ public class DLQHttpPoster implements HttpPoster {
 
         String base = ddCfgSvc.internalDlqBase(env) + "/dlq";
 
-        java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
-
         String baseUrl = base + "/" + endpoint;
         Console.log("__________producer_url_______", baseUrl);
 
         java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
                 .uri(java.net.URI.create(baseUrl))
                 .header("Content-Type", "application/json")
+                .timeout(java.time.Duration.ofMillis(Math.max(1L, DDProps.longProp(P_REQUEST_TIMEOUT_MS, 5_000L))))
                 .POST(java.net.http.HttpRequest.BodyPublishers.ofString(jsonBody))
                 .build();
 
         java.net.http.HttpResponse<String> resp =
-                client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
+                CLIENT.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
 
         return resp.statusCode();
     }
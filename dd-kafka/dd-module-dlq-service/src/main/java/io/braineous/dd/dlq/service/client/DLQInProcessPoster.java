@@ -0,0 +1,86 @@
+package io.braineous.dd.dlq.service.client;
+
+import ai.braineous.rag.prompt.observe.Console;
+import io.braineous.dd.core.processor.HttpPoster;
+import io.braineous.dd.dlq.DlqProcessor;
+
+import java.util.List;
+
+/**
+ * Same-JVM DLQ transport: hands the body straight to {@link DlqProcessor} instead of looping back
+ * through DLQHttpPoster -> HTTP -> DlqResource.
+ *
+ * Mirrors DlqResource exactly (same endpoints, same blank-body no-op, same batch decode), so the
+ * body reaching the emitter is byte-identical to the HTTP path. Returns the status the resource
+ * would have answered with (204 for a void JAX-RS method).
+ */
+public class DLQInProcessPoster implements HttpPoster {
+
+    static final int NO_CONTENT = 204;
+    static final int NOT_FOUND = 404;
+
+    private final DlqProcessor processor;
+
+    public DLQInProcessPoster(DlqProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public int post(String endpoint, String jsonBody) throws Exception {
+        if (processor == null) {
+            throw new IllegalStateException("dlqProcessor is null");
+        }
+
+        String route = normalize(endpoint);
+        switch (route) {
+            case "/system_failure":
+                if (!isBlank(jsonBody)) {
+                    processor.handleSystemFailure(jsonBody);
+                }
+                return NO_CONTENT;
+
+            case "/domain_failure":
+                if (!isBlank(jsonBody)) {
+                    processor.handleDomainFailure(jsonBody);
+                }
+                return NO_CONTENT;
+
+            case "/system_failure" + DLQBatchSender.BATCH_SUFFIX: {
+                List<String> payloads = DLQBatchSender.decode(jsonBody);
+                if (!payloads.isEmpty()) {
+                    processor.handleSystemFailures(payloads);
+                }
+                return NO_CONTENT;
+            }
+
+            case "/domain_failure" + DLQBatchSender.BATCH_SUFFIX: {
+                List<String> payloads = DLQBatchSender.decode(jsonBody);
+                if (!payloads.isEmpty()) {
+                    processor.handleDomainFailures(payloads);
+                }
+                return NO_CONTENT;
+            }
+
+            default:
+                Console.log("dlq_inprocess_unknown_endpoint", endpoint);
+                return NOT_FOUND;
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    // DLQHttpPoster joins base + "/" + endpoint, so callers pass "/x" (and tolerate "x" / "//x")
+    static String normalize(String endpoint) {
+        if (endpoint == null) {
+            return "";
+        }
+        String e = endpoint.trim();
+        while (e.startsWith("/")) {
+            e = e.substring(1);
+        }
+        return "/" + e;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+}
@@ -0,0 +1,459 @@
+package io.braineous.dd.dlq.service.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of DLQ posts that could not be delivered.
+ *
+ * segment: [int magic][int version][long readPos][records...][int 0 = end]
+ * record : [int bodyLen][int crc32(body)][int endpointLen][endpoint utf8][payload utf8]
+ *
+ * Each segment is mapped READ_WRITE at its full capacity. Appends encode straight into the mapping
+ * (reused encoder + CRC, no byte[] per record); bodyLen is written last so a torn append reads as the
+ * end marker on recovery. Delivery is peek() -> send -> commit(); the read cursor lives in the segment
+ * header, and a segment is deleted once it is fully delivered and no longer the write target.
+ *
+ * One process per directory: open() takes an exclusive lock on journal.lock and holds it until
+ * close(); a second open() of the same directory fails instead of sharing the mappings.
+ */
+public final class DLQJournal implements Closeable {
+
+    static final String PREFIX = "dlq-journal-";
+    static final String SUFFIX = ".seg";
+    static final String LOCK_FILE = "journal.lock";
+
+    static final int MAGIC = 0x444C514A; // "DLQJ"
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER = 16;
+    static final int READ_POS_AT = 8;
+    static final int FRAME_HEADER = 8;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final boolean fsync;
+
+    // oldest first; the last one is the write target
+    private final ArrayDeque<Segment> segments = new ArrayDeque<Segment>();
+
+    // highest segment id on disk, including files skipped at open(): new segments are numbered past it
+    private long lastId;
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CRC32 crc = new CRC32();
+
+    private long pending;
+    private long appended;
+    private long committed;
+    private long rejected;
+
+    private DLQJournal(Path dir, int segmentBytes, int maxSegments, boolean fsync) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.fsync = fsync;
+    }
+
+    public static DLQJournal open(Path dir, long segmentBytes, int maxSegments, boolean fsync) throws IOException {
+        Files.createDirectories(dir);
+
+        int cap = (int) Math.min(Integer.MAX_VALUE, Math.max(4096L, segmentBytes));
+        DLQJournal j = new DLQJournal(dir, cap, Math.max(1, maxSegments), fsync);
+        j.lockDir();
+        try {
+            j.load();
+        } catch (IOException | RuntimeException e) {
+            j.close();
+            throw e;
+        }
+        return j;
+    }
+
+    private void lockDir() throws IOException {
+        FileChannel ch = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock l;
+        try {
+            l = ch.tryLock();
+        } catch (OverlappingFileLockException e) {
+            l = null;
+        }
+        if (l == null) {
+            ch.close();
+            throw new IOException("dlq journal is open by another instance: " + dir);
+        }
+        lockChannel = ch;
+        lock = l;
+    }
+
+    private void load() throws IOException {
+        List<Path> files = new ArrayList<Path>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path p : ds) {
+                files.add(p);
+            }
+        }
+        Collections.sort(files);
+
+        for (Path p : files) {
+            long id = parseId(p);
+            if (id < 0L) {
+                continue; // not ours
+            }
+            lastId = Math.max(lastId, id);
+
+            Segment s = Segment.open(p, id);
+            if (s == null) {
+                continue; // not ours / corrupt header: leave it for an operator
+            }
+            if (s.readPos >= s.writePos && !p.equals(files.get(files.size() - 1))) {
+                s.delete(); // fully delivered before the last shutdown
+                continue;
+            }
+            pending += s.countFrom(s.readPos);
+            segments.addLast(s);
+        }
+
+        if (segments.isEmpty()) {
+            long id = lastId + 1L;
+            segments.addLast(Segment.create(dir.resolve(fileName(id)), id, segmentBytes));
+            lastId = id;
+        }
+    }
+
+    /**
+     * @return false when the record cannot be kept (larger than a segment, or maxSegments reached)
+     */
+    public synchronized boolean append(String endpoint, String body) throws IOException {
+        if (endpoint == null || body == null) {
+            return false;
+        }
+
+        Segment s = segments.peekLast();
+        if (!encodeInto(s, endpoint, body)) {
+            if (s.writePos == SEGMENT_HEADER || segments.size() >= maxSegments) {
+                rejected++;
+                return false;
+            }
+            s = roll();
+            if (!encodeInto(s, endpoint, body)) {
+                rejected++;
+                return false;
+            }
+        }
+
+        if (fsync) {
+            s.map.force();
+        }
+        pending++;
+        appended++;
+        return true;
+    }
+
+    /**
+     * Oldest undelivered record, or null. Calling again without commit() returns the same one.
+     */
+    public synchronized Entry peek() {
+        while (true) {
+            Segment s = segments.peekFirst();
+            if (s == null) {
+                return null;
+            }
+            if (s.readPos < s.writePos) {
+                return s.read(s.readPos);
+            }
+            if (segments.size() == 1) {
+                return null;
+            }
+            segments.pollFirst();
+            s.delete();
+        }
+    }
+
+    public synchronized void commit(Entry e) {
+        Segment s = segments.peekFirst();
+        if (e == null || s == null || s.id != e.segmentId || s.readPos != e.pos) {
+            return; // stale entry
+        }
+        s.setReadPos(e.nextPos);
+        pending = Math.max(0L, pending - 1L);
+        committed++;
+    }
+
+    public synchronized long pending() {
+        return pending;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    public synchronized long appended() {
+        return appended;
+    }
+
+    public synchronized long committed() {
+        return committed;
+    }
+
+    public synchronized long rejected() {
+        return rejected;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            for (Segment s : segments) {
+                s.map.force();
+                s.ch.close();
+            }
+            segments.clear();
+        } finally {
+            if (lockChannel != null) {
+                lockChannel.close(); // releases the lock
+                lockChannel = null;
+                lock = null;
+            }
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private Segment roll() throws IOException {
+        Segment last = segments.peekLast();
+        if (fsync) {
+            last.map.force();
+        }
+        long id = Math.max(last.id, lastId) + 1L;
+        Segment s = Segment.create(dir.resolve(fileName(id)), id, segmentBytes);
+        segments.addLast(s);
+        lastId = id;
+        return s;
+    }
+
+    // false on overflow, with the segment left exactly as it was
+    private boolean encodeInto(Segment s, String endpoint, String body) {
+        MappedByteBuffer m = s.map;
+        int start = s.writePos;
+        int bodyStart = start + FRAME_HEADER;
+
+        // keep 4 bytes for the end marker after the record
+        int limit = m.capacity() - 4;
+        if (bodyStart + 4 > limit) {
+            return false;
+        }
+
+        ByteBuffer out = m.duplicate();
+        out.limit(limit);
+        out.position(bodyStart + 4);
+
+        if (!encode(endpoint, out)) {
+            return false;
+        }
+        int endpointLen = out.position() - (bodyStart + 4);
+        if (!encode(body, out)) {
+            return false;
+        }
+        int end = out.position();
+        int bodyLen = end - bodyStart;
+
+        m.putInt(bodyStart, endpointLen);
+
+        crc.reset();
+        ByteBuffer view = m.duplicate();
+        view.limit(end);
+        view.position(bodyStart);
+        crc.update(view);
+
+        m.putInt(end, 0);                        // end marker first...
+        m.putInt(start + 4, (int) crc.getValue());
+        m.putInt(start, bodyLen);                // ...length last: the record now exists
+
+        s.writePos = end;
+        return true;
+    }
+
+    private boolean encode(String s, ByteBuffer out) {
+        encoder.reset();
+        CoderResult r = encoder.encode(CharBuffer.wrap(s), out, true);
+        if (r.isOverflow()) {
+            return false;
+        }
+        return !encoder.flush(out).isOverflow();
+    }
+
+    static String fileName(long id) {
+        return PREFIX + String.format("%020d", id) + SUFFIX;
+    }
+
+    // -1 when the name does not carry a segment id
+    static long parseId(Path p) {
+        String n = p.getFileName().toString();
+        try {
+            return Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1L;
+        }
+    }
+
+    public static final class Entry {
+        private final String endpoint;
+        private final String body;
+        private final long segmentId;
+        private final int pos;
+        private final int nextPos;
+
+        private Entry(String endpoint, String body, long segmentId, int pos, int nextPos) {
+            this.endpoint = endpoint;
+            this.body = body;
+            this.segmentId = segmentId;
+            this.pos = pos;
+            this.nextPos = nextPos;
+        }
+
+        public String endpoint() { return endpoint; }
+        public String body() { return body; }
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel ch;
+        private final MappedByteBuffer map;
+
+        private int readPos;
+        private int writePos;
+
+        private Segment(long id, Path path, FileChannel ch, MappedByteBuffer map) {
+            this.id = id;
+            this.path = path;
+            this.ch = ch;
+            this.map = map;
+        }
+
+        static Segment create(Path p, long id, int capacity) throws IOException {
+            FileChannel ch = FileChannel.open(p,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer m = ch.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            m.putInt(0, MAGIC);
+            m.putInt(4, VERSION);
+            m.putLong(READ_POS_AT, SEGMENT_HEADER);
+            m.putInt(SEGMENT_HEADER, 0);
+
+            Segment s = new Segment(id, p, ch, m);
+            s.readPos = SEGMENT_HEADER;
+            s.writePos = SEGMENT_HEADER;
+            return s;
+        }
+
+        static Segment open(Path p, long id) throws IOException {
+            FileChannel ch = FileChannel.open(p, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = ch.size();
+            if (size < SEGMENT_HEADER + 4 || size > Integer.MAX_VALUE) {
+                ch.close();
+                return null;
+            }
+            MappedByteBuffer m = ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (m.getInt(0) != MAGIC) {
+                ch.close();
+                return null;
+            }
+
+            Segment s = new Segment(id, p, ch, m);
+            long rp = m.getLong(READ_POS_AT);
+            s.writePos = s.scanEnd();
+            s.readPos = (int) Math.max(SEGMENT_HEADER, Math.min(rp, s.writePos));
+
+            // a torn tail may have left bytes behind: re-mark the end
+            if (s.writePos + 4 <= m.capacity()) {
+                m.putInt(s.writePos, 0);
+            }
+            return s;
+        }
+
+        // walk CRC-valid frames from the header; stop at the end marker or the first bad frame
+        private int scanEnd() {
+            int pos = SEGMENT_HEADER;
+            CRC32 c = new CRC32();
+            while (pos + FRAME_HEADER <= map.capacity() - 4) {
+                int len = map.getInt(pos);
+                if (len <= 4 || pos + FRAME_HEADER + len > map.capacity() - 4) {
+                    break;
+                }
+                ByteBuffer view = map.duplicate();
+                view.limit(pos + FRAME_HEADER + len);
+                view.position(pos + FRAME_HEADER);
+                c.reset();
+                c.update(view);
+                if ((int) c.getValue() != map.getInt(pos + 4)) {
+                    break;
+                }
+                pos += FRAME_HEADER + len;
+            }
+            return pos;
+        }
+
+        private long countFrom(int from) {
+            long n = 0;
+            int pos = from;
+            while (pos < writePos) {
+                pos += FRAME_HEADER + map.getInt(pos);
+                n++;
+            }
+            return n;
+        }
+
+        private Entry read(int pos) {
+            int len = map.getInt(pos);
+            int bodyStart = pos + FRAME_HEADER;
+            int endpointLen = map.getInt(bodyStart);
+
+            byte[] ep = new byte[endpointLen];
+            byte[] pl = new byte[len - 4 - endpointLen];
+
+            ByteBuffer in = map.duplicate();
+            in.position(bodyStart + 4);
+            in.get(ep);
+            in.get(pl);
+
+            return new Entry(
+                    new String(ep, StandardCharsets.UTF_8),
+                    new String(pl, StandardCharsets.UTF_8),
+                    id, pos, bodyStart + len);
+        }
+
+        private void setReadPos(int pos) {
+            readPos = pos;
+            map.putLong(READ_POS_AT, pos);
+        }
+
+        private void delete() {
+            try {
+                ch.close();
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+                // retried on the next open
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package io.braineous.dd.dlq.service.journal;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonObject;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.core.processor.HttpPoster;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Owns the {@link DLQJournal} and its background drainer.
+ *
+ * spool() parks an undeliverable post on disk; every drain interval the drainer re-sends from the
+ * oldest record and stops at the first failure (the next tick is the retry, so a dead endpoint costs
+ * one attempt per interval). Records are committed only after a 2xx.
+ */
+public class DLQJournalSpooler {
+
+    public static final String P_ENABLED       = "dd.dlq.journal.enabled";
+    public static final String P_DIR           = "dd.dlq.journal.dir";
+    public static final String P_SEGMENT_BYTES = "dd.dlq.journal.segment.bytes";
+    public static final String P_MAX_SEGMENTS  = "dd.dlq.journal.max.segments";
+    public static final String P_FSYNC         = "dd.dlq.journal.fsync";
+    public static final String P_DRAIN_MS      = "dd.dlq.journal.drain.interval.ms";
+
+    private static final int DRAIN_BATCH = 500;
+
+    private final DLQJournal journal;
+    private final Supplier<HttpPoster> poster;
+    private final ScheduledExecutorService drainer;
+
+    // -------- metrics --------
+    private final AtomicLong drained = new AtomicLong();
+    private final AtomicLong drainFailures = new AtomicLong();
+    private final AtomicLong spoolFailures = new AtomicLong();
+
+    public DLQJournalSpooler(DLQJournal journal, Supplier<HttpPoster> poster, long drainMs) {
+        this.journal = journal;
+        this.poster = poster;
+
+        if (drainMs > 0L) {
+            this.drainer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "dd-dlq-journal-drain");
+                t.setDaemon(true);
+                return t;
+            });
+            this.drainer.scheduleWithFixedDelay(this::drainQuietly, drainMs, drainMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.drainer = null;
+        }
+    }
+
+    public static boolean enabled() {
+        return "true".equalsIgnoreCase(System.getProperty(P_ENABLED, "false"));
+    }
+
+    /**
+     * Journal from system properties; null (logged) when the directory cannot be opened.
+     */
+    public static DLQJournalSpooler fromProperties(Supplier<HttpPoster> poster) {
+        Path dir = Paths.get(System.getProperty(P_DIR, "data/dlq-journal"));
+        try {
+            DLQJournal j = DLQJournal.open(dir,
+                    DDProps.longProp(P_SEGMENT_BYTES, 16L * 1024L * 1024L),
+                    (int) DDProps.longProp(P_MAX_SEGMENTS, 64L),
+                    "true".equalsIgnoreCase(System.getProperty(P_FSYNC, "false")));
+            Console.log("dlq_journal_open", dir + " pending=" + j.pending());
+            return new DLQJournalSpooler(j, poster, DDProps.longProp(P_DRAIN_MS, 1_000L));
+        } catch (Exception e) {
+            Console.log("dlq_journal_open_failed", dir + " " + e);
+            return null;
+        }
+    }
+
+    public boolean spool(String endpoint, String body) {
+        try {
+            if (journal.append(endpoint, body)) {
+                return true;
+            }
+        } catch (Exception e) {
+            Console.log("dlq_journal_append_failed", String.valueOf(e));
+        }
+        long n = spoolFailures.incrementAndGet();
+        if (n == 1L || n % 100L == 0L) {
+            Console.log("dlq_journal_full", "rejected=" + n);
+        }
+        return false;
+    }
+
+    /**
+     * Re-sends up to max journaled records, oldest first. Returns how many were delivered.
+     */
+    public int drain(int max) {
+        HttpPoster p = (poster == null) ? null : poster.get();
+        if (p == null) {
+            return 0;
+        }
+
+        int sent = 0;
+        while (sent < max) {
+            DLQJournal.Entry e = journal.peek();
+            if (e == null) {
+                break;
+            }
+
+            boolean ok;
+            try {
+                int status = p.post(e.endpoint(), e.body());
+                ok = status >= 200 && status < 300;
+            } catch (Exception ex) {
+                ok = false;
+            }
+
+            if (!ok) {
+                drainFailures.incrementAndGet();
+                break;
+            }
+            journal.commit(e);
+            drained.incrementAndGet();
+            sent++;
+        }
+        return sent;
+    }
+
+    public long pending() {
+        return journal.pending();
+    }
+
+    public void close() {
+        if (drainer != null) {
+            drainer.shutdownNow();
+            try {
+                drainer.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            journal.close();
+        } catch (Exception e) {
+            Console.log("dlq_journal_close_failed", String.valueOf(e));
+        }
+    }
+
+    public JsonObject stats() {
+        JsonObject out = new JsonObject();
+        out.addProperty("pending", journal.pending());
+        out.addProperty("segments", journal.segmentCount());
+        out.addProperty("appended", journal.appended());
+        out.addProperty("committed", journal.committed());
+        out.addProperty("rejected", journal.rejected());
+        out.addProperty("drained", drained.get());
+        out.addProperty("drainFailures", drainFailures.get());
+        out.addProperty("spoolFailures", spoolFailures.get());
+        return out;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private void drainQuietly() {
+        try {
+            drain(DRAIN_BATCH);
+        } catch (Exception e) {
+            Console.log("dlq_journal_drain_failed", String.valueOf(e));
+        }
+    }
+}
@@ -2,10 +2,13 @@ package io.braineous.dd.dlq.service.resource;
 
 import ai.braineous.rag.prompt.observe.Console;
 import io.braineous.dd.dlq.DlqProcessor;
+import io.braineous.dd.dlq.service.client.DLQBatchSender;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 
+import java.util.List;
+
 
 @Path("/dlq")
 public class DlqResource {
@@ -32,5 +35,27 @@ public class DlqResource {
 
    this.processor.handleDomainFailure(payload);
  }
-}
 
+ // body: JSON array; each element is one single-record body (string), see DLQBatchSender
+ @POST
+ @Path("/system_failure/batch")
+ public void handleSystemFailureBatch(String body){
+  List<String> payloads = DLQBatchSender.decode(body);
+  if(payloads.isEmpty()){
+   return;
+  }
+
+   this.processor.handleSystemFailures(payloads);
+ }
+
+ @POST
+ @Path("/domain_failure/batch")
+ public void handleDomainFailureBatch(String body){
+  List<String> payloads = DLQBatchSender.decode(body);
+  if(payloads.isEmpty()){
+   return;
+  }
+
+   this.processor.handleDomainFailures(payloads);
+ }
+}
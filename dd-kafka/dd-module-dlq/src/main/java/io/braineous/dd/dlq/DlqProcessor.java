@@ -10,6 +10,8 @@ import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 
+import java.util.List;
+
 @ApplicationScoped
 public class DlqProcessor {
 
@@ -51,21 +53,51 @@ public class DlqProcessor {
         domainOut.send(payload);
     }
 
+    // batched emit: one log line per batch, records pipelined into the producer
+    public void handleSystemFailures(List<String> payloads){
+        int sent = emitAll(systemOut, payloads);
+        Console.log("system_exception_emit_batch", sent);
+    }
+
+    public void handleDomainFailures(List<String> payloads) {
+        int sent = emitAll(domainOut, payloads);
+        Console.log("domain_exception_emit_batch", sent);
+    }
+
+    private static int emitAll(Emitter<String> out, List<String> payloads) {
+        if (payloads == null || payloads.isEmpty()) {
+            return 0;
+        }
+
+        int sent = 0;
+        for (String payload : payloads) {
+            if (payload == null || payload.trim().length() == 0) {
+                continue;
+            }
+            out.send(payload);
+            sent++;
+        }
+        return sent;
+    }
+
+    // batch=true on both channels: one call per Kafka poll, offsets acked once the batch returns.
+    // Store errors are logged and swallowed, as the per-record consumers did: with
+    // failure-strategy=fail a rethrow would stop the channel, and nothing redelivers the poll.
     @Incoming("dlq_system_in")
-    public void consumeSystemFailure(String payload){
+    public void consumeSystemFailures(List<String> payloads){
         try {
-            Console.log("system_failure_consume", payload);
-            store.storeSystemFailure(payload);
+            Console.log("system_failure_consume_batch", payloads == null ? 0 : payloads.size());
+            store.storeSystemFailures(payloads);
         }catch(Exception e){
             Console.log("error_processing_dlq_system_failure_while_storing", String.valueOf(e));
         }
     }
 
     @Incoming("dlq_domain_in")
-    public void consumeDomainFailure(String payload){
+    public void consumeDomainFailures(List<String> payloads){
         try {
-            Console.log("domain_failure_consume", payload);
-            store.storeDomainFailure(payload);
+            Console.log("domain_failure_consume_batch", payloads == null ? 0 : payloads.size());
+            store.storeDomainFailures(payloads);
         }catch(Exception e){
             Console.log("error_processing_dlq_domain_failure_while_storing", String.valueOf(e));
         }
@@ -0,0 +1,367 @@
+package io.braineous.dd.dlq.persistence;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side DLQ analytics: failure counts by (hour bucket, whyCode, topic) plus the top-N payload
+ * fingerprints of a window, so operators no longer page raw records to count them.
+ *
+ * With dd.dlq.rollup.enabled=true every store also folds into an hourly rollup doc in dlq_*_rollup
+ * ($inc upsert, one per distinct key per poll) and grouped counts are read from there: the cost
+ * follows buckets x keys, not records. Rollup answers are hour-aligned (the window is widened to
+ * whole hours). Without rollups the same groups come from a pipeline over the raw collection.
+ *
+ * Records stored before rollups were switched on are not in any rollup doc. The rollup collection keeps
+ * the time of the first record it folded in (a "since" doc), and the part of a window before it is
+ * grouped from the raw collection and merged in (source "rollup+raw"). With dd.dlq.aggregate.enabled
+ * the raw collection only holds samples, so that part undercounts; switching rollups off and on again
+ * leaves a gap that is not filled either.
+ * Records written before whyCode/topic were stored on them count as "unknown".
+ */
+public final class DLQAnalytics {
+
+    public static final String P_ROLLUP_ENABLED = "dd.dlq.rollup.enabled";
+
+    public static final int DEFAULT_TOP_N = 10;
+    public static final int MAX_TOP_N = 100;
+
+    static final long HOUR_MS = 3_600_000L;
+
+    // rollup doc holding the createdAt of the first record ever folded in
+    static final String SINCE_ID = "since";
+
+    private DLQAnalytics() {
+    }
+
+    public static boolean rollupEnabled() {
+        return "true".equalsIgnoreCase(System.getProperty(P_ROLLUP_ENABLED, "false"));
+    }
+
+    //-----write side----------------------------------------------------
+    /**
+     * Folds one store call (single record or a whole poll) into one upsert per rollup key.
+     * Best-effort: a rollup failure never fails the DLQ write itself.
+     */
+    static void recordRollup(MongoCollection<Document> rollupCol,
+                             String kind,
+                             Date at,
+                             List<DLQFingerprint> fps) {
+        if (rollupCol == null || fps == null || fps.isEmpty()) {
+            return;
+        }
+
+        Date bucket = hourBucket(at);
+
+        Map<String, long[]> counts = new LinkedHashMap<String, long[]>();
+        Map<String, DLQFingerprint> keys = new LinkedHashMap<String, DLQFingerprint>();
+        for (DLQFingerprint fp : fps) {
+            String id = rollupId(bucket, fp.whyCode(), fp.topic());
+            counts.computeIfAbsent(id, k -> new long[1])[0]++;
+            keys.putIfAbsent(id, fp);
+        }
+
+        List<com.mongodb.client.model.UpdateOneModel<Document>> writes =
+                new ArrayList<com.mongodb.client.model.UpdateOneModel<Document>>(counts.size());
+        for (Map.Entry<String, long[]> e : counts.entrySet()) {
+            DLQFingerprint fp = keys.get(e.getKey());
+            writes.add(new com.mongodb.client.model.UpdateOneModel<Document>(
+                    new Document("_id", e.getKey()),
+                    new Document()
+                            .append("$inc", new Document("count", e.getValue()[0]))
+                            .append("$setOnInsert", new Document()
+                                    .append("kind", kind)
+                                    .append("bucket", bucket)
+                                    .append("whyCode", fp.whyCode())
+                                    .append("topic", fp.topic())),
+                    new com.mongodb.client.model.UpdateOptions().upsert(true)));
+        }
+        writes.add(new com.mongodb.client.model.UpdateOneModel<Document>(
+                new Document("_id", SINCE_ID),
+                new Document("$min", new Document("since", at)),
+                new com.mongodb.client.model.UpdateOptions().upsert(true)));
+
+        com.mongodb.client.model.BulkWriteOptions unordered =
+                new com.mongodb.client.model.BulkWriteOptions().ordered(false);
+        try {
+            rollupCol.bulkWrite(writes, unordered);
+        } catch (com.mongodb.MongoBulkWriteException e) {
+            // racing first upserts on the same _id: only the losers retry, now as plain updates
+            List<com.mongodb.client.model.UpdateOneModel<Document>> retry =
+                    new ArrayList<com.mongodb.client.model.UpdateOneModel<Document>>();
+            for (com.mongodb.bulk.BulkWriteError err : e.getWriteErrors()) {
+                if (err.getCode() == 11000) {
+                    retry.add(writes.get(err.getIndex()));
+                }
+            }
+            try {
+                if (!retry.isEmpty()) {
+                    rollupCol.bulkWrite(retry, unordered);
+                }
+            } catch (Exception e2) {
+                Console.log("dlq_rollup_failed", kind + " " + e2);
+            }
+        } catch (Exception e) {
+            Console.log("dlq_rollup_failed", kind + " " + e);
+        }
+    }
+
+    //-----read side----------------------------------------------------
+    /**
+     * @param aggCol fingerprint aggregates; used for the top-N when dd.dlq.aggregate.enabled, since
+     *               the raw collection then only holds samples (counts are lifetime in that case)
+     */
+    static JsonObject analytics(MongoCollection<Document> rawCol,
+                                MongoCollection<Document> rollupCol,
+                                MongoCollection<Document> aggCol,
+                                boolean aggregated,
+                                String kind,
+                                String fromTime,
+                                String toTime,
+                                int topN) {
+        Date from;
+        Date to;
+        try {
+            from = Date.from(java.time.Instant.parse(fromTime));
+            to = Date.from(java.time.Instant.parse(toTime));
+        } catch (Exception e) {
+            return new JsonObject();
+        }
+
+        int n = clampTopN(topN);
+        boolean rollup = rollupEnabled();
+
+        String source = "raw";
+        List<Document> groups;
+        Date since = rollup ? rollupSince(rollupCol) : null;
+        if (since == null || !to.after(since)) {
+            // nothing in the window was rolled up
+            groups = rawGroups(rawCol, window(from, to));
+        } else if (from.before(since)) {
+            source = "rollup+raw";
+            groups = mergeGroups(
+                    rawGroups(rawCol, new Document("createdAt",
+                            new Document("$gte", from).append("$lt", since))),
+                    rollupGroups(rollupCol, from, to));
+        } else {
+            source = "rollup";
+            groups = rollupGroups(rollupCol, from, to);
+        }
+
+        JsonArray top = aggregated
+                ? topFromAggregates(aggCol, from, to, n)
+                : topFromRaw(rawCol, from, to, n);
+
+        return render(kind, fromTime, toTime, source, groups, top);
+    }
+
+    private static Date rollupSince(MongoCollection<Document> rollupCol) {
+        Document d = rollupCol.find(new Document("_id", SINCE_ID)).first();
+        return (d == null) ? null : d.getDate("since");
+    }
+
+    private static List<Document> rollupGroups(MongoCollection<Document> rollupCol, Date from, Date to) {
+        Document filter = new Document("bucket",
+                new Document("$gte", hourBucket(from)).append("$lte", to));
+
+        return rollupCol.find(filter)
+                .sort(new Document("bucket", 1).append("whyCode", 1).append("topic", 1))
+                .into(new ArrayList<Document>());
+    }
+
+    private static List<Document> rawGroups(MongoCollection<Document> rawCol, Document match) {
+        // createdAt - (createdAt mod 1h): works without $dateTrunc on older servers
+        Document bucketExpr = new Document("$subtract", List.of(
+                "$createdAt",
+                new Document("$mod", List.of(new Document("$toLong", "$createdAt"), HOUR_MS))));
+
+        List<Document> pipeline = List.of(
+                new Document("$match", match),
+                new Document("$group", new Document()
+                        .append("_id", new Document()
+                                .append("bucket", bucketExpr)
+                                .append("whyCode", ifNullUnknown("$whyCode"))
+                                .append("topic", ifNullUnknown("$topic")))
+                        .append("count", new Document("$sum", 1L))),
+                new Document("$project", new Document()
+                        .append("_id", 0)
+                        .append("bucket", "$_id.bucket")
+                        .append("whyCode", "$_id.whyCode")
+                        .append("topic", "$_id.topic")
+                        .append("count", 1)),
+                new Document("$sort", new Document("bucket", 1).append("whyCode", 1).append("topic", 1)));
+
+        return rawCol.aggregate(pipeline).allowDiskUse(true).into(new ArrayList<Document>());
+    }
+
+    private static JsonArray topFromRaw(MongoCollection<Document> rawCol, Date from, Date to, int n) {
+        List<Document> pipeline = List.of(
+                new Document("$match", window(from, to)),
+                new Document("$group", new Document()
+                        .append("_id", "$payloadSha256")
+                        .append("count", new Document("$sum", 1L))
+                        .append("firstSeen", new Document("$min", "$createdAt"))
+                        .append("lastSeen", new Document("$max", "$createdAt"))
+                        .append("whyCode", new Document("$first", ifNullUnknown("$whyCode")))
+                        .append("topic", new Document("$first", ifNullUnknown("$topic")))
+                        .append("sampleDlqId", new Document("$first", "$dlqId"))),
+                new Document("$sort", new Document("count", -1).append("_id", 1)),
+                new Document("$limit", n));
+
+        JsonArray out = new JsonArray();
+        for (Document d : rawCol.aggregate(pipeline).allowDiskUse(true)) {
+            JsonObject jo = new JsonObject();
+            jo.addProperty("payloadSha256", d.getString("_id"));
+            jo.addProperty("count", asLong(d.get("count")));
+            jo.addProperty("whyCode", d.getString("whyCode"));
+            jo.addProperty("topic", d.getString("topic"));
+            jo.addProperty("firstSeen", iso(d.getDate("firstSeen")));
+            jo.addProperty("lastSeen", iso(d.getDate("lastSeen")));
+            jo.addProperty("sampleDlqId", d.getString("sampleDlqId"));
+            out.add(jo);
+        }
+        return out;
+    }
+
+    private static JsonArray topFromAggregates(MongoCollection<Document> aggCol, Date from, Date to, int n) {
+        Document filter = new Document()
+                .append("lastSeen", new Document("$gte", from))
+                .append("firstSeen", new Document("$lte", to));
+
+        JsonArray out = new JsonArray();
+        for (Document d : aggCol.find(filter).sort(new Document("count", -1)).limit(n)) {
+            JsonObject jo = new JsonObject();
+            jo.addProperty("fingerprint", String.valueOf(d.get("_id")));
+            jo.addProperty("payloadSha256", d.getString("payloadSha256"));
+            jo.addProperty("count", asLong(d.get("count")));
+            jo.addProperty("whyCode", d.getString("whyCode"));
+            jo.addProperty("topic", d.getString("topic"));
+            jo.addProperty("firstSeen", iso(d.getDate("firstSeen")));
+            jo.addProperty("lastSeen", iso(d.getDate("lastSeen")));
+            out.add(jo);
+        }
+        return out;
+    }
+
+    //-----shaping----------------------------------------------------
+    static JsonObject render(String kind,
+                             String fromTime,
+                             String toTime,
+                             String source,
+                             List<Document> groups,
+                             JsonArray top) {
+        JsonArray rows = new JsonArray();
+        Map<String, Long> byWhy = new LinkedHashMap<String, Long>();
+        Map<String, Long> byTopic = new LinkedHashMap<String, Long>();
+        long total = 0L;
+
+        for (Document g : groups) {
+            long c = asLong(g.get("count"));
+            String why = orUnknown(g.getString("whyCode"));
+            String topic = orUnknown(g.getString("topic"));
+
+            JsonObject row = new JsonObject();
+            row.addProperty("bucket", iso(g.getDate("bucket")));
+            row.addProperty("whyCode", why);
+            row.addProperty("topic", topic);
+            row.addProperty("count", c);
+            rows.add(row);
+
+            byWhy.merge(why, c, Long::sum);
+            byTopic.merge(topic, c, Long::sum);
+            total += c;
+        }
+
+        JsonObject out = new JsonObject();
+        out.addProperty("kind", kind);
+        out.addProperty("fromTime", fromTime);
+        out.addProperty("toTime", toTime);
+        out.addProperty("bucket", "hour");
+        out.addProperty("source", source);
+        out.addProperty("total", total);
+        out.add("byWhyCode", counts(byWhy));
+        out.add("byTopic", counts(byTopic));
+        out.add("groups", rows);
+        out.add("topFingerprints", top == null ? new JsonArray() : top);
+        return out;
+    }
+
+    /**
+     * Sums groups with the same (bucket, whyCode, topic), ordered like the single-source reads.
+     */
+    static List<Document> mergeGroups(List<Document> a, List<Document> b) {
+        Map<String, Document> byKey = new LinkedHashMap<String, Document>();
+        List<Document> all = new ArrayList<Document>(a);
+        all.addAll(b);
+        for (Document g : all) {
+            String why = orUnknown(g.getString("whyCode"));
+            String topic = orUnknown(g.getString("topic"));
+            Document merged = byKey.computeIfAbsent(rollupId(g.getDate("bucket"), why, topic), k -> new Document()
+                    .append("bucket", g.getDate("bucket"))
+                    .append("whyCode", why)
+                    .append("topic", topic)
+                    .append("count", 0L));
+            merged.put("count", asLong(merged.get("count")) + asLong(g.get("count")));
+        }
+
+        List<Document> out = new ArrayList<Document>(byKey.values());
+        out.sort(java.util.Comparator
+                .comparing((Document g) -> g.getDate("bucket"))
+                .thenComparing(g -> g.getString("whyCode"))
+                .thenComparing(g -> g.getString("topic")));
+        return out;
+    }
+
+    static Date hourBucket(Date t) {
+        return new Date(Math.floorDiv(t.getTime(), HOUR_MS) * HOUR_MS);
+    }
+
+    static String rollupId(Date bucket, String whyCode, String topic) {
+        return bucket.getTime() + "|" + whyCode + "|" + topic;
+    }
+
+    static int clampTopN(int topN) {
+        if (topN <= 0) {
+            return DEFAULT_TOP_N;
+        }
+        return Math.min(topN, MAX_TOP_N);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private static Document window(Date from, Date to) {
+        return new Document("createdAt", new Document("$gte", from).append("$lte", to));
+    }
+
+    private static Document ifNullUnknown(String field) {
+        return new Document("$ifNull", List.of(field, DLQFingerprint.UNKNOWN));
+    }
+
+    private static JsonObject counts(Map<String, Long> m) {
+        JsonObject jo = new JsonObject();
+        for (Map.Entry<String, Long> e : m.entrySet()) {
+            jo.addProperty(e.getKey(), e.getValue());
+        }
+        return jo;
+    }
+
+    private static String orUnknown(String s) {
+        return (s == null || s.isEmpty()) ? DLQFingerprint.UNKNOWN : s;
+    }
+
+    private static long asLong(Object o) {
+        return (o instanceof Number) ? ((Number) o).longValue() : 0L;
+    }
+
+    private static String iso(Date d) {
+        return (d == null) ? null : d.toInstant().toString();
+    }
+}
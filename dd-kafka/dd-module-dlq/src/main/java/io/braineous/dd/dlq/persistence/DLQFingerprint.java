@@ -0,0 +1,83 @@
+package io.braineous.dd.dlq.persistence;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Identity of a "kind of failure" for DLQ aggregation: sha256(whyCode | topic | payloadSha256).
+ *
+ * whyCode is the code DLQOrchestrator stamps on the payload (dlqSystemCode / dlqDomainCode),
+ * topic is kafka.topic of the failed event. Either may be missing (non-JSON payload, legacy
+ * producer); the fingerprint then degrades to the payload hash alone, which is still stable.
+ */
+public final class DLQFingerprint {
+
+    public static final String UNKNOWN = "unknown";
+
+    private final String whyCode;
+    private final String topic;
+    private final String payloadSha256;
+    private final String fingerprint;
+
+    private DLQFingerprint(String whyCode, String topic, String payloadSha256) {
+        this.whyCode = whyCode;
+        this.topic = topic;
+        this.payloadSha256 = payloadSha256;
+        this.fingerprint = sha256(whyCode + "|" + topic + "|" + payloadSha256);
+    }
+
+    public static DLQFingerprint of(String kind, String payload) {
+        String why = UNKNOWN;
+        String topic = UNKNOWN;
+
+        try {
+            JsonElement root = JsonParser.parseString(payload);
+            if (root.isJsonObject()) {
+                JsonObject o = root.getAsJsonObject();
+
+                String codeField = "domain".equals(kind) ? "dlqDomainCode" : "dlqSystemCode";
+                why = str(o, codeField, UNKNOWN);
+
+                JsonElement kafka = o.get("kafka");
+                if (kafka != null && kafka.isJsonObject()) {
+                    topic = str(kafka.getAsJsonObject(), "topic", UNKNOWN);
+                }
+            }
+        } catch (Exception ignored) {
+            // opaque payload: fingerprint on the hash only
+        }
+
+        return new DLQFingerprint(why, topic, sha256(payload));
+    }
+
+    public String whyCode() {
+        return whyCode;
+    }
+
+    public String topic() {
+        return topic;
+    }
+
+    public String payloadSha256() {
+        return payloadSha256;
+    }
+
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private static String str(JsonObject o, String field, String def) {
+        JsonElement e = o.get(field);
+        if (e == null || e.isJsonNull() || !e.isJsonPrimitive()) {
+            return def;
+        }
+        String s = e.getAsString();
+        return (s == null || s.trim().isEmpty()) ? def : s.trim();
+    }
+
+    static String sha256(String s) {
+        return io.braineous.dd.core.identity.PayloadIdentity.sha256Hex(s);
+    }
+}
@@ -0,0 +1,123 @@
+package io.braineous.dd.dlq.persistence;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import io.braineous.dd.quarkus.core.index.QueryShape;
+import io.braineous.dd.quarkus.core.index.QueryShapeProvider;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query shapes issued against dlq_domain / dlq_system by MongoDLQStore and the replay store.
+ */
+@ApplicationScoped
+public class DLQQueryShapes implements QueryShapeProvider {
+
+    public static final String DOMAIN_COL = "dlq_domain";
+    public static final String SYSTEM_COL = "dlq_system";
+
+    public static final String DOMAIN_AGG_COL = "dlq_domain_agg";
+    public static final String SYSTEM_AGG_COL = "dlq_system_agg";
+
+    public static final String DOMAIN_ROLLUP_COL = "dlq_domain_rollup";
+    public static final String SYSTEM_ROLLUP_COL = "dlq_system_rollup";
+
+    public static List<QueryShape> shapesFor(String collection) {
+        java.util.Date sampleTime = java.util.Date.from(java.time.Instant.parse("2026-01-01T00:00:00Z"));
+
+        List<QueryShape> out = new ArrayList<QueryShape>();
+
+        // findById + replay by dlqId (sort createdAt, _id over a single hit)
+        // unique dlqId ONLY when dlqId exists
+        out.add(new QueryShape(
+                "dlq.byDlqId",
+                collection,
+                new Document("dlqId", 1),
+                new IndexOptions()
+                        .unique(true)
+                        .partialFilterExpression(new Document("dlqId", new Document("$exists", true))),
+                new Document("dlqId", "DD-DLQ-shape"),
+                new Document("createdAt", 1).append("_id", 1)
+        ));
+
+        // findByTimeWindow
+        out.add(new QueryShape(
+                "dlq.byTimeWindow",
+                collection,
+                new Document("createdAt", -1),
+                null,
+                new Document("createdAt", new Document("$gte", sampleTime).append("$lte", sampleTime)),
+                new Document("createdAt", -1)
+        ));
+
+        // payload correlation
+        out.add(new QueryShape(
+                "dlq.byPayloadSha256",
+                collection,
+                new Document("payloadSha256", 1),
+                null,
+                new Document("payloadSha256", "shape"),
+                null
+        ));
+
+        return out;
+    }
+
+    /**
+     * Fingerprint aggregates (_id = fingerprint, so the upsert path needs no extra index).
+     */
+    public static List<QueryShape> aggShapesFor(String collection) {
+        java.util.Date sampleTime = java.util.Date.from(java.time.Instant.parse("2026-01-01T00:00:00Z"));
+
+        List<QueryShape> out = new ArrayList<QueryShape>();
+
+        // findAggregates: active-in-window, newest first
+        out.add(new QueryShape(
+                "dlq.agg.byLastSeen",
+                collection,
+                new Document("lastSeen", -1),
+                null,
+                new Document("lastSeen", new Document("$gte", sampleTime))
+                        .append("firstSeen", new Document("$lte", sampleTime)),
+                new Document("lastSeen", -1)
+        ));
+
+        return out;
+    }
+
+    /**
+     * Hourly analytics rollups (_id = bucket|whyCode|topic, so the $inc upsert needs no extra index).
+     */
+    public static List<QueryShape> rollupShapesFor(String collection) {
+        java.util.Date sampleTime = java.util.Date.from(java.time.Instant.parse("2026-01-01T00:00:00Z"));
+
+        List<QueryShape> out = new ArrayList<QueryShape>();
+
+        // DLQAnalytics rollup read: buckets in window, oldest first
+        out.add(new QueryShape(
+                "dlq.rollup.byBucket",
+                collection,
+                new Document("bucket", 1).append("whyCode", 1).append("topic", 1),
+                null,
+                new Document("bucket", new Document("$gte", sampleTime).append("$lte", sampleTime)),
+                new Document("bucket", 1).append("whyCode", 1).append("topic", 1)
+        ));
+
+        return out;
+    }
+
+    @Override
+    public List<QueryShape> queryShapes(MongoDatabase db) {
+        List<QueryShape> out = new ArrayList<QueryShape>();
+        out.addAll(shapesFor(DOMAIN_COL));
+        out.addAll(shapesFor(SYSTEM_COL));
+        out.addAll(aggShapesFor(DOMAIN_AGG_COL));
+        out.addAll(aggShapesFor(SYSTEM_AGG_COL));
+        out.addAll(rollupShapesFor(DOMAIN_ROLLUP_COL));
+        out.addAll(rollupShapesFor(SYSTEM_ROLLUP_COL));
+        return out;
+    }
+}
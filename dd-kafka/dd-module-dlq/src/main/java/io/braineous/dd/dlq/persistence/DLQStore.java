@@ -9,9 +9,66 @@ public interface DLQStore {
 
     public void storeSystemFailure(String payload);
 
+    // one Kafka poll at a time; stores without a bulk path fall back to per-record writes
+    default void storeDomainFailures(java.util.List<String> payloads) {
+        if (payloads == null) {
+            return;
+        }
+        for (String payload : payloads) {
+            storeDomainFailure(payload);
+        }
+    }
+
+    default void storeSystemFailures(java.util.List<String> payloads) {
+        if (payloads == null) {
+            return;
+        }
+        for (String payload : payloads) {
+            storeSystemFailure(payload);
+        }
+    }
+
     public JsonArray findSystemFailureByTimeWindow(String fromTime, String toTime);
     public JsonObject findSystemFailureById(String dlqId);
 
     public JsonArray findDomainFailureByTimeWindow(String fromTime, String toTime);
     public JsonObject findDomainFailureById(String dlqId);
+
+    // response streaming: same JSON as the find* methods, written straight to out.
+    // stores without a raw read path fall back to rendering the Gson tree.
+    default void writeSystemFailuresByTimeWindow(String fromTime, String toTime, java.io.Writer out)
+            throws java.io.IOException {
+        out.write(findSystemFailureByTimeWindow(fromTime, toTime).toString());
+    }
+
+    default void writeSystemFailureById(String dlqId, java.io.Writer out) throws java.io.IOException {
+        out.write(findSystemFailureById(dlqId).toString());
+    }
+
+    default void writeDomainFailuresByTimeWindow(String fromTime, String toTime, java.io.Writer out)
+            throws java.io.IOException {
+        out.write(findDomainFailureByTimeWindow(fromTime, toTime).toString());
+    }
+
+    default void writeDomainFailureById(String dlqId, java.io.Writer out) throws java.io.IOException {
+        out.write(findDomainFailureById(dlqId).toString());
+    }
+
+    // fingerprint aggregates (dd.dlq.aggregate.enabled); stores without aggregation return empty
+    default JsonArray findSystemFailureAggregates(String fromTime, String toTime) {
+        return new JsonArray();
+    }
+
+    default JsonArray findDomainFailureAggregates(String fromTime, String toTime) {
+        return new JsonArray();
+    }
+
+    // counts by hour/whyCode/topic + top-N payload fingerprints (see DLQAnalytics); empty when unsupported
+    default JsonObject findSystemFailureAnalytics(String fromTime, String toTime, int topN) {
+        return new JsonObject();
+    }
+
+    default JsonObject findDomainFailureAnalytics(String fromTime, String toTime, int topN) {
+        return new JsonObject();
+    }
 }
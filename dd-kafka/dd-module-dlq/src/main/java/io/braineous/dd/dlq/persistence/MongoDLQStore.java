@@ -3,67 +3,133 @@ package io.braineous.dd.dlq.persistence;
 import ai.braineous.rag.prompt.observe.Console;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.quarkus.core.index.QueryShape;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// indexes: declared in DLQQueryShapes, built at startup by MongoIndexManager;
+// first use of each collection also runs a best-effort ensureIndexes fallback, repeated every
+// dd.dlq.index.recheck.ms so a collection dropped under a running writer gets its indexes back
 @ApplicationScoped
 public class MongoDLQStore implements DLQStore {
-    private final java.util.concurrent.atomic.AtomicBoolean domainIndexed =
-            new java.util.concurrent.atomic.AtomicBoolean(false);
 
-    private final java.util.concurrent.atomic.AtomicBoolean systemIndexed =
-            new java.util.concurrent.atomic.AtomicBoolean(false);
+    // aggregated mode: one upsert per failure into dlq_*_agg (keyed by DLQFingerprint);
+    // the full record is only written for the first N occurrences of each fingerprint
+    public static final String P_AGGREGATE_ENABLED = "dd.dlq.aggregate.enabled";
+    public static final String P_AGGREGATE_SAMPLE_SIZE = "dd.dlq.aggregate.sample.size";
+
+    public static final String P_INDEX_RECHECK_MS = "dd.dlq.index.recheck.ms";
 
     @Inject
     com.mongodb.client.MongoClient mongoClient;
 
-    private void ensureIndexes(com.mongodb.client.MongoCollection<org.bson.Document> col) {
+    // collection -> when its fallback index build last ran
+    private final Map<String, Long> indexedAt = new ConcurrentHashMap<String, Long>();
 
-        // unique dlqId ONLY when dlqId exists
-        col.createIndex(
-                new org.bson.Document("dlqId", 1),
-                new com.mongodb.client.model.IndexOptions()
-                        .unique(true)
-                        .partialFilterExpression(new org.bson.Document("dlqId", new org.bson.Document("$exists", true)))
-        );
+    private com.mongodb.client.MongoCollection<org.bson.Document> domainCol() {
+        return collection(DLQQueryShapes.DOMAIN_COL, DLQQueryShapes.shapesFor(DLQQueryShapes.DOMAIN_COL));
+    }
 
-        col.createIndex(new org.bson.Document("createdAt", -1));
-        col.createIndex(new org.bson.Document("payloadSha256", 1));
+    private com.mongodb.client.MongoCollection<org.bson.Document> systemCol() {
+        return collection(DLQQueryShapes.SYSTEM_COL, DLQQueryShapes.shapesFor(DLQQueryShapes.SYSTEM_COL));
     }
 
-    private com.mongodb.client.MongoCollection<org.bson.Document> domainCol() {
-        return mongoClient
-                .getDatabase("dd")
-                .getCollection("dlq_domain");
+    private com.mongodb.client.MongoCollection<org.bson.Document> domainAggCol() {
+        return collection(DLQQueryShapes.DOMAIN_AGG_COL, DLQQueryShapes.aggShapesFor(DLQQueryShapes.DOMAIN_AGG_COL));
     }
 
-    private com.mongodb.client.MongoCollection<org.bson.Document> systemCol() {
-        return mongoClient
+    private com.mongodb.client.MongoCollection<org.bson.Document> systemAggCol() {
+        return collection(DLQQueryShapes.SYSTEM_AGG_COL, DLQQueryShapes.aggShapesFor(DLQQueryShapes.SYSTEM_AGG_COL));
+    }
+
+    private com.mongodb.client.MongoCollection<org.bson.Document> domainRollupCol() {
+        return collection(DLQQueryShapes.DOMAIN_ROLLUP_COL, DLQQueryShapes.rollupShapesFor(DLQQueryShapes.DOMAIN_ROLLUP_COL));
+    }
+
+    private com.mongodb.client.MongoCollection<org.bson.Document> systemRollupCol() {
+        return collection(DLQQueryShapes.SYSTEM_ROLLUP_COL, DLQQueryShapes.rollupShapesFor(DLQQueryShapes.SYSTEM_ROLLUP_COL));
+    }
+
+    private com.mongodb.client.MongoCollection<org.bson.Document> collection(
+            String name, List<QueryShape> shapes) {
+        com.mongodb.client.MongoCollection<org.bson.Document> col = mongoClient
                 .getDatabase("dd")
-                .getCollection("dlq_system");
+                .getCollection(name);
+        long now = System.currentTimeMillis();
+        Long last = indexedAt.get(name);
+        if (last == null || now - last.longValue() >= indexRecheckMs()) {
+            // one caller per round runs the build
+            boolean mine = (last == null)
+                    ? indexedAt.putIfAbsent(name, Long.valueOf(now)) == null
+                    : indexedAt.replace(name, last, Long.valueOf(now));
+            if (mine) {
+                ensureIndexes(col, shapes);
+            }
+        }
+        return col;
+    }
+
+    private static long indexRecheckMs() {
+        return DDProps.longProp(P_INDEX_RECHECK_MS, 60_000L);
+    }
+
+    // Best-effort only. Never break the DLQ write.
+    // Startup builds go through MongoIndexManager; this covers a writer that takes traffic before
+    // (or without) the manager pass. createIndex is a no-op for an index that already exists.
+    private void ensureIndexes(com.mongodb.client.MongoCollection<org.bson.Document> col,
+                               List<QueryShape> shapes) {
+        for (QueryShape shape : shapes) {
+            try {
+                col.createIndex(shape.indexKeys(), shape.indexOptions());
+            } catch (Exception e) {
+                Console.log("dlq_ensure_index_failed", shape.id() + " " + e.getMessage());
+            }
+        }
     }
 
     @Override
     public void storeDomainFailure(String payload) {
         if (payload == null || payload.trim().isEmpty()) return;
 
-        if (domainIndexed.compareAndSet(false, true)) {
-            ensureIndexes(domainCol());
+        if (aggregateEnabled()) {
+            storeAggregated(domainCol(), domainAggCol(), "domain", payload);
+            return;
         }
 
         String dlqId = newDlqId();
+        DLQFingerprint fp = DLQFingerprint.of("domain", payload);
+        Date now = Date.from(Instant.now());
         org.bson.Document doc = new org.bson.Document()
                 .append("dlqId", dlqId)
                 .append("kind", "domain")
 
                 //very important meta data to map a system event (kafka)
                 //to a business event (CGO)
-                .append("createdAt", java.util.Date.from(java.time.Instant.now()))
+                .append("createdAt", now)
 
-                .append("payloadSha256", sha256(payload))
+                .append("whyCode", fp.whyCode())
+                .append("topic", fp.topic())
+                .append("payloadSha256", fp.payloadSha256())
                 .append("payload", payload);
 
         domainCol().insertOne(doc);
+        rollup("domain", now, List.of(fp));
         Console.log("dlq_store_domain_ok", dlqId);
     }
 
@@ -71,26 +137,42 @@ public class MongoDLQStore implements DLQStore {
     public void storeSystemFailure(String payload) {
         if (payload == null || payload.trim().isEmpty()) return;
 
-        if (systemIndexed.compareAndSet(false, true)) {
-            ensureIndexes(systemCol());
+        if (aggregateEnabled()) {
+            storeAggregated(systemCol(), systemAggCol(), "system", payload);
+            return;
         }
 
         String dlqId = newDlqId();
+        DLQFingerprint fp = DLQFingerprint.of("system", payload);
+        Date now = Date.from(Instant.now());
         org.bson.Document doc = new org.bson.Document()
                 .append("dlqId", dlqId)
                 .append("kind", "system")
 
                 //very important meta data to map a system event (kafka)
                 //to a business event (CGO)
-                .append("createdAt", java.util.Date.from(java.time.Instant.now()))
+                .append("createdAt", now)
 
-                .append("payloadSha256", sha256(payload))
+                .append("whyCode", fp.whyCode())
+                .append("topic", fp.topic())
+                .append("payloadSha256", fp.payloadSha256())
                 .append("payload", payload);
 
         systemCol().insertOne(doc);
+        rollup("system", now, List.of(fp));
         Console.log("dlq_store_system_ok", dlqId);
     }
 
+    @Override
+    public void storeDomainFailures(List<String> payloads) {
+        storeMany(domainCol(), domainAggCol(), "domain", payloads);
+    }
+
+    @Override
+    public void storeSystemFailures(List<String> payloads) {
+        storeMany(systemCol(), systemAggCol(), "system", payloads);
+    }
+
     @Override
     public JsonArray findSystemFailureByTimeWindow(String fromTime, String toTime) {
         return findByTimeWindow(systemCol(), fromTime, toTime);
@@ -111,23 +193,274 @@ public class MongoDLQStore implements DLQStore {
         return findById(domainCol(), dlqId);
     }
 
+    @Override
+    public void writeSystemFailuresByTimeWindow(String fromTime, String toTime, Writer out)
+            throws IOException {
+        writeByTimeWindow(systemCol(), fromTime, toTime, out);
+    }
 
+    @Override
+    public void writeSystemFailureById(String dlqId, Writer out) throws IOException {
+        writeById(systemCol(), dlqId, out);
+    }
 
-    //-----helpers----------------------------------------------------
-    private static String newDlqId() {
-        return "DD-DLQ-" + java.util.UUID.randomUUID();
+    @Override
+    public void writeDomainFailuresByTimeWindow(String fromTime, String toTime, Writer out)
+            throws IOException {
+        writeByTimeWindow(domainCol(), fromTime, toTime, out);
+    }
+
+    @Override
+    public void writeDomainFailureById(String dlqId, Writer out) throws IOException {
+        writeById(domainCol(), dlqId, out);
     }
 
-    private static String sha256(String s) {
+    @Override
+    public JsonArray findSystemFailureAggregates(String fromTime, String toTime) {
+        return findAggregates(systemAggCol(), fromTime, toTime);
+    }
+
+    @Override
+    public JsonArray findDomainFailureAggregates(String fromTime, String toTime) {
+        return findAggregates(domainAggCol(), fromTime, toTime);
+    }
+
+    @Override
+    public JsonObject findSystemFailureAnalytics(String fromTime, String toTime, int topN) {
+        return DLQAnalytics.analytics(systemCol(), systemRollupCol(), systemAggCol(),
+                aggregateEnabled(), "system", fromTime, toTime, topN);
+    }
+
+    @Override
+    public JsonObject findDomainFailureAnalytics(String fromTime, String toTime, int topN) {
+        return DLQAnalytics.analytics(domainCol(), domainRollupCol(), domainAggCol(),
+                aggregateEnabled(), "domain", fromTime, toTime, topN);
+    }
+
+
+
+    //-----bulk----------------------------------------------------
+    /**
+     * One unordered insertMany per poll: a bad document does not stop the rest of the batch.
+     * Aggregated mode keeps its per-record upsert (the write is already bounded by fingerprints).
+     */
+    private void storeMany(
+            com.mongodb.client.MongoCollection<org.bson.Document> col,
+            com.mongodb.client.MongoCollection<org.bson.Document> aggCol,
+            String kind,
+            List<String> payloads
+    ) {
+        if (payloads == null || payloads.isEmpty()) return;
+
+        if (aggregateEnabled()) {
+            // one failing upsert must not cost the rest of the poll
+            for (String payload : payloads) {
+                if (payload == null || payload.trim().isEmpty()) continue;
+                try {
+                    storeAggregated(col, aggCol, kind, payload);
+                } catch (RuntimeException e) {
+                    Console.log("dlq_store_" + kind + "_aggregate_failed", String.valueOf(e));
+                }
+            }
+            return;
+        }
+
+        Date now = Date.from(Instant.now());
+        List<org.bson.Document> docs = new ArrayList<org.bson.Document>(payloads.size());
+        List<DLQFingerprint> fps = new ArrayList<DLQFingerprint>(payloads.size());
+        for (String payload : payloads) {
+            if (payload == null || payload.trim().isEmpty()) continue;
+
+            DLQFingerprint fp = DLQFingerprint.of(kind, payload);
+            fps.add(fp);
+            docs.add(new org.bson.Document()
+                    .append("dlqId", newDlqId())
+                    .append("kind", kind)
+                    .append("createdAt", now)
+                    .append("whyCode", fp.whyCode())
+                    .append("topic", fp.topic())
+                    .append("payloadSha256", fp.payloadSha256())
+                    .append("payload", payload));
+        }
+        if (docs.isEmpty()) return;
+
+        // anything but a per-document write error propagates to DlqProcessor, which logs it and
+        // acks the poll (the batch is not redelivered)
         try {
-            var md = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] h = md.digest(s.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            var sb = new StringBuilder(h.length * 2);
-            for (byte b : h) sb.append(String.format("%02x", b));
-            return sb.toString();
+            col.insertMany(docs, new com.mongodb.client.model.InsertManyOptions().ordered(false));
+            Console.log("dlq_store_" + kind + "_batch_ok", docs.size());
+        } catch (com.mongodb.MongoBulkWriteException e) {
+            int failed = e.getWriteErrors().size();
+            Console.log("dlq_store_" + kind + "_batch_partial",
+                    "inserted=" + (docs.size() - failed) + " failed=" + failed);
+
+            // roll up only what was stored
+            Set<Integer> rejected = new HashSet<Integer>();
+            for (com.mongodb.bulk.BulkWriteError we : e.getWriteErrors()) {
+                rejected.add(we.getIndex());
+            }
+            List<DLQFingerprint> stored = new ArrayList<DLQFingerprint>(fps.size());
+            for (int i = 0; i < fps.size(); i++) {
+                if (!rejected.contains(i)) {
+                    stored.add(fps.get(i));
+                }
+            }
+            fps = stored;
+        }
+
+        rollup(kind, now, fps);
+    }
+
+    //-----aggregation----------------------------------------------------
+    /**
+     * One $inc upsert on the fingerprint doc per failure. The first sampleSize occurrences also get
+     * the usual full record (tagged with the fingerprint) so every distinct failure stays replayable;
+     * their dlqIds are kept in sampleDlqIds ($push + positive $slice keeps the first N).
+     */
+    private void storeAggregated(
+            com.mongodb.client.MongoCollection<org.bson.Document> col,
+            com.mongodb.client.MongoCollection<org.bson.Document> aggCol,
+            String kind,
+            String payload
+    ) {
+        DLQFingerprint fp = DLQFingerprint.of(kind, payload);
+        int sampleSize = sampleSize();
+
+        String dlqId = newDlqId();
+        Date now = Date.from(Instant.now());
+
+        org.bson.Document update = new org.bson.Document()
+                .append("$inc", new org.bson.Document("count", 1L))
+                .append("$min", new org.bson.Document("firstSeen", now))
+                .append("$max", new org.bson.Document("lastSeen", now))
+                .append("$setOnInsert", new org.bson.Document()
+                        .append("kind", kind)
+                        .append("whyCode", fp.whyCode())
+                        .append("topic", fp.topic())
+                        .append("payloadSha256", fp.payloadSha256()))
+                .append("$push", new org.bson.Document("sampleDlqIds",
+                        new org.bson.Document("$each", List.of(dlqId))
+                                .append("$slice", sampleSize)));
+
+        long count = upsertAggregate(aggCol, fp.fingerprint(), update);
+        rollup(kind, now, List.of(fp));
+
+        if (count <= sampleSize) {
+            org.bson.Document doc = new org.bson.Document()
+                    .append("dlqId", dlqId)
+                    .append("kind", kind)
+                    .append("createdAt", now)
+                    .append("whyCode", fp.whyCode())
+                    .append("topic", fp.topic())
+                    .append("payloadSha256", fp.payloadSha256())
+                    .append("fingerprint", fp.fingerprint())
+                    .append("payload", payload);
+
+            col.insertOne(doc);
+            Console.log("dlq_store_" + kind + "_ok", dlqId);
+            return;
+        }
+
+        Console.log("dlq_store_" + kind + "_aggregated", fp.fingerprint() + " count=" + count);
+    }
+
+    private static long upsertAggregate(
+            com.mongodb.client.MongoCollection<org.bson.Document> aggCol,
+            String fingerprint,
+            org.bson.Document update
+    ) {
+        com.mongodb.client.model.FindOneAndUpdateOptions opts =
+                new com.mongodb.client.model.FindOneAndUpdateOptions()
+                        .upsert(true)
+                        .returnDocument(com.mongodb.client.model.ReturnDocument.AFTER)
+                        .projection(new org.bson.Document("count", 1));
+
+        org.bson.Document filter = new org.bson.Document("_id", fingerprint);
+
+        org.bson.Document after;
+        try {
+            after = aggCol.findOneAndUpdate(filter, update, opts);
+        } catch (com.mongodb.MongoCommandException e) {
+            // two first-occurrence upserts raced on _id: the loser retries as a plain update
+            if (e.getErrorCode() != 11000) {
+                throw e;
+            }
+            after = aggCol.findOneAndUpdate(filter, update, opts);
+        }
+
+        if (after == null) {
+            return 1L;
+        }
+        Object c = after.get("count");
+        return (c instanceof Number) ? ((Number) c).longValue() : 1L;
+    }
+
+    private JsonArray findAggregates(
+            com.mongodb.client.MongoCollection<org.bson.Document> aggCol,
+            String fromTime,
+            String toTime
+    ) {
+        JsonArray arr = new JsonArray();
+
+        if (fromTime == null || toTime == null) {
+            return arr;
+        }
+
+        Instant from;
+        Instant to;
+
+        try {
+            from = Instant.parse(fromTime);
+            to   = Instant.parse(toTime);
         } catch (Exception e) {
-            throw new IllegalStateException(e);
+            return arr;
         }
+
+        // fingerprints active at any point inside [from, to]
+        org.bson.Document filter = new org.bson.Document()
+                .append("lastSeen", new org.bson.Document("$gte", Date.from(from)))
+                .append("firstSeen", new org.bson.Document("$lte", Date.from(to)));
+
+        com.mongodb.client.MongoCursor<org.bson.Document> it =
+                aggCol.find(filter)
+                        .sort(new org.bson.Document("lastSeen", -1))
+                        .iterator();
+
+        try {
+            while (it.hasNext()) {
+                org.bson.Document d = it.next();
+                JsonObject jo = com.google.gson.JsonParser
+                        .parseString(d.toJson())
+                        .getAsJsonObject();
+                jo.add("fingerprint", jo.remove("_id"));
+                arr.add(jo);
+            }
+        } finally {
+            it.close();
+        }
+
+        return arr;
+    }
+
+    //-----analytics----------------------------------------------------
+    private void rollup(String kind, Date at, List<DLQFingerprint> fps) {
+        if (!DLQAnalytics.rollupEnabled()) return;
+        DLQAnalytics.recordRollup("domain".equals(kind) ? domainRollupCol() : systemRollupCol(), kind, at, fps);
+    }
+
+    private static boolean aggregateEnabled() {
+        return "true".equalsIgnoreCase(System.getProperty(P_AGGREGATE_ENABLED, "false"));
+    }
+
+    private static int sampleSize() {
+        // at least one full record per fingerprint, or it could not be replayed
+        long n = DDProps.longProp(P_AGGREGATE_SAMPLE_SIZE, 5L);
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, n));
+    }
+
+    //-----helpers----------------------------------------------------
+    private static String newDlqId() {
+        return "DD-DLQ-" + UUID.randomUUID();
     }
 
     private JsonArray findByTimeWindow(
@@ -141,19 +474,19 @@ public class MongoDLQStore implements DLQStore {
             return arr;
         }
 
-        java.time.Instant from;
-        java.time.Instant to;
+        Instant from;
+        Instant to;
 
         try {
-            from = java.time.Instant.parse(fromTime);
-            to   = java.time.Instant.parse(toTime);
+            from = Instant.parse(fromTime);
+            to   = Instant.parse(toTime);
         } catch (Exception e) {
             return arr;
         }
 
         org.bson.Document filter = new org.bson.Document("createdAt",
-                new org.bson.Document("$gte", java.util.Date.from(from))
-                        .append("$lte", java.util.Date.from(to))
+                new org.bson.Document("$gte", Date.from(from))
+                        .append("$lte", Date.from(to))
         );
 
         com.mongodb.client.MongoCursor<org.bson.Document> it =
@@ -197,4 +530,176 @@ public class MongoDLQStore implements DLQStore {
                 .parseString(d.toJson())
                 .getAsJsonObject();
     }
+
+    //-----streaming-----------------------------------------------
+    // RawBsonDocument keeps the wire bytes; a BsonReader walks them straight onto a Gson JsonWriter
+    // over the response. No Document, no intermediate JSON string, no Gson tree per record.
+    //
+    // The output is byte-for-byte what the find* path returns (Gson toString of the parsed
+    // Document.toJson() RELAXED output): compact, Gson string escaping, and the RELAXED extended-JSON
+    // forms for $oid / $date / $numberDouble. Types the DLQ never writes go through that same
+    // RELAXED -> Gson round trip, one value at a time.
+    private static final org.bson.json.JsonWriterSettings RELAXED =
+            org.bson.json.JsonWriterSettings.builder()
+                    .outputMode(org.bson.json.JsonMode.RELAXED)
+                    .build();
+
+    private static final org.bson.codecs.BsonValueCodec VALUE_CODEC =
+            new org.bson.codecs.BsonValueCodec();
+
+    // RELAXED renders $date as ISO-8601 only inside [1970, 9999]
+    private static final long LAST_MS_OF_YEAR_9999 = 253402300799999L;
+
+    private void writeByTimeWindow(
+            com.mongodb.client.MongoCollection<org.bson.Document> col,
+            String fromTime,
+            String toTime,
+            Writer out
+    ) throws IOException {
+
+        if (fromTime == null || toTime == null) {
+            out.write("[]");
+            return;
+        }
+
+        Instant from;
+        Instant to;
+
+        try {
+            from = Instant.parse(fromTime);
+            to   = Instant.parse(toTime);
+        } catch (Exception e) {
+            out.write("[]");
+            return;
+        }
+
+        org.bson.Document filter = new org.bson.Document("createdAt",
+                new org.bson.Document("$gte", Date.from(from))
+                        .append("$lte", Date.from(to))
+        );
+
+        com.mongodb.client.MongoCursor<org.bson.RawBsonDocument> it =
+                col.withDocumentClass(org.bson.RawBsonDocument.class)
+                        .find(filter)
+                        .sort(new org.bson.Document("createdAt", -1))
+                        .iterator();
+
+        try {
+            com.google.gson.stream.JsonWriter w = new com.google.gson.stream.JsonWriter(out);
+            w.beginArray();
+            while (it.hasNext()) {
+                writeRaw(it.next(), w);
+            }
+            w.endArray();
+            w.flush();
+        } finally {
+            it.close();
+        }
+    }
+
+    private void writeById(
+            com.mongodb.client.MongoCollection<org.bson.Document> col,
+            String dlqId,
+            Writer out
+    ) throws IOException {
+
+        if (dlqId == null || dlqId.trim().isEmpty()) {
+            out.write("{}");
+            return;
+        }
+
+        org.bson.RawBsonDocument d =
+                col.withDocumentClass(org.bson.RawBsonDocument.class)
+                        .find(new org.bson.Document("dlqId", dlqId))
+                        .first();
+
+        if (d == null) {
+            out.write("{}");
+            return;
+        }
+
+        com.google.gson.stream.JsonWriter w = new com.google.gson.stream.JsonWriter(out);
+        writeRaw(d, w);
+        w.flush();
+    }
+
+    private static void writeRaw(org.bson.RawBsonDocument d, com.google.gson.stream.JsonWriter w)
+            throws IOException {
+        try (org.bson.BsonReader r = d.asBsonReader()) {
+            writeDocument(r, w);
+        }
+    }
+
+    private static void writeDocument(org.bson.BsonReader r, com.google.gson.stream.JsonWriter w)
+            throws IOException {
+        r.readStartDocument();
+        w.beginObject();
+        while (r.readBsonType() != org.bson.BsonType.END_OF_DOCUMENT) {
+            w.name(r.readName());
+            writeValue(r, w);
+        }
+        r.readEndDocument();
+        w.endObject();
+    }
+
+    private static void writeValue(org.bson.BsonReader r, com.google.gson.stream.JsonWriter w)
+            throws IOException {
+        switch (r.getCurrentBsonType()) {
+            case DOCUMENT:
+                writeDocument(r, w);
+                return;
+            case ARRAY:
+                r.readStartArray();
+                w.beginArray();
+                while (r.readBsonType() != org.bson.BsonType.END_OF_DOCUMENT) {
+                    writeValue(r, w);
+                }
+                r.readEndArray();
+                w.endArray();
+                return;
+            case STRING:
+                w.value(r.readString());
+                return;
+            case INT32:
+                w.value(r.readInt32());
+                return;
+            case INT64:
+                w.value(r.readInt64());
+                return;
+            case DOUBLE:
+                double v = r.readDouble();
+                if (Double.isNaN(v) || Double.isInfinite(v)) {
+                    w.beginObject().name("$numberDouble").value(Double.toString(v)).endObject();
+                } else {
+                    w.jsonValue(Double.toString(v));
+                }
+                return;
+            case BOOLEAN:
+                w.value(r.readBoolean());
+                return;
+            case NULL:
+                r.readNull();
+                w.nullValue();
+                return;
+            case OBJECT_ID:
+                w.beginObject().name("$oid").value(r.readObjectId().toHexString()).endObject();
+                return;
+            case DATE_TIME:
+                long ms = r.readDateTime();
+                w.beginObject().name("$date");
+                if (ms < 0L || ms > LAST_MS_OF_YEAR_9999) {
+                    w.beginObject().name("$numberLong").value(Long.toString(ms)).endObject();
+                } else {
+                    w.value(DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(
+                            ZonedDateTime.ofInstant(
+                                    Instant.ofEpochMilli(ms), ZoneId.of("Z"))));
+                }
+                w.endObject();
+                return;
+            default:
+                org.bson.BsonValue other = VALUE_CODEC.decode(r, org.bson.codecs.DecoderContext.builder().build());
+                String json = new org.bson.BsonDocument("v", other).toJson(RELAXED);
+                w.jsonValue(com.google.gson.JsonParser.parseString(json).getAsJsonObject().get("v").toString());
+        }
+    }
 }
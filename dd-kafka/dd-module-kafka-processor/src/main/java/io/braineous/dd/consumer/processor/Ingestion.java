@@ -2,13 +2,16 @@ package io.braineous.dd.consumer.processor;
 
 import ai.braineous.rag.prompt.observe.Console;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import io.braineous.dd.consumer.service.DDEventOrchestrator;
+import io.braineous.dd.consumer.service.IngestionLanes;
 import io.braineous.dd.core.model.CaptureStore;
 import io.braineous.dd.ingestion.persistence.IngestionReceipt;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 
 
@@ -22,30 +25,54 @@ public class Ingestion {
     @Inject
     private DDEventOrchestrator orchestrator;
 
+    @Inject
+    private IngestionLanes lanes;
 
-    @Incoming("ingestion")
-    public void process(String ingestionJson) {
-        CaptureStore store = CaptureStore.getInstance();
 
-        if(ingestionJson == null || ingestionJson.trim().length() == 0){
+    // batch=true on the channel: one call per Kafka poll, one bulk store call, offsets acked once the batch returns
+    @Incoming("ingestion")
+    public void process(List<String> ingestionJsons) {
+        if (ingestionJsons == null || ingestionJsons.isEmpty()) {
             return;
         }
 
-        JsonObject ingestion = JsonParser.parseString(ingestionJson).getAsJsonObject();
-        if(ingestion == null){
-            return;
+        List<String> batch = new ArrayList<String>(ingestionJsons.size());
+        for (String ingestionJson : ingestionJsons) {
+            if (ingestionJson == null || ingestionJson.trim().length() == 0) {
+                continue;
+            }
+            batch.add(ingestionJson);
         }
 
-        JsonObject view = ingestion.get("view").getAsJsonObject();
+        // bad records are on DLQ-S with a null receipt; a store failure (in any lane) throws, so the poll
+        // is never acked: failure-strategy=fail stops the channel and the uncommitted records are
+        // consumed again on restart. Parallel mode returns once every lane is done and shards on the
+        // events parsed here
+        List<DDEventOrchestrator.PolledEvent> polled = DDEventOrchestrator.parse(batch);
+        List<IngestionReceipt> receipts = IngestionLanes.enabled()
+                ? this.lanes.dispatch(polled, p -> IngestionLanes.shardKey(p.event()), this.orchestrator::orchestratePolled)
+                : this.orchestrator.orchestratePolled(polled);
 
-        IngestionReceipt receipt = this.orchestrator.orchestrate(ingestionJson);
+        int stored = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (i < receipts.size() && receipts.get(i) != null) {
+                stored++;
+            }
+            capture(polled.get(i));
+        }
 
+        Console.log("dd_event_ingestion_batch", "records=" + batch.size() + " receipts=" + stored);
+    }
 
-        //for IT tests
-        store.add(ingestionJson);
+    //for IT tests
+    private void capture(DDEventOrchestrator.PolledEvent polled) {
+        CaptureStore store = CaptureStore.getInstance();
+        store.add(polled.raw());
 
-        Console.log("dd_event_ingestion", ingestionJson);
-        store.setSnapshot(view);
+        JsonObject ingestion = polled.event();
+        if (ingestion != null && ingestion.has("view") && ingestion.get("view").isJsonObject()) {
+            store.setSnapshot(ingestion.get("view").getAsJsonObject());
+        }
     }
 
 }
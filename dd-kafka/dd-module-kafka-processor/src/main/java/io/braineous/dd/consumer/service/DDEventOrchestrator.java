@@ -1,23 +1,28 @@
 package io.braineous.dd.consumer.service;
 
 import ai.braineous.rag.prompt.cgo.api.*;
+import ai.braineous.rag.prompt.observe.Console;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
 import io.braineous.dd.core.model.Why;
-import io.braineous.dd.dlq.service.DLQOrchestrator;
+import io.braineous.dd.dlq.service.DLQDispatcher;
 import io.braineous.dd.ingestion.persistence.IngestionReceipt;
 import io.braineous.dd.ingestion.persistence.IngestionStore;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @ApplicationScoped
 public class DDEventOrchestrator {
 
     @Inject
-    private DLQOrchestrator dlqOrch;
+    private DLQDispatcher dlqDispatcher;
 
     @Inject
     private IngestionStore store;
@@ -32,49 +37,182 @@ public class DDEventOrchestrator {
     public IngestionReceipt orchestrate(String ingestionStr) {
         try {
 
-            // ---------- fail-fast: payload ----------
-            if (ingestionStr == null || ingestionStr.trim().isEmpty()) {
-                throw new IllegalArgumentException("DD-ING-events_blank");
-            }
-
-            JsonElement ddEventElement = JsonParser.parseString(ingestionStr);
-
-            JsonObject ddEvent;
-            if (ddEventElement.isJsonArray()) {
-                JsonArray arr = ddEventElement.getAsJsonArray();
-                if (arr == null || arr.size() == 0) {
-                    throw new IllegalArgumentException("DD-ING-events_empty");
-                }
-                ddEvent = arr.get(0).getAsJsonObject();
-            } else if (ddEventElement.isJsonObject()) {
-                ddEvent = ddEventElement.getAsJsonObject();
-            } else {
-                throw new IllegalArgumentException("DD-ING-events_not_object");
-            }
+            JsonObject ddEvent = toDDEvent(ingestionStr);
 
             // ---- persist raw envelope for Replay/time-window surfaces ----
             IngestionReceipt receipt = store.storeIngestion(ddEvent.toString());
 
             //check for DLQ-S qualified failures and emit to the channel
             //still send receipt to the caller
-            if(!receipt.ok() && receipt.isSysDlqEnabled()){
-                Exception dlqException = new Exception(receipt.toJson().toString());
-                this.dlqOrch.orchestrateSystemFailure(dlqException, ingestionStr);
-            }
+            routeSystemFailure(receipt, ingestionStr);
 
             return receipt;
 
         } catch (IllegalArgumentException iae) {
             // hard domain fail: no ingestionId axis possible
             //record as DLQ System Failure
-            this.dlqOrch.orchestrateSystemFailure(iae, ingestionStr);
+            this.dlqDispatcher.systemFailure(iae, ingestionStr);
 
             throw iae;
         } catch (Exception e) {
             //record as DLQ System Failure
-            this.dlqOrch.orchestrateSystemFailure(e, ingestionStr);
+            this.dlqDispatcher.systemFailure(e, ingestionStr);
 
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * One Kafka poll: records are parsed one by one and persisted with a single storeIngestions call.
+     * Receipts line up with the input. A record rejected by parsing or validation goes to DLQ-S and
+     * has null in its slot, so one bad record does not fail the poll. A store failure is not routed
+     * to DLQ: it is rethrown so the poll is never acked. Under failure-strategy=fail that stops the
+     * channel; the uncommitted records are consumed again when the consumer restarts.
+     */
+    public List<IngestionReceipt> orchestrateBatch(List<String> ingestionStrs) {
+        return orchestratePolled(parse(ingestionStrs));
+    }
+
+    /**
+     * orchestrateBatch over records parsed up front (IngestionLanes shards on the parsed events).
+     */
+    public List<IngestionReceipt> orchestratePolled(List<PolledEvent> polled) {
+        List<IngestionReceipt> receipts = new ArrayList<IngestionReceipt>();
+        if (polled == null || polled.isEmpty()) {
+            return receipts;
+        }
+
+        List<String> ingestionStrs = new ArrayList<String>(polled.size());
+        List<String> payloads = new ArrayList<String>();
+        List<Integer> payloadAt = new ArrayList<Integer>();
+        for (int i = 0; i < polled.size(); i++) {
+            receipts.add(null);
+            PolledEvent p = polled.get(i);
+            ingestionStrs.add(p.raw());
+            if (p.event() == null) {
+                this.dlqDispatcher.systemFailure(p.error(), p.raw());
+                continue;
+            }
+            payloads.add(p.event().toString());
+            payloadAt.add(i);
+        }
+        if (payloads.isEmpty()) {
+            return receipts;
+        }
+
+        List<IngestionReceipt> stored = null;
+        try {
+            stored = store.storeIngestions(payloads);
+        } catch (Exception e) {
+            if (!rejected(e)) {
+                throw storeFailure(e);
+            }
+            // a record the store rejects fails the whole call: redo record by record (store is idempotent)
+            Console.log("dd_ingestion_batch_fallback", String.valueOf(e));
+        }
+
+        for (int k = 0; k < payloads.size(); k++) {
+            int i = payloadAt.get(k);
+            String ingestionStr = ingestionStrs.get(i);
+
+            IngestionReceipt receipt = (stored != null && k < stored.size()) ? stored.get(k) : null;
+            if (receipt == null) {
+                try {
+                    receipt = store.storeIngestion(payloads.get(k));
+                } catch (Exception e) {
+                    if (!rejected(e)) {
+                        throw storeFailure(e);
+                    }
+                    this.dlqDispatcher.systemFailure(e, ingestionStr);
+                    continue;
+                }
+            }
+
+            routeSystemFailure(receipt, ingestionStr);
+            receipts.set(i, receipt);
+        }
+
+        return receipts;
+    }
+
+    /**
+     * Parses each record of a poll once. A record that does not parse keeps its exception.
+     */
+    public static List<PolledEvent> parse(List<String> ingestionStrs) {
+        List<PolledEvent> out = new ArrayList<PolledEvent>();
+        if (ingestionStrs == null) {
+            return out;
+        }
+        for (String ingestionStr : ingestionStrs) {
+            try {
+                out.add(new PolledEvent(ingestionStr, toDDEvent(ingestionStr), null));
+            } catch (Exception e) {
+                out.add(new PolledEvent(ingestionStr, null, e));
+            }
+        }
+        return out;
+    }
+
+    public static final class PolledEvent {
+        private final String raw;
+        private final JsonObject event;
+        private final Exception error;
+
+        private PolledEvent(String raw, JsonObject event, Exception error) {
+            this.raw = raw;
+            this.event = event;
+            this.error = error;
+        }
+
+        public String raw() { return raw; }
+        // null when the record was rejected by parsing
+        public JsonObject event() { return event; }
+        public Exception error() { return error; }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private static JsonObject toDDEvent(String ingestionStr) {
+        // ---------- fail-fast: payload ----------
+        if (ingestionStr == null || ingestionStr.trim().isEmpty()) {
+            throw new IllegalArgumentException("DD-ING-events_blank");
+        }
+
+        JsonElement ddEventElement = JsonParser.parseString(ingestionStr);
+
+        if (ddEventElement.isJsonArray()) {
+            JsonArray arr = ddEventElement.getAsJsonArray();
+            if (arr == null || arr.size() == 0) {
+                throw new IllegalArgumentException("DD-ING-events_empty");
+            }
+            if (!arr.get(0).isJsonObject()) {
+                throw new IllegalArgumentException("DD-ING-events_not_object");
+            }
+            return arr.get(0).getAsJsonObject();
+        }
+        if (ddEventElement.isJsonObject()) {
+            return ddEventElement.getAsJsonObject();
+        }
+        throw new IllegalArgumentException("DD-ING-events_not_object");
+    }
+
+    // parsing / validation (gson syntax, receipt invariants): the record is bad, not the store.
+    // Nothing else qualifies: the driver throws IllegalStateException on a closed client, for one
+    private static boolean rejected(Exception e) {
+        return e instanceof IllegalArgumentException
+                || e instanceof JsonParseException;
+    }
+
+    // store failure: fail the poll, no DLQ (the records are consumed again, so DLQ-ing them would
+    // duplicate every entry on each retry)
+    private static RuntimeException storeFailure(Exception e) {
+        Console.log("dd_ingestion_store_failed", String.valueOf(e));
+        return new RuntimeException(e);
+    }
+
+    private void routeSystemFailure(IngestionReceipt receipt, String ingestionStr) {
+        if (!receipt.ok() && receipt.isSysDlqEnabled()) {
+            Exception dlqException = new Exception(receipt.toJson().toString());
+            this.dlqDispatcher.systemFailure(dlqException, ingestionStr);
+        }
+    }
 }
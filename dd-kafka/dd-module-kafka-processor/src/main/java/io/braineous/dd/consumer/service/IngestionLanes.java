@@ -0,0 +1,192 @@
+package io.braineous.dd.consumer.service;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.core.identity.PayloadIdentity;
+import io.braineous.dd.ingestion.persistence.IngestionReceipt;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Key-ordered parallel consumption for the ingestion channel (dd.ingestion.parallel.enabled, off by
+ * default). A poll is split by kafka.key (ingestionId when there is no key) onto N single-threaded
+ * lanes; a key always maps to the same lane and each lane takes its share in poll order, so records
+ * of one key are stored in the order they were consumed while different keys overlap, even within
+ * one partition.
+ *
+ * dispatch() returns only once every lane has finished its share, so the offset committed when the
+ * batch is acked never passes a record that is still in flight. A lane that throws fails the whole
+ * poll (after the other lanes are done), so it is never acked: under failure-strategy=fail the
+ * channel stops and the uncommitted records are consumed again on restart.
+ */
+@ApplicationScoped
+public class IngestionLanes {
+
+    public static final String P_ENABLED = "dd.ingestion.parallel.enabled";
+    public static final String P_LANES   = "dd.ingestion.parallel.lanes";
+
+    private final int lanes;
+    private volatile ExecutorService[] workers;
+
+    public IngestionLanes() {
+        this((int) DDProps.longProp(P_LANES, Runtime.getRuntime().availableProcessors()));
+    }
+
+    IngestionLanes(int lanes) {
+        this.lanes = Math.max(1, lanes);
+    }
+
+    public static boolean enabled() {
+        return "true".equalsIgnoreCase(System.getProperty(P_ENABLED, "false"));
+    }
+
+    /**
+     * Runs handler once per lane on that lane's share of the poll. Receipts line up with the input.
+     * If any lane throws, its failure is rethrown once every lane has finished.
+     */
+    public <T> List<IngestionReceipt> dispatch(List<T> batch, Function<T, String> keyOf,
+                                               Function<List<T>, List<IngestionReceipt>> handler) {
+        List<IngestionReceipt> receipts = new ArrayList<IngestionReceipt>();
+        if (batch == null || batch.isEmpty()) {
+            return receipts;
+        }
+
+        List<List<T>> shares = new ArrayList<List<T>>();
+        List<List<Integer>> positions = new ArrayList<List<Integer>>();
+        for (int l = 0; l < lanes; l++) {
+            shares.add(new ArrayList<T>());
+            positions.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            receipts.add(null);
+            int l = laneOf(keyOf.apply(batch.get(i)), lanes);
+            shares.get(l).add(batch.get(i));
+            positions.get(l).add(i);
+        }
+
+        ExecutorService[] ws = workers();
+        List<Future<List<IngestionReceipt>>> pending = new ArrayList<Future<List<IngestionReceipt>>>();
+        for (int l = 0; l < lanes; l++) {
+            List<T> share = shares.get(l);
+            pending.add(share.isEmpty() ? null : ws[l].submit(() -> handler.apply(share)));
+        }
+
+        // wait for every lane before returning: the ack (and commit) covers the whole poll
+        Throwable failed = null;
+        for (int l = 0; l < lanes; l++) {
+            Future<List<IngestionReceipt>> f = pending.get(l);
+            if (f == null) {
+                continue;
+            }
+
+            List<IngestionReceipt> laneReceipts;
+            try {
+                laneReceipts = f.get();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("DD-ING-lanes_interrupted", ie);
+            } catch (ExecutionException ee) {
+                Console.log("dd_ingestion_lane_failed", String.valueOf(ee.getCause()));
+                if (failed == null) {
+                    failed = ee.getCause();
+                }
+                continue;
+            }
+
+            List<Integer> at = positions.get(l);
+            for (int k = 0; laneReceipts != null && k < laneReceipts.size() && k < at.size(); k++) {
+                receipts.set(at.get(k), laneReceipts.get(k));
+            }
+        }
+
+        if (failed instanceof RuntimeException) {
+            throw (RuntimeException) failed;
+        }
+        if (failed != null) {
+            throw new RuntimeException(failed);
+        }
+        return receipts;
+    }
+
+    public int lanes() {
+        return lanes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService[] ws = workers;
+        if (ws == null) {
+            return;
+        }
+        for (ExecutorService w : ws) {
+            w.shutdown();
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    /**
+     * "k:" + kafka.key, else "i:" + ingestionId, else "" (any lane).
+     */
+    public static String shardKey(JsonObject ddEvent) {
+        if (ddEvent == null) {
+            return "";
+        }
+
+        JsonElement k = ddEvent.get("kafka");
+        if (k != null && k.isJsonObject()) {
+            String key = str(k.getAsJsonObject().get("key"));
+            if (key != null) {
+                return "k:" + key;
+            }
+        }
+
+        String ingestionId = str(ddEvent.get("ingestionId"));
+        if (ingestionId != null) {
+            return "i:" + ingestionId;
+        }
+        return "";
+    }
+
+    static int laneOf(String shardKey, int lanes) {
+        return (int) Long.remainderUnsigned(PayloadIdentity.xxHash64(shardKey), lanes);
+    }
+
+    private ExecutorService[] workers() {
+        ExecutorService[] ws = workers;
+        if (ws != null) {
+            return ws;
+        }
+        synchronized (this) {
+            if (workers == null) {
+                ExecutorService[] created = new ExecutorService[lanes];
+                for (int l = 0; l < lanes; l++) {
+                    String name = "dd-ingestion-lane-" + l;
+                    created[l] = Executors.newSingleThreadExecutor(r -> {
+                        Thread t = new Thread(r, name);
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                workers = created;
+            }
+            return workers;
+        }
+    }
+
+    private static String str(JsonElement e) {
+        if (e == null || e.isJsonNull() || !e.isJsonPrimitive()) {
+            return null;
+        }
+        return e.getAsString();
+    }
+}
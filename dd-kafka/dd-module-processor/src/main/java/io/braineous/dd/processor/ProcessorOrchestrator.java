@@ -10,7 +10,7 @@ import com.google.gson.JsonObject;
 
 import io.braineous.dd.cgo.DDCGOOrchestrator;
 import io.braineous.dd.core.model.DDEvent;
-import io.braineous.dd.dlq.service.DLQOrchestrator;
+import io.braineous.dd.dlq.service.DLQDispatcher;
 import io.braineous.dd.ingestion.persistence.MongoIngestionStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -37,7 +37,7 @@ public class ProcessorOrchestrator {
     private DDCGOOrchestrator cgoOrchestrator;
 
     @Inject
-    private DLQOrchestrator dlqOrch;
+    private DLQDispatcher dlqDispatcher;
 
 
     public void setHttpPoster(HttpPoster httpPoster) {
@@ -45,6 +45,18 @@ public class ProcessorOrchestrator {
     }
 
     public ProcessorResult orchestrate(JsonObject ddEventJson) {
+        return orchestrate(ddEventJson, this.httpPoster, true);
+    }
+
+    /**
+     * Shadow run (replay load/regression tests): the full pipeline, but the event is handed to
+     * poster instead of the live ingestion transport and failures are not written to the DLQ.
+     */
+    public ProcessorResult orchestrate(JsonObject ddEventJson, HttpPoster poster) {
+        return orchestrate(ddEventJson, poster, false);
+    }
+
+    private ProcessorResult orchestrate(JsonObject ddEventJson, HttpPoster poster, boolean dlq) {
         try {
             ProcessorResult validation = validate(ddEventJson);
             if (!validation.isOk()) {
@@ -63,8 +75,10 @@ public class ProcessorOrchestrator {
                     snapshot.snapshotHash().getValue().trim().length() == 0
             ) {
                 //record as DLQ Domain Failure
-                Exception e = new Exception(ddEventJson.toString());
-                this.dlqOrch.orchestrateDomainFailure(e, ddEventJson.toString());
+                if (dlq) {
+                    Exception e = new Exception(ddEventJson.toString());
+                    this.dlqDispatcher.domainFailure(e, ddEventJson.toString());
+                }
 
                 return ProcessorResult.fail(ddEventJson,
                         new Why("DD-ORCH-INGESTION_ID-cgo", "cgo_view_null"));
@@ -78,8 +92,10 @@ public class ProcessorOrchestrator {
             String ingestionId = this.nextIngestionId(ddEventStr, view);
             if (ingestionId == null) {
                 //record as DLQ Domain Failure
-                Exception e = new Exception(ddEventJson.toString());
-                this.dlqOrch.orchestrateDomainFailure(e, ddEventJson.toString());
+                if (dlq) {
+                    Exception e = new Exception(ddEventJson.toString());
+                    this.dlqDispatcher.domainFailure(e, ddEventJson.toString());
+                }
 
                 return ProcessorResult.fail(ddEventJson,
                         new Why("DD-ORCH-INGESTION_ID-cgo", "ingestion_id_null"));
@@ -94,7 +110,7 @@ public class ProcessorOrchestrator {
 
 
             ProcessorResult result = DDProducerClient.getInstance().invoke(
-                    this.httpPoster,
+                    poster,
                     serializer,
                     ingestionEndpoint,
                     ddEventJson,
@@ -104,7 +120,9 @@ public class ProcessorOrchestrator {
             return result;
         }catch(Exception e){
             //record as DLQ System Failure
-            this.dlqOrch.orchestrateSystemFailure(e, ddEventJson.toString());
+            if (dlq) {
+                this.dlqDispatcher.systemFailure(e, ddEventJson.toString());
+            }
 
             return ProcessorResult.fail(
                     ddEventJson,
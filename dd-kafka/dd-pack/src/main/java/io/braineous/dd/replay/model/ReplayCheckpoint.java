@@ -0,0 +1,24 @@
+package io.braineous.dd.replay.model;
+
+/**
+ * Resume point of a time-window replay: the (createdAt, id) of the newest event below which
+ * every event has been handled. A resumed replay starts strictly after it.
+ */
+public class ReplayCheckpoint {
+
+    private final java.time.Instant createdAt;
+    private final String id;
+
+    public ReplayCheckpoint(java.time.Instant createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static ReplayCheckpoint of(ReplayEvent e) {
+        if (e == null || e.timestamp() == null) return null;
+        return new ReplayCheckpoint(e.timestamp(), e.id());
+    }
+
+    public java.time.Instant createdAt() { return createdAt; }
+    public String id() { return id; }
+}
@@ -0,0 +1,154 @@
+package io.braineous.dd.replay.model;
+
+/**
+ * An asynchronous time-window replay. Counts and the checkpoint are cumulative across resumes;
+ * the checkpoint is what a restarted node continues from.
+ */
+public class ReplayJob {
+
+    public enum State { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    private String jobId;
+    private State state;
+
+    private String fromTime;
+    private String toTime;
+    private String reason;
+
+    private Long maxEventsPerSec;
+    private Long maxBytesPerSec;
+    private Double speedup;
+
+    private String target;
+    private String shadowTopic;
+
+    private int processedCount;
+    private int replayedCount;
+
+    private java.time.Instant checkpointAt;
+    private String checkpointId;
+
+    private java.time.Instant createdAt;
+    private java.time.Instant updatedAt;
+
+    private boolean cancelRequested;
+    private String error;
+
+    public ReplayJob() {
+    }
+
+    public static ReplayJob newJob(ReplayRequest request) {
+        ReplayJob j = new ReplayJob();
+        j.jobId = "DD-REPLAY-JOB-" + java.util.UUID.randomUUID();
+        j.state = State.RUNNING;
+        j.fromTime = request.fromTime();
+        j.toTime = request.toTime();
+        j.reason = request.reason();
+        j.maxEventsPerSec = request.maxEventsPerSec();
+        j.maxBytesPerSec = request.maxBytesPerSec();
+        j.speedup = request.speedup();
+        j.target = request.target();
+        j.shadowTopic = request.shadowTopic();
+        j.createdAt = java.time.Instant.now();
+        j.updatedAt = j.createdAt;
+        return j;
+    }
+
+    public ReplayRequest toRequest() {
+        ReplayRequest r = new ReplayRequest(fromTime, toTime);
+        r.setReason(reason);
+        r.setMaxEventsPerSec(maxEventsPerSec);
+        r.setMaxBytesPerSec(maxBytesPerSec);
+        r.setSpeedup(speedup);
+        r.setTarget(target);
+        r.setShadowTopic(shadowTopic);
+        return r;
+    }
+
+    public ReplayCheckpoint checkpoint() {
+        return (checkpointAt == null) ? null : new ReplayCheckpoint(checkpointAt, checkpointId);
+    }
+
+    public boolean terminal() {
+        return state != State.RUNNING;
+    }
+
+    public ReplayJob copy() {
+        ReplayJob j = new ReplayJob();
+        j.jobId = jobId;
+        j.state = state;
+        j.fromTime = fromTime;
+        j.toTime = toTime;
+        j.reason = reason;
+        j.maxEventsPerSec = maxEventsPerSec;
+        j.maxBytesPerSec = maxBytesPerSec;
+        j.speedup = speedup;
+        j.target = target;
+        j.shadowTopic = shadowTopic;
+        j.processedCount = processedCount;
+        j.replayedCount = replayedCount;
+        j.checkpointAt = checkpointAt;
+        j.checkpointId = checkpointId;
+        j.createdAt = createdAt;
+        j.updatedAt = updatedAt;
+        j.cancelRequested = cancelRequested;
+        j.error = error;
+        return j;
+    }
+
+    // ---------- JavaBean getters/setters (JSON + persistence) ----------
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public String getFromTime() { return fromTime; }
+    public void setFromTime(String fromTime) { this.fromTime = fromTime; }
+
+    public String getToTime() { return toTime; }
+    public void setToTime(String toTime) { this.toTime = toTime; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public Long getMaxEventsPerSec() { return maxEventsPerSec; }
+    public void setMaxEventsPerSec(Long maxEventsPerSec) { this.maxEventsPerSec = maxEventsPerSec; }
+
+    public Long getMaxBytesPerSec() { return maxBytesPerSec; }
+    public void setMaxBytesPerSec(Long maxBytesPerSec) { this.maxBytesPerSec = maxBytesPerSec; }
+
+    public Double getSpeedup() { return speedup; }
+    public void setSpeedup(Double speedup) { this.speedup = speedup; }
+
+    public String getTarget() { return target; }
+    public void setTarget(String target) { this.target = target; }
+
+    public String getShadowTopic() { return shadowTopic; }
+    public void setShadowTopic(String shadowTopic) { this.shadowTopic = shadowTopic; }
+
+    public int getProcessedCount() { return processedCount; }
+    public void setProcessedCount(int processedCount) { this.processedCount = processedCount; }
+
+    public int getReplayedCount() { return replayedCount; }
+    public void setReplayedCount(int replayedCount) { this.replayedCount = replayedCount; }
+
+    public java.time.Instant getCheckpointAt() { return checkpointAt; }
+    public void setCheckpointAt(java.time.Instant checkpointAt) { this.checkpointAt = checkpointAt; }
+
+    public String getCheckpointId() { return checkpointId; }
+    public void setCheckpointId(String checkpointId) { this.checkpointId = checkpointId; }
+
+    public java.time.Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(java.time.Instant createdAt) { this.createdAt = createdAt; }
+
+    public java.time.Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(java.time.Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    public boolean isCancelRequested() { return cancelRequested; }
+    public void setCancelRequested(boolean cancelRequested) { this.cancelRequested = cancelRequested; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
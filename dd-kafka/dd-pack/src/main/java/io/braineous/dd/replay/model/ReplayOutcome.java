@@ -0,0 +1,68 @@
+package io.braineous.dd.replay.model;
+
+/**
+ * What happened to one replayed event: handed to the processor (ok / WHY code of its result),
+ * skipped before orchestration, or failed with an exception. Emitted as soon as the event finishes.
+ */
+public class ReplayOutcome {
+
+    private String eventId;       // ReplayEvent id (best-effort; may be null)
+    private String ingestionId;   // from the ProcessorResult, else the payload (may be null)
+    private boolean ok;
+    private String why;           // WHY reason code; null when ok
+    private long durationMs;
+
+    // Jackson
+    public ReplayOutcome() {
+    }
+
+    public ReplayOutcome(String eventId, String ingestionId, boolean ok, String why, long durationMs) {
+        this.eventId = eventId;
+        this.ingestionId = ingestionId;
+        this.ok = ok;
+        this.why = ok ? null : why;
+        this.durationMs = Math.max(0L, durationMs);
+    }
+
+    // ---------- JavaBean getters/setters ----------
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public String getIngestionId() { return ingestionId; }
+    public void setIngestionId(String ingestionId) { this.ingestionId = ingestionId; }
+
+    public boolean isOk() { return ok; }
+    public void setOk(boolean ok) { this.ok = ok; }
+
+    public String getWhy() { return why; }
+    public void setWhy(String why) { this.why = why; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    // ---------- accessors ----------
+
+    public String eventId() { return eventId; }
+    public String ingestionId() { return ingestionId; }
+    public boolean ok() { return ok; }
+    public String why() { return why; }
+    public long durationMs() { return durationMs; }
+
+    public com.google.gson.JsonObject toJson() {
+        com.google.gson.JsonObject out = new com.google.gson.JsonObject();
+        out.addProperty("type", "outcome");
+        if (eventId != null) {
+            out.addProperty("eventId", eventId);
+        }
+        if (ingestionId != null) {
+            out.addProperty("ingestionId", ingestionId);
+        }
+        out.addProperty("ok", ok);
+        if (why != null) {
+            out.addProperty("why", why);
+        }
+        out.addProperty("durationMs", durationMs);
+        return out;
+    }
+}
@@ -12,9 +12,31 @@ public class ReplayRequest {
     // replay-by-dlq
     private String dlqId;            // optional (domain or system)
 
+    // bulk selectors (replay-by-ingestion / replay-by-dlq for many ids at once)
+    private java.util.List<String> ingestionIds;   // optional
+    private java.util.List<String> dlqIds;         // optional
+
+    // replay-by-kafka: offsets are per partition (fromOffset inclusive, toOffset exclusive);
+    // without offsets fromTime/toTime resolve through offsetsForTimes
+    private String topic;            // optional, default dd.replay.kafka.topic
+    private Integer partition;       // optional, default all partitions
+    private Long fromOffset;         // optional
+    private Long toOffset;           // optional
+
     // always required at API surface
     private String reason;           // human reason (required)
 
+    // pacing, optional (0 / null = dd.replay.rate.* default)
+    private Long maxEventsPerSec;
+    private Long maxBytesPerSec;
+
+    // recorded traffic shape: inter-event gaps divided by speedup (optional, 0 / null = off)
+    private Double speedup;
+
+    // where replayed events go: live (default) | shadow (dd.replay.shadow.topic or shadowTopic) | null
+    private String target;
+    private String shadowTopic;      // optional, target=shadow only
+
     public ReplayRequest() {
     }
 
@@ -37,16 +59,60 @@ public class ReplayRequest {
     public String getDlqId() { return dlqId; }
     public void setDlqId(String dlqId) { this.dlqId = dlqId; }
 
+    public String getTopic() { return topic; }
+    public void setTopic(String topic) { this.topic = topic; }
+
+    public Integer getPartition() { return partition; }
+    public void setPartition(Integer partition) { this.partition = partition; }
+
+    public Long getFromOffset() { return fromOffset; }
+    public void setFromOffset(Long fromOffset) { this.fromOffset = fromOffset; }
+
+    public Long getToOffset() { return toOffset; }
+    public void setToOffset(Long toOffset) { this.toOffset = toOffset; }
+
+    public java.util.List<String> getIngestionIds() { return ingestionIds; }
+    public void setIngestionIds(java.util.List<String> ingestionIds) { this.ingestionIds = ingestionIds; }
+
+    public java.util.List<String> getDlqIds() { return dlqIds; }
+    public void setDlqIds(java.util.List<String> dlqIds) { this.dlqIds = dlqIds; }
+
     public String getReason() { return reason; }
     public void setReason(String reason) { this.reason = reason; }
 
+    public Long getMaxEventsPerSec() { return maxEventsPerSec; }
+    public void setMaxEventsPerSec(Long maxEventsPerSec) { this.maxEventsPerSec = maxEventsPerSec; }
+
+    public Long getMaxBytesPerSec() { return maxBytesPerSec; }
+    public void setMaxBytesPerSec(Long maxBytesPerSec) { this.maxBytesPerSec = maxBytesPerSec; }
+
+    public Double getSpeedup() { return speedup; }
+    public void setSpeedup(Double speedup) { this.speedup = speedup; }
+
+    public String getTarget() { return target; }
+    public void setTarget(String target) { this.target = target; }
+
+    public String getShadowTopic() { return shadowTopic; }
+    public void setShadowTopic(String shadowTopic) { this.shadowTopic = shadowTopic; }
+
     // ---------- internal / domain-style accessors ----------
 
     public String fromTime() { return fromTime; }
     public String toTime() { return toTime; }
     public String ingestionId() { return ingestionId; }
     public String dlqId() { return dlqId; }
+    public java.util.List<String> ingestionIds() { return ingestionIds; }
+    public java.util.List<String> dlqIds() { return dlqIds; }
+    public String topic() { return topic; }
+    public Integer partition() { return partition; }
+    public Long fromOffset() { return fromOffset; }
+    public Long toOffset() { return toOffset; }
     public String reason() { return reason; }
+    public Long maxEventsPerSec() { return maxEventsPerSec; }
+    public Long maxBytesPerSec() { return maxBytesPerSec; }
+    public Double speedup() { return speedup; }
+    public String target() { return target; }
+    public String shadowTopic() { return shadowTopic; }
 
     // -----------------------------------------------------------------
     public void normalize() {
@@ -54,6 +120,9 @@ public class ReplayRequest {
         this.toTime = trimToNull(this.toTime);
         this.ingestionId = trimToNull(this.ingestionId);
         this.dlqId = trimToNull(this.dlqId);
+        this.topic = trimToNull(this.topic);
+        this.target = trimToNull(this.target);
+        this.shadowTopic = trimToNull(this.shadowTopic);
         this.reason = trimToNull(this.reason);
     }
 
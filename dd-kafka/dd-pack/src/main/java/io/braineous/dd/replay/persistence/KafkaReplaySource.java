@@ -0,0 +1,230 @@
+package io.braineous.dd.replay.persistence;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.replay.model.ReplayEvent;
+import io.braineous.dd.replay.model.ReplayRequest;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Replay source that reads the ingestion topic directly, with its own short-lived consumer
+ * (manual assignment, no group, no commits), so large replays never touch Mongo and events that
+ * aged out of the store can still be replayed.
+ *
+ * Per partition the range is [fromOffset, toOffset) or, without offsets, the offsetsForTimes of
+ * fromTime/toTime; both are clamped to what the partition holds when the replay starts, so a
+ * replay always ends even while live traffic keeps appending. Partitions are read one after the
+ * other, each in offset order.
+ */
+@ApplicationScoped
+public class KafkaReplaySource {
+
+    public static final String P_BOOTSTRAP    = "dd.replay.kafka.bootstrap.servers";
+    public static final String P_TOPIC        = "dd.replay.kafka.topic";
+    public static final String P_POLL_MS      = "dd.replay.kafka.poll.timeout.ms";
+    public static final String P_MAX_IDLE     = "dd.replay.kafka.max.idle.polls";
+
+    private static final int STREAM_BATCH = 500;
+
+    /**
+     * Pushes the range to sink in offset order. Returns how many events were matched.
+     */
+    public int stream(ReplayRequest request, java.util.function.Consumer<ReplayEvent> sink) {
+        if (request == null || sink == null) return 0;
+
+        String topic = (request.topic() != null) ? request.topic() : System.getProperty(P_TOPIC, "ingestion");
+
+        try (Consumer<String, String> consumer = newConsumer()) {
+            List<TopicPartition> tps = partitions(consumer, topic, request.partition());
+            if (tps.isEmpty()) {
+                Console.log("replay_kafka_no_partitions", topic);
+                return 0;
+            }
+
+            Map<TopicPartition, Long> begin = consumer.beginningOffsets(tps);
+            Map<TopicPartition, Long> end = consumer.endOffsets(tps);
+            Map<TopicPartition, Long> fromAt = offsetsAt(consumer, tps, request.fromTime(), end);
+            Map<TopicPartition, Long> toAt = offsetsAt(consumer, tps, request.toTime(), end);
+
+            int matched = 0;
+            for (TopicPartition tp : tps) {
+                long[] range = range(
+                        begin.get(tp), end.get(tp),
+                        request.fromOffset(), request.toOffset(),
+                        (fromAt == null) ? null : fromAt.get(tp),
+                        (toAt == null) ? null : toAt.get(tp));
+
+                matched += streamPartition(consumer, tp, range[0], range[1], sink);
+            }
+
+            Console.log("REPLAY_KAFKA_STREAMED_COUNT", Integer.valueOf(matched));
+            return matched;
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+
+    // overridable for tests
+    Consumer<String, String> newConsumer() {
+        Properties p = new Properties();
+        p.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                System.getProperty(P_BOOTSTRAP, System.getProperty("kafka.bootstrap.servers", "localhost:9092")));
+        p.put(ConsumerConfig.CLIENT_ID_CONFIG, "dd-replay-kafka");
+        p.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        p.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        p.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(STREAM_BATCH));
+        p.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        p.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        return new KafkaConsumer<String, String>(p);
+    }
+
+    /**
+     * [start, stop) within [beginning, end). Explicit offsets win over time-resolved ones.
+     */
+    static long[] range(Long beginning, Long end, Long fromOffset, Long toOffset, Long fromTimeOffset, Long toTimeOffset) {
+        long b = (beginning == null) ? 0L : beginning.longValue();
+        long e = (end == null) ? b : end.longValue();
+
+        long start = (fromOffset != null) ? fromOffset.longValue()
+                : (fromTimeOffset != null) ? fromTimeOffset.longValue() : b;
+        long stop = (toOffset != null) ? toOffset.longValue()
+                : (toTimeOffset != null) ? toTimeOffset.longValue() : e;
+
+        start = Math.max(start, b);
+        stop = Math.min(stop, e);
+        if (stop < start) {
+            stop = start;
+        }
+        return new long[]{start, stop};
+    }
+
+    static ReplayEvent toEvent(ConsumerRecord<String, String> r) {
+        String id = r.topic() + "-" + r.partition() + "@" + r.offset();
+        Instant ts = (r.timestamp() >= 0L) ? Instant.ofEpochMilli(r.timestamp()) : null;
+        return new ReplayEvent(id, unwrap(r.value()), ts);
+    }
+
+    /**
+     * Producers may send the ddEvent wrapped as [ddEvent]; ingestion stores the first element
+     * (DDEventOrchestrator.toDDEvent), so replay does the same. Anything else is passed through
+     * as is and left to the replay's bad-payload handling.
+     */
+    static String unwrap(String value) {
+        if (value == null) {
+            return null;
+        }
+        String v = value.trim();
+        if (!v.startsWith("[")) {
+            return value;
+        }
+        try {
+            JsonElement e = JsonParser.parseString(v);
+            JsonArray arr = e.getAsJsonArray();
+            if (arr.size() > 0 && arr.get(0).isJsonObject()) {
+                return arr.get(0).toString();
+            }
+        } catch (RuntimeException ignored) {
+            // not JSON: passed through
+        }
+        return value;
+    }
+
+    private int streamPartition(Consumer<String, String> consumer, TopicPartition tp, long start, long stop,
+                                java.util.function.Consumer<ReplayEvent> sink) {
+        if (start >= stop) {
+            return 0;
+        }
+
+        consumer.assign(Collections.singletonList(tp));
+        consumer.seek(tp, start);
+
+        Duration pollTimeout = Duration.ofMillis(DDProps.longProp(P_POLL_MS, 1_000L));
+        long maxIdle = Math.max(1L, DDProps.longProp(P_MAX_IDLE, 10L));
+
+        int n = 0;
+        int idle = 0;
+        // position (not the last record) decides: transaction markers and compaction leave gaps
+        while (consumer.position(tp) < stop) {
+            List<ConsumerRecord<String, String>> records = consumer.poll(pollTimeout).records(tp);
+            if (records.isEmpty()) {
+                if (++idle >= maxIdle) {
+                    Console.log("replay_kafka_idle_stop", tp + "@" + consumer.position(tp));
+                    break;
+                }
+                continue;
+            }
+            idle = 0;
+
+            for (ConsumerRecord<String, String> r : records) {
+                if (r.offset() >= stop) {
+                    break;
+                }
+                ReplayEvent ev = toEvent(r);
+                if (ev.payload() != null) {
+                    n++;
+                    sink.accept(ev);
+                }
+            }
+        }
+        return n;
+    }
+
+    private static List<TopicPartition> partitions(Consumer<String, String> consumer, String topic, Integer partition) {
+        if (partition != null) {
+            return Collections.singletonList(new TopicPartition(topic, partition.intValue()));
+        }
+
+        List<PartitionInfo> infos = consumer.partitionsFor(topic);
+        if (infos == null) {
+            return Collections.emptyList();
+        }
+        List<TopicPartition> out = new ArrayList<TopicPartition>();
+        for (PartitionInfo pi : infos) {
+            out.add(new TopicPartition(pi.topic(), pi.partition()));
+        }
+        out.sort((a, c) -> Integer.compare(a.partition(), c.partition()));
+        return out;
+    }
+
+    // first offset at/after the instant per partition (end when there is none); null when not asked
+    private static Map<TopicPartition, Long> offsetsAt(Consumer<String, String> consumer, List<TopicPartition> tps,
+                                                       String iso, Map<TopicPartition, Long> end) {
+        if (iso == null) {
+            return null;
+        }
+        long ts = Instant.parse(iso.trim()).toEpochMilli();
+
+        Map<TopicPartition, Long> query = new HashMap<TopicPartition, Long>();
+        for (TopicPartition tp : tps) {
+            query.put(tp, ts);
+        }
+
+        Map<TopicPartition, OffsetAndTimestamp> found = consumer.offsetsForTimes(query);
+        Map<TopicPartition, Long> out = new HashMap<TopicPartition, Long>();
+        for (TopicPartition tp : tps) {
+            OffsetAndTimestamp oat = (found == null) ? null : found.get(tp);
+            out.put(tp, (oat != null) ? oat.offset() : end.get(tp));
+        }
+        return out;
+    }
+}
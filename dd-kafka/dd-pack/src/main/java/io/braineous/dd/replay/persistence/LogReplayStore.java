@@ -0,0 +1,229 @@
+package io.braineous.dd.replay.persistence;
+
+import ai.braineous.rag.prompt.observe.Console;
+import io.braineous.dd.ingestion.persistence.log.LogIngestionStore;
+import io.braineous.dd.ingestion.persistence.log.LogRecord;
+import io.braineous.dd.replay.model.ReplayEvent;
+import io.braineous.dd.replay.model.ReplayRequest;
+
+/**
+ * {@link ReplayStore} over the file-backed ingestion log (see {@link LogIngestionStore}).
+ *
+ * Disabled by default; selected together with LogIngestionStore via quarkus.arc.selected-alternatives.
+ * DLQs are not kept in the log, so DLQ-id lookups return empty.
+ */
+@jakarta.enterprise.inject.Alternative
+@jakarta.enterprise.context.ApplicationScoped
+public class LogReplayStore implements ReplayStore {
+
+    @jakarta.inject.Inject
+    LogIngestionStore ingestionStore;
+
+    @Override
+    public java.util.List<ReplayEvent> findByTimeWindow(ReplayRequest request) {
+
+        Console.log("REPLAY_STORE_IMPL", this.getClass().getName());
+
+        if (request == null) return java.util.Collections.emptyList();
+
+        java.time.Instant[] window = timeWindow(request);
+        if (window == null) return java.util.Collections.emptyList();
+        final java.time.Instant from = window[0];
+        final java.time.Instant to   = window[1];
+
+        final java.util.ArrayList<ReplayEvent> out = new java.util.ArrayList<ReplayEvent>();
+        try {
+            // log order == (createdAt, append) order: same contract as the mongo (createdAt, _id) sort
+            ingestionStore.log().scan(from.toEpochMilli(), to.toEpochMilli(), r -> out.add(toReplayEvent(r)));
+        } catch (Exception e) {
+            Console.log("REPLAY_LOG_SCAN_FAIL", String.valueOf(e));
+            return java.util.Collections.emptyList();
+        }
+
+        Console.log("REPLAY_MATCHED_COUNT", Integer.valueOf(out.size()));
+
+        return java.util.Collections.unmodifiableList(out);
+    }
+
+    /**
+     * Same window and order as findByTimeWindow, one event at a time off a paged log scan (heap
+     * stays at one page). Scan failures end the stream; sink exceptions propagate.
+     */
+    @Override
+    public int streamByTimeWindow(ReplayRequest request, java.util.function.Consumer<ReplayEvent> sink) {
+        return streamByTimeWindow(request, null, sink);
+    }
+
+    @Override
+    public int streamByTimeWindow(ReplayRequest request,
+                                  io.braineous.dd.replay.model.ReplayCheckpoint after,
+                                  java.util.function.Consumer<ReplayEvent> sink) {
+
+        if (sink == null) return 0;
+
+        java.time.Instant[] window = timeWindow(request);
+        if (window == null) return 0;
+
+        long fromMs = window[0].toEpochMilli();
+        long toMs   = window[1].toEpochMilli();
+        ResumeFilter resume = null;
+        if (after != null && after.createdAt() != null) {
+            resume = new ResumeFilter(after.createdAt().toEpochMilli(), after.id(), sink);
+            fromMs = Math.max(fromMs, resume.atMs); // earlier segments are done
+        }
+
+        final int[] matched = new int[1];
+        final ResumeFilter rf = resume;
+        try {
+            ingestionStore.log().scan(fromMs, toMs, r -> {
+                ReplayEvent ev = toReplayEvent(r);
+                if (rf == null) {
+                    matched[0]++;
+                    sink.accept(ev);
+                } else {
+                    matched[0] += rf.accept(r.createdAtMs(), ev);
+                }
+            });
+            if (rf != null) {
+                matched[0] += rf.flush();
+            }
+        } catch (java.io.IOException e) {
+            Console.log("REPLAY_LOG_SCAN_FAIL", String.valueOf(e));
+        }
+
+        Console.log("REPLAY_STREAMED_COUNT", Integer.valueOf(matched[0]));
+        return matched[0];
+    }
+
+    @Override
+    public boolean resumable() {
+        return true;
+    }
+
+    @Override
+    public java.util.List<ReplayEvent> findByTimeObjectKey(ReplayRequest request) {
+
+        if (request == null) return java.util.Collections.emptyList();
+
+        final String key;
+        try {
+            key = request.ingestionId();
+        } catch (Exception e) {
+            return java.util.Collections.emptyList();
+        }
+
+        if (key == null || key.trim().length() == 0) return java.util.Collections.emptyList();
+
+        try {
+            LogRecord r = ingestionStore.log().get(key.trim());
+            if (r == null) {
+                return java.util.Collections.emptyList();
+            }
+            return java.util.Collections.singletonList(toReplayEvent(r));
+        } catch (Exception e) {
+            return java.util.Collections.emptyList();
+        }
+    }
+
+    @Override
+    public java.util.List<ReplayEvent> findByDomainDlqId(ReplayRequest request) {
+        Console.log("REPLAY_LOG_DLQ_UNSUPPORTED", "domain");
+        return java.util.Collections.emptyList();
+    }
+
+    @Override
+    public java.util.List<ReplayEvent> findBySystemDlqId(ReplayRequest request) {
+        Console.log("REPLAY_LOG_DLQ_UNSUPPORTED", "system");
+        return java.util.Collections.emptyList();
+    }
+
+    //------------------------------------------------------------------------------
+    private static java.time.Instant[] timeWindow(ReplayRequest request) {
+        if (request == null) return null;
+
+        final java.time.Instant from;
+        final java.time.Instant to;
+
+        try {
+            String fromS = request.fromTime();
+            String toS   = request.toTime();
+
+            if (fromS == null) return null;
+            if (toS == null)   return null;
+
+            fromS = fromS.trim();
+            toS   = toS.trim();
+
+            if (fromS.length() == 0) return null;
+            if (toS.length() == 0)   return null;
+
+            from = java.time.Instant.parse(fromS);
+            to   = java.time.Instant.parse(toS);
+        } catch (Exception e) {
+            Console.log("REPLAY_TIMEWINDOW_PARSE_FAIL", String.valueOf(e));
+            return null;
+        }
+
+        if (!from.isBefore(to)) return null;
+        return new java.time.Instant[]{from, to};
+    }
+
+    /**
+     * (createdAt, append order) > checkpoint. Log ids are ingestionIds, not ordered, so events in the
+     * checkpoint's millisecond are held until the checkpoint id shows up (everything before it was
+     * handled); if it never does (retired or touched since) they are all replayed.
+     */
+    static final class ResumeFilter {
+        private final long atMs;
+        private final String id;
+        private final java.util.function.Consumer<ReplayEvent> sink;
+        private java.util.List<ReplayEvent> held = new java.util.ArrayList<ReplayEvent>();
+        private boolean passed;
+
+        ResumeFilter(long atMs, String id, java.util.function.Consumer<ReplayEvent> sink) {
+            this.atMs = atMs;
+            this.id = id;
+            this.sink = sink;
+        }
+
+        int accept(long createdAtMs, ReplayEvent ev) {
+            if (createdAtMs < atMs) {
+                return 0;
+            }
+            if (createdAtMs == atMs && !passed) {
+                if (id == null) {
+                    return 0; // no id: the whole millisecond was handled
+                }
+                if (id.equals(ev.id())) {
+                    held.clear();
+                    passed = true;
+                    return 0;
+                }
+                held.add(ev);
+                return 0;
+            }
+            int n = flush();
+            sink.accept(ev);
+            return n + 1;
+        }
+
+        int flush() {
+            int n = held.size();
+            java.util.List<ReplayEvent> out = held;
+            held = new java.util.ArrayList<ReplayEvent>();
+            passed = true;
+            for (ReplayEvent ev : out) {
+                sink.accept(ev);
+            }
+            return n;
+        }
+    }
+
+    private static ReplayEvent toReplayEvent(LogRecord r) {
+        return new ReplayEvent(
+                r.ingestionId(),
+                r.payload(),
+                java.time.Instant.ofEpochMilli(r.createdAtMs())
+        );
+    }
+}
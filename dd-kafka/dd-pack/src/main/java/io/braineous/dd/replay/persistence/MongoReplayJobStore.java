@@ -0,0 +1,139 @@
+package io.braineous.dd.replay.persistence;
+
+import io.braineous.dd.replay.model.ReplayJob;
+
+/**
+ * replay_jobs: one document per job (_id = jobId), replaced on every checkpoint.
+ */
+@jakarta.enterprise.context.ApplicationScoped
+public class MongoReplayJobStore implements ReplayJobStore {
+
+    public static final String DB = "dd";
+    public static final String JOBS_COL = "replay_jobs";
+
+    @jakarta.inject.Inject
+    com.mongodb.client.MongoClient mongoClient;
+
+    private com.mongodb.client.MongoCollection<org.bson.Document> collection() {
+        return mongoClient
+                .getDatabase(DB)
+                .getCollection(JOBS_COL);
+    }
+
+    @Override
+    public void save(ReplayJob job) {
+        if (job == null || job.getJobId() == null) return;
+
+        collection().replaceOne(
+                com.mongodb.client.model.Filters.eq("_id", job.getJobId()),
+                toDoc(job),
+                new com.mongodb.client.model.ReplaceOptions().upsert(true)
+        );
+    }
+
+    @Override
+    public ReplayJob findById(String jobId) {
+        if (jobId == null || jobId.trim().isEmpty()) return null;
+
+        org.bson.Document d = collection()
+                .find(com.mongodb.client.model.Filters.eq("_id", jobId.trim()))
+                .first();
+        return (d == null) ? null : fromDoc(d);
+    }
+
+    @Override
+    public java.util.List<ReplayJob> findRunning() {
+        java.util.ArrayList<ReplayJob> out = new java.util.ArrayList<ReplayJob>();
+        for (org.bson.Document d : collection()
+                .find(com.mongodb.client.model.Filters.eq("state", ReplayJob.State.RUNNING.name()))
+                .sort(com.mongodb.client.model.Sorts.ascending("createdAt"))) {
+            out.add(fromDoc(d));
+        }
+        return out;
+    }
+
+    @Override
+    public boolean requestCancel(String jobId, java.time.Instant at) {
+        if (jobId == null || jobId.trim().isEmpty()) return false;
+
+        // conditional: lands after the job's final save as a no-op instead of reopening it
+        return collection().updateOne(
+                com.mongodb.client.model.Filters.and(
+                        com.mongodb.client.model.Filters.eq("_id", jobId.trim()),
+                        com.mongodb.client.model.Filters.eq("state", ReplayJob.State.RUNNING.name())),
+                com.mongodb.client.model.Updates.combine(
+                        com.mongodb.client.model.Updates.set("cancelRequested", true),
+                        com.mongodb.client.model.Updates.set("updatedAt", date(at)))
+        ).getMatchedCount() > 0;
+    }
+
+    //------------------------------------------------------------------------------
+    private static org.bson.Document toDoc(ReplayJob j) {
+        return new org.bson.Document()
+                .append("_id", j.getJobId())
+                .append("state", (j.getState() == null) ? null : j.getState().name())
+                .append("fromTime", j.getFromTime())
+                .append("toTime", j.getToTime())
+                .append("reason", j.getReason())
+                .append("maxEventsPerSec", j.getMaxEventsPerSec())
+                .append("maxBytesPerSec", j.getMaxBytesPerSec())
+                .append("speedup", j.getSpeedup())
+                .append("target", j.getTarget())
+                .append("shadowTopic", j.getShadowTopic())
+                .append("processedCount", j.getProcessedCount())
+                .append("replayedCount", j.getReplayedCount())
+                .append("checkpointAt", date(j.getCheckpointAt()))
+                .append("checkpointId", j.getCheckpointId())
+                .append("createdAt", date(j.getCreatedAt()))
+                .append("updatedAt", date(j.getUpdatedAt()))
+                .append("cancelRequested", j.isCancelRequested())
+                .append("error", j.getError());
+    }
+
+    private static ReplayJob fromDoc(org.bson.Document d) {
+        ReplayJob j = new ReplayJob();
+        j.setJobId(d.getString("_id"));
+        try {
+            j.setState(ReplayJob.State.valueOf(d.getString("state")));
+        } catch (Exception e) {
+            j.setState(ReplayJob.State.FAILED);
+        }
+        j.setFromTime(d.getString("fromTime"));
+        j.setToTime(d.getString("toTime"));
+        j.setReason(d.getString("reason"));
+        j.setMaxEventsPerSec(longOf(d.get("maxEventsPerSec")));
+        j.setMaxBytesPerSec(longOf(d.get("maxBytesPerSec")));
+        j.setSpeedup(doubleOf(d.get("speedup")));
+        j.setTarget(d.getString("target"));
+        j.setShadowTopic(d.getString("shadowTopic"));
+        j.setProcessedCount(intOf(d.get("processedCount")));
+        j.setReplayedCount(intOf(d.get("replayedCount")));
+        j.setCheckpointAt(instant(d.getDate("checkpointAt")));
+        j.setCheckpointId(d.getString("checkpointId"));
+        j.setCreatedAt(instant(d.getDate("createdAt")));
+        j.setUpdatedAt(instant(d.getDate("updatedAt")));
+        j.setCancelRequested(Boolean.TRUE.equals(d.getBoolean("cancelRequested")));
+        j.setError(d.getString("error"));
+        return j;
+    }
+
+    private static java.util.Date date(java.time.Instant i) {
+        return (i == null) ? null : java.util.Date.from(i);
+    }
+
+    private static java.time.Instant instant(java.util.Date d) {
+        return (d == null) ? null : d.toInstant();
+    }
+
+    private static Long longOf(Object o) {
+        return (o instanceof Number) ? Long.valueOf(((Number) o).longValue()) : null;
+    }
+
+    private static Double doubleOf(Object o) {
+        return (o instanceof Number) ? Double.valueOf(((Number) o).doubleValue()) : null;
+    }
+
+    private static int intOf(Object o) {
+        return (o instanceof Number) ? ((Number) o).intValue() : 0;
+    }
+}
@@ -17,15 +17,57 @@ public class MongoReplayStore implements ReplayStore {
     public static final String DB  = "dd";
     public static final String INGESTION_COL = "ingestion";
 
+    // cursor batch for streamed replay: bounds what is in memory at once
+    private static final int STREAM_BATCH = 500;
+
+    // ids per $in query for the bulk selectors
+    private static final int BULK_CHUNK = 500;
+
     @jakarta.inject.Inject
     com.mongodb.client.MongoClient mongoClient;
 
+    @jakarta.inject.Inject
+    io.braineous.dd.ingestion.persistence.IngestionBucketRouter router;
+
     private com.mongodb.client.MongoCollection<org.bson.Document> collection() {
         return mongoClient
                 .getDatabase(DB)
                 .getCollection(INGESTION_COL);
     }
 
+    private boolean partitioned() {
+        return router != null && router.isPartitioned();
+    }
+
+    /**
+     * Ingestion collections overlapping [from, to), oldest first.
+     * Single legacy collection unless time buckets are on; after the cutover the legacy
+     * collection, while it exists, is read before the buckets.
+     */
+    private java.util.List<com.mongodb.client.MongoCollection<org.bson.Document>> ingestionCollections(
+            java.time.Instant from, java.time.Instant to) {
+
+        if (!partitioned()) {
+            return java.util.Collections.singletonList(collection());
+        }
+
+        com.mongodb.client.MongoDatabase db = mongoClient.getDatabase(DB);
+        java.util.List<String> names = router.existingBuckets(db);
+        if (from != null && to != null) {
+            names = router.overlapping(names, from, to);
+        }
+
+        java.util.ArrayList<com.mongodb.client.MongoCollection<org.bson.Document>> out =
+                new java.util.ArrayList<com.mongodb.client.MongoCollection<org.bson.Document>>();
+        if (router.hasLegacy(db)) {
+            out.add(collection());
+        }
+        for (String name : names) {
+            out.add(db.getCollection(name));
+        }
+        return out;
+    }
+
     private com.mongodb.client.MongoCollection<org.bson.Document> domainDlqCol() {
         return mongoClient
                 .getDatabase(DB)
@@ -44,32 +86,11 @@ public class MongoReplayStore implements ReplayStore {
 
         Console.log("REPLAY_STORE_IMPL", this.getClass().getName());
 
-        if (request == null) return java.util.Collections.emptyList();
-
-        final java.time.Instant from;
-        final java.time.Instant to;
-
-        try {
-            String fromS = request.fromTime();
-            String toS   = request.toTime();
-
-            if (fromS == null) return java.util.Collections.emptyList();
-            if (toS == null)   return java.util.Collections.emptyList();
+        java.time.Instant[] window = timeWindow(request);
+        if (window == null) return java.util.Collections.emptyList();
 
-            fromS = fromS.trim();
-            toS   = toS.trim();
-
-            if (fromS.length() == 0) return java.util.Collections.emptyList();
-            if (toS.length() == 0)   return java.util.Collections.emptyList();
-
-            from = java.time.Instant.parse(fromS);
-            to   = java.time.Instant.parse(toS);
-        } catch (Exception e) {
-            Console.log("REPLAY_TIMEWINDOW_PARSE_FAIL", String.valueOf(e));
-            return java.util.Collections.emptyList();
-        }
-
-        if (!from.isBefore(to)) return java.util.Collections.emptyList();
+        final java.time.Instant from = window[0];
+        final java.time.Instant to   = window[1];
 
         Console.log("REPLAY_QUERY_DUMP",
                 "db=" + DB +
@@ -87,20 +108,114 @@ public class MongoReplayStore implements ReplayStore {
 
         org.bson.conversions.Bson sort = com.mongodb.client.model.Sorts.ascending("createdAt", "_id");
 
+        java.util.List<com.mongodb.client.MongoCollection<org.bson.Document>> cols = ingestionCollections(from, to);
+        Console.log("REPLAY_BUCKETS", Integer.valueOf(cols.size()));
+
+        // buckets are disjoint on createdAt: oldest-first concatenation == global (createdAt, _id) order
         java.util.ArrayList<ReplayEvent> out = new java.util.ArrayList<ReplayEvent>();
-        for (org.bson.Document d : collection().find(filter).sort(sort)) {
-            ReplayEvent ev = safeMapDocToReplayEvent(d);
-            if (ev != null) {
-                out.add(ev);
+        long mongoCount = 0L;
+        for (com.mongodb.client.MongoCollection<org.bson.Document> col : cols) {
+            for (org.bson.Document d : col.find(filter).sort(sort)) {
+                ReplayEvent ev = safeMapDocToReplayEvent(d);
+                if (ev != null) {
+                    out.add(ev);
+                }
             }
+            mongoCount += col.countDocuments(filter);
         }
 
         Console.log("REPLAY_MATCHED_COUNT", Integer.valueOf(out.size()));
-        Console.log("REPLAY_MONGO_COUNT", Long.valueOf(collection().countDocuments(filter)));
+        Console.log("REPLAY_MONGO_COUNT", Long.valueOf(mongoCount));
 
         return java.util.Collections.unmodifiableList(out);
     }
 
+    /**
+     * Same window, filter and (createdAt, _id) order as findByTimeWindow, but one event at a time off
+     * the cursor: no list, no countDocuments, only the fields replay reads. Heap stays at one cursor
+     * batch regardless of window size.
+     */
+    @Override
+    public int streamByTimeWindow(ReplayRequest request, java.util.function.Consumer<ReplayEvent> sink) {
+        return streamByTimeWindow(request, null, sink);
+    }
+
+    @Override
+    public int streamByTimeWindow(ReplayRequest request,
+                                  io.braineous.dd.replay.model.ReplayCheckpoint after,
+                                  java.util.function.Consumer<ReplayEvent> sink) {
+
+        if (sink == null) return 0;
+
+        java.time.Instant[] window = timeWindow(request);
+        if (window == null) return 0;
+
+        org.bson.conversions.Bson filter = com.mongodb.client.model.Filters.and(
+                com.mongodb.client.model.Filters.gte("createdAt", java.util.Date.from(window[0])),
+                com.mongodb.client.model.Filters.lt("createdAt", java.util.Date.from(window[1]))
+        );
+
+        if (after != null && after.createdAt() != null) {
+            filter = com.mongodb.client.model.Filters.and(filter, resumeAfter(after));
+            if (after.createdAt().isAfter(window[0])) {
+                window[0] = after.createdAt(); // earlier buckets are done
+            }
+        }
+
+        org.bson.conversions.Bson sort = com.mongodb.client.model.Sorts.ascending("createdAt", "_id");
+        org.bson.conversions.Bson projection =
+                com.mongodb.client.model.Projections.include("_id", "ingestionId", "payload", "createdAt");
+
+        int matched = 0;
+
+        // buckets are disjoint on createdAt: oldest-first concatenation == global (createdAt, _id) order
+        for (com.mongodb.client.MongoCollection<org.bson.Document> col : ingestionCollections(window[0], window[1])) {
+            org.bson.conversions.Bson bucketFilter = filter;
+            while (true) {
+                com.mongodb.client.MongoCursor<org.bson.Document> cur =
+                        col.find(bucketFilter)
+                                .projection(projection)
+                                .sort(sort)
+                                .batchSize(STREAM_BATCH)
+                                .iterator();
+                org.bson.Document last = null;
+                try {
+                    while (cur.hasNext()) {
+                        org.bson.Document d = cur.next();
+                        last = d;
+                        ReplayEvent ev = safeMapDocToReplayEvent(d);
+                        if (ev != null) {
+                            matched++;
+                            sink.accept(ev);
+                        }
+                    }
+                    break;
+                } catch (com.mongodb.MongoCursorNotFoundException cnf) {
+                    // a paced sink (speedup / rate limits) outlived the server cursor: reopen strictly
+                    // after the last document handed over; no progress since the last open = give up
+                    java.util.Date at = (last == null) ? null : MergeHead.date(last);
+                    if (at == null) {
+                        throw cnf;
+                    }
+                    Console.log("REPLAY_CURSOR_REOPEN", String.valueOf(last.get("_id")));
+                    bucketFilter = com.mongodb.client.model.Filters.and(filter, resumeAfter(
+                            new io.braineous.dd.replay.model.ReplayCheckpoint(
+                                    at.toInstant(), String.valueOf(last.get("_id")))));
+                } finally {
+                    cur.close();
+                }
+            }
+        }
+
+        Console.log("REPLAY_STREAMED_COUNT", Integer.valueOf(matched));
+        return matched;
+    }
+
+    @Override
+    public boolean resumable() {
+        return true;
+    }
+
     @Override
     public java.util.List<ReplayEvent> findByTimeObjectKey(ReplayRequest request) {
 
@@ -120,10 +235,12 @@ public class MongoReplayStore implements ReplayStore {
             org.bson.conversions.Bson sort   = com.mongodb.client.model.Sorts.ascending("createdAt", "_id");
 
             java.util.ArrayList<ReplayEvent> out = new java.util.ArrayList<ReplayEvent>();
-            for (org.bson.Document d : collection().find(filter).sort(sort)) {
-                ReplayEvent ev = safeMapDocToReplayEvent(d);
-                if (ev != null) {
-                    out.add(ev);
+            for (com.mongodb.client.MongoCollection<org.bson.Document> col : ingestionCollections(null, null)) {
+                for (org.bson.Document d : col.find(filter).sort(sort)) {
+                    ReplayEvent ev = safeMapDocToReplayEvent(d);
+                    if (ev != null) {
+                        out.add(ev);
+                    }
                 }
             }
             return java.util.Collections.unmodifiableList(out);
@@ -204,7 +321,241 @@ public class MongoReplayStore implements ReplayStore {
     }
 
 
+    @Override
+    public int streamByIngestionIds(java.util.List<String> ingestionIds,
+                                    java.util.function.Consumer<ReplayEvent> sink) {
+        java.util.List<java.util.List<String>> chunks = chunks(ingestionIds);
+        if (sink == null || chunks.isEmpty()) return 0;
+
+        // buckets are disjoint on createdAt: oldest-first keeps the merge globally ordered
+        int matched = 0;
+        for (com.mongodb.client.MongoCollection<org.bson.Document> col : ingestionCollections(null, null)) {
+            matched += mergeChunks(col, "ingestionId", chunks, sink);
+        }
+        Console.log("REPLAY_BULK_INGESTION_COUNT", Integer.valueOf(matched));
+        return matched;
+    }
+
+    @Override
+    public int streamByDomainDlqIds(java.util.List<String> dlqIds,
+                                    java.util.function.Consumer<ReplayEvent> sink) {
+        java.util.List<java.util.List<String>> chunks = chunks(dlqIds);
+        if (sink == null || chunks.isEmpty()) return 0;
+        return mergeChunks(domainDlqCol(), "dlqId", chunks, sink);
+    }
+
+    @Override
+    public int streamBySystemDlqIds(java.util.List<String> dlqIds,
+                                    java.util.function.Consumer<ReplayEvent> sink) {
+        java.util.List<java.util.List<String>> chunks = chunks(dlqIds);
+        if (sink == null || chunks.isEmpty()) return 0;
+        return mergeChunks(systemDlqCol(), "dlqId", chunks, sink);
+    }
+
     //------------------------------------------------------------------------------
+    // [from, to) of a request, or null when missing, unparseable or empty
+    private static java.time.Instant[] timeWindow(ReplayRequest request) {
+
+        if (request == null) return null;
+
+        final java.time.Instant from;
+        final java.time.Instant to;
+
+        try {
+            String fromS = request.fromTime();
+            String toS   = request.toTime();
+
+            if (fromS == null) return null;
+            if (toS == null)   return null;
+
+            fromS = fromS.trim();
+            toS   = toS.trim();
+
+            if (fromS.length() == 0) return null;
+            if (toS.length() == 0)   return null;
+
+            from = java.time.Instant.parse(fromS);
+            to   = java.time.Instant.parse(toS);
+        } catch (Exception e) {
+            Console.log("REPLAY_TIMEWINDOW_PARSE_FAIL", String.valueOf(e));
+            return null;
+        }
+
+        if (!from.isBefore(to)) return null;
+
+        return new java.time.Instant[]{from, to};
+    }
+
+    // trimmed, de-duplicated (first occurrence wins), split into $in-sized chunks
+    static java.util.List<java.util.List<String>> chunks(java.util.List<String> ids) {
+        if (ids == null || ids.isEmpty()) return java.util.Collections.emptyList();
+
+        java.util.LinkedHashSet<String> distinct = new java.util.LinkedHashSet<String>();
+        for (String id : ids) {
+            if (id != null && id.trim().length() > 0) {
+                distinct.add(id.trim());
+            }
+        }
+
+        java.util.ArrayList<java.util.List<String>> out = new java.util.ArrayList<java.util.List<String>>();
+        java.util.ArrayList<String> cur = new java.util.ArrayList<String>(BULK_CHUNK);
+        for (String id : distinct) {
+            cur.add(id);
+            if (cur.size() == BULK_CHUNK) {
+                out.add(cur);
+                cur = new java.util.ArrayList<String>(BULK_CHUNK);
+            }
+        }
+        if (!cur.isEmpty()) out.add(cur);
+        return out;
+    }
+
+    /**
+     * One sorted $in cursor per chunk, k-way merged on (createdAt, _id): the whole id set comes out
+     * in one global order while only a cursor batch per chunk is in memory. With up to a few hundred
+     * cursors open behind a paced sink, any of them can time out on the server: that chunk is
+     * reopened strictly after the document it last handed over.
+     */
+    private int mergeChunks(com.mongodb.client.MongoCollection<org.bson.Document> col,
+                            String field,
+                            java.util.List<java.util.List<String>> chunks,
+                            java.util.function.Consumer<ReplayEvent> sink) {
+
+        int batch = Math.max(16, STREAM_BATCH / chunks.size());
+
+        java.util.ArrayList<MergeHead> all = new java.util.ArrayList<MergeHead>(chunks.size());
+        java.util.PriorityQueue<MergeHead> heads = new java.util.PriorityQueue<MergeHead>(chunks.size());
+        try {
+            for (java.util.List<String> chunk : chunks) {
+                MergeHead h = new MergeHead(chunk,
+                        openChunk(col, com.mongodb.client.model.Filters.in(field, chunk), batch));
+                all.add(h);
+                if (h.cursor.hasNext()) {
+                    h.doc = h.cursor.next();
+                    heads.add(h);
+                }
+            }
+
+            int matched = 0;
+            while (!heads.isEmpty()) {
+                MergeHead h = heads.poll();
+                ReplayEvent ev = safeMapDocToReplayEvent(h.doc);
+                if (ev != null) {
+                    matched++;
+                    sink.accept(ev);
+                }
+                if (advance(col, field, h, batch)) {
+                    heads.add(h);
+                }
+            }
+            return matched;
+        } finally {
+            for (MergeHead h : all) {
+                closeQuietly(h.cursor);
+            }
+        }
+    }
+
+    // moves h to its chunk's next document; false once the chunk is exhausted
+    private boolean advance(com.mongodb.client.MongoCollection<org.bson.Document> col,
+                            String field, MergeHead h, int batch) {
+        boolean reopened = false;
+        while (true) {
+            try {
+                if (!h.cursor.hasNext()) {
+                    return false;
+                }
+                h.doc = h.cursor.next();
+                return true;
+            } catch (com.mongodb.MongoCursorNotFoundException cnf) {
+                // no progress since the last reopen, or no createdAt to resume from = give up
+                java.util.Date at = MergeHead.date(h.doc);
+                if (reopened || at == null) {
+                    throw cnf;
+                }
+                Console.log("REPLAY_CURSOR_REOPEN", String.valueOf(h.doc.get("_id")));
+                closeQuietly(h.cursor);
+                h.cursor = openChunk(col, com.mongodb.client.model.Filters.and(
+                        com.mongodb.client.model.Filters.in(field, h.chunk),
+                        resumeAfter(new io.braineous.dd.replay.model.ReplayCheckpoint(
+                                at.toInstant(), String.valueOf(h.doc.get("_id"))))), batch);
+                reopened = true;
+            }
+        }
+    }
+
+    private static com.mongodb.client.MongoCursor<org.bson.Document> openChunk(
+            com.mongodb.client.MongoCollection<org.bson.Document> col, org.bson.conversions.Bson filter, int batch) {
+        return col.find(filter)
+                .projection(com.mongodb.client.model.Projections.include("_id", "ingestionId", "payload", "createdAt"))
+                .sort(com.mongodb.client.model.Sorts.ascending("createdAt", "_id"))
+                .batchSize(batch)
+                .iterator();
+    }
+
+    private static void closeQuietly(com.mongodb.client.MongoCursor<org.bson.Document> cur) {
+        try {
+            cur.close();
+        } catch (Exception ignored) {
+            // best-effort
+        }
+    }
+
+    private static final class MergeHead implements Comparable<MergeHead> {
+        private final java.util.List<String> chunk;
+        private com.mongodb.client.MongoCursor<org.bson.Document> cursor;
+        private org.bson.Document doc;
+
+        private MergeHead(java.util.List<String> chunk, com.mongodb.client.MongoCursor<org.bson.Document> cursor) {
+            this.chunk = chunk;
+            this.cursor = cursor;
+        }
+
+        // same order as the server-side sort: createdAt (missing first), then _id
+        @Override
+        public int compareTo(MergeHead o) {
+            java.util.Date a = date(doc);
+            java.util.Date b = date(o.doc);
+            if (a == null || b == null) {
+                if (a != b) return (a == null) ? -1 : 1;
+            } else {
+                int c = a.compareTo(b);
+                if (c != 0) return c;
+            }
+
+            Object ia = doc.get("_id");
+            Object ib = o.doc.get("_id");
+            if (ia instanceof org.bson.types.ObjectId && ib instanceof org.bson.types.ObjectId) {
+                return ((org.bson.types.ObjectId) ia).compareTo((org.bson.types.ObjectId) ib);
+            }
+            return String.valueOf(ia).compareTo(String.valueOf(ib));
+        }
+
+        private static java.util.Date date(org.bson.Document d) {
+            Object v = d.get("createdAt");
+            return (v instanceof java.util.Date) ? (java.util.Date) v : null;
+        }
+    }
+
+    // (createdAt, _id) > checkpoint; ids round-trip through String.valueOf, so hex ids are ObjectIds
+    private static org.bson.conversions.Bson resumeAfter(io.braineous.dd.replay.model.ReplayCheckpoint after) {
+        java.util.Date at = java.util.Date.from(after.createdAt());
+
+        String id = after.id();
+        if (id == null) {
+            return com.mongodb.client.model.Filters.gt("createdAt", at);
+        }
+        Object idValue = org.bson.types.ObjectId.isValid(id) ? new org.bson.types.ObjectId(id) : id;
+
+        return com.mongodb.client.model.Filters.or(
+                com.mongodb.client.model.Filters.gt("createdAt", at),
+                com.mongodb.client.model.Filters.and(
+                        com.mongodb.client.model.Filters.eq("createdAt", at),
+                        com.mongodb.client.model.Filters.gt("_id", idValue)
+                )
+        );
+    }
+
     private ReplayEvent safeMapDocToReplayEvent(org.bson.Document d) {
 
         if (d == null) {
@@ -0,0 +1,33 @@
+package io.braineous.dd.replay.persistence;
+
+import io.braineous.dd.replay.model.ReplayJob;
+
+public interface ReplayJobStore {
+
+    // upsert by jobId
+    public void save(ReplayJob job);
+
+    public ReplayJob findById(String jobId);
+
+    // jobs a restarted node should pick up again
+    public java.util.List<ReplayJob> findRunning();
+
+    /**
+     * Sets cancelRequested only while the stored job is still RUNNING, so a cancel never reopens a
+     * job whose final state is already saved. False when nothing was updated.
+     * The default is atomic only against a store whose methods lock on the store itself; a shared
+     * store overrides it with a conditional update.
+     */
+    public default boolean requestCancel(String jobId, java.time.Instant at) {
+        synchronized (this) {
+            ReplayJob stored = findById(jobId);
+            if (stored == null || stored.getState() != ReplayJob.State.RUNNING) {
+                return false;
+            }
+            stored.setCancelRequested(true);
+            stored.setUpdatedAt(at);
+            save(stored);
+            return true;
+        }
+    }
+}
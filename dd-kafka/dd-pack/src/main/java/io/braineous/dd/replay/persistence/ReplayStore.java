@@ -7,9 +7,90 @@ public interface ReplayStore {
 
     public java.util.List<ReplayEvent> findByTimeWindow(ReplayRequest request);
 
+    /**
+     * Pushes the window to sink straight off the cursor, in (createdAt, _id) order, without
+     * materializing it. Returns how many events were matched, or -1 when the store cannot
+     * stream (the caller then replays findByTimeWindow instead).
+     */
+    default int streamByTimeWindow(ReplayRequest request, java.util.function.Consumer<ReplayEvent> sink) {
+        return -1;
+    }
+
+    /**
+     * Resumable form: only events strictly after the checkpoint (createdAt, then id). A thrown
+     * exception from sink stops the stream.
+     */
+    default int streamByTimeWindow(ReplayRequest request,
+                                   io.braineous.dd.replay.model.ReplayCheckpoint after,
+                                   java.util.function.Consumer<ReplayEvent> sink) {
+        if (after == null) {
+            return streamByTimeWindow(request, sink);
+        }
+        return -1;
+    }
+
+    /**
+     * True when the resumable form above is implemented. Replay jobs are refused up front without it.
+     */
+    default boolean resumable() {
+        return false;
+    }
+
     public java.util.List<ReplayEvent> findByTimeObjectKey(ReplayRequest request);
 
     public java.util.List<ReplayEvent> findByDomainDlqId(ReplayRequest request);
 
     public java.util.List<ReplayEvent> findBySystemDlqId(ReplayRequest request);
+
+    //---------bulk selectors-----------------------------------------------
+    // Push every event of the given ids to sink and return how many matched. The defaults run one
+    // lookup per id (id order); Mongo resolves chunked $in queries in (createdAt, _id) order.
+
+    default int streamByIngestionIds(java.util.List<String> ingestionIds,
+                                     java.util.function.Consumer<ReplayEvent> sink) {
+        int n = 0;
+        for (String id : ingestionIds) {
+            ReplayRequest r = new ReplayRequest();
+            r.setIngestionId(id);
+            java.util.List<ReplayEvent> found = findByTimeObjectKey(r);
+            if (found == null) continue;
+            for (ReplayEvent e : found) {
+                n++;
+                sink.accept(e);
+            }
+        }
+        return n;
+    }
+
+    default int streamByDomainDlqIds(java.util.List<String> dlqIds,
+                                     java.util.function.Consumer<ReplayEvent> sink) {
+        int n = 0;
+        for (String id : dlqIds) {
+            ReplayRequest r = new ReplayRequest();
+            r.setDlqId(id);
+            java.util.List<ReplayEvent> found = findByDomainDlqId(r);
+            if (found == null) continue;
+            for (ReplayEvent e : found) {
+                n++;
+                sink.accept(e);
+            }
+        }
+        return n;
+    }
+
+    default int streamBySystemDlqIds(java.util.List<String> dlqIds,
+                                     java.util.function.Consumer<ReplayEvent> sink) {
+        int n = 0;
+        for (String id : dlqIds) {
+            ReplayRequest r = new ReplayRequest();
+            r.setDlqId(id);
+            java.util.List<ReplayEvent> found = findBySystemDlqId(r);
+            if (found == null) continue;
+            for (ReplayEvent e : found) {
+                n++;
+                sink.accept(e);
+            }
+        }
+        return n;
+    }
 }
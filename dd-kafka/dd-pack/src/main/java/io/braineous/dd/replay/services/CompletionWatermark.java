@@ -0,0 +1,59 @@
+package io.braineous.dd.replay.services;
+
+import io.braineous.dd.replay.model.ReplayCheckpoint;
+
+import java.util.ArrayDeque;
+
+/**
+ * Low watermark over out-of-order completions: events are registered in replay order, complete in
+ * any order (one lane each), and the mark only moves past an event once it and everything before
+ * it are done. Memory is bounded by what is in flight.
+ */
+final class CompletionWatermark {
+
+    static final class Slot {
+        private final ReplayCheckpoint checkpoint;
+        private boolean done;
+
+        private Slot(ReplayCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+    }
+
+    private final ArrayDeque<Slot> inflight = new ArrayDeque<Slot>();
+
+    private ReplayCheckpoint mark;
+    private int processed;
+
+    synchronized Slot register(ReplayCheckpoint checkpoint) {
+        Slot s = new Slot(checkpoint);
+        inflight.addLast(s);
+        return s;
+    }
+
+    /**
+     * @return true when the watermark moved
+     */
+    synchronized boolean complete(Slot s) {
+        s.done = true;
+
+        boolean moved = false;
+        while (!inflight.isEmpty() && inflight.peekFirst().done) {
+            Slot head = inflight.pollFirst();
+            if (head.checkpoint != null) {
+                mark = head.checkpoint;
+            }
+            processed++;
+            moved = true;
+        }
+        return moved;
+    }
+
+    synchronized ReplayCheckpoint mark() {
+        return mark;
+    }
+
+    synchronized int processed() {
+        return processed;
+    }
+}
@@ -0,0 +1,270 @@
+package io.braineous.dd.replay.services;
+
+import ai.braineous.rag.prompt.cgo.api.GraphView;
+import ai.braineous.rag.prompt.models.cgo.graph.GraphSnapshot;
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.braineous.dd.cgo.DDCGOOrchestrator;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.ingestion.persistence.MongoIngestionStore;
+import io.braineous.dd.replay.model.ReplayEvent;
+import io.braineous.dd.replay.model.ReplayRequest;
+import io.braineous.dd.replay.persistence.ReplayStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dry-run determinism check: for every stored ingestion in a window, recomputes the CGO snapshot of
+ * the original event and compares its hash with the stored view.snapshotHash. Nothing is emitted to
+ * the producer, ingestion or DLQ.
+ *
+ * Recomputation is spread over dd.replay.verify.workers threads (default: cores), fed straight off
+ * the replay cursor through a bounded queue; each worker uses its own DDCGOOrchestrator so live
+ * graph state is never touched. Findings are written as NDJSON lines the moment they are found,
+ * followed by one summary line.
+ */
+@ApplicationScoped
+public class DeterminismVerifier {
+
+    public static final String P_WORKERS  = "dd.replay.verify.workers";
+    public static final String P_CAPACITY = "dd.replay.verify.queue.capacity";
+
+    @Inject
+    ReplayStore store;
+
+    // one bridge per worker thread (verification only)
+    private final ThreadLocal<DDCGOOrchestrator> cgo = ThreadLocal.withInitial(DDCGOOrchestrator::new);
+
+    // test seam
+    public void setStore(ReplayStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Streams mismatch / error lines to out, then the summary line, which is also returned.
+     */
+    public JsonObject verifyByTimeWindow(ReplayRequest request, Writer out) throws IOException {
+        Verification v = new Verification(out);
+
+        int matched;
+        try {
+            matched = store.streamByTimeWindow(request, v::submit);
+            if (matched < 0) {
+                java.util.List<ReplayEvent> events = store.findByTimeWindow(request);
+                matched = (events == null) ? 0 : events.size();
+                if (events != null) {
+                    for (ReplayEvent e : events) {
+                        v.submit(e);
+                    }
+                }
+            }
+        } catch (UncheckedIOException uio) {
+            throw uio.getCause();
+        } finally {
+            v.finish();
+        }
+        v.rethrowWriteFailure();
+
+        JsonObject summary = v.summary(matched);
+        v.write(summary);
+        out.flush();
+
+        Console.log("replay_verify_summary", summary);
+        return summary;
+    }
+
+    //------------------------------------------------------------------------------------------------
+
+    /**
+     * Snapshot hash of a DD event as the processor would compute it now. Overridable for tests.
+     */
+    String recompute(String ddEventStr) {
+        GraphView view = cgo.get().orchestrate(ddEventStr);
+        GraphSnapshot snapshot = (GraphSnapshot) view;
+        if (snapshot == null || snapshot.snapshotHash() == null) {
+            return null;
+        }
+        return snapshot.snapshotHash().getValue();
+    }
+
+    // the event as it reached ProcessorOrchestrator: without what orchestration appended
+    static JsonObject originalEvent(JsonObject stored) {
+        JsonObject copy = stored.deepCopy();
+        copy.remove("ingestionId");
+        copy.remove("view");
+        return copy;
+    }
+
+    static String storedSnapshotHash(JsonObject stored) {
+        JsonElement v = stored.get("view");
+        if (v == null || !v.isJsonObject()) {
+            return null;
+        }
+        JsonElement h = v.getAsJsonObject().get(MongoIngestionStore.F_SNAPSHOT_HASH);
+        if (h == null || !h.isJsonPrimitive()) {
+            return null;
+        }
+        String s = h.getAsString().trim();
+        return s.isEmpty() ? null : s;
+    }
+
+    /**
+     * One verification run. The cursor thread submits; a full queue runs the check on the cursor
+     * thread itself (natural backpressure). The first write failure stops the run.
+     */
+    private final class Verification {
+        private final Writer out;
+        private final ThreadPoolExecutor pool;
+
+        // -------- metrics --------
+        private final AtomicLong verified = new AtomicLong();
+        private final AtomicLong consistent = new AtomicLong();
+        private final AtomicLong mismatched = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+
+        private final AtomicReference<IOException> writeFailure = new AtomicReference<IOException>();
+
+        private Verification(Writer out) {
+            this.out = out;
+
+            int workers = (int) Math.max(1L, DDProps.longProp(P_WORKERS, Runtime.getRuntime().availableProcessors()));
+            int capacity = (int) Math.max(1L, DDProps.longProp(P_CAPACITY, 1_000L));
+            AtomicInteger seq = new AtomicInteger();
+
+            this.pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(capacity),
+                    r -> {
+                        Thread t = new Thread(r, "dd-replay-verify-" + seq.getAndIncrement());
+                        t.setDaemon(true);
+                        return t;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        void submit(ReplayEvent e) {
+            IOException failed = writeFailure.get();
+            if (failed != null) {
+                throw new UncheckedIOException(failed);
+            }
+            pool.execute(() -> check(e));
+        }
+
+        void finish() {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                pool.shutdownNow();
+            }
+        }
+
+        void rethrowWriteFailure() throws IOException {
+            IOException failed = writeFailure.get();
+            if (failed != null) {
+                throw failed;
+            }
+        }
+
+        private void check(ReplayEvent e) {
+            if (writeFailure.get() != null) {
+                return;
+            }
+
+            JsonObject stored;
+            try {
+                stored = JsonParser.parseString(e.payload()).getAsJsonObject();
+            } catch (Exception ex) {
+                error(e, null, null, "payload_invalid");
+                return;
+            }
+
+            String expected = storedSnapshotHash(stored);
+            if (expected == null) {
+                skipped.incrementAndGet();
+                return;
+            }
+
+            String actual;
+            try {
+                actual = recompute(originalEvent(stored).toString());
+            } catch (Exception ex) {
+                error(e, stored, expected, ex.getClass().getSimpleName());
+                return;
+            }
+            verified.incrementAndGet();
+
+            if (expected.equals(actual)) {
+                consistent.incrementAndGet();
+                return;
+            }
+            mismatched.incrementAndGet();
+            JsonObject line = line("mismatch", e, stored, expected);
+            line.addProperty("snapshotHash", actual);
+            write(line);
+        }
+
+        private void error(ReplayEvent e, JsonObject stored, String expected, String reason) {
+            errors.incrementAndGet();
+            JsonObject line = line("error", e, stored, expected);
+            line.addProperty("reason", reason);
+            write(line);
+        }
+
+        private JsonObject line(String type, ReplayEvent e, JsonObject stored, String expected) {
+            JsonObject line = new JsonObject();
+            line.addProperty("type", type);
+            line.addProperty("id", e.id());
+            if (stored != null && stored.has("ingestionId") && stored.get("ingestionId").isJsonPrimitive()) {
+                line.addProperty("ingestionId", stored.get("ingestionId").getAsString());
+            }
+            if (e.timestamp() != null) {
+                line.addProperty("createdAt", e.timestamp().toString());
+            }
+            if (expected != null) {
+                line.addProperty("storedSnapshotHash", expected);
+            }
+            return line;
+        }
+
+        void write(JsonObject line) {
+            try {
+                synchronized (out) {
+                    out.write(line.toString());
+                    out.write('\n');
+                    out.flush();
+                }
+            } catch (IOException io) {
+                // client went away: stop feeding, report once
+                if (writeFailure.compareAndSet(null, io)) {
+                    Console.log("replay_verify_write_failed", String.valueOf(io));
+                }
+            }
+        }
+
+        JsonObject summary(int matched) {
+            JsonObject s = new JsonObject();
+            s.addProperty("type", "summary");
+            s.addProperty("matched", matched);
+            s.addProperty("verified", verified.get());
+            s.addProperty("consistent", consistent.get());
+            s.addProperty("mismatched", mismatched.get());
+            s.addProperty("errors", errors.get());
+            s.addProperty("skipped", skipped.get());
+            return s;
+        }
+    }
+}
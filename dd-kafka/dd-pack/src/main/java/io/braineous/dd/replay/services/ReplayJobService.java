@@ -0,0 +1,284 @@
+package io.braineous.dd.replay.services;
+
+import ai.braineous.rag.prompt.observe.Console;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.replay.model.ReplayCheckpoint;
+import io.braineous.dd.replay.model.ReplayJob;
+import io.braineous.dd.replay.model.ReplayRequest;
+import io.braineous.dd.replay.model.ReplayResult;
+import io.braineous.dd.replay.persistence.ReplayJobStore;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs time-window replays in the background on dd.replay.jobs.workers threads, paced by the job's
+ * maxEventsPerSec/maxBytesPerSec (see ReplayThrottle).
+ *
+ * Progress (counts + checkpoint) is persisted at most every dd.replay.jobs.checkpoint.interval.ms and
+ * once more when the job ends. A job still RUNNING in the store when the node starts is resumed
+ * strictly after its checkpoint (dd.replay.jobs.resume.enabled, on by default; assumes one replay
+ * node per job store). Shutdown stops running jobs at their checkpoint and leaves them RUNNING.
+ */
+@ApplicationScoped
+public class ReplayJobService {
+
+    public static final String P_WORKERS             = "dd.replay.jobs.workers";
+    public static final String P_CHECKPOINT_INTERVAL = "dd.replay.jobs.checkpoint.interval.ms";
+    public static final String P_RESUME              = "dd.replay.jobs.resume.enabled";
+    public static final String P_SHUTDOWN_TIMEOUT    = "dd.replay.jobs.shutdown.timeout.ms";
+
+    @Inject
+    ReplayService replayService;
+
+    @Inject
+    ReplayJobStore jobStore;
+
+    // jobs running on this node; the live object is the source of truth while it runs
+    private final ConcurrentHashMap<String, ReplayJob> active = new ConcurrentHashMap<String, ReplayJob>();
+
+    private volatile ExecutorService executor;
+    private volatile boolean stopping;
+
+    // test seams
+    void setReplayService(ReplayService replayService) {
+        this.replayService = replayService;
+    }
+
+    void setJobStore(ReplayJobStore jobStore) {
+        this.jobStore = jobStore;
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        if (!"true".equalsIgnoreCase(System.getProperty(P_RESUME, "true"))) {
+            return;
+        }
+        resumeAll();
+    }
+
+    public ReplayJob submit(ReplayRequest request) {
+        ReplayJob job = ReplayJob.newJob(request);
+        jobStore.save(job);
+        start(job);
+        return snapshot(job);
+    }
+
+    // false when the configured store cannot resume a window: jobs are refused up front
+    public boolean accepting() {
+        return replayService != null && replayService.resumable();
+    }
+
+    public ReplayJob get(String jobId) {
+        ReplayJob live = (jobId == null) ? null : active.get(jobId.trim());
+        if (live != null) {
+            return snapshot(live);
+        }
+        return jobStore.findById(jobId);
+    }
+
+    /**
+     * Requests cancellation. A job running here stops before its next event; a RUNNING job that is
+     * not running on this node (not yet resumed) is marked CANCELLED directly. Terminal jobs are
+     * returned unchanged; null when the job does not exist.
+     */
+    public ReplayJob cancel(String jobId) {
+        ReplayJob live = (jobId == null) ? null : active.get(jobId.trim());
+        if (live != null) {
+            ReplayJob copy;
+            synchronized (live) {
+                live.setCancelRequested(true);
+                live.setUpdatedAt(java.time.Instant.now());
+                copy = live.copy();
+            }
+            // not a full save: it could land after run()'s final save and leave the job RUNNING
+            try {
+                jobStore.requestCancel(copy.getJobId(), copy.getUpdatedAt());
+            } catch (Exception e) {
+                // the run's own saves carry the flag from the live job
+                Console.log("replay_job_persist_failed", String.valueOf(e));
+            }
+            return copy;
+        }
+
+        ReplayJob stored = jobStore.findById(jobId);
+        if (stored == null || stored.terminal()) {
+            return stored;
+        }
+        stored.setCancelRequested(true);
+        stored.setState(ReplayJob.State.CANCELLED);
+        stored.setUpdatedAt(java.time.Instant.now());
+        persist(stored);
+        return stored;
+    }
+
+    public int resumeAll() {
+        int resumed = 0;
+        try {
+            for (ReplayJob job : jobStore.findRunning()) {
+                if (job == null || active.containsKey(job.getJobId())) {
+                    continue;
+                }
+                Console.log("replay_job_resume", job.getJobId());
+                start(job);
+                resumed++;
+            }
+        } catch (Exception e) {
+            Console.log("replay_job_resume_failed", String.valueOf(e));
+        }
+        return resumed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true;
+
+        ExecutorService ex = executor;
+        if (ex == null) {
+            return;
+        }
+        ex.shutdown();
+        try {
+            if (!ex.awaitTermination(DDProps.longProp(P_SHUTDOWN_TIMEOUT, 5_000L), TimeUnit.MILLISECONDS)) {
+                Console.log("replay_job_shutdown_unfinished", active.size());
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private void start(ReplayJob job) {
+        active.put(job.getJobId(), job);
+        try {
+            executor().execute(() -> run(job));
+        } catch (Exception e) {
+            // rejected (shutting down): leave it RUNNING for the next start
+            active.remove(job.getJobId());
+            Console.log("replay_job_rejected", job.getJobId());
+        }
+    }
+
+    void run(ReplayJob job) {
+        JobProgress progress = new JobProgress(job, DDProps.longProp(P_CHECKPOINT_INTERVAL, 1_000L));
+
+        ReplayResult r;
+        try {
+            r = replayService.replayByTimeWindow(job.toRequest(), job.checkpoint(), progress);
+        } catch (Exception e) {
+            Console.log("replay_job_failed", String.valueOf(e));
+            r = ReplayResult.fail("DD-REPLAY-job_failed");
+        }
+
+        ReplayJob last;
+        synchronized (job) {
+            if (r != null && r.ok()) {
+                job.setState(ReplayJob.State.COMPLETED);
+            } else if (job.isCancelRequested()) {
+                job.setState(ReplayJob.State.CANCELLED);
+            } else if (!stopping) {
+                job.setState(ReplayJob.State.FAILED);
+                job.setError((r == null) ? "DD-REPLAY-null_result" : r.reason());
+            }
+            // stopping without a cancel request: stays RUNNING at its checkpoint
+            job.setUpdatedAt(java.time.Instant.now());
+            last = job.copy();
+        }
+        persist(last);
+        active.remove(job.getJobId());
+
+        Console.log("replay_job_" + last.getState().name().toLowerCase(), last.getJobId());
+    }
+
+    private ExecutorService executor() {
+        ExecutorService ex = executor;
+        if (ex != null) {
+            return ex;
+        }
+        synchronized (this) {
+            if (executor == null) {
+                int workers = (int) Math.max(1L, DDProps.longProp(P_WORKERS, 1L));
+                executor = Executors.newFixedThreadPool(workers, r -> {
+                    Thread t = new Thread(r, "dd-replay-job");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            return executor;
+        }
+    }
+
+    private void persist(ReplayJob job) {
+        try {
+            jobStore.save(job);
+        } catch (Exception e) {
+            // best-effort: the next checkpoint (or the final save) writes it again
+            Console.log("replay_job_persist_failed", String.valueOf(e));
+        }
+    }
+
+    private static ReplayJob snapshot(ReplayJob job) {
+        synchronized (job) {
+            return job.copy();
+        }
+    }
+
+    /**
+     * Folds one run's progress into the (cumulative) job and persists it on an interval.
+     * Callbacks arrive in order: inline on the job thread, or under the watermark lock from lanes.
+     */
+    private final class JobProgress implements ReplayProgress {
+        private final ReplayJob job;
+        private final long intervalMs;
+        private final int baseProcessed;
+        private final int baseReplayed;
+        private long lastSaved = System.currentTimeMillis();
+
+        private JobProgress(ReplayJob job, long intervalMs) {
+            this.job = job;
+            this.intervalMs = Math.max(0L, intervalMs);
+            this.baseProcessed = job.getProcessedCount();
+            this.baseReplayed = job.getReplayedCount();
+        }
+
+        @Override
+        public void onProgress(ReplayCheckpoint checkpoint, int processed, int replayed) {
+            long now = System.currentTimeMillis();
+
+            ReplayJob copy = null;
+            synchronized (job) {
+                if (checkpoint != null) {
+                    job.setCheckpointAt(checkpoint.createdAt());
+                    job.setCheckpointId(checkpoint.id());
+                }
+                job.setProcessedCount(baseProcessed + processed);
+                job.setReplayedCount(baseReplayed + replayed);
+                job.setUpdatedAt(java.time.Instant.ofEpochMilli(now));
+
+                if (now - lastSaved >= intervalMs) {
+                    lastSaved = now;
+                    copy = job.copy();
+                }
+            }
+            if (copy != null) {
+                persist(copy);
+            }
+        }
+
+        @Override
+        public boolean cancelled() {
+            if (stopping) {
+                return true;
+            }
+            synchronized (job) {
+                return job.isCancelRequested();
+            }
+        }
+    }
+}
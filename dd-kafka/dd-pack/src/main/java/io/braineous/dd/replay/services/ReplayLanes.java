@@ -0,0 +1,202 @@
+package io.braineous.dd.replay.services;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.core.identity.PayloadIdentity;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Partition-parallel replay for one run: events are sharded by kafka topic/partition (or kafka.key)
+ * onto N single-threaded lanes. A shard always maps to the same lane and each lane is FIFO, so events
+ * within a shard are orchestrated in the order they were submitted; only different shards overlap.
+ *
+ * Lane queues are bounded: submit() blocks when a lane is full, which keeps a streamed replay at
+ * constant memory. Events without kafka metadata all share one shard (their relative order is kept).
+ */
+public final class ReplayLanes {
+
+    public static final String P_ENABLED  = "dd.replay.parallel.enabled";
+    public static final String P_LANES    = "dd.replay.parallel.lanes";
+    public static final String P_CAPACITY = "dd.replay.parallel.queue.capacity";
+    public static final String P_SHARD_BY = "dd.replay.parallel.shard.by"; // partition | key
+
+    private static final Item STOP = new Item(null, null, null);
+
+    private final BlockingQueue<Item>[] queues;
+    private final Thread[] workers;
+    private final boolean byKey;
+    private final Predicate<JsonObject> handler;
+
+    // -------- metrics --------
+    private final AtomicInteger handled = new AtomicInteger();
+    private final AtomicInteger submitted = new AtomicInteger();
+
+    /**
+     * @param handler orchestrates one event on a lane thread; true when it was handed over cleanly
+     */
+    @SuppressWarnings("unchecked")
+    public ReplayLanes(int lanes, int capacity, boolean byKey, Predicate<JsonObject> handler) {
+        int n = Math.max(1, lanes);
+        this.queues = new BlockingQueue[n];
+        this.workers = new Thread[n];
+        this.byKey = byKey;
+        this.handler = handler;
+
+        for (int i = 0; i < n; i++) {
+            BlockingQueue<Item> q = new ArrayBlockingQueue<Item>(Math.max(1, capacity));
+            queues[i] = q;
+            Thread t = new Thread(() -> runLane(q), "dd-replay-lane-" + i);
+            t.setDaemon(true);
+            workers[i] = t;
+            t.start();
+        }
+    }
+
+    public static boolean enabled() {
+        return "true".equalsIgnoreCase(System.getProperty(P_ENABLED, "false"));
+    }
+
+    public static ReplayLanes fromProperties(Predicate<JsonObject> handler) {
+        return new ReplayLanes(
+                (int) DDProps.longProp(P_LANES, Runtime.getRuntime().availableProcessors()),
+                (int) DDProps.longProp(P_CAPACITY, 1_000L),
+                "key".equalsIgnoreCase(System.getProperty(P_SHARD_BY, "partition")),
+                handler);
+    }
+
+    public void submit(JsonObject payloadJson) throws InterruptedException {
+        submit(payloadJson, null);
+    }
+
+    /**
+     * @param onDone run on the lane once the event has been handled (successfully or not)
+     */
+    public void submit(JsonObject payloadJson, Runnable onDone) throws InterruptedException {
+        submit(payloadJson, null, onDone);
+    }
+
+    /**
+     * @param handler used for this event instead of the lanes' handler (null = the lanes' handler)
+     */
+    public void submit(JsonObject payloadJson, Predicate<JsonObject> handler, Runnable onDone) throws InterruptedException {
+        queues[laneOf(shardKey(payloadJson, byKey), queues.length)].put(new Item(payloadJson, handler, onDone));
+        submitted.incrementAndGet();
+    }
+
+    /**
+     * Lets every lane drain, then stops them. Returns how many events were handed over cleanly.
+     * An interrupted caller stops the lanes without draining (queued events never run).
+     */
+    public int finish() {
+        if (Thread.currentThread().isInterrupted()) {
+            stopNow();
+            return handled.get();
+        }
+        for (BlockingQueue<Item> q : queues) {
+            try {
+                q.put(STOP);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                stopNow();
+                return handled.get();
+            }
+        }
+        for (Thread t : workers) {
+            try {
+                t.join();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                stopNow();
+                break;
+            }
+        }
+        return handled.get();
+    }
+
+    private void stopNow() {
+        for (Thread t : workers) {
+            t.interrupt();
+        }
+        Console.log("replay_lanes_interrupted", submitted.get() - handled.get());
+    }
+
+    public int lanes() {
+        return queues.length;
+    }
+
+    public int handled() {
+        return handled.get();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    static String shardKey(JsonObject payloadJson, boolean byKey) {
+        JsonElement k = (payloadJson == null) ? null : payloadJson.get("kafka");
+        if (k == null || !k.isJsonObject()) {
+            return "";
+        }
+        JsonObject kafka = k.getAsJsonObject();
+
+        if (byKey) {
+            String key = str(kafka.get("key"));
+            if (key != null) {
+                return "k:" + key;
+            }
+        }
+        return "p:" + str(kafka.get("topic")) + "/" + str(kafka.get("partition"));
+    }
+
+    static int laneOf(String shardKey, int lanes) {
+        return (int) Long.remainderUnsigned(PayloadIdentity.xxHash64(shardKey), lanes);
+    }
+
+    private void runLane(BlockingQueue<Item> q) {
+        while (true) {
+            Item next;
+            try {
+                next = q.take();
+            } catch (InterruptedException ie) {
+                return;
+            }
+            if (next == STOP) {
+                return;
+            }
+            try {
+                Predicate<JsonObject> h = (next.handler != null) ? next.handler : handler;
+                if (h.test(next.payloadJson)) {
+                    handled.incrementAndGet();
+                }
+            } catch (Exception e) {
+                Console.log("replay_lane_failed", String.valueOf(e));
+            } finally {
+                if (next.onDone != null) {
+                    next.onDone.run();
+                }
+            }
+        }
+    }
+
+    private static String str(JsonElement e) {
+        if (e == null || e.isJsonNull() || !e.isJsonPrimitive()) {
+            return null;
+        }
+        return e.getAsString();
+    }
+
+    private static final class Item {
+        private final JsonObject payloadJson;
+        private final Predicate<JsonObject> handler;
+        private final Runnable onDone;
+
+        private Item(JsonObject payloadJson, Predicate<JsonObject> handler, Runnable onDone) {
+            this.payloadJson = payloadJson;
+            this.handler = handler;
+            this.onDone = onDone;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.braineous.dd.replay.services;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonObject;
+import io.braineous.dd.replay.model.ReplayOutcome;
+import io.braineous.dd.replay.model.ReplayResult;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes each outcome as one NDJSON line the moment it arrives (nothing is buffered beyond the
+ * writer), then a summary line with the ReplayResult. A failed write (client went away) cancels
+ * the replay before its next event.
+ */
+public final class ReplayOutcomeWriter implements ReplayOutcomes {
+
+    private final Writer out;
+    private volatile IOException writeFailure;
+
+    public ReplayOutcomeWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void onOutcome(ReplayOutcome outcome) {
+        if (outcome != null) {
+            write(outcome.toJson());
+        }
+    }
+
+    @Override
+    public boolean cancelled() {
+        return writeFailure != null;
+    }
+
+    /**
+     * Writes the summary line; rethrows the first write failure instead.
+     */
+    public void finish(ReplayResult result) throws IOException {
+        IOException failed = writeFailure;
+        if (failed != null) {
+            throw failed;
+        }
+
+        JsonObject s = new JsonObject();
+        s.addProperty("type", "summary");
+        if (result == null) {
+            s.addProperty("ok", false);
+            s.addProperty("reason", "DD-REPLAY-null_result");
+        } else {
+            s.addProperty("ok", result.ok());
+            s.addProperty("replayId", result.replayId());
+            s.addProperty("matched", result.matchedCount());
+            s.addProperty("replayed", result.replayedCount());
+            if (result.reason() != null) {
+                s.addProperty("reason", result.reason());
+            }
+        }
+        write(s);
+
+        failed = writeFailure;
+        if (failed != null) {
+            throw failed;
+        }
+    }
+
+    private void write(JsonObject line) {
+        if (writeFailure != null) {
+            return;
+        }
+        try {
+            synchronized (out) {
+                out.write(line.toString());
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException io) {
+            synchronized (this) {
+                if (writeFailure == null) {
+                    writeFailure = io;
+                    Console.log("replay_outcome_write_failed", String.valueOf(io));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.braineous.dd.replay.services;
+
+import io.braineous.dd.replay.model.ReplayOutcome;
+
+/**
+ * Receiver of per-event replay outcomes (see ReplayOutcomeWriter).
+ */
+public interface ReplayOutcomes {
+
+    /**
+     * One finished event. Called from the replay thread or, with parallel lanes, from lane threads
+     * (in order within a shard only).
+     */
+    void onOutcome(ReplayOutcome outcome);
+
+    // polled before each event; true stops the cursor (events already handed over still finish)
+    default boolean cancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+package io.braineous.dd.replay.services;
+
+import io.braineous.dd.replay.model.ReplayCheckpoint;
+
+/**
+ * Observer of a long-running replay (see ReplayJobService).
+ */
+public interface ReplayProgress {
+
+    /**
+     * Every event up to and including checkpoint has been handled; processed counts them.
+     * May be called from lane threads, always with a non-decreasing checkpoint.
+     */
+    void onProgress(ReplayCheckpoint checkpoint, int processed, int replayed);
+
+    // polled before each event; true stops the cursor (events already handed over still finish)
+    boolean cancelled();
+}
@@ -3,10 +3,15 @@ package io.braineous.dd.replay.services;
 import ai.braineous.rag.prompt.observe.Console;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import io.braineous.dd.core.processor.HttpPoster;
 import io.braineous.dd.processor.ProcessorOrchestrator;
+import io.braineous.dd.processor.ProcessorResult;
+import io.braineous.dd.replay.model.ReplayCheckpoint;
 import io.braineous.dd.replay.model.ReplayEvent;
+import io.braineous.dd.replay.model.ReplayOutcome;
 import io.braineous.dd.replay.model.ReplayRequest;
 import io.braineous.dd.replay.model.ReplayResult;
+import io.braineous.dd.replay.persistence.KafkaReplaySource;
 import io.braineous.dd.replay.persistence.ReplayStore;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -20,17 +25,144 @@ public class ReplayService {
     @Inject
     private ProcessorOrchestrator processorOrchestrator;
 
+    @Inject
+    private KafkaReplaySource kafkaSource;
+
+    @Inject
+    private ReplayShadowSink shadowSink;
+
     //To facilate unit tests with an in-memory store. System store will be based on MongoDB
     public void setStore(ReplayStore store){
         this.store = store;
     }
 
+    public void setKafkaSource(KafkaReplaySource kafkaSource){
+        this.kafkaSource = kafkaSource;
+    }
+
+    public void setShadowSink(ReplayShadowSink shadowSink){
+        this.shadowSink = shadowSink;
+    }
+
     public ReplayResult replayByTimeWindow(ReplayRequest request){
+        return replayByTimeWindow(request, (ReplayOutcomes) null);
+    }
+
+    /**
+     * Same replay; every event's outcome is also reported to outcomes (null = none) as it finishes.
+     */
+    public ReplayResult replayByTimeWindow(ReplayRequest request, ReplayOutcomes outcomes){
         if (request == null) return ReplayResult.badRequest("request_null");
         if (store == null) return ReplayResult.badRequest("store_null");
 
+        // cursor order is already (createdAt, _id): hand each event over as it arrives
+        ReplayResult streamed = replayStream(request, outcomes, sink -> store.streamByTimeWindow(request, sink));
+        if (streamed != null) {
+            return streamed;
+        }
+
+        // store cannot stream
         java.util.List<ReplayEvent> events = store.findByTimeWindow(request);
-        return replayEvents(events, request);
+        return replayEvents(events, request, outcomes);
+    }
+
+    /**
+     * Resumable time-window replay for jobs: starts strictly after the checkpoint (null = from the
+     * start), reports the completion watermark to progress and stops when it is cancelled.
+     * Needs a streaming store; counts cover only this run.
+     */
+    public ReplayResult replayByTimeWindow(ReplayRequest request, ReplayCheckpoint after, ReplayProgress progress){
+        if (request == null) return ReplayResult.badRequest("request_null");
+        if (store == null) return ReplayResult.badRequest("store_null");
+        if (!store.resumable()) return ReplayResult.badRequest("store_not_resumable");
+
+        Run run = new Run(progress, request, null);
+        int matched;
+        try {
+            matched = store.streamByTimeWindow(request, after, run::accept);
+        } catch (java.util.concurrent.CancellationException ce) {
+            run.finish();
+            return ReplayResult.fail("DD-REPLAY-cancelled");
+        }
+        int attempted = run.finish();
+
+        if (matched < 0) {
+            return ReplayResult.fail("DD-REPLAY-stream_unsupported");
+        }
+        if (matched == 0) {
+            return ReplayResult.empty(request);
+        }
+        return ReplayResult.ok(request, attempted, matched);
+    }
+
+    public boolean resumable(){
+        return store != null && store.resumable();
+    }
+
+    /**
+     * Replays a topic/partition offset (or offsetsForTimes) range straight from the ingestion topic;
+     * Mongo is not read.
+     */
+    public ReplayResult replayFromKafka(ReplayRequest request){
+        return replayFromKafka(request, null);
+    }
+
+    public ReplayResult replayFromKafka(ReplayRequest request, ReplayOutcomes outcomes){
+        if (request == null) return ReplayResult.badRequest("request_null");
+        if (kafkaSource == null) return ReplayResult.badRequest("kafka_source_null");
+
+        Run run = new Run(null, request, outcomes);
+        int matched;
+        try {
+            matched = kafkaSource.stream(request, run::accept);
+        } catch (java.util.concurrent.CancellationException ce) {
+            run.finish();
+            return ReplayResult.fail("DD-REPLAY-cancelled");
+        } catch (Exception e) {
+            run.finish();
+            Console.log("replay_kafka_failed", String.valueOf(e));
+            return ReplayResult.fail("DD-REPLAY-kafka_failed");
+        }
+        int attempted = run.finish();
+
+        if (matched == 0) {
+            return ReplayResult.empty(request);
+        }
+        return ReplayResult.ok(request, attempted, matched);
+    }
+
+    //---------bulk selectors: one ordered stream for the whole id set---------------
+    public ReplayResult replayByIngestionIds(ReplayRequest request){
+        return replayByIngestionIds(request, null);
+    }
+
+    public ReplayResult replayByIngestionIds(ReplayRequest request, ReplayOutcomes outcomes){
+        if (request == null) return ReplayResult.badRequest("request_null");
+        if (store == null) return ReplayResult.badRequest("store_null");
+
+        return replayStream(request, outcomes, sink -> store.streamByIngestionIds(ids(request.ingestionIds()), sink));
+    }
+
+    public ReplayResult replayByDomainDlqIds(ReplayRequest request){
+        return replayByDomainDlqIds(request, null);
+    }
+
+    public ReplayResult replayByDomainDlqIds(ReplayRequest request, ReplayOutcomes outcomes){
+        if (request == null) return ReplayResult.badRequest("request_null");
+        if (store == null) return ReplayResult.badRequest("store_null");
+
+        return replayStream(request, outcomes, sink -> store.streamByDomainDlqIds(ids(request.dlqIds()), sink));
+    }
+
+    public ReplayResult replayBySystemDlqIds(ReplayRequest request){
+        return replayBySystemDlqIds(request, null);
+    }
+
+    public ReplayResult replayBySystemDlqIds(ReplayRequest request, ReplayOutcomes outcomes){
+        if (request == null) return ReplayResult.badRequest("request_null");
+        if (store == null) return ReplayResult.badRequest("store_null");
+
+        return replayStream(request, outcomes, sink -> store.streamBySystemDlqIds(ids(request.dlqIds()), sink));
     }
 
     public ReplayResult replayByTimeObjectKey(ReplayRequest request){
@@ -61,6 +193,10 @@ public class ReplayService {
 
     //---------helper-----------------------------------------------
     ReplayResult replayEvents(java.util.List<ReplayEvent> events, ReplayRequest request) {
+        return replayEvents(events, request, null);
+    }
+
+    ReplayResult replayEvents(java.util.List<ReplayEvent> events, ReplayRequest request, ReplayOutcomes outcomes) {
         if (events == null || events.isEmpty()) {
             return ReplayResult.empty(request);
         }
@@ -108,45 +244,253 @@ public class ReplayService {
             }
         });
 
-        int attempted = 0;
+        Run run = new Run(null, request, outcomes);
+        try {
+            for (int i = 0; i < list.size(); i++) {
+                run.accept(list.get(i));
+            }
+        } catch (java.util.concurrent.CancellationException ce) {
+            run.finish();
+            return ReplayResult.fail("DD-REPLAY-cancelled");
+        }
+
+        // NOTE: attempted == how many we handed to orchestrator without throwing here
+        return ReplayResult.ok(request, run.finish(), list.size());
+    }
+
+    // null when the source cannot stream (returned < 0)
+    private ReplayResult replayStream(ReplayRequest request, ReplayOutcomes outcomes,
+                                      java.util.function.ToIntFunction<java.util.function.Consumer<ReplayEvent>> source) {
+        Run run = new Run(null, request, outcomes);
+        int matched;
+        try {
+            matched = source.applyAsInt(run::accept);
+        } catch (java.util.concurrent.CancellationException ce) {
+            run.finish();
+            return ReplayResult.fail("DD-REPLAY-cancelled");
+        }
+        int attempted = run.finish();
+
+        if (matched < 0) {
+            return null;
+        }
+        if (matched == 0) {
+            return ReplayResult.empty(request);
+        }
+        return ReplayResult.ok(request, attempted, matched);
+    }
+
+    private static java.util.List<String> ids(java.util.List<String> ids) {
+        return (ids == null) ? java.util.Collections.<String>emptyList() : ids;
+    }
+
+    // parsed payload, or null when the event is skipped (logged)
+    private JsonObject parse(ReplayEvent e, int i) {
+        if (e == null) {
+            Console.log("replay_null_event_skip", Integer.valueOf(i));
+            return null;
+        }
 
-        for (int i = 0; i < list.size(); i++) {
-            ReplayEvent e = list.get(i);
-            if (e == null) {
-                Console.log("replay_null_event_skip", Integer.valueOf(i));
-                continue;
+        try {
+            String payload = e.payload();
+            if (payload == null || payload.trim().isEmpty()) {
+                Console.log("replay_bad_payload_skip", payload);
+                Console.log("replay_bad_payload_err", "payload_blank");
+                return null;
             }
+            return JsonParser.parseString(payload).getAsJsonObject();
+        } catch (Exception ex) {
+            Console.log("replay_bad_payload_skip", e.payload());
+            Console.log("replay_bad_payload_err", ex.getClass().getSimpleName());
+            return null;
+        }
+    }
 
-            try {
-                String payload = e.payload();
-                if (payload == null || payload.trim().isEmpty()) {
-                    Console.log("replay_bad_payload_skip", payload);
-                    Console.log("replay_bad_payload_err", "payload_blank");
-                    continue;
+    // true when handed to the orchestrator; failures are logged and skipped
+    private boolean orchestrateQuietly(JsonObject payloadJson, HttpPoster poster) {
+        try {
+            // handoff only; anchoring doctrine lives in ProcessorOrchestrator
+            if (poster == null) {
+                orchestrate(payloadJson);
+            } else {
+                orchestrateForOutcome(payloadJson, poster);
+            }
+            return true;
+        } catch (Exception ex) {
+            Console.log("replay_bad_payload_skip", String.valueOf(payloadJson));
+            Console.log("replay_bad_payload_err", ex.getClass().getSimpleName());
+            return false;
+        }
+    }
+
+    // orchestrates and reports the event's outcome; true when handed over without throwing
+    private boolean orchestrateReporting(String eventId, JsonObject payloadJson, HttpPoster poster,
+                                         ReplayOutcomes outcomes) {
+        long started = System.nanoTime();
+        ProcessorResult result = null;
+        String failure = null;
+        try {
+            result = (poster == null) ? orchestrateForOutcome(payloadJson) : orchestrateForOutcome(payloadJson, poster);
+        } catch (Exception ex) {
+            Console.log("replay_bad_payload_skip", String.valueOf(payloadJson));
+            Console.log("replay_bad_payload_err", ex.getClass().getSimpleName());
+            failure = "DD-REPLAY-orchestrate_failed-" + ex.getClass().getSimpleName();
+        }
+        long ms = (System.nanoTime() - started) / 1_000_000L;
+
+        String why = failure;
+        if (why == null) {
+            why = (result == null) ? "DD-REPLAY-null_result"
+                    : (result.getWhy() == null) ? null : result.getWhy().reason();
+        }
+        String ingestionId = (result == null) ? null : result.getIngestionId();
+        if (ingestionId == null) {
+            ingestionId = ingestionId(payloadJson);
+        }
+
+        outcomes.onOutcome(new ReplayOutcome(eventId, ingestionId,
+                failure == null && result != null && result.isOk(), why, ms));
+        return failure == null;
+    }
+
+    // null = live ingestion transport
+    private HttpPoster posterFor(ReplayRequest request) {
+        if (shadowSink != null) {
+            return shadowSink.posterFor(request);
+        }
+        String target = (request == null) ? null : request.target();
+        if (target != null && !ReplayShadowSink.TARGET_LIVE.equalsIgnoreCase(target)) {
+            // never fall back to live
+            throw new IllegalStateException("replay_shadow_sink_null");
+        }
+        return null;
+    }
+
+    private static String ingestionId(JsonObject payloadJson) {
+        try {
+            com.google.gson.JsonElement id = (payloadJson == null) ? null : payloadJson.get("ingestionId");
+            return (id == null || !id.isJsonPrimitive()) ? null : id.getAsString();
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * One replay run, in order. Inline by default; with dd.replay.parallel.enabled the events are
+     * sharded across ReplayLanes (started on the first event) and finish() waits for every lane.
+     * With a progress observer (jobs), each event is registered on a CompletionWatermark so the
+     * reported checkpoint never passes an event a lane is still working on. A throttle (when the
+     * request or dd.replay.rate.* sets one) paces the hand-over on the calling thread. With an
+     * outcomes receiver, every event (skipped ones included) reports its outcome once it finishes.
+     * The request's target decides where orchestrated events go (see ReplayShadowSink).
+     */
+    private final class Run {
+        private final boolean parallel = ReplayLanes.enabled();
+        private final ReplayProgress progress;
+        private final ReplayThrottle throttle;
+        private final ReplayOutcomes outcomes;
+        private final HttpPoster poster;
+        private final CompletionWatermark watermark;
+        private ReplayLanes lanes;
+        private int index;
+        private int attempted;
+
+        Run(ReplayProgress progress, ReplayRequest request, ReplayOutcomes outcomes) {
+            this.progress = progress;
+            this.throttle = ReplayThrottle.of(request);
+            this.outcomes = outcomes;
+            this.poster = posterFor(request);
+            this.watermark = (progress != null && parallel) ? new CompletionWatermark() : null;
+        }
+
+        void accept(ReplayEvent e) {
+            if ((progress != null && progress.cancelled()) || (outcomes != null && outcomes.cancelled())) {
+                throw new java.util.concurrent.CancellationException("replay_cancelled");
+            }
+
+            if (throttle != null) {
+                throttle.acquire(e);
+            }
+
+            JsonObject payloadJson = parse(e, index++);
+            if (payloadJson == null && outcomes != null) {
+                outcomes.onOutcome(new ReplayOutcome((e == null) ? null : e.id(), null, false,
+                        "DD-REPLAY-payload_invalid", 0L));
+            }
+
+            if (!parallel) {
+                if (payloadJson != null && hand(e, payloadJson)) {
+                    attempted++;
                 }
+                if (progress != null) {
+                    progress.onProgress(ReplayCheckpoint.of(e), index, attempted);
+                }
+                return;
+            }
 
-                JsonObject payloadJson = JsonParser.parseString(payload).getAsJsonObject();
+            CompletionWatermark.Slot slot = (watermark == null) ? null : watermark.register(ReplayCheckpoint.of(e));
+            if (payloadJson == null) {
+                done(slot);
+                return;
+            }
 
-                // handoff only; anchoring doctrine lives in ProcessorOrchestrator
-                orchestrate(payloadJson);
+            if (lanes == null) {
+                lanes = ReplayLanes.fromProperties(p -> orchestrateQuietly(p, poster));
+            }
+            try {
+                String eventId = (e == null) ? null : e.id();
+                lanes.submit(payloadJson,
+                        (outcomes == null) ? null : p -> orchestrateReporting(eventId, p, poster, outcomes),
+                        (slot == null) ? null : () -> done(slot));
+            } catch (InterruptedException ie) {
+                // the event never ran: leave its slot open so the checkpoint stays behind it
+                Thread.currentThread().interrupt();
+                Console.log("replay_lane_submit_interrupted", Integer.valueOf(index));
+                throw new java.util.concurrent.CancellationException("replay_interrupted");
+            }
+        }
 
-                attempted++;
+        int finish() {
+            return (lanes == null) ? attempted : attempted + lanes.finish();
+        }
 
-            } catch (Exception ex) {
-                Console.log("replay_bad_payload_skip", e.payload());
-                Console.log("replay_bad_payload_err", ex.getClass().getSimpleName());
-                // skip and continue
+        private boolean hand(ReplayEvent e, JsonObject payloadJson) {
+            if (outcomes == null) {
+                return orchestrateQuietly(payloadJson, poster);
             }
+            return orchestrateReporting((e == null) ? null : e.id(), payloadJson, poster, outcomes);
         }
 
-        // NOTE: attempted == how many we handed to orchestrator without throwing here
-        return ReplayResult.ok(request, attempted, list.size());
+        private void done(CompletionWatermark.Slot slot) {
+            if (slot == null) {
+                return;
+            }
+            // under the watermark lock so observers see checkpoints in order
+            synchronized (watermark) {
+                if (watermark.complete(slot)) {
+                    progress.onProgress(watermark.mark(), watermark.processed(),
+                            (lanes == null) ? 0 : lanes.handled());
+                }
+            }
+        }
     }
 
 
     void orchestrate(JsonObject payloadJson){
 
-        this.processorOrchestrator.orchestrate(payloadJson);
+        orchestrateForOutcome(payloadJson);
+    }
+
+    // the processor's verdict for one event (streamed outcomes)
+    ProcessorResult orchestrateForOutcome(JsonObject payloadJson){
+
+        return this.processorOrchestrator.orchestrate(payloadJson);
+    }
+
+    // shadow / null target: full pipeline, poster instead of the live transport
+    ProcessorResult orchestrateForOutcome(JsonObject payloadJson, HttpPoster poster){
+
+        return this.processorOrchestrator.orchestrate(payloadJson, poster);
     }
 
 }
@@ -0,0 +1,165 @@
+package io.braineous.dd.replay.services;
+
+import ai.braineous.rag.prompt.observe.Console;
+import io.braineous.dd.core.processor.HttpPoster;
+import io.braineous.dd.replay.model.ReplayRequest;
+import io.braineous.dd.replay.persistence.KafkaReplaySource;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replay targets other than the live ingestion transport, for load and regression runs: events go
+ * through the whole ProcessorOrchestrator pipeline and are then handed to
+ *
+ *   shadow - a shadow topic (request shadowTopic, else dd.replay.shadow.topic), fire-and-forget,
+ *            one producer per node;
+ *   null   - nowhere (accepted and counted).
+ *
+ * Either way nothing reaches the live ingestion endpoint and failures are not written to the DLQ.
+ * A shadow topic that names the live ingestion topic (dd.replay.kafka.topic, default "ingestion")
+ * is refused: the replay would be consumed again as live traffic.
+ */
+@ApplicationScoped
+public class ReplayShadowSink {
+
+    public static final String P_BOOTSTRAP = "dd.replay.shadow.bootstrap.servers";
+    public static final String P_TOPIC     = "dd.replay.shadow.topic";
+
+    public static final String TARGET_LIVE   = "live";
+    public static final String TARGET_SHADOW = "shadow";
+    public static final String TARGET_NULL   = "null";
+
+    private static final int ACCEPTED = 202;
+
+    // -------- metrics --------
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile Producer<String, String> producer;
+
+    /**
+     * @return where the run's events go; null for the live transport
+     */
+    public HttpPoster posterFor(ReplayRequest request) {
+        String target = (request == null) ? null : request.target();
+        if (target == null || TARGET_LIVE.equalsIgnoreCase(target)) {
+            return null;
+        }
+        if (TARGET_NULL.equalsIgnoreCase(target)) {
+            return (endpoint, jsonBody) -> {
+                dropped.incrementAndGet();
+                return ACCEPTED;
+            };
+        }
+        if (TARGET_SHADOW.equalsIgnoreCase(target)) {
+            String topic = shadowTopic(request);
+            if (isLiveTopic(topic)) {
+                throw new IllegalArgumentException("replay_shadow_topic_is_live: " + topic);
+            }
+            return (endpoint, jsonBody) -> send(topic, jsonBody);
+        }
+        // validated at the API surface; never fall back to live
+        throw new IllegalArgumentException("replay_target_unknown: " + target);
+    }
+
+    public static boolean knownTarget(String target) {
+        return target == null
+                || TARGET_LIVE.equalsIgnoreCase(target.trim())
+                || TARGET_SHADOW.equalsIgnoreCase(target.trim())
+                || TARGET_NULL.equalsIgnoreCase(target.trim());
+    }
+
+    /**
+     * Topic a shadow run produces to: the request's shadowTopic, else dd.replay.shadow.topic.
+     */
+    public static String shadowTopic(ReplayRequest request) {
+        String t = (request == null) ? null : request.shadowTopic();
+        if (t == null || t.trim().isEmpty()) {
+            t = System.getProperty(P_TOPIC, "ingestion-shadow");
+        }
+        return t.trim();
+    }
+
+    public static boolean isLiveTopic(String topic) {
+        return topic != null
+                && topic.trim().equals(System.getProperty(KafkaReplaySource.P_TOPIC, "ingestion").trim());
+    }
+
+    public long sent() {
+        return sent.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long failed() {
+        return failed.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        Producer<String, String> p = producer;
+        if (p == null) {
+            return;
+        }
+        producer = null;
+        try {
+            p.close(java.time.Duration.ofSeconds(5));
+        } catch (Exception e) {
+            Console.log("replay_shadow_close_failed", String.valueOf(e));
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+
+    // overridable for tests
+    Producer<String, String> newProducer() {
+        Properties p = new Properties();
+        p.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,
+                System.getProperty(P_BOOTSTRAP,
+                        System.getProperty("dd.replay.kafka.bootstrap.servers",
+                                System.getProperty("kafka.bootstrap.servers", "localhost:9092"))));
+        p.put(ProducerConfig.CLIENT_ID_CONFIG, "dd-replay-shadow");
+        p.put(ProducerConfig.ACKS_CONFIG, "1");
+        p.put(ProducerConfig.LINGER_MS_CONFIG, "5");
+        p.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        p.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
+        return new KafkaProducer<String, String>(p);
+    }
+
+    private int send(String topic, String jsonBody) {
+        // async: the replay is not paced by broker round trips; failures are counted and logged
+        producer().send(new ProducerRecord<String, String>(topic, jsonBody), (meta, ex) -> {
+            if (ex != null) {
+                if (failed.incrementAndGet() == 1L) {
+                    Console.log("replay_shadow_send_failed", String.valueOf(ex));
+                }
+            }
+        });
+        sent.incrementAndGet();
+        return ACCEPTED;
+    }
+
+    private Producer<String, String> producer() {
+        Producer<String, String> p = producer;
+        if (p != null) {
+            return p;
+        }
+        synchronized (this) {
+            if (producer == null) {
+                producer = newProducer();
+            }
+            return producer;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.braineous.dd.replay.services;
+
+import ai.braineous.rag.prompt.observe.Console;
+import io.braineous.dd.core.concurrent.TokenBucket;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.replay.model.ReplayEvent;
+import io.braineous.dd.replay.model.ReplayRequest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces one replay run so a backfill cannot starve live ingestion: events/s and payload bytes/s
+ * token buckets, acquired on the cursor thread before each event is handed over (which also
+ * backpressures the cursor).
+ *
+ * Limits come from the request (per job) and from dd.replay.rate.events.per.sec /
+ * dd.replay.rate.bytes.per.sec; when both are set the lower wins. 0 / unset = unlimited.
+ *
+ * With a request speedup the run also keeps the recorded traffic shape: each event is held until
+ * (its timestamp - the first event's) / speedup has passed since the run started. Events without a
+ * timestamp, or older than the first one, are not held.
+ */
+final class ReplayThrottle {
+
+    public static final String P_EVENTS_PER_SEC = "dd.replay.rate.events.per.sec";
+    public static final String P_BYTES_PER_SEC  = "dd.replay.rate.bytes.per.sec";
+
+    private final TokenBucket events;
+    private final TokenBucket bytes;
+
+    // -------- traffic shape (speedup > 0) --------
+    private final double speedup;
+    private final LongSupplier nanoClock;
+    private final TokenBucket.Sleeper sleeper;
+    private java.time.Instant first;
+    private long startNanos;
+
+    ReplayThrottle(TokenBucket events, TokenBucket bytes, double speedup, LongSupplier nanoClock, TokenBucket.Sleeper sleeper) {
+        this.events = events;
+        this.bytes = bytes;
+        this.speedup = speedup;
+        this.nanoClock = nanoClock;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * @return null when the run is unlimited
+     */
+    static ReplayThrottle of(ReplayRequest request) {
+        long eps = lower(DDProps.longProp(P_EVENTS_PER_SEC, 0L), (request == null) ? null : request.maxEventsPerSec());
+        long bps = lower(DDProps.longProp(P_BYTES_PER_SEC, 0L), (request == null) ? null : request.maxBytesPerSec());
+
+        Double speedup = (request == null) ? null : request.speedup();
+        double shape = (speedup == null || !(speedup.doubleValue() > 0d)) ? 0d : speedup.doubleValue();
+
+        if (eps <= 0L && bps <= 0L && shape <= 0d) {
+            return null;
+        }
+        return new ReplayThrottle(
+                (eps > 0L) ? new TokenBucket(eps) : null,
+                (bps > 0L) ? new TokenBucket(bps) : null,
+                shape, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    /**
+     * Blocks until the event fits both rates. An interrupt stops the run: the flag is restored and a
+     * CancellationException is thrown, so the event is never handed over unpaced.
+     */
+    void acquire(ReplayEvent e) {
+        try {
+            if (speedup > 0d && e != null && e.timestamp() != null) {
+                keepShape(e.timestamp());
+            }
+            if (events != null) {
+                events.acquire(1);
+            }
+            if (bytes != null && e != null) {
+                bytes.acquire(utf8Length(e.payload()));
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            Console.log("replay_throttle_interrupted", (e == null) ? null : e.id());
+            throw new java.util.concurrent.CancellationException("replay_interrupted");
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private void keepShape(java.time.Instant ts) throws InterruptedException {
+        if (first == null) {
+            first = ts;
+            startNanos = nanoClock.getAsLong();
+            return;
+        }
+        long recorded = java.time.Duration.between(first, ts).toNanos();
+        if (recorded <= 0L) {
+            return;
+        }
+        long wait = startNanos + (long) (recorded / speedup) - nanoClock.getAsLong();
+        if (wait > 0L) {
+            sleeper.sleepNanos(wait);
+        }
+    }
+
+    static long lower(long configured, Long requested) {
+        long r = (requested == null) ? 0L : requested.longValue();
+        if (configured <= 0L) return Math.max(0L, r);
+        if (r <= 0L) return configured;
+        return Math.min(configured, r);
+    }
+
+    // encoded size without encoding
+    static int utf8Length(String s) {
+        if (s == null) {
+            return 0;
+        }
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                n += 1;
+            } else if (c < 0x800) {
+                n += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                n += 4;
+                i++;
+            } else {
+                n += 3;
+            }
+        }
+        return n;
+    }
+}
@@ -3,6 +3,8 @@ package io.braineous.dd.resources;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import io.braineous.dd.dlq.persistence.MongoDLQStore;
+import io.braineous.dd.dlq.service.DLQDispatcher;
+import io.braineous.dd.dlq.service.DLQOrchestrator;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -10,6 +12,13 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 @Path("/api/dlq")
 @Produces(MediaType.APPLICATION_JSON)
@@ -18,6 +27,26 @@ public class DLQResource {
     @Inject
     MongoDLQStore store;
 
+    @Inject
+    DLQDispatcher dispatcher;
+
+    @Inject
+    DLQOrchestrator orchestrator;
+
+    // -------------------- EMISSION --------------------
+
+    // async queue depth/drops, batch buffer, breaker/spill and journal state of this node
+    @GET
+    @Path("/stats")
+    public Response emissionStats() {
+        JsonObject out = new JsonObject();
+        out.add("dispatcher", dispatcher.stats());
+        out.add("batch", orchestrator.batchStats());
+        out.add("guard", orchestrator.guardStats());
+        out.add("journal", orchestrator.journalStats());
+        return Response.ok(out.toString()).build();
+    }
+
     // -------------------- SYSTEM --------------------
 
     @GET
@@ -30,8 +59,7 @@ public class DLQResource {
             return bad("fromTime and toTime are required (ISO-8601)");
         }
 
-        JsonArray out = store.findSystemFailureByTimeWindow(fromTime, toTime);
-        return Response.ok(out.toString()).build();
+        return Response.ok(stream(out -> store.writeSystemFailuresByTimeWindow(fromTime, toTime, out))).build();
     }
 
     @GET
@@ -41,7 +69,36 @@ public class DLQResource {
             return bad("dlqId is required");
         }
 
-        JsonObject out = store.findSystemFailureById(dlqId);
+        return Response.ok(stream(out -> store.writeSystemFailureById(dlqId, out))).build();
+    }
+
+    @GET
+    @Path("/system/aggregates")
+    public Response systemAggregates(
+            @QueryParam("fromTime") String fromTime,
+            @QueryParam("toTime") String toTime
+    ) {
+        if (isBlank(fromTime) || isBlank(toTime)) {
+            return bad("fromTime and toTime are required (ISO-8601)");
+        }
+
+        JsonArray out = store.findSystemFailureAggregates(fromTime, toTime);
+        return Response.ok(out.toString()).build();
+    }
+
+    // counts by hour/whyCode/topic + top-N payload fingerprints, computed server-side
+    @GET
+    @Path("/system/analytics")
+    public Response systemAnalytics(
+            @QueryParam("fromTime") String fromTime,
+            @QueryParam("toTime") String toTime,
+            @QueryParam("topN") Integer topN
+    ) {
+        if (isBlank(fromTime) || isBlank(toTime)) {
+            return bad("fromTime and toTime are required (ISO-8601)");
+        }
+
+        JsonObject out = store.findSystemFailureAnalytics(fromTime, toTime, topN == null ? 0 : topN);
         return Response.ok(out.toString()).build();
     }
 
@@ -57,8 +114,7 @@ public class DLQResource {
             return bad("fromTime and toTime are required (ISO-8601)");
         }
 
-        JsonArray out = store.findDomainFailureByTimeWindow(fromTime, toTime);
-        return Response.ok(out.toString()).build();
+        return Response.ok(stream(out -> store.writeDomainFailuresByTimeWindow(fromTime, toTime, out))).build();
     }
 
     @GET
@@ -68,7 +124,36 @@ public class DLQResource {
             return bad("dlqId is required");
         }
 
-        JsonObject out = store.findDomainFailureById(dlqId);
+        return Response.ok(stream(out -> store.writeDomainFailureById(dlqId, out))).build();
+    }
+
+    @GET
+    @Path("/domain/aggregates")
+    public Response domainAggregates(
+            @QueryParam("fromTime") String fromTime,
+            @QueryParam("toTime") String toTime
+    ) {
+        if (isBlank(fromTime) || isBlank(toTime)) {
+            return bad("fromTime and toTime are required (ISO-8601)");
+        }
+
+        JsonArray out = store.findDomainFailureAggregates(fromTime, toTime);
+        return Response.ok(out.toString()).build();
+    }
+
+    // counts by hour/whyCode/topic + top-N payload fingerprints, computed server-side
+    @GET
+    @Path("/domain/analytics")
+    public Response domainAnalytics(
+            @QueryParam("fromTime") String fromTime,
+            @QueryParam("toTime") String toTime,
+            @QueryParam("topN") Integer topN
+    ) {
+        if (isBlank(fromTime) || isBlank(toTime)) {
+            return bad("fromTime and toTime are required (ISO-8601)");
+        }
+
+        JsonObject out = store.findDomainFailureAnalytics(fromTime, toTime, topN == null ? 0 : topN);
         return Response.ok(out.toString()).build();
     }
 
@@ -78,6 +163,20 @@ public class DLQResource {
         return s == null || s.trim().isEmpty();
     }
 
+    // rows go from the Mongo cursor to the socket; nothing is buffered beyond the writer
+    private static StreamingOutput stream(JsonBody body) {
+        return os -> {
+            Writer w = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+            body.writeTo(w);
+            w.flush();
+        };
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void writeTo(Writer out) throws IOException;
+    }
+
     private static Response bad(String msg) {
         JsonObject jo = new JsonObject();
         jo.addProperty("ok", false);
@@ -0,0 +1,31 @@
+package io.braineous.dd.resources;
+
+import io.braineous.dd.quarkus.core.index.MongoIndexManager;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/api/index")
+@Produces(MediaType.APPLICATION_JSON)
+public class IndexResource {
+
+    @Inject
+    MongoIndexManager indexManager;
+
+    /**
+     * Declared query shapes, index build results, explain() verdicts (COLLSCAN), $indexStats usage.
+     */
+    @GET
+    @Path("/stats")
+    public Response stats() {
+        com.google.gson.JsonObject out = new com.google.gson.JsonObject();
+        out.addProperty("ok", true);
+        out.add("data", indexManager.stats());
+        out.add("why", com.google.gson.JsonNull.INSTANCE);
+
+        return Response.status(200).entity(out.toString()).build();
+    }
+}
@@ -8,6 +8,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import io.braineous.dd.core.model.Why;
 import io.braineous.dd.core.processor.HttpPoster;
+import io.braineous.dd.ingestion.persistence.IngestionHotCache;
 import io.braineous.dd.ingestion.persistence.IngestionStore;
 import io.braineous.dd.processor.ProcessorOrchestrator;
 import io.braineous.dd.processor.ProcessorResult;
@@ -28,6 +29,9 @@ public class IngestionResource {
     @Inject
     private IngestionStore store;
 
+    @Inject
+    private IngestionHotCache hotCache;
+
     //test seam
     void setHttpPoster(HttpPoster poster){
         this.orch.setHttpPoster(poster);
@@ -226,6 +230,23 @@ public class IngestionResource {
     }
 
 
+    @Path("/ingestion/cache/stats")
+    @GET
+    @Produces("application/json")
+    public jakarta.ws.rs.core.Response hotCacheStats() {
+        com.google.gson.JsonObject data = (hotCache == null)
+                ? new com.google.gson.JsonObject()
+                : hotCache.stats();
+
+        com.google.gson.JsonObject out = new com.google.gson.JsonObject();
+        out.addProperty("ok", true);
+        out.add("data", data);
+        out.add("why", com.google.gson.JsonNull.INSTANCE);
+
+        return jakarta.ws.rs.core.Response.status(200).entity(out.toString()).build();
+    }
+
+
     //---------------------------------------------------------------
     private static jakarta.ws.rs.core.Response badRequest(String code, String msg) {
         com.google.gson.JsonObject out = new com.google.gson.JsonObject();
@@ -1,25 +1,49 @@
 package io.braineous.dd.resources;
 
 import ai.braineous.cgo.config.ConfigGate;
+import io.braineous.dd.core.config.DDProps;
+import io.braineous.dd.replay.model.ReplayJob;
 import io.braineous.dd.replay.model.ReplayRequest;
 import io.braineous.dd.replay.model.ReplayResult;
+import io.braineous.dd.replay.services.DeterminismVerifier;
+import io.braineous.dd.replay.services.ReplayOutcomeWriter;
+import io.braineous.dd.replay.services.ReplayOutcomes;
+import io.braineous.dd.replay.services.ReplayJobService;
 import io.braineous.dd.replay.services.ReplayService;
+import io.braineous.dd.replay.services.ReplayShadowSink;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 @Path("/api/replay")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
 public class ReplayResource {
 
+    static final String NDJSON = "application/x-ndjson";
+
     @Inject
     ReplayService service;
 
+    @Inject
+    ReplayJobService jobs;
+
+    @Inject
+    DeterminismVerifier verifier;
+
     @Inject
     ConfigGate gate;
 
@@ -28,6 +52,14 @@ public class ReplayResource {
         this.service = svc;
     }
 
+    void setJobs(ReplayJobService jobs) {
+        this.jobs = jobs;
+    }
+
+    void setVerifier(DeterminismVerifier verifier) {
+        this.verifier = verifier;
+    }
+
     void setGate(ConfigGate gate) {
         this.gate = gate;
     }
@@ -53,6 +85,22 @@ public class ReplayResource {
         return toHttp(out);
     }
 
+    @POST
+    @Path("/kafka")
+    public Response replayFromKafka(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateKafka(request);
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        ReplayResult out = service.replayFromKafka(request);
+        return toHttp(out);
+    }
+
     @POST
     @Path("/ingestion")
     public Response replayByIngestion(ReplayRequest request) {
@@ -102,6 +150,239 @@ public class ReplayResource {
         return toHttp(out);
     }
 
+    // -------------------------------------------------------------------------
+    // Bulk (id sets: JSON list or text/plain upload, one id per line)
+    // -------------------------------------------------------------------------
+
+    @POST
+    @Path("/ingestion/bulk")
+    public Response replayByIngestionIds(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateIds(request, (request == null) ? null : request.ingestionIds());
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        ReplayResult out = service.replayByIngestionIds(request);
+        return toHttp(out);
+    }
+
+    @POST
+    @Path("/ingestion/bulk")
+    @Consumes(MediaType.TEXT_PLAIN)
+    public Response uploadIngestionIds(@QueryParam("reason") String reason, String body) {
+        ReplayRequest request = new ReplayRequest();
+        request.setReason(reason);
+        request.setIngestionIds(parseIds(body));
+        return replayByIngestionIds(request);
+    }
+
+    @POST
+    @Path("/dlq/domain/bulk")
+    public Response replayByDomainDlqIds(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateIds(request, (request == null) ? null : request.dlqIds());
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        ReplayResult out = service.replayByDomainDlqIds(request);
+        return toHttp(out);
+    }
+
+    @POST
+    @Path("/dlq/domain/bulk")
+    @Consumes(MediaType.TEXT_PLAIN)
+    public Response uploadDomainDlqIds(@QueryParam("reason") String reason, String body) {
+        ReplayRequest request = new ReplayRequest();
+        request.setReason(reason);
+        request.setDlqIds(parseIds(body));
+        return replayByDomainDlqIds(request);
+    }
+
+    @POST
+    @Path("/dlq/system/bulk")
+    public Response replayBySystemDlqIds(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateIds(request, (request == null) ? null : request.dlqIds());
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        ReplayResult out = service.replayBySystemDlqIds(request);
+        return toHttp(out);
+    }
+
+    @POST
+    @Path("/dlq/system/bulk")
+    @Consumes(MediaType.TEXT_PLAIN)
+    public Response uploadSystemDlqIds(@QueryParam("reason") String reason, String body) {
+        ReplayRequest request = new ReplayRequest();
+        request.setReason(reason);
+        request.setDlqIds(parseIds(body));
+        return replayBySystemDlqIds(request);
+    }
+
+    // -------------------------------------------------------------------------
+    // Streamed outcomes (NDJSON): one line per event as it finishes, summary line
+    // last. Same selection and validation as the plain endpoints.
+    // -------------------------------------------------------------------------
+
+    @POST
+    @Path("/outcomes/time-window")
+    public Response streamByTimeWindow(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateTimeWindow(request);
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        return ndjson(outcomes -> service.replayByTimeWindow(request, outcomes));
+    }
+
+    @POST
+    @Path("/outcomes/kafka")
+    public Response streamFromKafka(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateKafka(request);
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        return ndjson(outcomes -> service.replayFromKafka(request, outcomes));
+    }
+
+    @POST
+    @Path("/outcomes/ingestion/bulk")
+    public Response streamByIngestionIds(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateIds(request, (request == null) ? null : request.ingestionIds());
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        return ndjson(outcomes -> service.replayByIngestionIds(request, outcomes));
+    }
+
+    @POST
+    @Path("/outcomes/dlq/domain/bulk")
+    public Response streamByDomainDlqIds(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateIds(request, (request == null) ? null : request.dlqIds());
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        return ndjson(outcomes -> service.replayByDomainDlqIds(request, outcomes));
+    }
+
+    @POST
+    @Path("/outcomes/dlq/system/bulk")
+    public Response streamBySystemDlqIds(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateIds(request, (request == null) ? null : request.dlqIds());
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        return ndjson(outcomes -> service.replayBySystemDlqIds(request, outcomes));
+    }
+
+    // -------------------------------------------------------------------------
+    // Jobs (async time-window replay)
+    // -------------------------------------------------------------------------
+
+    @POST
+    @Path("/jobs/time-window")
+    public Response submitTimeWindowJob(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateTimeWindow(request);
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        if (!jobs.accepting()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ReplayResult.badRequest("DD-REPLAY-bad_request-store_not_resumable"))
+                    .build();
+        }
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        ReplayJob job = jobs.submit(request);
+        return Response.status(Response.Status.ACCEPTED).entity(job).build();
+    }
+
+    @GET
+    @Path("/jobs/{jobId}")
+    public Response getJob(@PathParam("jobId") String jobId) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        return jobOr404(jobs.get(jobId));
+    }
+
+    @POST
+    @Path("/jobs/{jobId}/cancel")
+    public Response cancelJob(@PathParam("jobId") String jobId) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        return jobOr404(jobs.cancel(jobId));
+    }
+
+    // -------------------------------------------------------------------------
+    // Determinism verification (dry run, NDJSON)
+    // -------------------------------------------------------------------------
+
+    @POST
+    @Path("/verify/time-window")
+    public Response verifyTimeWindow(ReplayRequest request) {
+
+        Response disabled = replayDisabledIfOff();
+        if (disabled != null) return disabled;
+
+        ReplayResult bad = validateTimeWindow(request);
+        if (bad != null) return Response.status(Response.Status.BAD_REQUEST).entity(bad).build();
+
+        try { request.normalize(); } catch (Exception ignored) { }
+
+        // one finding per line as it is found, summary line last
+        StreamingOutput body = os -> {
+            Writer w = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+            verifier.verifyByTimeWindow(request, w);
+            w.flush();
+        };
+        return Response.ok(body).type(NDJSON).build();
+    }
+
     // -------------------------------------------------------------------------
     // Gate + HTTP mapping
     // -------------------------------------------------------------------------
@@ -136,6 +417,39 @@ public class ReplayResource {
         return Response.serverError().entity(r).build();
     }
 
+    // the replay runs while the body is written; a client that goes away cancels it
+    private Response ndjson(java.util.function.Function<ReplayOutcomes, ReplayResult> replay) {
+        StreamingOutput body = os -> {
+            Writer w = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+            ReplayOutcomeWriter outcomes = new ReplayOutcomeWriter(w);
+            outcomes.finish(replay.apply(outcomes));
+        };
+        return Response.ok(body).type(NDJSON).build();
+    }
+
+    private Response jobOr404(ReplayJob job) {
+        if (job == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(ReplayResult.fail("DD-REPLAY-job_not_found"))
+                    .build();
+        }
+        return Response.ok(job).build();
+    }
+
+    // one id per line; blank lines and #comments are ignored
+    static java.util.List<String> parseIds(String body) {
+        java.util.List<String> out = new java.util.ArrayList<String>();
+        if (body == null) return out;
+
+        for (String line : body.split("\\r?\\n")) {
+            String id = line.trim();
+            if (!id.isEmpty() && !id.startsWith("#")) {
+                out.add(id);
+            }
+        }
+        return out;
+    }
+
     private String safeReason(ReplayResult r) {
         try {
             return r.reason();
@@ -156,6 +470,17 @@ public class ReplayResource {
         if (reason == null || reason.trim().isEmpty())
             return ReplayResult.badRequest("DD-REPLAY-bad_request-reason_missing");
 
+        // live | shadow | null; anything else must never reach the live transport
+        if (!ReplayShadowSink.knownTarget(req.target()))
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-target_invalid");
+        if (req.target() != null && ReplayShadowSink.TARGET_SHADOW.equalsIgnoreCase(req.target().trim())
+                && ReplayShadowSink.isLiveTopic(ReplayShadowSink.shadowTopic(req)))
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-shadow_topic_live");
+
+        Double speedup = req.speedup();
+        if (speedup != null && (speedup.isNaN() || speedup.isInfinite() || speedup.doubleValue() < 0d))
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-speedup_invalid");
+
         return null; // ok
     }
 
@@ -186,6 +511,46 @@ public class ReplayResource {
         return null;
     }
 
+    private ReplayResult validateKafka(ReplayRequest req) {
+        ReplayResult common = validateCommon(req);
+        if (common != null) return common;
+
+        Integer partition = req.partition();
+        Long fromOffset = req.fromOffset();
+        Long toOffset = req.toOffset();
+
+        if (partition != null && partition.intValue() < 0)
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-partition_invalid");
+
+        // offsets only mean something within one partition
+        if ((fromOffset != null || toOffset != null) && partition == null)
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-partition_missing");
+
+        String from = (req.fromTime() == null) ? null : req.fromTime().trim();
+        String to = (req.toTime() == null) ? null : req.toTime().trim();
+        if (from != null && from.isEmpty()) from = null;
+        if (to != null && to.isEmpty()) to = null;
+
+        if (fromOffset == null && from == null)
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-kafka_start_missing");
+
+        if (fromOffset != null && fromOffset.longValue() < 0)
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-offset_invalid");
+        if (fromOffset != null && toOffset != null && toOffset.longValue() <= fromOffset.longValue())
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-window_invalid");
+
+        try {
+            java.time.Instant f = (from == null) ? null : java.time.Instant.parse(from);
+            java.time.Instant t = (to == null) ? null : java.time.Instant.parse(to);
+            if (f != null && t != null && !f.isBefore(t))
+                return ReplayResult.badRequest("DD-REPLAY-bad_request-window_invalid");
+        } catch (Exception e) {
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-window_parse");
+        }
+
+        return null;
+    }
+
     private ReplayResult validateIngestionId(ReplayRequest req) {
         ReplayResult common = validateCommon(req);
         if (common != null) return common;
@@ -207,7 +572,20 @@ public class ReplayResource {
 
         return null;
     }
-}
 
+    private ReplayResult validateIds(ReplayRequest req, java.util.List<String> ids) {
+        ReplayResult common = validateCommon(req);
+        if (common != null) return common;
+
+        if (ids == null || ids.isEmpty())
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-ids_missing");
+        if (ids.size() > maxBulkIds())
+            return ReplayResult.badRequest("DD-REPLAY-bad_request-ids_too_many");
 
+        return null;
+    }
 
+    private static long maxBulkIds() {
+        return DDProps.longProp("dd.replay.bulk.max.ids", 100_000L);
+    }
+}
@@ -6,6 +6,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import io.braineous.dd.core.identity.PayloadIdentity;
 
 import java.nio.charset.StandardCharsets;
 import java.util.*;
@@ -258,22 +259,16 @@ public class DDEventFactExtractor implements FactExtractor {
 
     private static String stableIdFromText(String text) {
         if (text == null) text = "";
-        UUID uuid = UUID.nameUUIDFromBytes(text.getBytes(StandardCharsets.UTF_8));
-        return uuid.toString();
+        return PayloadIdentity.factId(text.getBytes(StandardCharsets.UTF_8));
     }
 
     private static String stableIdFromBytes(byte[] bytes) {
         if (bytes == null) bytes = new byte[0];
-        UUID uuid = UUID.nameUUIDFromBytes(bytes);
-        return uuid.toString();
+        return PayloadIdentity.factId(bytes);
     }
 
     private static String toHex(byte[] bytes) {
         if (bytes == null || bytes.length == 0) return "";
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+        return PayloadIdentity.hex(bytes);
     }
 }
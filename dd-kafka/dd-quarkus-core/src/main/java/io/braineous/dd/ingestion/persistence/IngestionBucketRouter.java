@@ -0,0 +1,293 @@
+package io.braineous.dd.ingestion.persistence;
+
+import com.mongodb.client.MongoDatabase;
+import io.braineous.dd.core.config.DDProps;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Routes ingestion documents to time-bucketed collections.
+ *
+ * none   -> "ingestion" (single collection, legacy layout)
+ * daily  -> "ingestion_yyyyMMdd"   (UTC)
+ * hourly -> "ingestion_yyyyMMddHH" (UTC)
+ *
+ * Buckets are disjoint on createdAt, so a time window only touches the overlapping buckets and
+ * concatenating per-bucket results (ascending bucket order) keeps the global createdAt order.
+ * Retention drops whole buckets.
+ *
+ * Dedup contract when partitioned: an id is only matched in the newest dd.ingestion.dedup.lookback.buckets
+ * buckets (default 2). Re-sending an older id stores a new document in the current bucket; the old one
+ * stays until retention drops its bucket. Size the lookback to the longest resend horizon you need.
+ *
+ * Cutover from the legacy layout: the "ingestion" collection is never written once partitioning is on,
+ * but it is read as the oldest bucket for as long as it exists (lookups probe it last, windows read it
+ * first). Resending an id that still lives there moves it into the current bucket. Retention never drops
+ * it; drop it by hand once nothing in it is needed. Switch every writer at once: a legacy doc written after
+ * the first bucket would break the window order.
+ *
+ * Bucket names are listed once and cached. The writer refreshes the cache on every roll; any instance
+ * re-lists when the current bucket is missing (at most once a second) or after
+ * dd.ingestion.bucket.refresh.ms (default 30s, picks up buckets dropped elsewhere).
+ */
+@ApplicationScoped
+public class IngestionBucketRouter {
+
+    public static final String P_PARTITION        = "dd.ingestion.partition";
+    public static final String P_RETENTION_HOURS  = "dd.ingestion.retention.hours";
+    public static final String P_LOOKBACK_BUCKETS = "dd.ingestion.dedup.lookback.buckets";
+    public static final String P_REFRESH_MS       = "dd.ingestion.bucket.refresh.ms";
+
+    // floor between re-lists triggered by a missing current bucket
+    private static final long MISSING_RELIST_MS = 1_000L;
+
+    public static final String BASE = MongoIngestionStore.COL;
+    public static final String PREFIX = BASE + "_";
+
+    public enum Granularity {
+        NONE, DAILY, HOURLY
+    }
+
+    private static final DateTimeFormatter DAILY =
+            DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter HOURLY =
+            DateTimeFormatter.ofPattern("yyyyMMddHH").withZone(ZoneOffset.UTC);
+
+    private final Granularity granularity;
+    private final long retentionHours;
+    private final int lookbackBuckets;
+    private final long refreshMs;
+
+    // cached bucket names (ascending) and when they were listed
+    private volatile List<String> buckets;
+    private volatile long listedAtMs;
+    // whether the legacy collection was present at the last listing
+    private volatile boolean legacy;
+
+    public IngestionBucketRouter() {
+        this(
+                parseGranularity(System.getProperty(P_PARTITION, "none")),
+                DDProps.longProp(P_RETENTION_HOURS, 0L),
+                (int) DDProps.longProp(P_LOOKBACK_BUCKETS, 2L),
+                DDProps.longProp(P_REFRESH_MS, 30_000L)
+        );
+    }
+
+    public IngestionBucketRouter(Granularity granularity, long retentionHours, int lookbackBuckets) {
+        this(granularity, retentionHours, lookbackBuckets, 30_000L);
+    }
+
+    public IngestionBucketRouter(Granularity granularity, long retentionHours, int lookbackBuckets, long refreshMs) {
+        this.granularity = (granularity == null) ? Granularity.NONE : granularity;
+        this.retentionHours = Math.max(0L, retentionHours);
+        this.lookbackBuckets = Math.max(1, lookbackBuckets);
+        this.refreshMs = Math.max(0L, refreshMs);
+    }
+
+    public Granularity granularity() { return granularity; }
+    public boolean isPartitioned() { return granularity != Granularity.NONE; }
+    public long retentionHours() { return retentionHours; }
+    public int lookbackBuckets() { return lookbackBuckets; }
+
+    // -------- naming --------
+
+    public String bucketFor(Instant t) {
+        if (!isPartitioned()) {
+            return BASE;
+        }
+        Instant at = (t == null) ? Instant.now() : t;
+        return PREFIX + (granularity == Granularity.DAILY ? DAILY.format(at) : HOURLY.format(at));
+    }
+
+    /**
+     * @return start of the bucket (inclusive), or null if the name is not a bucket of this granularity
+     */
+    public Instant bucketStart(String name) {
+        if (!isPartitioned() || name == null || !name.startsWith(PREFIX)) {
+            return null;
+        }
+
+        String stamp = name.substring(PREFIX.length());
+        int expected = (granularity == Granularity.DAILY) ? 8 : 10;
+        if (stamp.length() != expected) {
+            return null;
+        }
+        for (int i = 0; i < stamp.length(); i++) {
+            if (!Character.isDigit(stamp.charAt(i))) {
+                return null;
+            }
+        }
+
+        try {
+            int y = Integer.parseInt(stamp.substring(0, 4));
+            int m = Integer.parseInt(stamp.substring(4, 6));
+            int d = Integer.parseInt(stamp.substring(6, 8));
+            int h = (granularity == Granularity.HOURLY) ? Integer.parseInt(stamp.substring(8, 10)) : 0;
+            return java.time.LocalDateTime.of(y, m, d, h, 0).toInstant(ZoneOffset.UTC);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public Instant bucketEnd(String name) {
+        Instant start = bucketStart(name);
+        if (start == null) {
+            return null;
+        }
+        return start.plus(1, granularity == Granularity.DAILY ? ChronoUnit.DAYS : ChronoUnit.HOURS);
+    }
+
+    // -------- selection over existing buckets --------
+
+    /**
+     * Buckets of this granularity, oldest first.
+     */
+    public List<String> sortAscending(Collection<String> names) {
+        List<String> out = new ArrayList<String>();
+        if (names == null) {
+            return out;
+        }
+        for (String n : names) {
+            if (bucketStart(n) != null) {
+                out.add(n);
+            }
+        }
+        // fixed-width numeric stamp => lexical order == time order
+        Collections.sort(out);
+        return out;
+    }
+
+    /**
+     * Existing buckets overlapping [from, to), oldest first.
+     */
+    public List<String> overlapping(Collection<String> names, Instant from, Instant to) {
+        List<String> out = new ArrayList<String>();
+        if (from == null || to == null || !from.isBefore(to)) {
+            return out;
+        }
+        for (String n : sortAscending(names)) {
+            Instant s = bucketStart(n);
+            Instant e = bucketEnd(n);
+            if (s.isBefore(to) && e.isAfter(from)) {
+                out.add(n);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Existing buckets, newest first, capped at {@code limit} (limit <= 0 => all).
+     */
+    public List<String> newestFirst(Collection<String> names, int limit) {
+        List<String> asc = sortAscending(names);
+        Collections.reverse(asc);
+        if (limit > 0 && asc.size() > limit) {
+            return new ArrayList<String>(asc.subList(0, limit));
+        }
+        return asc;
+    }
+
+    /**
+     * Buckets that ended before now - retention. Empty when retention is disabled.
+     */
+    public List<String> expired(Collection<String> names, Instant now) {
+        List<String> out = new ArrayList<String>();
+        if (!isPartitioned() || retentionHours <= 0L) {
+            return out;
+        }
+        Instant cutoff = ((now == null) ? Instant.now() : now).minus(Duration.ofHours(retentionHours));
+        for (String n : sortAscending(names)) {
+            Instant e = bucketEnd(n);
+            if (!e.isAfter(cutoff)) {
+                out.add(n);
+            }
+        }
+        return out;
+    }
+
+    // -------- mongo helpers --------
+
+    /**
+     * Existing buckets, oldest first, from the cache (see class doc).
+     */
+    public List<String> existingBuckets(MongoDatabase db) {
+        if (db == null || !isPartitioned()) {
+            return new ArrayList<String>();
+        }
+        return existingBuckets(db::listCollectionNames, System.currentTimeMillis());
+    }
+
+    /**
+     * Re-lists now. The writer calls this after creating or dropping buckets.
+     */
+    public List<String> refreshBuckets(MongoDatabase db) {
+        if (db == null || !isPartitioned()) {
+            return new ArrayList<String>();
+        }
+        return relist(db::listCollectionNames, System.currentTimeMillis());
+    }
+
+    /**
+     * Whether the legacy "ingestion" collection still exists (partitioned mode only), from the same cache.
+     */
+    public boolean hasLegacy(MongoDatabase db) {
+        if (db == null || !isPartitioned()) {
+            return false;
+        }
+        return hasLegacy(db::listCollectionNames, System.currentTimeMillis());
+    }
+
+    boolean hasLegacy(Supplier<Iterable<String>> lister, long nowMs) {
+        existingBuckets(lister, nowMs);
+        return legacy;
+    }
+
+    List<String> existingBuckets(Supplier<Iterable<String>> lister, long nowMs) {
+        List<String> cached = buckets;
+        long age = nowMs - listedAtMs;
+        if (cached == null
+                || age >= refreshMs
+                || (age >= MISSING_RELIST_MS
+                    && !cached.contains(bucketFor(Instant.ofEpochMilli(nowMs))))) {
+            return relist(lister, nowMs);
+        }
+        return new ArrayList<String>(cached);
+    }
+
+    private List<String> relist(Supplier<Iterable<String>> lister, long nowMs) {
+        List<String> names = new ArrayList<String>();
+        for (String n : lister.get()) {
+            names.add(n);
+        }
+        List<String> sorted = Collections.unmodifiableList(sortAscending(names));
+        legacy = names.contains(BASE);
+        buckets = sorted;
+        listedAtMs = nowMs;
+        return new ArrayList<String>(sorted);
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private static Granularity parseGranularity(String v) {
+        if (v == null) {
+            return Granularity.NONE;
+        }
+        String t = v.trim().toLowerCase();
+        if ("daily".equals(t)) {
+            return Granularity.DAILY;
+        }
+        if ("hourly".equals(t)) {
+            return Granularity.HOURLY;
+        }
+        return Granularity.NONE;
+    }
+}
@@ -0,0 +1,223 @@
+package io.braineous.dd.ingestion.persistence;
+
+import com.google.gson.JsonObject;
+import io.braineous.dd.core.config.DDProps;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hot tier in front of {@link IngestionStore#findEventsByIngestionId(String)}.
+ *
+ * Read-through only, off by default: enable it (-Ddd.ingestion.cache.enabled=true) on the JVM that
+ * serves reads (dd-pack), not on the writers. Bounded by total weight (approx. bytes of the cached
+ * event json) and by TTL.
+ *
+ * Ingested documents are immutable apart from createdAt, but a touch is usually written by another
+ * JVM, so a cached event can report a createdAt up to ttlMs old. Keep the TTL short.
+ */
+@ApplicationScoped
+public class IngestionHotCache {
+
+    public static final String P_ENABLED    = "dd.ingestion.cache.enabled";
+    public static final String P_TTL_MS     = "dd.ingestion.cache.ttl.ms";
+    public static final String P_MAX_WEIGHT = "dd.ingestion.cache.max.weight";
+
+    private static final long DEFAULT_TTL_MS     = 5L * 1000L;            // 5 s
+    private static final long DEFAULT_MAX_WEIGHT = 64L * 1024L * 1024L;   // ~64MB
+
+    // fixed per-entry overhead (map node + entry + json tree), rough but stable
+    private static final long ENTRY_OVERHEAD = 256L;
+
+    private final boolean enabled;
+    private final long ttlMs;
+    private final long maxWeight;
+
+    // access-order => eldest is LRU
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(256, 0.75f, true);
+    private long weight;
+
+    // -------- metrics --------
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public IngestionHotCache() {
+        this(
+                "true".equalsIgnoreCase(System.getProperty(P_ENABLED, "false")),
+                DDProps.longProp(P_TTL_MS, DEFAULT_TTL_MS),
+                DDProps.longProp(P_MAX_WEIGHT, DEFAULT_MAX_WEIGHT)
+        );
+    }
+
+    public IngestionHotCache(boolean enabled, long ttlMs, long maxWeight) {
+        this.enabled = enabled && ttlMs > 0 && maxWeight > 0;
+        this.ttlMs = ttlMs;
+        this.maxWeight = maxWeight;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return a defensive copy of the cached event, or null on miss/expiry/disabled
+     */
+    public JsonObject get(String ingestionId) {
+        if (!enabled || ingestionId == null) {
+            return null;
+        }
+
+        long now = nowMs();
+        synchronized (this) {
+            Entry e = entries.get(ingestionId);
+            if (e == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (e.expiresAtMs <= now) {
+                remove(ingestionId, e);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return e.event.deepCopy();
+        }
+    }
+
+    public void put(String ingestionId, JsonObject event) {
+        if (!enabled || ingestionId == null || event == null || event.entrySet().isEmpty()) {
+            return;
+        }
+
+        Entry e = new Entry(event.deepCopy(), weigh(ingestionId, event), nowMs() + ttlMs);
+
+        // a single event larger than the whole tier is never cached
+        if (e.weight > maxWeight) {
+            return;
+        }
+
+        synchronized (this) {
+            Entry prev = entries.put(ingestionId, e);
+            if (prev != null) {
+                weight -= prev.weight;
+            }
+            weight += e.weight;
+            puts.incrementAndGet();
+            evictOverweight();
+        }
+    }
+
+    public void invalidate(String ingestionId) {
+        if (!enabled || ingestionId == null) {
+            return;
+        }
+
+        synchronized (this) {
+            Entry e = entries.get(ingestionId);
+            if (e != null) {
+                remove(ingestionId, e);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0L;
+    }
+
+    public JsonObject stats() {
+        long h = hits.get();
+        long m = misses.get();
+        long total = h + m;
+
+        JsonObject out = new JsonObject();
+        out.addProperty("enabled", enabled);
+        out.addProperty("ttlMs", ttlMs);
+        out.addProperty("maxWeight", maxWeight);
+
+        synchronized (this) {
+            out.addProperty("size", entries.size());
+            out.addProperty("weight", weight);
+        }
+
+        out.addProperty("hits", h);
+        out.addProperty("misses", m);
+        out.addProperty("hitRate", total == 0 ? 0.0d : ((double) h) / ((double) total));
+        out.addProperty("puts", puts.get());
+        out.addProperty("evictions", evictions.get());
+        out.addProperty("expirations", expirations.get());
+        return out;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    long nowMs() {
+        return System.currentTimeMillis();
+    }
+
+    private void evictOverweight() {
+        if (weight <= maxWeight) {
+            return;
+        }
+
+        long now = nowMs();
+
+        // pass 1: drop expired entries wherever they are
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext() && weight > maxWeight) {
+            Map.Entry<String, Entry> me = it.next();
+            if (me.getValue().expiresAtMs <= now) {
+                weight -= me.getValue().weight;
+                it.remove();
+                expirations.incrementAndGet();
+            }
+        }
+
+        // pass 2: LRU
+        it = entries.entrySet().iterator();
+        while (it.hasNext() && weight > maxWeight) {
+            Map.Entry<String, Entry> me = it.next();
+            weight -= me.getValue().weight;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(String ingestionId, Entry e) {
+        entries.remove(ingestionId);
+        weight -= e.weight;
+    }
+
+    private static long weigh(String ingestionId, JsonObject event) {
+        long chars = ingestionId.length();
+        for (Map.Entry<String, com.google.gson.JsonElement> me : event.entrySet()) {
+            chars += me.getKey().length();
+            com.google.gson.JsonElement v = me.getValue();
+            if (v != null && v.isJsonPrimitive()) {
+                chars += v.getAsString().length();
+            } else if (v != null) {
+                chars += v.toString().length();
+            }
+        }
+        // java strings: ~2 bytes/char
+        return ENTRY_OVERHEAD + (chars * 2L);
+    }
+
+    private static final class Entry {
+        private final JsonObject event;
+        private final long weight;
+        private final long expiresAtMs;
+
+        private Entry(JsonObject event, long weight, long expiresAtMs) {
+            this.event = event;
+            this.weight = weight;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
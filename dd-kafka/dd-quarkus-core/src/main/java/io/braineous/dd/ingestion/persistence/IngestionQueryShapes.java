@@ -0,0 +1,100 @@
+package io.braineous.dd.ingestion.persistence;
+
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import io.braineous.dd.quarkus.core.index.QueryShape;
+import io.braineous.dd.quarkus.core.index.QueryShapeProvider;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.bson.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Query shapes issued against the ingestion collection(s) by MongoIngestionStore and MongoReplayStore.
+ * Single source for the ingestion indexes: the store's bucket-roll path builds from here too.
+ */
+@ApplicationScoped
+public class IngestionQueryShapes implements QueryShapeProvider {
+
+    @Inject
+    IngestionBucketRouter router;
+
+    /**
+     * Shapes for one ingestion collection (legacy or a time bucket).
+     */
+    public static List<QueryShape> shapesFor(String collection) {
+        Date sampleTime = Date.from(Instant.parse("2026-01-01T00:00:00Z"));
+
+        List<QueryShape> out = new ArrayList<QueryShape>();
+
+        // storeIngestion idempotency + findEventsByIngestionId + replay by ingestionId
+        out.add(new QueryShape(
+                "ingestion.byIngestionId",
+                collection,
+                new Document(MongoIngestionStore.F_INGESTION_ID, 1),
+                new IndexOptions().unique(true),
+                new Document(MongoIngestionStore.F_INGESTION_ID, "DD-ING-shape"),
+                null
+        ));
+
+        // resolveIngestionId + dup-key race path
+        out.add(new QueryShape(
+                "ingestion.bySnapshotHash",
+                collection,
+                new Document(MongoIngestionStore.F_SNAPSHOT_HASH, 1),
+                null,
+                new Document(MongoIngestionStore.F_SNAPSHOT_HASH, "shape"),
+                null
+        ));
+
+        // payload-level dedup/lookup (was built by ensureIndexes before the manager existed)
+        out.add(new QueryShape(
+                "ingestion.byPayloadHash",
+                collection,
+                new Document(MongoIngestionStore.F_PAYLOAD_HASH, 1),
+                null,
+                new Document(MongoIngestionStore.F_PAYLOAD_HASH, "shape"),
+                null
+        ));
+
+        // findEventsByTimeWindow (sort createdAt) + replay time window (sort createdAt, _id)
+        out.add(new QueryShape(
+                "ingestion.byTimeWindow",
+                collection,
+                new Document("createdAt", 1).append("_id", 1),
+                null,
+                new Document("createdAt", new Document("$gte", sampleTime).append("$lt", sampleTime)),
+                new Document("createdAt", 1).append("_id", 1)
+        ));
+
+        return out;
+    }
+
+    @Override
+    public List<QueryShape> queryShapes(MongoDatabase db) {
+        Set<String> cols = new LinkedHashSet<String>();
+
+        if (router == null || !router.isPartitioned()) {
+            cols.add(MongoIngestionStore.COL);
+        } else {
+            cols.addAll(router.existingBuckets(db));
+            cols.add(router.bucketFor(Instant.now()));
+            // still read after the cutover
+            if (router.hasLegacy(db)) {
+                cols.add(MongoIngestionStore.COL);
+            }
+        }
+
+        List<QueryShape> out = new ArrayList<QueryShape>();
+        for (String c : cols) {
+            out.addAll(shapesFor(c));
+        }
+        return out;
+    }
+}
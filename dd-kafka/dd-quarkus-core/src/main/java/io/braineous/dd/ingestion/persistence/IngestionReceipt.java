@@ -137,16 +137,7 @@ public final class IngestionReceipt {
 
     public static String sha256Hex(String s) {
         if (s == null) return null;
-        try {
-            var md = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] dig = md.digest(s.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-
-            StringBuilder sb = new StringBuilder();
-            for (byte b : dig) sb.append(String.format("%02x", b));
-            return sb.toString();
-        } catch (Exception e) {
-            throw new RuntimeException("sha256_failed: " + e.getMessage(), e);
-        }
+        return io.braineous.dd.core.identity.PayloadIdentity.sha256Hex(s);
     }
 
     public JsonObject toJson() {
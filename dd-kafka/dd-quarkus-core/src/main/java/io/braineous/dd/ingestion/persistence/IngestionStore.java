@@ -7,6 +7,18 @@ import com.google.gson.JsonObject;
 public interface IngestionStore {
     IngestionReceipt storeIngestion(String payload);
 
+    // one Kafka poll at a time: receipts line up with payloads; stores without a bulk path fall back to per-record writes
+    default java.util.List<IngestionReceipt> storeIngestions(java.util.List<String> payloads) {
+        java.util.List<IngestionReceipt> out = new java.util.ArrayList<IngestionReceipt>();
+        if (payloads == null) {
+            return out;
+        }
+        for (String payload : payloads) {
+            out.add(storeIngestion(payload));
+        }
+        return out;
+    }
+
     public String resolveIngestionId(String payload, String snap);
 
     public JsonArray findEventsByTimeWindow(String fromTime, String toTime);
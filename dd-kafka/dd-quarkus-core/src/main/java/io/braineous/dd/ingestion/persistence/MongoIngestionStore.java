@@ -1,14 +1,21 @@
 package io.braineous.dd.ingestion.persistence;
 
 import ai.braineous.rag.prompt.models.cgo.graph.SnapshotHash;
+import ai.braineous.rag.prompt.observe.Console;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoWriteException;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import io.braineous.dd.core.model.Why;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -18,8 +25,16 @@ import org.bson.conversions.Bson;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 @ApplicationScoped
 public class MongoIngestionStore implements IngestionStore {
@@ -28,102 +43,177 @@ public class MongoIngestionStore implements IngestionStore {
     public static final String COL = "ingestion";
 
     public static final String F_SNAPSHOT_HASH = "snapshotHash";
-    private static final String F_PAYLOAD_HASH  = "payloadHash";
+    public static final String F_PAYLOAD_HASH  = "payloadHash";
 
     public static final String F_INGESTION_ID = "ingestionId";
 
     private final AtomicBoolean ingestionIndexed = new AtomicBoolean(false);
 
+    // last bucket we wrote to (partitioned mode only); a change means the bucket rolled
+    private final AtomicReference<String> currentBucket = new AtomicReference<String>();
+
+    // one retention pass at a time; a roll while one runs is covered by the next roll
+    private final AtomicBoolean retentionRunning = new AtomicBoolean(false);
+
     @Inject
     MongoClient mongoClient;
 
+    @Inject
+    IngestionHotCache hotCache;
+
+    @Inject
+    IngestionBucketRouter router;
+
     // Best-effort only. Never break ingestion.
+    // Startup builds go through MongoIndexManager; this covers buckets born at runtime.
     private void ensureIndexes(MongoCollection<Document> col) {
-        try {
-            // Idempotency contract: UNIQUE on idKey
-            // If race happens, treat duplicate key as idempotent success (no read-back).
-            col.createIndex(new Document("createdAt", -1));
-            col.createIndex(new Document(F_INGESTION_ID, 1), new com.mongodb.client.model.IndexOptions().unique(true));
-            col.createIndex(new Document(F_PAYLOAD_HASH, 1));
-        } catch (Exception ignored) {
-            // swallow: indexes are not a runtime concern in this phase
+        // Idempotency contract: UNIQUE on idKey
+        // If race happens, treat duplicate key as idempotent success (no read-back).
+        for (io.braineous.dd.quarkus.core.index.QueryShape shape
+                : IngestionQueryShapes.shapesFor(col.getNamespace().getCollectionName())) {
+            try {
+                col.createIndex(shape.indexKeys(), shape.indexOptions());
+            } catch (Exception ignored) {
+                // swallow: indexes are not a runtime concern in this phase
+            }
         }
     }
 
+    private MongoDatabase database() {
+        return mongoClient.getDatabase(DB);
+    }
+
     private MongoCollection<Document> collection() {
-        return mongoClient
-                .getDatabase(DB)
-                .getCollection(COL);
+        return database().getCollection(COL);
     }
 
+    // ---------- time buckets ----------
 
-    @Override
-    public IngestionReceipt storeIngestion(String payload) {
-        String ingestionId = null;
-        // ---------- fail-fast: payload ----------
-        if (payload == null || payload.trim().isEmpty()) {
-            return IngestionReceipt.failDomain(
-                    ingestionId,
-                    null, null,
-                    new Why("DD-ING-payload_blank", "payload cannot be blank"),
-                    "mongo"
-            );
+    private boolean partitioned() {
+        return router != null && router.isPartitioned();
+    }
+
+    /**
+     * Collection new ingestions go to. Legacy single collection unless partitioning is on.
+     */
+    private MongoCollection<Document> writeCollection(Instant now) {
+        if (!partitioned()) {
+            return collection();
         }
 
-        JsonObject ingestionJson = JsonParser.parseString(payload).getAsJsonObject();
-        if(!ingestionJson.has("ingestionId")) {
-            return IngestionReceipt.failDomain(
-                    ingestionId,
-                    null, null,
-                    new Why("DD-ING-ingestion-id-missing", "ingestion id must be assigned by the consumer"),
-                    "mongo"
-            );
+        String name = router.bucketFor(now);
+        String prev = currentBucket.get();
+        if (!name.equals(prev) && currentBucket.compareAndSet(prev, name)) {
+            onBucketRoll(name, now);
         }
-        ingestionId = ingestionJson.get("ingestionId").getAsString();
+        return database().getCollection(name);
+    }
+
+    // Best-effort only. Never break ingestion.
+    private void onBucketRoll(String name, Instant now) {
+        Console.log("ingestion_bucket_roll", name);
 
-        JsonObject view = null;
+        // hot bucket gets its indexes up front (also materializes the collection)
+        ensureIndexes(database().getCollection(name));
 
-        if (ingestionJson.has("view")
-                && ingestionJson.get("view") != null
-                && ingestionJson.get("view").isJsonObject()) {
-            view = ingestionJson.get("view").getAsJsonObject();
+        // drops can take a while on a big bucket: keep them off the ingest path
+        if (router.retentionHours() > 0L && retentionRunning.compareAndSet(false, true)) {
+            Thread t = new Thread(() -> dropExpired(now), "dd-ingestion-retention");
+            t.setDaemon(true);
+            t.start();
         }
+    }
 
-        if (view == null) {
-            return IngestionReceipt.failDomain(
-                    ingestionId,
-                    IngestionReceipt.sha256Hex(payload),
-                    null,
-                    new Why("DD-ING-graphView_null", "graphView cannot be null"),
-                    "mongo"
-            );
+    private void dropExpired(Instant now) {
+        try {
+            List<String> expired = router.expired(router.refreshBuckets(database()), now);
+            for (String e : expired) {
+                database().getCollection(e).drop();
+                Console.log("ingestion_bucket_drop", e);
+            }
+            if (!expired.isEmpty()) {
+                router.refreshBuckets(database());
+            }
+        } catch (Exception e) {
+            // retention retries on the next roll
+            Console.log("ingestion_bucket_drop_failed", String.valueOf(e.getMessage()));
+        } finally {
+            retentionRunning.set(false);
+        }
+    }
+
+    /**
+     * Collections to probe for an id, newest first. limit <= 0 => all buckets.
+     * The legacy collection, while it exists, comes last (see IngestionBucketRouter).
+     */
+    private List<MongoCollection<Document>> lookupCollections(int limit) {
+        List<MongoCollection<Document>> out = new ArrayList<MongoCollection<Document>>();
+        if (!partitioned()) {
+            out.add(collection());
+            return out;
         }
+        for (String name : router.newestFirst(router.existingBuckets(database()), limit)) {
+            out.add(database().getCollection(name));
+        }
+        if (router.hasLegacy(database())) {
+            out.add(collection());
+        }
+        return out;
+    }
 
-        String snap = null;
-        if (view.has(F_SNAPSHOT_HASH)
-                && view.get(F_SNAPSHOT_HASH) != null
-                && view.get(F_SNAPSHOT_HASH).isJsonPrimitive()) {
-            snap = view.get(F_SNAPSHOT_HASH).getAsString();
+    /**
+     * Collections overlapping [from, to), oldest first.
+     * The legacy collection, while it exists, comes first (see IngestionBucketRouter).
+     */
+    private List<MongoCollection<Document>> windowCollections(Instant from, Instant to) {
+        if (!partitioned()) {
+            return Collections.singletonList(collection());
+        }
+        List<MongoCollection<Document>> out = new ArrayList<MongoCollection<Document>>();
+        if (router.hasLegacy(database())) {
+            out.add(collection());
+        }
+        for (String name : router.overlapping(router.existingBuckets(database()), from, to)) {
+            out.add(database().getCollection(name));
         }
+        return out;
+    }
 
-        String payloadHash = IngestionReceipt.sha256Hex(payload);
-        if (snap == null || snap.trim().isEmpty()) {
-            return IngestionReceipt.failDomain(
-                    ingestionId,
-                    payloadHash,
-                    null,
-                    new Why("DD-ING-snapshotHash_blank", "snapshotHash cannot be blank"),
-                    "mongo"
-            );
+    private static boolean sameCollection(MongoCollection<Document> a, MongoCollection<Document> b) {
+        return a.getNamespace().getCollectionName().equals(b.getNamespace().getCollectionName());
+    }
+
+
+    @Override
+    public IngestionReceipt storeIngestion(String payload) {
+        PreparedIngestion p = PreparedIngestion.of(payload, "mongo");
+        if (p.rejected() != null) {
+            return p.rejected();
         }
 
-        SnapshotHash snapshotHash = new SnapshotHash(snap);
+        String ingestionId = p.ingestionId();
+        String snap = p.snap();
+        String payloadHash = p.payloadHash();
+        SnapshotHash snapshotHash = p.snapshotHash();
 
 
 
-        MongoCollection<Document> col = collection();
+        MongoCollection<Document> col;
+        try {
+            col = writeCollection(Instant.now());
+        } catch (Exception e) {
+            IngestionReceipt dlqReceipt = IngestionReceipt.failDomain(
+                    ingestionId,
+                    payloadHash,
+                    snapshotHash,
+                    new Why("DD-ING-mongo_bucket_failed", e.getMessage()),
+                    "mongo"
+            );
+            dlqReceipt.setSysDlqEnabled(true);
+            return dlqReceipt;
+        }
 
-        if (indexBootstrapEnabled() && ingestionIndexed.compareAndSet(false, true)) {
+        if (!partitioned() && indexBootstrapEnabled() && ingestionIndexed.compareAndSet(false, true)) {
             ensureIndexes(col);
         }
 
@@ -131,7 +221,17 @@ public class MongoIngestionStore implements IngestionStore {
         try {
             Bson filter = Filters.eq(F_INGESTION_ID, ingestionId);
 
-            Document existing = col.find(filter).first();
+            // partitioned: uniqueness is per bucket, so dedup probes the last lookback buckets
+            // and the legacy collection only (see IngestionBucketRouter: older ids are stored again)
+            Document existing = null;
+            MongoCollection<Document> existingCol = null;
+            for (MongoCollection<Document> c : dedupCollections(col)) {
+                existing = c.find(filter).first();
+                if (existing != null) {
+                    existingCol = c;
+                    break;
+                }
+            }
 
             if (existing != null) {
 
@@ -141,11 +241,21 @@ public class MongoIngestionStore implements IngestionStore {
                 }
 
                 // touch only createdAt (their reality: last time they sent it)
-                Document touch = new Document("$set",
-                        new Document("createdAt", Date.from(Instant.now()))
-                );
+                Instant touchedAt = Instant.now();
+
+                if (sameCollection(existingCol, col)) {
+                    Document touch = new Document("$set",
+                            new Document("createdAt", Date.from(touchedAt))
+                    );
+                    col.updateOne(filter, touch);
+                } else {
+                    moveForward(existingCol, col, existing, touchedAt);
+                }
 
-                col.updateOne(filter, touch);
+                // createdAt changed: a copy cached in this JVM is stale
+                if (hotCache != null) {
+                    hotCache.invalidate(ingestionId);
+                }
 
                 return IngestionReceipt.ok(
                         ingestionId,
@@ -155,12 +265,7 @@ public class MongoIngestionStore implements IngestionStore {
                 );
             }
 
-            Document doc = new Document()
-                    .append("ingestionId", ingestionId)
-                    .append(F_SNAPSHOT_HASH, snap)
-                    .append(F_PAYLOAD_HASH, payloadHash)
-                    .append("payload", payload)
-                    .append("createdAt", Date.from(Instant.now()));
+            Document doc = newDocument(p, Date.from(Instant.now()));
 
             col.insertOne(doc);
 
@@ -181,6 +286,11 @@ public class MongoIngestionStore implements IngestionStore {
                     ingestionId = String.valueOf(existing.get("ingestionId"));
                 }
 
+                // lost the race: whatever we may have cached is not the winner's document
+                if (hotCache != null) {
+                    hotCache.invalidate(ingestionId);
+                }
+
                 return IngestionReceipt.ok(
                         ingestionId,
                         payloadHash,
@@ -222,6 +332,167 @@ public class MongoIngestionStore implements IngestionStore {
         );
     }
 
+    /**
+     * One poll in one round trip: a single $in probe for the ids already stored, then one unordered
+     * bulkWrite of inserts and createdAt touches. Receipts line up with payloads and carry the same
+     * outcome storeIngestion would give. Records the bulk cannot settle (the copy lives in an older
+     * bucket, or a concurrent insert won the unique index) go through storeIngestion afterwards.
+     *
+     * A payload storeIngestion would throw on makes the whole call throw, before anything is written.
+     */
+    @Override
+    public List<IngestionReceipt> storeIngestions(List<String> payloads) {
+        if (payloads == null || payloads.isEmpty()) {
+            return new ArrayList<IngestionReceipt>();
+        }
+
+        int n = payloads.size();
+        PreparedIngestion[] prepared = new PreparedIngestion[n];
+        IngestionReceipt[] receipts = new IngestionReceipt[n];
+        for (int i = 0; i < n; i++) {
+            prepared[i] = PreparedIngestion.of(payloads.get(i), "mongo");
+            receipts[i] = prepared[i].rejected();
+        }
+
+        MongoCollection<Document> col;
+        try {
+            col = writeCollection(Instant.now());
+        } catch (Exception e) {
+            failPending(prepared, receipts, "DD-ING-mongo_bucket_failed", e.getMessage());
+            return Arrays.asList(receipts);
+        }
+
+        if (!partitioned() && indexBootstrapEnabled() && ingestionIndexed.compareAndSet(false, true)) {
+            ensureIndexes(col);
+        }
+
+        // ---------- plan: insert, touch, in-batch duplicate, or per-record fallback ----------
+        List<WriteModel<Document>> models = new ArrayList<WriteModel<Document>>();
+        List<Integer> modelAt = new ArrayList<Integer>();
+        Map<Integer, Integer> duplicateOf = new HashMap<Integer, Integer>();
+        List<Integer> fallback = new ArrayList<Integer>();
+
+        try {
+            Map<String, Integer> firstAt = new LinkedHashMap<String, Integer>();
+            for (int i = 0; i < n; i++) {
+                if (receipts[i] != null) {
+                    continue;
+                }
+                Integer first = firstAt.putIfAbsent(prepared[i].ingestionId(), i);
+                if (first != null) {
+                    duplicateOf.put(i, first);
+                }
+            }
+            if (firstAt.isEmpty()) {
+                return Arrays.asList(receipts);
+            }
+
+            Map<String, Document> existing = new HashMap<String, Document>();
+            Map<String, MongoCollection<Document>> existingCol = new HashMap<String, MongoCollection<Document>>();
+            for (MongoCollection<Document> c : dedupCollections(col)) {
+                List<String> missing = new ArrayList<String>();
+                for (String id : firstAt.keySet()) {
+                    if (!existing.containsKey(id)) {
+                        missing.add(id);
+                    }
+                }
+                if (missing.isEmpty()) {
+                    break;
+                }
+                for (Document d : c.find(Filters.in(F_INGESTION_ID, missing))) {
+                    String id = String.valueOf(d.get(F_INGESTION_ID));
+                    if (existing.putIfAbsent(id, d) == null) {
+                        existingCol.put(id, c);
+                    }
+                }
+            }
+
+            Date now = Date.from(Instant.now());
+            for (Integer i : firstAt.values()) {
+                PreparedIngestion p = prepared[i];
+                Document found = existing.get(p.ingestionId());
+
+                if (found == null) {
+                    Document doc = newDocument(p, now);
+                    models.add(new InsertOneModel<Document>(doc));
+                    modelAt.add(i);
+                } else if (sameCollection(existingCol.get(p.ingestionId()), col)) {
+                    // touch only createdAt (their reality: last time they sent it)
+                    models.add(new UpdateOneModel<Document>(
+                            Filters.eq(F_INGESTION_ID, p.ingestionId()),
+                            new Document("$set", new Document("createdAt", now))));
+                    modelAt.add(i);
+                } else {
+                    // createdAt decides the bucket: the single path moves the doc forward
+                    fallback.add(i);
+                }
+            }
+        } catch (Exception e) {
+            failPending(prepared, receipts, "DD-ING-mongo_insert_failed", e.getMessage());
+            return Arrays.asList(receipts);
+        }
+
+        // ---------- one round trip ----------
+        boolean[] failed = new boolean[models.size()];
+        if (!models.isEmpty()) {
+            try {
+                col.bulkWrite(models, new BulkWriteOptions().ordered(false));
+            } catch (MongoBulkWriteException bwx) {
+                for (BulkWriteError err : bwx.getWriteErrors()) {
+                    int m = err.getIndex();
+                    int i = modelAt.get(m);
+                    failed[m] = true;
+
+                    if (ErrorCategory.fromErrorCode(err.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                        // race: someone inserted after our find; the single path touches the winner
+                        fallback.add(i);
+                        continue;
+                    }
+                    receipts[i] = sysDlq(prepared[i], "DD-ING-mongo_write_failed", err.getMessage());
+                }
+            } catch (Exception e) {
+                for (int m = 0; m < models.size(); m++) {
+                    failed[m] = true;
+                    int i = modelAt.get(m);
+                    receipts[i] = sysDlq(prepared[i], "DD-ING-mongo_insert_failed", e.getMessage());
+                }
+            }
+        }
+
+        for (int m = 0; m < models.size(); m++) {
+            if (failed[m]) {
+                continue;
+            }
+            PreparedIngestion p = prepared[modelAt.get(m)];
+            receipts[modelAt.get(m)] = IngestionReceipt.ok(p.ingestionId(), p.payloadHash(), p.snapshotHash(), "mongo");
+
+            if (hotCache != null) {
+                hotCache.invalidate(p.ingestionId());
+            }
+        }
+
+        for (Integer i : fallback) {
+            receipts[i] = storeIngestion(payloads.get(i));
+        }
+
+        // later copies of an id in the same poll share the outcome of the first
+        for (Map.Entry<Integer, Integer> dup : duplicateOf.entrySet()) {
+            PreparedIngestion p = prepared[dup.getKey()];
+            IngestionReceipt first = receipts[dup.getValue()];
+            if (first.ok()) {
+                receipts[dup.getKey()] = IngestionReceipt.ok(first.ingestionId(), p.payloadHash(), p.snapshotHash(), "mongo");
+            } else {
+                IngestionReceipt r = IngestionReceipt.failDomain(
+                        p.ingestionId(), p.payloadHash(), p.snapshotHash(), first.why(), "mongo");
+                r.setSysDlqEnabled(first.isSysDlqEnabled());
+                receipts[dup.getKey()] = r;
+            }
+        }
+
+        Console.log("ingestion_store_batch", "records=" + n + " writes=" + models.size() + " fallback=" + fallback.size());
+        return Arrays.asList(receipts);
+    }
+
     @Override
     public String resolveIngestionId(String payload, String snap) {
 
@@ -229,19 +500,20 @@ public class MongoIngestionStore implements IngestionStore {
             return null;
         }
 
-
-        MongoCollection<Document> col = collection();
-
         try {
             Bson filter = Filters.eq(F_SNAPSHOT_HASH, snap);
-            Document existing = col.find(filter).first();
 
-            if (existing != null) {
-                Object existingIngestionIdObj = existing.get("ingestionId");
-                if (existingIngestionIdObj != null) {
-                    String id = String.valueOf(existingIngestionIdObj);
-                    if (id != null && id.trim().length() > 0) {
-                        return id;
+            int limit = partitioned() ? router.lookbackBuckets() : 0;
+            for (MongoCollection<Document> col : lookupCollections(limit)) {
+                Document existing = col.find(filter).first();
+
+                if (existing != null) {
+                    Object existingIngestionIdObj = existing.get("ingestionId");
+                    if (existingIngestionIdObj != null) {
+                        String id = String.valueOf(existingIngestionIdObj);
+                        if (id != null && id.trim().length() > 0) {
+                            return id;
+                        }
                     }
                 }
             }
@@ -281,8 +553,6 @@ public class MongoIngestionStore implements IngestionStore {
             return out;
         }
 
-        MongoCollection<Document> col = collection();
-
         try {
             Date fromDate = Date.from(from);
             Date toDate = Date.from(to);
@@ -293,50 +563,24 @@ public class MongoIngestionStore implements IngestionStore {
                     Filters.lt("createdAt", toDate)
             );
 
-            com.mongodb.client.FindIterable<Document> it =
-                    col.find(filter).sort(new Document("createdAt", 1));
-
-            com.mongodb.client.MongoCursor<Document> cur = it.iterator();
-
-            try {
-                while (cur.hasNext()) {
-                    Document d = cur.next();
-
-                    JsonObject e = new JsonObject();
-
-                    Object idObj = d.get("ingestionId");
-                    if (idObj != null) {
-                        e.addProperty("ingestionId", String.valueOf(idObj));
-                    }
+            // buckets are disjoint on createdAt: oldest-first concatenation keeps global order
+            for (MongoCollection<Document> col : windowCollections(from, to)) {
 
-                    Object createdAtObj = d.get("createdAt");
-                    if (createdAtObj instanceof Date) {
-                        Date dt = (Date) createdAtObj;
-                        e.addProperty("createdAt", dt.toInstant().toString());
-                    }
+                com.mongodb.client.FindIterable<Document> it =
+                        col.find(filter).sort(new Document("createdAt", 1));
 
-                    Object snapObj = d.get(F_SNAPSHOT_HASH);
-                    if (snapObj != null) {
-                        e.addProperty(F_SNAPSHOT_HASH, String.valueOf(snapObj));
-                    }
+                com.mongodb.client.MongoCursor<Document> cur = it.iterator();
 
-                    Object phObj = d.get(F_PAYLOAD_HASH);
-                    if (phObj != null) {
-                        e.addProperty(F_PAYLOAD_HASH, String.valueOf(phObj));
+                try {
+                    while (cur.hasNext()) {
+                        out.add(toEventJson(cur.next()));
                     }
-
-                    Object payloadObj = d.get("payload");
-                    if (payloadObj != null) {
-                        e.addProperty("payload", String.valueOf(payloadObj));
+                } finally {
+                    try {
+                        cur.close();
+                    } catch (Exception ignored2) {
+                        // deterministic: ignore
                     }
-
-                    out.add(e);
-                }
-            } finally {
-                try {
-                    cur.close();
-                } catch (Exception ignored2) {
-                    // deterministic: ignore
                 }
             }
 
@@ -357,40 +601,36 @@ public class MongoIngestionStore implements IngestionStore {
             return out;
         }
 
-        MongoCollection<Document> col = collection();
+        String key = ingestionId.trim();
 
-        try {
-            Bson filter = Filters.eq("ingestionId", ingestionId.trim());
-            Document d = col.find(filter).first();
-
-            if (d == null) {
-                return out;
+        // ---------- hot tier ----------
+        if (hotCache != null) {
+            JsonObject cached = hotCache.get(key);
+            if (cached != null) {
+                return cached;
             }
+        }
 
-            Object idObj = d.get("ingestionId");
-            if (idObj != null) {
-                out.addProperty("ingestionId", String.valueOf(idObj));
-            }
+        try {
+            Bson filter = Filters.eq("ingestionId", key);
 
-            Object createdAtObj = d.get("createdAt");
-            if (createdAtObj instanceof Date) {
-                Date dt = (Date) createdAtObj;
-                out.addProperty("createdAt", dt.toInstant().toString());
+            Document d = null;
+            for (MongoCollection<Document> col : lookupCollections(0)) {
+                d = col.find(filter).first();
+                if (d != null) {
+                    break;
+                }
             }
 
-            Object snapObj = d.get(F_SNAPSHOT_HASH);
-            if (snapObj != null) {
-                out.addProperty(F_SNAPSHOT_HASH, String.valueOf(snapObj));
+            if (d == null) {
+                return out;
             }
 
-            Object phObj = d.get(F_PAYLOAD_HASH);
-            if (phObj != null) {
-                out.addProperty(F_PAYLOAD_HASH, String.valueOf(phObj));
-            }
+            out = toEventJson(d);
 
-            Object payloadObj = d.get("payload");
-            if (payloadObj != null) {
-                out.addProperty("payload", String.valueOf(payloadObj));
+            // read-through
+            if (hotCache != null) {
+                hotCache.put(key, out);
             }
 
             return out;
@@ -404,11 +644,119 @@ public class MongoIngestionStore implements IngestionStore {
 
 
     //------------------------------------------------------------------------------------------------
+    /**
+     * createdAt decides the bucket: move the doc forward so windows stay disjoint. The old copy is
+     * claimed with findOneAndDelete first, so of two concurrent movers only one inserts and the doc
+     * never exists in both buckets; a failed insert puts it back. (No transaction: standalone
+     * deployments have none, so a reader can miss the doc between the two calls.)
+     */
+    private void moveForward(MongoCollection<Document> from, MongoCollection<Document> to,
+                             Document existing, Instant touchedAt) {
+        Bson touch = new Document("$set", new Document("createdAt", Date.from(touchedAt)));
+        Bson byId = Filters.eq(F_INGESTION_ID, existing.get(F_INGESTION_ID));
+
+        Document claimed = from.findOneAndDelete(Filters.eq("_id", existing.get("_id")));
+        if (claimed == null) {
+            // lost the claim: the winner moved it into the current bucket
+            to.updateOne(byId, touch);
+            return;
+        }
+
+        Document moved = new Document(claimed);
+        moved.put("createdAt", Date.from(touchedAt));
+        try {
+            to.insertOne(moved);
+        } catch (MongoWriteException mwx) {
+            if (mwx.getError() != null && mwx.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                // already in the current bucket: the claimed copy was the stale one
+                to.updateOne(byId, touch);
+                return;
+            }
+            from.insertOne(claimed);
+            throw mwx;
+        } catch (RuntimeException e) {
+            from.insertOne(claimed);
+            throw e;
+        }
+    }
+
+    private List<MongoCollection<Document>> dedupCollections(MongoCollection<Document> writeCol) {
+        if (!partitioned()) {
+            return Collections.singletonList(writeCol);
+        }
+
+        List<MongoCollection<Document>> out = new ArrayList<MongoCollection<Document>>();
+        out.add(writeCol);
+        for (MongoCollection<Document> c : lookupCollections(router.lookbackBuckets())) {
+            if (!sameCollection(c, writeCol)) {
+                out.add(c);
+            }
+        }
+        return out;
+    }
+
     private boolean indexBootstrapEnabled() {
         return "true".equalsIgnoreCase(System.getProperty("dd.ingestion.index.bootstrap", "false"));
     }
-}
 
+    private JsonObject toEventJson(Document d) {
+        JsonObject out = new JsonObject();
+
+        Object idObj = d.get("ingestionId");
+        if (idObj != null) {
+            out.addProperty("ingestionId", String.valueOf(idObj));
+        }
+
+        Object createdAtObj = d.get("createdAt");
+        if (createdAtObj instanceof Date) {
+            Date dt = (Date) createdAtObj;
+            out.addProperty("createdAt", dt.toInstant().toString());
+        }
+
+        Object snapObj = d.get(F_SNAPSHOT_HASH);
+        if (snapObj != null) {
+            out.addProperty(F_SNAPSHOT_HASH, String.valueOf(snapObj));
+        }
+
+        Object phObj = d.get(F_PAYLOAD_HASH);
+        if (phObj != null) {
+            out.addProperty(F_PAYLOAD_HASH, String.valueOf(phObj));
+        }
+
+        Object payloadObj = d.get("payload");
+        if (payloadObj != null) {
+            out.addProperty("payload", String.valueOf(payloadObj));
+        }
+
+        return out;
+    }
 
+    private static Document newDocument(PreparedIngestion p, Date createdAt) {
+        return new Document()
+                .append("ingestionId", p.ingestionId())
+                .append(F_SNAPSHOT_HASH, p.snap())
+                .append(F_PAYLOAD_HASH, p.payloadHash())
+                .append("payload", p.payload())
+                .append("createdAt", createdAt);
+    }
 
+    private static IngestionReceipt sysDlq(PreparedIngestion p, String code, String details) {
+        IngestionReceipt dlqReceipt = IngestionReceipt.failDomain(
+                p.ingestionId(),
+                p.payloadHash(),
+                p.snapshotHash(),
+                new Why(code, details),
+                "mongo"
+        );
+        dlqReceipt.setSysDlqEnabled(true);
+        return dlqReceipt;
+    }
 
+    private static void failPending(PreparedIngestion[] prepared, IngestionReceipt[] receipts, String code, String details) {
+        for (int i = 0; i < receipts.length; i++) {
+            if (receipts[i] == null) {
+                receipts[i] = sysDlq(prepared[i], code, details);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.braineous.dd.ingestion.persistence;
+
+import ai.braineous.rag.prompt.models.cgo.graph.SnapshotHash;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.braineous.dd.core.model.Why;
+
+/**
+ * Payload validation shared by every {@link IngestionStore}: either rejected() is set (the receipt
+ * to return as is), or everything else is.
+ *
+ * Like the stores before it, a payload without an ingestionId axis (blank, not a JSON object, no
+ * ingestionId) makes of() throw, since its failure receipt cannot be built.
+ */
+public final class PreparedIngestion {
+
+    private final String payload;
+    private String ingestionId;
+    private String snap;
+    private String payloadHash;
+    private SnapshotHash snapshotHash;
+
+    private IngestionReceipt rejected;
+
+    private PreparedIngestion(String payload) {
+        this.payload = payload;
+    }
+
+    public static PreparedIngestion of(String payload, String storeType) {
+        PreparedIngestion p = new PreparedIngestion(payload);
+
+        String ingestionId = null;
+        // ---------- fail-fast: payload ----------
+        if (payload == null || payload.trim().isEmpty()) {
+            p.rejected = IngestionReceipt.failDomain(
+                    ingestionId,
+                    null, null,
+                    new Why("DD-ING-payload_blank", "payload cannot be blank"),
+                    storeType
+            );
+            return p;
+        }
+
+        JsonObject ingestionJson = JsonParser.parseString(payload).getAsJsonObject();
+        if(!ingestionJson.has("ingestionId")) {
+            p.rejected = IngestionReceipt.failDomain(
+                    ingestionId,
+                    null, null,
+                    new Why("DD-ING-ingestion-id-missing", "ingestion id must be assigned by the consumer"),
+                    storeType
+            );
+            return p;
+        }
+        ingestionId = ingestionJson.get("ingestionId").getAsString();
+
+        JsonObject view = null;
+
+        if (ingestionJson.has("view")
+                && ingestionJson.get("view") != null
+                && ingestionJson.get("view").isJsonObject()) {
+            view = ingestionJson.get("view").getAsJsonObject();
+        }
+
+        if (view == null) {
+            p.rejected = IngestionReceipt.failDomain(
+                    ingestionId,
+                    IngestionReceipt.sha256Hex(payload),
+                    null,
+                    new Why("DD-ING-graphView_null", "graphView cannot be null"),
+                    storeType
+            );
+            return p;
+        }
+
+        String snap = null;
+        if (view.has(MongoIngestionStore.F_SNAPSHOT_HASH)
+                && view.get(MongoIngestionStore.F_SNAPSHOT_HASH) != null
+                && view.get(MongoIngestionStore.F_SNAPSHOT_HASH).isJsonPrimitive()) {
+            snap = view.get(MongoIngestionStore.F_SNAPSHOT_HASH).getAsString();
+        }
+
+        String payloadHash = IngestionReceipt.sha256Hex(payload);
+        if (snap == null || snap.trim().isEmpty()) {
+            p.rejected = IngestionReceipt.failDomain(
+                    ingestionId,
+                    payloadHash,
+                    null,
+                    new Why("DD-ING-snapshotHash_blank", "snapshotHash cannot be blank"),
+                    storeType
+            );
+            return p;
+        }
+
+        p.ingestionId = ingestionId;
+        p.snap = snap;
+        p.payloadHash = payloadHash;
+        p.snapshotHash = new SnapshotHash(snap);
+        return p;
+    }
+
+    public String payload() { return payload; }
+    public String ingestionId() { return ingestionId; }
+    public String snap() { return snap; }
+    public String payloadHash() { return payloadHash; }
+    public SnapshotHash snapshotHash() { return snapshotHash; }
+    public IngestionReceipt rejected() { return rejected; }
+}
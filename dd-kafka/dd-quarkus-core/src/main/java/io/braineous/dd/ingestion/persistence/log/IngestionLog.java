@@ -0,0 +1,646 @@
+package io.braineous.dd.ingestion.persistence.log;
+
+import ai.braineous.rag.prompt.observe.Console;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Append-only, segmented ingestion log.
+ *
+ * - hash index: ingestionId -> latest record location (and snapshotHash -> ingestionId),
+ *   rebuilt from the segments on open
+ * - idempotent touch == re-append with a fresh createdAt; the older record becomes dead and is
+ *   skipped by scans
+ * - createdAt is forced monotonic, so segments (and records inside them) are time-ordered and a
+ *   sparse per-segment index is enough for window scans
+ * - segments roll on size or age; sealed segments past retention are deleted whole
+ * - recovery stops at the first short/corrupt frame (torn tail after a crash); only the writer, once
+ *   it holds writer.lock, cuts that tail off the file
+ *
+ * One writer per directory: the first put() takes an exclusive lock on writer.lock and keeps it;
+ * a put() from any other process fails. Readers never touch writer.lock or a file's size, and map
+ * a segment only up to its last verified frame, so the writer's truncate cannot pull a mapped page
+ * out from under them. Every other instance (e.g. dd-pack reading what the
+ * kafka-processor writes) is a reader: before each read it catches up on frames appended to the
+ * tail, segments the writer rolled, and segments its retention deleted. A segment deleted under a
+ * reader stays readable through the reader's mapping until it is dropped (POSIX semantics).
+ *
+ * Scans are paged so the sink runs outside the lock; a record touched mid-scan can show up again
+ * at its new position, like a Mongo cursor over an updated document.
+ */
+public class IngestionLog implements AutoCloseable {
+
+    static final String LOCK_FILE = "writer.lock";
+
+    private static final int SCAN_PAGE = 500;
+    private static final int INDEX_CHUNK = 64 * 1024;
+
+    private final Path dir;
+    private final LogConfig cfg;
+    private final LongSupplier clock;
+
+    private final CopyOnWriteArrayList<LogSegment> segments = new CopyOnWriteArrayList<LogSegment>();
+    private final Map<String, Loc> byId = new ConcurrentHashMap<String, Loc>();
+    private final Map<String, String> idBySnapshot = new ConcurrentHashMap<String, String>();
+
+    // appends share the read side; retention (segment removal) is exclusive
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object appendMonitor = new Object();
+
+    private volatile LogSegment active;
+    private long lastTs = Long.MIN_VALUE;   // guarded by appendMonitor
+    private volatile boolean closed;
+
+    // -------- single writer (guarded by writerMonitor) --------
+    private final Object writerMonitor = new Object();
+    private FileChannel lockChannel;
+    private volatile FileLock writerLock;
+
+    // reader catch-up: directory mtime at the last listing
+    private volatile FileTime listedAt;
+
+    private IngestionLog(Path dir, LogConfig cfg, LongSupplier clock) {
+        this.dir = dir;
+        this.cfg = cfg;
+        this.clock = clock;
+    }
+
+    public static IngestionLog open(Path dir, LogConfig cfg) throws IOException {
+        return open(dir, cfg, System::currentTimeMillis);
+    }
+
+    static IngestionLog open(Path dir, LogConfig cfg, LongSupplier clock) throws IOException {
+        Files.createDirectories(dir);
+        IngestionLog log = new IngestionLog(dir, cfg, clock);
+        log.recover();
+        return log;
+    }
+
+    // ---------- write ----------
+
+    /**
+     * Insert-or-touch. A known ingestionId keeps its original content and only gets a new createdAt.
+     *
+     * @return the record as written
+     */
+    public LogRecord put(String ingestionId, String snapshotHash, String payloadHash, String payload) throws IOException {
+        if (ingestionId == null) {
+            throw new IllegalArgumentException("ingestionId cannot be null");
+        }
+
+        ensureWriter();
+
+        boolean rolled;
+        LogRecord written;
+
+        lock.readLock().lock();
+        try {
+            synchronized (appendMonitor) {
+                ensureOpen();
+
+                long ts = nextTs();
+
+                Loc prev = byId.get(ingestionId);
+                LogRecord rec = (prev != null)
+                        ? prev.seg.read(prev.offset).withCreatedAt(ts)
+                        : new LogRecord(ingestionId, snapshotHash, payloadHash, payload, ts);
+
+                ByteBuffer frame = rec.encode();
+
+                rolled = maybeRoll(ts, frame.remaining());
+
+                long offset = active.append(frame, ts, cfg.indexIntervalBytes(), cfg.fsync());
+
+                byId.put(ingestionId, new Loc(active, offset, rec.snapshotHash()));
+                if (rec.snapshotHash() != null) {
+                    idBySnapshot.put(rec.snapshotHash(), ingestionId);
+                }
+                written = rec;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (rolled) {
+            enforceRetention(nowMs());
+        }
+        return written;
+    }
+
+    // ---------- read ----------
+
+    public LogRecord get(String ingestionId) throws IOException {
+        if (ingestionId == null) {
+            return null;
+        }
+
+        catchUp();
+
+        lock.readLock().lock();
+        try {
+            Loc loc = byId.get(ingestionId);
+            if (loc == null) {
+                return null;
+            }
+            return loc.seg.read(loc.offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String idForSnapshot(String snapshotHash) {
+        if (snapshotHash == null) {
+            return null;
+        }
+        try {
+            catchUp();
+        } catch (IOException e) {
+            // answer from what is indexed
+            Console.log("ingestion_log_catch_up_failed", String.valueOf(e));
+        }
+        return idBySnapshot.get(snapshotHash);
+    }
+
+    /**
+     * Live records with fromMs <= createdAt < toMs, in createdAt order. The sink runs outside the
+     * lock, one page at a time; an exception from it stops the scan.
+     */
+    public void scan(long fromMs, long toMs, Consumer<LogRecord> sink) throws IOException {
+        if (fromMs >= toMs || sink == null) {
+            return;
+        }
+
+        catchUp();
+
+        long[] next = null;
+        List<LogRecord> page = new ArrayList<LogRecord>(SCAN_PAGE);
+        do {
+            page.clear();
+            next = scanPage(fromMs, toMs, next, page);
+            for (LogRecord r : page) {
+                sink.accept(r);
+            }
+        } while (next != null);
+    }
+
+    /**
+     * Fills page with up to SCAN_PAGE records starting at resume ({segmentId, offset}, null = the
+     * window start). Returns where the next page starts, or null when the window is done.
+     */
+    private long[] scanPage(long fromMs, long toMs, long[] resume, List<LogRecord> page) throws IOException {
+        lock.readLock().lock();
+        try {
+            for (LogSegment seg : segments) {
+                if (resume != null && seg.id() < resume[0]) {
+                    continue;
+                }
+                if (seg.isEmpty() || seg.maxTs() < fromMs) {
+                    continue;
+                }
+                if (seg.minTs() >= toMs) {
+                    return null;
+                }
+
+                long end = seg.size();
+                // the resume segment may have been retired meanwhile: start the next one at the window
+                long off = (resume != null && seg.id() == resume[0]) ? resume[1] : seg.floorOffset(fromMs);
+
+                while (off < end) {
+                    if (page.size() >= SCAN_PAGE) {
+                        return new long[]{seg.id(), off};
+                    }
+
+                    int len = seg.frameLength(off);
+                    long ts = seg.readTs(off);
+
+                    if (ts >= toMs) {
+                        return null;
+                    }
+
+                    if (ts >= fromMs) {
+                        LogRecord r = seg.read(off);
+                        Loc live = byId.get(r.ingestionId());
+                        // a touched id shows up once: at its latest position
+                        if (live != null && live.seg == seg && live.offset == off) {
+                            page.add(r);
+                        }
+                    }
+
+                    off += LogRecord.HEADER_BYTES + len;
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- retention ----------
+
+    /**
+     * Deletes sealed segments whose newest record is older than now - retention. Writer only.
+     *
+     * @return number of segments dropped
+     */
+    public int enforceRetention(long nowMs) {
+        if (cfg.retentionMs() <= 0L || writerLock == null) {
+            return 0;
+        }
+
+        long cutoff = nowMs - cfg.retentionMs();
+        int dropped = 0;
+
+        lock.writeLock().lock();
+        try {
+            for (LogSegment seg : segments) {
+                if (seg == active) {
+                    break;
+                }
+                if (!seg.isEmpty() && seg.maxTs() >= cutoff) {
+                    break;
+                }
+
+                segments.remove(seg);
+                purge(seg);
+                seg.delete();
+                dropped++;
+
+                Console.log("ingestion_log_segment_drop", LogSegment.fileName(seg.id()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return dropped;
+    }
+
+    // ---------- stats / lifecycle ----------
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public int liveCount() {
+        return byId.size();
+    }
+
+    public long sizeBytes() {
+        long total = 0L;
+        for (LogSegment s : segments) {
+            total += s.size();
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closed = true;
+            for (LogSegment s : segments) {
+                s.close();
+            }
+            synchronized (writerMonitor) {
+                if (lockChannel != null) {
+                    try {
+                        lockChannel.close(); // releases writerLock
+                    } catch (IOException ignored) {
+                        // best-effort
+                    }
+                    lockChannel = null;
+                    writerLock = null;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private long nowMs() {
+        return clock.getAsLong();
+    }
+
+    private long nextTs() {
+        long ts = Math.max(nowMs(), lastTs);
+        lastTs = ts;
+        return ts;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("ingestion log closed: " + dir);
+        }
+    }
+
+    private boolean maybeRoll(long ts, int frameBytes) throws IOException {
+        LogSegment a = active;
+        if (a != null && !a.isEmpty()) {
+            boolean full = a.size() + frameBytes > cfg.segmentBytes();
+            boolean old = cfg.segmentMs() > 0L && ts - a.startedAtMs() >= cfg.segmentMs();
+            if (!full && !old) {
+                return false;
+            }
+        } else if (a != null) {
+            return false;
+        }
+
+        long nextId = (a == null) ? 0L : a.id() + 1L;
+        LogSegment seg = LogSegment.create(dir, nextId, ts);
+        segments.add(seg);
+        active = seg;
+
+        Console.log("ingestion_log_segment_roll", LogSegment.fileName(nextId));
+        return a != null;
+    }
+
+    private void recover() throws IOException {
+        long now = nowMs();
+        for (Path p : segmentFiles()) {
+            LogSegment seg = LogSegment.open(p, now);
+            long disk = seg.diskSize();
+            long valid = indexFrames(seg, 0L, disk);
+            if (valid < disk) {
+                // left on disk: a live writer may be mid-append, a new one cuts it in ensureWriter()
+                Console.log("ingestion_log_torn_tail", LogSegment.fileName(seg.id()) + " at=" + valid + " size=" + disk);
+            }
+            seg.observe(valid);
+            segments.add(seg);
+        }
+
+        if (!segments.isEmpty()) {
+            active = segments.get(segments.size() - 1);
+        }
+        listedAt = dirModifiedAt();
+
+        Console.log("ingestion_log_open", dir + " segments=" + segments.size() + " live=" + byId.size());
+    }
+
+    /**
+     * Indexes the complete, valid frames in [off, end). Returns the offset right after the last one.
+     *
+     * Reads with positional reads, not through the segment's mapping: bytes past the last verified
+     * frame may be a torn tail that the writer is about to truncate.
+     */
+    private long indexFrames(LogSegment seg, long off, long end) throws IOException {
+        FrameReader in = new FrameReader(seg, end);
+
+        while (off < end) {
+            ByteBuffer h = in.view(off, LogRecord.HEADER_BYTES);
+            if (h == null) {
+                return off;
+            }
+            int len = h.getInt();
+            int crc = h.getInt();
+
+            if (len < 8 || off + LogRecord.HEADER_BYTES + len > end) {
+                return off;
+            }
+            ByteBuffer body = in.view(off + LogRecord.HEADER_BYTES, len);
+            if (body == null || !LogRecord.crcMatches(body, crc)) {
+                return off;
+            }
+            try {
+                index(seg, off, LogRecord.decode(body));
+            } catch (Exception ignored) {
+                // undecodable despite crc: treat as corrupt
+                return off;
+            }
+            off += LogRecord.HEADER_BYTES + len;
+        }
+        return off;
+    }
+
+    // ---------- single writer / readers ----------
+
+    private void ensureWriter() throws IOException {
+        if (writerLock != null) {
+            return;
+        }
+
+        synchronized (writerMonitor) {
+            if (writerLock != null) {
+                return;
+            }
+            ensureOpen();
+
+            FileChannel ch = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock l;
+            try {
+                l = ch.tryLock();
+            } catch (OverlappingFileLockException e) {
+                l = null;
+            }
+            if (l == null) {
+                ch.close();
+                throw new IOException("ingestion log is written by another instance: " + dir);
+            }
+
+            // whatever the previous writer appended since we opened, then cut its torn tail
+            catchUp();
+            lock.writeLock().lock();
+            try {
+                LogSegment a = active;
+                if (a != null && a.diskSize() > a.size()) {
+                    Console.log("ingestion_log_truncate", LogSegment.fileName(a.id()) + " at=" + a.size());
+                    a.truncate(a.size());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            lockChannel = ch;
+            writerLock = l;
+            Console.log("ingestion_log_writer", dir);
+        }
+
+        enforceRetention(nowMs());
+    }
+
+    /**
+     * Readers only: picks up frames appended to the tail, segments rolled by the writer and
+     * segments its retention deleted. Cheap when nothing changed (one size + one stat call).
+     */
+    private void catchUp() throws IOException {
+        if (writerLock != null || closed) {
+            return;
+        }
+
+        LogSegment tail = active;
+        boolean tailGrew = tail != null && tail.diskSize() > tail.size();
+        FileTime mtime = dirModifiedAt();
+        // coarse mtimes can hide a change made in the same tick: only trust them once they are old enough
+        boolean dirSettled = mtime != null && mtime.equals(listedAt)
+                && nowMs() - mtime.toMillis() > 1_000L;
+        if (!tailGrew && dirSettled) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            tail = active;
+            long lastId = (tail == null) ? -1L : tail.id();
+
+            // retired by the writer's retention
+            for (LogSegment seg : segments) {
+                if (!seg.exists()) {
+                    segments.remove(seg);
+                    purge(seg);
+                    seg.close();
+                    Console.log("ingestion_log_segment_gone", LogSegment.fileName(seg.id()));
+                }
+            }
+            active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+
+            // listed before the tail is read: once a newer segment exists the old tail is final
+            List<Path> files = segmentFiles();
+            listedAt = mtime;
+
+            if (active != null && active == tail) {
+                long disk = tail.diskSize();
+                if (disk > tail.size()) {
+                    tail.observe(indexFrames(tail, tail.size(), disk));
+                }
+            }
+
+            // rolled by the writer
+            long now = nowMs();
+            for (Path p : files) {
+                if (LogSegment.parseId(p) <= lastId) {
+                    continue;
+                }
+                LogSegment seg = LogSegment.open(p, now);
+                seg.observe(indexFrames(seg, 0L, seg.diskSize()));
+                segments.add(seg);
+                active = seg;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> files = new ArrayList<Path>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+            for (Path p : ds) {
+                if (LogSegment.isSegmentFile(p)) {
+                    files.add(p);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private FileTime dirModifiedAt() {
+        try {
+            return Files.getLastModifiedTime(dir);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void index(LogSegment seg, long off, LogRecord r) {
+        seg.track(r.createdAtMs(), off, cfg.indexIntervalBytes());
+        if (r.createdAtMs() > lastTs) {
+            lastTs = r.createdAtMs();
+        }
+        if (r.ingestionId() == null) {
+            return;
+        }
+        // later positions win: that's where the latest touch lives
+        byId.put(r.ingestionId(), new Loc(seg, off, r.snapshotHash()));
+        if (r.snapshotHash() != null) {
+            idBySnapshot.put(r.snapshotHash(), r.ingestionId());
+        }
+    }
+
+    private void purge(LogSegment seg) {
+        Iterator<Map.Entry<String, Loc>> it = byId.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Loc> e = it.next();
+            Loc loc = e.getValue();
+            if (loc.seg == seg) {
+                it.remove();
+                if (loc.snapshotHash != null) {
+                    idBySnapshot.remove(loc.snapshotHash, e.getKey());
+                }
+            }
+        }
+    }
+
+    private static final class Loc {
+        private final LogSegment seg;
+        private final long offset;
+        private final String snapshotHash;
+
+        private Loc(LogSegment seg, long offset, String snapshotHash) {
+            this.seg = seg;
+            this.offset = offset;
+            this.snapshotHash = snapshotHash;
+        }
+    }
+
+    /**
+     * Chunked positional reads over [.., end) of a segment for indexFrames(). Views are only valid
+     * until the next call.
+     */
+    private static final class FrameReader {
+        private final LogSegment seg;
+        private final long end;
+        private ByteBuffer buf = ByteBuffer.allocate(INDEX_CHUNK);
+        private long bufAt;
+
+        private FrameReader(LogSegment seg, long end) {
+            this.seg = seg;
+            this.end = end;
+            buf.limit(0);
+        }
+
+        // null when fewer than len bytes are left (the file may have been cut meanwhile)
+        private ByteBuffer view(long off, int len) throws IOException {
+            if (off < bufAt || off + len > bufAt + buf.limit()) {
+                if (buf.capacity() < len) {
+                    buf = ByteBuffer.allocate(len);
+                }
+                buf.clear();
+                buf.limit((int) Math.min(buf.capacity(), end - off));
+                bufAt = off;
+                long pos = off;
+                while (buf.hasRemaining()) {
+                    int n = seg.readAt(buf, pos);
+                    if (n < 0) {
+                        break;
+                    }
+                    pos += n;
+                }
+                buf.flip();
+                if (buf.limit() < len) {
+                    return null;
+                }
+            }
+            ByteBuffer v = buf.duplicate();
+            v.position((int) (off - bufAt));
+            v.limit((int) (off - bufAt) + len);
+            return v.slice();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.braineous.dd.ingestion.persistence.log;
+
+import io.braineous.dd.core.config.DDProps;
+
+/**
+ * Tunables for {@link IngestionLog}. {@link #fromSystemProperties()} is what the store uses.
+ */
+public final class LogConfig {
+
+    public static final String P_DIR            = "dd.ingestion.log.dir";
+    public static final String P_SEGMENT_BYTES  = "dd.ingestion.log.segment.bytes";
+    public static final String P_SEGMENT_MS     = "dd.ingestion.log.segment.ms";
+    public static final String P_RETENTION_MS   = "dd.ingestion.log.retention.ms";
+    public static final String P_INDEX_INTERVAL = "dd.ingestion.log.index.interval.bytes";
+    public static final String P_FSYNC          = "dd.ingestion.log.fsync";
+
+    public static final String DEFAULT_DIR = "dd-data/ingestion-log";
+
+    private static final long DEFAULT_SEGMENT_BYTES  = 64L * 1024L * 1024L;   // 64MB
+    private static final long DEFAULT_SEGMENT_MS     = 60L * 60L * 1000L;     // 1h
+    private static final long DEFAULT_INDEX_INTERVAL = 4L * 1024L;            // 4KB
+
+    // segments are mapped as a single buffer
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE / 2;
+
+    private final String dir;
+    private final long segmentBytes;
+    private final long segmentMs;
+    private final long retentionMs;
+    private final long indexIntervalBytes;
+    private final boolean fsync;
+
+    public LogConfig(String dir, long segmentBytes, long segmentMs, long retentionMs,
+                     long indexIntervalBytes, boolean fsync) {
+        this.dir = (dir == null || dir.trim().isEmpty()) ? DEFAULT_DIR : dir.trim();
+        this.segmentBytes = Math.min(Math.max(128L, segmentBytes), MAX_SEGMENT_BYTES);
+        this.segmentMs = Math.max(0L, segmentMs);
+        this.retentionMs = Math.max(0L, retentionMs);
+        this.indexIntervalBytes = Math.max(1L, indexIntervalBytes);
+        this.fsync = fsync;
+    }
+
+    public static LogConfig fromSystemProperties() {
+        return new LogConfig(
+                System.getProperty(P_DIR, DEFAULT_DIR),
+                DDProps.longProp(P_SEGMENT_BYTES, DEFAULT_SEGMENT_BYTES),
+                DDProps.longProp(P_SEGMENT_MS, DEFAULT_SEGMENT_MS),
+                DDProps.longProp(P_RETENTION_MS, 0L),
+                DDProps.longProp(P_INDEX_INTERVAL, DEFAULT_INDEX_INTERVAL),
+                "true".equalsIgnoreCase(System.getProperty(P_FSYNC, "false"))
+        );
+    }
+
+    public String dir() { return dir; }
+    public long segmentBytes() { return segmentBytes; }
+    public long segmentMs() { return segmentMs; }
+    public long retentionMs() { return retentionMs; }
+    public long indexIntervalBytes() { return indexIntervalBytes; }
+    public boolean fsync() { return fsync; }
+}
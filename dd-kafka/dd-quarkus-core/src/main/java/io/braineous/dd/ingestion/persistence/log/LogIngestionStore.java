@@ -0,0 +1,203 @@
+package io.braineous.dd.ingestion.persistence.log;
+
+import ai.braineous.rag.prompt.models.cgo.graph.SnapshotHash;
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.braineous.dd.core.model.Why;
+import io.braineous.dd.ingestion.persistence.IngestionReceipt;
+import io.braineous.dd.ingestion.persistence.IngestionStore;
+import io.braineous.dd.ingestion.persistence.MongoIngestionStore;
+import io.braineous.dd.ingestion.persistence.PreparedIngestion;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * File-backed {@link IngestionStore} for single-node deployments (no Mongo).
+ *
+ * Disabled by default. Enable with:
+ *   quarkus.arc.selected-alternatives=io.braineous.dd.ingestion.persistence.log.LogIngestionStore,\
+ *       io.braineous.dd.replay.persistence.LogReplayStore
+ *
+ * Same receipt contract as {@link MongoIngestionStore}; storeType is "log".
+ *
+ * One instance writes the directory (kafka-processor: first put takes writer.lock, a second writer
+ * gets DD-ING-log_write_failed); any number of others (dd-pack) read it and pick up new appends and
+ * retired segments on each read. See {@link IngestionLog}.
+ */
+@Alternative
+@ApplicationScoped
+public class LogIngestionStore implements IngestionStore {
+
+    public static final String STORE_TYPE = "log";
+
+    private volatile IngestionLog log;
+
+    public LogIngestionStore() {
+    }
+
+    // tests: run against an already opened log
+    public LogIngestionStore(IngestionLog log) {
+        this.log = log;
+    }
+
+    public IngestionLog log() throws java.io.IOException {
+        IngestionLog l = log;
+        if (l != null) {
+            return l;
+        }
+        synchronized (this) {
+            if (log == null) {
+                LogConfig cfg = LogConfig.fromSystemProperties();
+                log = IngestionLog.open(Paths.get(cfg.dir()), cfg);
+            }
+            return log;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        IngestionLog l = log;
+        if (l != null) {
+            l.close();
+        }
+    }
+
+    @Override
+    public IngestionReceipt storeIngestion(String payload) {
+        PreparedIngestion p = PreparedIngestion.of(payload, STORE_TYPE);
+        if (p.rejected() != null) {
+            return p.rejected();
+        }
+
+        String ingestionId = p.ingestionId();
+        String payloadHash = p.payloadHash();
+        SnapshotHash snapshotHash = p.snapshotHash();
+
+        // ---------- append (insert-or-touch, idempotent on ingestionId) ----------
+        try {
+            LogRecord written = log().put(ingestionId, p.snap(), payloadHash, payload);
+            ingestionId = written.ingestionId();
+        } catch (Exception e) {
+            IngestionReceipt dlqReceipt = IngestionReceipt.failDomain(
+                    ingestionId,
+                    payloadHash,
+                    snapshotHash,
+                    new Why("DD-ING-log_write_failed", e.getMessage()),
+                    STORE_TYPE
+            );
+            dlqReceipt.setSysDlqEnabled(true);
+            return dlqReceipt;
+        }
+
+        return IngestionReceipt.ok(
+                ingestionId,
+                payloadHash,
+                snapshotHash,
+                STORE_TYPE
+        );
+    }
+
+    @Override
+    public String resolveIngestionId(String payload, String snap) {
+
+        if (snap == null || snap.trim().length() == 0) {
+            return null;
+        }
+
+        try {
+            String id = log().idForSnapshot(snap);
+            if (id != null && id.trim().length() > 0) {
+                return id;
+            }
+        } catch (Exception ignored) {
+            // fall through to generate
+        }
+
+        // axis birth (first time this snapshot is seen)
+        String day = LocalDate.now(ZoneOffset.UTC).toString().replace("-", "");
+        long nano = System.nanoTime();
+        return "DD-ING-" + day + "-" + nano;
+    }
+
+    @Override
+    public JsonArray findEventsByTimeWindow(String fromTime, String toTime) {
+
+        JsonArray out = new JsonArray();
+
+        if (fromTime == null || fromTime.trim().isEmpty()) {
+            return out;
+        }
+        if (toTime == null || toTime.trim().isEmpty()) {
+            return out;
+        }
+
+        Instant from;
+        Instant to;
+        try {
+            from = Instant.parse(fromTime.trim());
+            to = Instant.parse(toTime.trim());
+        } catch (Exception ignored) {
+            return out;
+        }
+
+        if (!from.isBefore(to)) {
+            return out;
+        }
+
+        try {
+            // inclusive from, exclusive to
+            log().scan(from.toEpochMilli(), to.toEpochMilli(), r -> out.add(toEventJson(r)));
+        } catch (Exception e) {
+            Console.log("ingestion_log_scan_failed", String.valueOf(e));
+            return new JsonArray();
+        }
+
+        return out;
+    }
+
+    @Override
+    public JsonObject findEventsByIngestionId(String ingestionId) {
+
+        if (ingestionId == null || ingestionId.trim().isEmpty()) {
+            return new JsonObject();
+        }
+
+        try {
+            LogRecord r = log().get(ingestionId.trim());
+            if (r == null) {
+                return new JsonObject();
+            }
+            return toEventJson(r);
+        } catch (Exception ignored) {
+            // swallow
+            return new JsonObject();
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    public static JsonObject toEventJson(LogRecord r) {
+        JsonObject out = new JsonObject();
+
+        if (r.ingestionId() != null) {
+            out.addProperty("ingestionId", r.ingestionId());
+        }
+        out.addProperty("createdAt", Instant.ofEpochMilli(r.createdAtMs()).toString());
+        if (r.snapshotHash() != null) {
+            out.addProperty(MongoIngestionStore.F_SNAPSHOT_HASH, r.snapshotHash());
+        }
+        if (r.payloadHash() != null) {
+            out.addProperty("payloadHash", r.payloadHash());
+        }
+        if (r.payload() != null) {
+            out.addProperty("payload", r.payload());
+        }
+        return out;
+    }
+}
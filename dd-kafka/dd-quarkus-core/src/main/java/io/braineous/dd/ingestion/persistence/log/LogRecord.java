@@ -0,0 +1,114 @@
+package io.braineous.dd.ingestion.persistence.log;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * One ingestion as laid out in a log segment.
+ *
+ * frame: [int bodyLen][int crc32(body)][body]
+ * body : [long createdAtMs][str ingestionId][str snapshotHash][str payloadHash][str payload]
+ * str  : [int len | -1 for null][utf8 bytes]
+ */
+public final class LogRecord {
+
+    static final int HEADER_BYTES = 8;
+
+    private final String ingestionId;
+    private final String snapshotHash;
+    private final String payloadHash;
+    private final String payload;
+    private final long createdAtMs;
+
+    public LogRecord(String ingestionId, String snapshotHash, String payloadHash, String payload, long createdAtMs) {
+        this.ingestionId = ingestionId;
+        this.snapshotHash = snapshotHash;
+        this.payloadHash = payloadHash;
+        this.payload = payload;
+        this.createdAtMs = createdAtMs;
+    }
+
+    public String ingestionId() { return ingestionId; }
+    public String snapshotHash() { return snapshotHash; }
+    public String payloadHash() { return payloadHash; }
+    public String payload() { return payload; }
+    public long createdAtMs() { return createdAtMs; }
+
+    LogRecord withCreatedAt(long ts) {
+        return new LogRecord(ingestionId, snapshotHash, payloadHash, payload, ts);
+    }
+
+    // -------- codec --------
+
+    ByteBuffer encode() {
+        byte[] id = bytes(ingestionId);
+        byte[] snap = bytes(snapshotHash);
+        byte[] ph = bytes(payloadHash);
+        byte[] pl = bytes(payload);
+
+        int bodyLen = 8 + strLen(id) + strLen(snap) + strLen(ph) + strLen(pl);
+
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + bodyLen);
+        buf.position(HEADER_BYTES);
+        buf.putLong(createdAtMs);
+        putStr(buf, id);
+        putStr(buf, snap);
+        putStr(buf, ph);
+        putStr(buf, pl);
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), HEADER_BYTES, bodyLen);
+
+        buf.putInt(0, bodyLen);
+        buf.putInt(4, (int) crc.getValue());
+        buf.position(0);
+        return buf;
+    }
+
+    static LogRecord decode(ByteBuffer body) {
+        long ts = body.getLong();
+        String id = getStr(body);
+        String snap = getStr(body);
+        String ph = getStr(body);
+        String pl = getStr(body);
+        return new LogRecord(id, snap, ph, pl, ts);
+    }
+
+    static boolean crcMatches(ByteBuffer body, int expected) {
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        return ((int) crc.getValue()) == expected;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private static byte[] bytes(String s) {
+        return (s == null) ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int strLen(byte[] b) {
+        return 4 + ((b == null) ? 0 : b.length);
+    }
+
+    private static void putStr(ByteBuffer buf, byte[] b) {
+        if (b == null) {
+            buf.putInt(-1);
+            return;
+        }
+        buf.putInt(b.length);
+        buf.put(b);
+    }
+
+    private static String getStr(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0) {
+            return null;
+        }
+        if (len > buf.remaining()) {
+            throw new IllegalStateException("string overruns record: " + len);
+        }
+        byte[] b = new byte[len];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,272 @@
+package io.braineous.dd.ingestion.persistence.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Single append-only segment file.
+ *
+ * Writes go through the channel; reads go through a read-only mapping. On the active segment,
+ * reads past the mapped region use a positional channel read, and the mapping is only extended
+ * once the unmapped tail reaches REMAP_BYTES, so appends do not cost a full remap per read.
+ *
+ * Sparse time index: one (createdAt, offset) entry per ~indexIntervalBytes. Records are appended
+ * in createdAt order, so a floor lookup gives a safe scan start.
+ */
+final class LogSegment {
+
+    static final String SUFFIX = ".log";
+
+    private static final long REMAP_BYTES = 1024L * 1024L;
+
+    private final long id;
+    private final Path path;
+    private final FileChannel ch;
+
+    private volatile long size;
+
+    // -------- time bounds (ms), valid once the segment has records --------
+    private volatile long minTs = Long.MAX_VALUE;
+    private volatile long maxTs = Long.MIN_VALUE;
+    private final long openedAtMs;
+
+    // -------- sparse time index (guarded by this) --------
+    private long[] idxTs = new long[64];
+    private long[] idxOff = new long[64];
+    private int idxCount;
+    private long lastIndexedOffset = Long.MIN_VALUE;
+
+    // -------- read mapping (guarded by this) --------
+    private MappedByteBuffer map;
+    private long mappedSize;
+
+    private LogSegment(long id, Path path, FileChannel ch, long size, long openedAtMs) {
+        this.id = id;
+        this.path = path;
+        this.ch = ch;
+        this.size = size;
+        this.openedAtMs = openedAtMs;
+    }
+
+    static LogSegment create(Path dir, long id, long nowMs) throws IOException {
+        Path p = dir.resolve(fileName(id));
+        FileChannel ch = FileChannel.open(p,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new LogSegment(id, p, ch, 0L, nowMs);
+    }
+
+    /**
+     * Opens an existing segment with nothing verified yet: the caller indexes its frames and
+     * observe()s the end of the last valid one.
+     */
+    static LogSegment open(Path p, long nowMs) throws IOException {
+        FileChannel ch = FileChannel.open(p, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new LogSegment(parseId(p), p, ch, 0L, nowMs);
+    }
+
+    static String fileName(long id) {
+        return String.format("%020d", id) + SUFFIX;
+    }
+
+    static long parseId(Path p) {
+        String n = p.getFileName().toString();
+        return Long.parseLong(n.substring(0, n.length() - SUFFIX.length()));
+    }
+
+    static boolean isSegmentFile(Path p) {
+        String n = p.getFileName().toString();
+        if (!n.endsWith(SUFFIX) || n.length() != 20 + SUFFIX.length()) {
+            return false;
+        }
+        for (int i = 0; i < 20; i++) {
+            if (!Character.isDigit(n.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long id() { return id; }
+    long size() { return size; }
+    long diskSize() throws IOException { return ch.size(); }
+    boolean exists() { return Files.exists(path); }
+    long minTs() { return minTs; }
+    long maxTs() { return maxTs; }
+    boolean isEmpty() { return size == 0L; }
+
+    /**
+     * Age for time-based rolling: first record time, or open time for an empty segment.
+     */
+    long startedAtMs() {
+        return (minTs == Long.MAX_VALUE) ? openedAtMs : minTs;
+    }
+
+    // -------- write --------
+
+    /**
+     * @return offset the frame was written at
+     */
+    long append(ByteBuffer frame, long ts, long indexIntervalBytes, boolean fsync) throws IOException {
+        long offset = size;
+        long pos = offset;
+        while (frame.hasRemaining()) {
+            pos += ch.write(frame, pos);
+        }
+        if (fsync) {
+            ch.force(false);
+        }
+        size = pos;
+        track(ts, offset, indexIntervalBytes);
+        return offset;
+    }
+
+    /**
+     * Recovery + append bookkeeping: bounds and sparse index.
+     */
+    synchronized void track(long ts, long offset, long indexIntervalBytes) {
+        if (ts < minTs) {
+            minTs = ts;
+        }
+        if (ts > maxTs) {
+            maxTs = ts;
+        }
+        if (idxCount == 0 || offset - lastIndexedOffset >= indexIntervalBytes) {
+            if (idxCount == idxTs.length) {
+                idxTs = Arrays.copyOf(idxTs, idxCount * 2);
+                idxOff = Arrays.copyOf(idxOff, idxCount * 2);
+            }
+            idxTs[idxCount] = ts;
+            idxOff[idxCount] = offset;
+            idxCount++;
+            lastIndexedOffset = offset;
+        }
+    }
+
+    /**
+     * Readers of a log written by another process: what this view considers the end of the segment
+     * (the last complete frame). The file itself is not touched.
+     */
+    void observe(long newSize) {
+        size = newSize;
+    }
+
+    void truncate(long newSize) throws IOException {
+        ch.truncate(newSize);
+        size = newSize;
+        synchronized (this) {
+            map = null;
+            mappedSize = 0L;
+        }
+    }
+
+    // -------- read --------
+
+    /**
+     * Offset of the last indexed record strictly older than ts (0 if none): safe scan start.
+     */
+    synchronized long floorOffset(long ts) {
+        int lo = 0;
+        int hi = idxCount - 1;
+        long best = 0L;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (idxTs[mid] < ts) {
+                best = idxOff[mid];
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Independent view over [offset, offset+len) of the segment.
+     */
+    ByteBuffer slice(long offset, int len) throws IOException {
+        long end = offset + len;
+        if (end > size) {
+            throw new IOException("read past end of segment " + id + ": " + end + " > " + size);
+        }
+
+        ByteBuffer m;
+        long ms;
+        synchronized (this) {
+            if (map == null || (end > mappedSize && size - mappedSize >= REMAP_BYTES)) {
+                long s = size;
+                map = ch.map(FileChannel.MapMode.READ_ONLY, 0L, s);
+                mappedSize = s;
+            }
+            m = map;
+            ms = mappedSize;
+        }
+
+        if (end > ms) {
+            // unmapped tail of the active segment
+            ByteBuffer b = ByteBuffer.allocate(len);
+            long pos = offset;
+            while (b.hasRemaining()) {
+                int n = ch.read(b, pos);
+                if (n < 0) {
+                    throw new IOException("read past end of segment " + id + ": " + end);
+                }
+                pos += n;
+            }
+            b.flip();
+            return b;
+        }
+
+        ByteBuffer v = m.duplicate();
+        v.position((int) offset);
+        v.limit((int) end);
+        return v.slice();
+    }
+
+    /**
+     * Plain positional read, bypassing the mapping (for bytes not verified yet).
+     */
+    int readAt(ByteBuffer dst, long pos) throws IOException {
+        return ch.read(dst, pos);
+    }
+
+    int frameLength(long offset) throws IOException {
+        return slice(offset, 4).getInt();
+    }
+
+    LogRecord read(long offset) throws IOException {
+        int len = frameLength(offset);
+        return LogRecord.decode(slice(offset + LogRecord.HEADER_BYTES, len));
+    }
+
+    long readTs(long offset) throws IOException {
+        return slice(offset + LogRecord.HEADER_BYTES, 8).getLong();
+    }
+
+    // -------- lifecycle --------
+
+    void close() {
+        try {
+            ch.close();
+        } catch (Exception ignored) {
+            // best-effort
+        }
+        synchronized (this) {
+            map = null;
+        }
+    }
+
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (Exception ignored) {
+            // best-effort: retention retries on the next pass
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.braineous.dd.quarkus.core.index;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Not ready until the startup index pass (build + explain) has finished. Shared by every service
+ * that indexes dd-quarkus-core (dd-pack, the ingestion consumer, the DLQ writers), so writers are
+ * not routed traffic against unindexed collections.
+ */
+@Readiness
+@ApplicationScoped
+public class IndexReadinessCheck implements HealthCheck {
+
+    @Inject
+    MongoIndexManager indexManager;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("dd-mongo-indexes")
+                .status(indexManager.isReady())
+                .build();
+    }
+}
@@ -0,0 +1,297 @@
+package io.braineous.dd.quarkus.core.index;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.bson.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Startup index bootstrap + query-shape advisor for the Mongo stores.
+ *
+ * On startup (background thread, never blocks boot): collects every {@link QueryShapeProvider},
+ * builds the declared indexes, then explain()s each shape and flags the ones whose winning plan
+ * still has a COLLSCAN. {@link #isReady()} flips once the pass is done; readiness checks key off it.
+ */
+@ApplicationScoped
+public class MongoIndexManager {
+
+    public static final String P_ENABLED = "dd.mongo.index.manager.enabled";
+
+    public static final String DB = "dd";
+
+    @Inject
+    MongoClient mongoClient;
+
+    @Inject
+    @Any
+    Instance<QueryShapeProvider> providers;
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+
+    private volatile List<ShapeReport> reports = Collections.emptyList();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (!enabled()) {
+            Console.log("index_manager_disabled", P_ENABLED);
+            ready.set(true);
+            return;
+        }
+        start();
+    }
+
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread t = new Thread(this::bootstrap, "dd-index-manager");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    /**
+     * Builds + verifies every declared shape. Best-effort per shape: one failing index never blocks
+     * the others, and the manager always ends up ready.
+     */
+    public void bootstrap() {
+        startedAt = Instant.now();
+        List<ShapeReport> out = new ArrayList<ShapeReport>();
+
+        try {
+            MongoDatabase db = mongoClient.getDatabase(DB);
+
+            for (QueryShape shape : collectShapes(db)) {
+                ShapeReport r = new ShapeReport(shape);
+                MongoCollection<Document> col = db.getCollection(shape.collection());
+
+                try {
+                    r.indexName = col.createIndex(shape.indexKeys(), shape.indexOptions());
+                    r.built = true;
+                } catch (Exception e) {
+                    r.error = String.valueOf(e.getMessage());
+                    Console.log("index_manager_build_failed", shape.collection() + "/" + shape.id() + " " + e.getMessage());
+                }
+
+                try {
+                    FindIterable<Document> q = col.find(shape.sampleFilter());
+                    if (shape.sampleSort() != null) {
+                        q = q.sort(shape.sampleSort());
+                    }
+                    Document plan = q.explain(ExplainVerbosity.QUERY_PLANNER);
+                    r.stages = winningPlanStages(plan);
+                    r.planIndexes = winningPlanIndexes(plan);
+                    r.collscan = r.stages.contains("COLLSCAN");
+                    if (r.collscan) {
+                        Console.log("index_manager_collscan", shape.collection() + "/" + shape.id());
+                    }
+                } catch (Exception e) {
+                    r.explainError = String.valueOf(e.getMessage());
+                }
+
+                out.add(r);
+            }
+        } catch (Exception e) {
+            Console.log("index_manager_failed", String.valueOf(e));
+        } finally {
+            reports = Collections.unmodifiableList(out);
+            finishedAt = Instant.now();
+            ready.set(true);
+            Console.log("index_manager_ready", "shapes=" + out.size());
+        }
+    }
+
+    public JsonObject stats() {
+        JsonObject out = new JsonObject();
+        out.addProperty("enabled", enabled());
+        out.addProperty("ready", ready.get());
+        out.addProperty("startedAt", startedAt == null ? null : startedAt.toString());
+        out.addProperty("finishedAt", finishedAt == null ? null : finishedAt.toString());
+
+        JsonArray shapes = new JsonArray();
+        int collscans = 0;
+        Set<String> collections = new LinkedHashSet<String>();
+        for (ShapeReport r : reports) {
+            shapes.add(r.toJson());
+            if (r.collscan) {
+                collscans++;
+            }
+            collections.add(r.shape.collection());
+        }
+        out.add("shapes", shapes);
+        out.addProperty("collscanShapes", collscans);
+
+        // live usage counters (best-effort)
+        JsonObject indexStats = new JsonObject();
+        try {
+            MongoDatabase db = mongoClient.getDatabase(DB);
+            for (String c : collections) {
+                JsonArray arr = new JsonArray();
+                for (Document d : db.getCollection(c).aggregate(
+                        Collections.singletonList(new Document("$indexStats", new Document())))) {
+                    JsonObject s = new JsonObject();
+                    s.addProperty("name", String.valueOf(d.get("name")));
+                    Object acc = d.get("accesses");
+                    if (acc instanceof Document) {
+                        Object ops = ((Document) acc).get("ops");
+                        if (ops instanceof Number) {
+                            s.addProperty("ops", ((Number) ops).longValue());
+                        }
+                    }
+                    arr.add(s);
+                }
+                indexStats.add(c, arr);
+            }
+        } catch (Exception e) {
+            indexStats.addProperty("error", String.valueOf(e.getMessage()));
+        }
+        out.add("indexStats", indexStats);
+
+        // server-wide COLLSCAN counter (metrics.queryExecutor.collectionScans, mongod 4.4+)
+        try {
+            Document status = mongoClient.getDatabase("admin").runCommand(new Document("serverStatus", 1));
+            Object scans = ((Document) ((Document) status.get("metrics")).get("queryExecutor")).get("collectionScans");
+            if (scans instanceof Document) {
+                out.add("serverCollectionScans", JsonParser.parseString(((Document) scans).toJson()));
+            }
+        } catch (Exception ignored) {
+            // not exposed by this server / no privilege
+        }
+
+        return out;
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private List<QueryShape> collectShapes(MongoDatabase db) {
+        List<QueryShape> all = new ArrayList<QueryShape>();
+        if (providers == null) {
+            return all;
+        }
+        for (QueryShapeProvider p : providers) {
+            try {
+                List<QueryShape> s = p.queryShapes(db);
+                if (s != null) {
+                    all.addAll(s);
+                }
+            } catch (Exception e) {
+                Console.log("index_manager_provider_failed", p.getClass().getName() + " " + e.getMessage());
+            }
+        }
+        return all;
+    }
+
+    private static boolean enabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(P_ENABLED, "true"));
+    }
+
+    /**
+     * "stage" values in queryPlanner.winningPlan, outermost first (classic and SBE layouts).
+     */
+    static List<String> winningPlanStages(Document explain) {
+        List<String> out = new ArrayList<String>();
+        collect(winningPlan(explain), "stage", out);
+        return out;
+    }
+
+    static List<String> winningPlanIndexes(Document explain) {
+        List<String> out = new ArrayList<String>();
+        collect(winningPlan(explain), "indexName", out);
+        return out;
+    }
+
+    private static Object winningPlan(Document explain) {
+        if (explain == null) {
+            return null;
+        }
+        Object qp = explain.get("queryPlanner");
+        if (!(qp instanceof Document)) {
+            return null;
+        }
+        return ((Document) qp).get("winningPlan");
+    }
+
+    private static void collect(Object node, String key, List<String> out) {
+        if (node instanceof Document) {
+            Document d = (Document) node;
+            Object v = d.get(key);
+            if (v instanceof String) {
+                out.add((String) v);
+            }
+            for (Object child : d.values()) {
+                if (child instanceof Document || child instanceof List) {
+                    collect(child, key, out);
+                }
+            }
+        } else if (node instanceof List) {
+            for (Object child : (List<?>) node) {
+                collect(child, key, out);
+            }
+        }
+    }
+
+    private static final class ShapeReport {
+        private final QueryShape shape;
+        private boolean built;
+        private String indexName;
+        private String error;
+        private List<String> stages = Collections.emptyList();
+        private List<String> planIndexes = Collections.emptyList();
+        private boolean collscan;
+        private String explainError;
+
+        private ShapeReport(QueryShape shape) {
+            this.shape = shape;
+        }
+
+        private JsonObject toJson() {
+            JsonObject o = new JsonObject();
+            o.addProperty("id", shape.id());
+            o.addProperty("collection", shape.collection());
+            o.addProperty("indexKeys", shape.indexKeys().toJson());
+            o.addProperty("built", built);
+            o.addProperty("indexName", indexName);
+            o.addProperty("error", error);
+
+            JsonArray st = new JsonArray();
+            for (String s : stages) {
+                st.add(s);
+            }
+            o.add("stages", st);
+
+            JsonArray ix = new JsonArray();
+            for (String s : planIndexes) {
+                ix.add(s);
+            }
+            o.add("planIndexes", ix);
+
+            o.addProperty("collscan", collscan);
+            o.addProperty("explainError", explainError);
+            return o;
+        }
+    }
+}
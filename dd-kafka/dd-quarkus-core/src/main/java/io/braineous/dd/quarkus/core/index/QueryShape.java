@@ -0,0 +1,48 @@
+package io.braineous.dd.quarkus.core.index;
+
+import com.mongodb.client.model.IndexOptions;
+import org.bson.Document;
+
+/**
+ * A query a store issues, plus the index that is supposed to serve it.
+ *
+ * sampleFilter/sampleSort are representative values only: they are fed to explain() to verify the
+ * planner picks an index (no COLLSCAN) for this shape.
+ */
+public final class QueryShape {
+
+    private final String id;
+    private final String collection;
+    private final Document indexKeys;
+    private final IndexOptions indexOptions;
+    private final Document sampleFilter;
+    private final Document sampleSort;
+
+    public QueryShape(String id,
+                      String collection,
+                      Document indexKeys,
+                      IndexOptions indexOptions,
+                      Document sampleFilter,
+                      Document sampleSort) {
+        this.id = id;
+        this.collection = collection;
+        this.indexKeys = indexKeys;
+        this.indexOptions = (indexOptions == null) ? new IndexOptions() : indexOptions;
+        this.sampleFilter = (sampleFilter == null) ? new Document() : sampleFilter;
+        this.sampleSort = sampleSort;
+    }
+
+    public String id() { return id; }
+    public String collection() { return collection; }
+    public Document indexKeys() { return indexKeys; }
+    public IndexOptions indexOptions() { return indexOptions; }
+    public Document sampleFilter() { return sampleFilter; }
+    public Document sampleSort() { return sampleSort; }
+
+    /**
+     * Same shape against another collection (time buckets share one shape set).
+     */
+    public QueryShape on(String otherCollection) {
+        return new QueryShape(id, otherCollection, indexKeys, indexOptions, sampleFilter, sampleSort);
+    }
+}
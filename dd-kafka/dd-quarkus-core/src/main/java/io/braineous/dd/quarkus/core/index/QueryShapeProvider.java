@@ -0,0 +1,17 @@
+package io.braineous.dd.quarkus.core.index;
+
+import com.mongodb.client.MongoDatabase;
+
+import java.util.List;
+
+/**
+ * Implemented by a bean per Mongo-backed store: declares the query shapes the store issues.
+ * {@link MongoIndexManager} builds and verifies the matching indexes at startup.
+ */
+public interface QueryShapeProvider {
+
+    /**
+     * @param db database the store lives in (for stores whose collection set is dynamic)
+     */
+    List<QueryShape> queryShapes(MongoDatabase db);
+}
@@ -778,9 +778,155 @@ public class DDEventOrchestratorTest {
         assertTrue(stored.contains("fact-002"));
     }
 
+    @Test
+    void orchestrateBatch_stores_whole_poll_with_one_bulk_call_and_receipts_line_up() {
+        InMemoryIngestionStore store = (InMemoryIngestionStore) this.orch.getStore();
+
+        List<String> batch = new java.util.ArrayList<String>();
+        batch.add(enrichedEvent("fact-B1"));
+        batch.add(enrichedEvent("fact-B2"));
+        batch.add(enrichedEvent("fact-B3"));
+
+        List<IngestionReceipt> receipts = orch.orchestrateBatch(batch);
+
+        assertEquals(3, receipts.size());
+        assertEquals(1, store.bulkCalls());
+        assertEquals(3, store.storeCalls());
+
+        for (int i = 0; i < batch.size(); i++) {
+            IngestionReceipt r = receipts.get(i);
+            io.braineous.dd.support.DDAssert.assertReceiptOk(r, "memory");
+
+            String expectedId = com.google.gson.JsonParser.parseString(batch.get(i))
+                    .getAsJsonArray().get(0).getAsJsonObject().get("ingestionId").getAsString();
+            assertEquals(expectedId, r.ingestionId());
+        }
+    }
+
+    @Test
+    void orchestrateBatch_bad_record_gets_null_slot_and_does_not_fail_the_poll() {
+        InMemoryIngestionStore store = (InMemoryIngestionStore) this.orch.getStore();
+
+        List<String> batch = new java.util.ArrayList<String>();
+        batch.add(enrichedEvent("fact-B4"));
+        batch.add("[]");
+        batch.add(enrichedEvent("fact-B5"));
+
+        List<IngestionReceipt> receipts = orch.orchestrateBatch(batch);
+
+        assertEquals(3, receipts.size());
+        io.braineous.dd.support.DDAssert.assertReceiptOk(receipts.get(0), "memory");
+        assertNull(receipts.get(1));
+        io.braineous.dd.support.DDAssert.assertReceiptOk(receipts.get(2), "memory");
+
+        // only the parsable records reach the store, in one call
+        assertEquals(1, store.bulkCalls());
+        assertEquals(2, store.storeCalls());
+    }
+
+    @Test
+    void orchestrateBatch_store_outage_fails_the_poll_instead_of_acking_it() {
+        InMemoryIngestionStore down = new InMemoryIngestionStore() {
+            @Override
+            public List<IngestionReceipt> storeIngestions(List<String> payloads) {
+                throw new RuntimeException("mongo down");
+            }
+
+            @Override
+            public synchronized IngestionReceipt storeIngestion(String payload) {
+                throw new RuntimeException("mongo down");
+            }
+        };
+        orch.setStore(down);
+
+        List<String> batch = new java.util.ArrayList<String>();
+        batch.add(enrichedEvent("fact-B6"));
+        batch.add(enrichedEvent("fact-B7"));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> orch.orchestrateBatch(batch));
+        assertEquals("mongo down", ex.getCause().getMessage());
+    }
+
+    @Test
+    void orchestrateBatch_closed_client_is_a_store_failure_not_a_bad_record() {
+        InMemoryIngestionStore closed = new InMemoryIngestionStore() {
+            @Override
+            public List<IngestionReceipt> storeIngestions(List<String> payloads) {
+                throw new IllegalStateException("state should be: open");
+            }
+        };
+        orch.setStore(closed);
+
+        List<String> batch = new java.util.ArrayList<String>();
+        batch.add(enrichedEvent("fact-B9"));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> orch.orchestrateBatch(batch));
+        assertEquals("state should be: open", ex.getCause().getMessage());
+        // not retried record by record (which would ack the poll)
+        assertEquals(0, closed.storeCalls());
+    }
+
+    @Test
+    void orchestrateBatch_rejected_record_falls_back_per_record_and_keeps_the_rest() {
+        InMemoryIngestionStore picky = new InMemoryIngestionStore() {
+            @Override
+            public List<IngestionReceipt> storeIngestions(List<String> payloads) {
+                throw new IllegalArgumentException("ingestionId_required");
+            }
+        };
+        orch.setStore(picky);
+
+        List<String> batch = new java.util.ArrayList<String>();
+        batch.add(enrichedEvent("fact-B8"));
+
+        List<IngestionReceipt> receipts = orch.orchestrateBatch(batch);
+
+        assertEquals(1, receipts.size());
+        io.braineous.dd.support.DDAssert.assertReceiptOk(receipts.get(0), "memory");
+        assertEquals(1, picky.storeCalls());
+    }
+
+    @Test
+    void orchestrateBatch_empty_poll_does_not_touch_the_store() {
+        InMemoryIngestionStore store = (InMemoryIngestionStore) this.orch.getStore();
+
+        assertTrue(orch.orchestrateBatch(new java.util.ArrayList<String>()).isEmpty());
+        assertTrue(orch.orchestrateBatch(null).isEmpty());
+
+        assertEquals(0, store.bulkCalls());
+        assertEquals(0, store.storeCalls());
+    }
+
 
     //------------------------------------------------------------------------------------
 
+    // one DD event, orchestrated and enriched with ingestionId + view, as the consumer receives it
+    private String enrichedEvent(String key) {
+        JsonObject kafka = new JsonObject();
+        kafka.addProperty("topic", "requests");
+        kafka.addProperty("partition", 3);
+        kafka.addProperty("offset", 48192);
+        kafka.addProperty("timestamp", 1767114000123L);
+        kafka.addProperty("key", key);
+
+        JsonObject payload = new JsonObject();
+        payload.addProperty("encoding", "base64");
+        payload.addProperty("value", "AAECAwQFBgcICQ==");
+
+        JsonObject root = new JsonObject();
+        root.add("kafka", kafka);
+        root.add("payload", payload);
+
+        JsonArray events = arr(root);
+
+        GraphBuilder.getInstance().clear();
+        GraphSnapshot snapshot = (GraphSnapshot) this.cgoOrch.orchestrate(events.toString());
+        assertNotNull(snapshot);
+
+        addCGOata(events, snapshot);
+        return events.toString();
+    }
+
     private static JsonArray arr(JsonObject obj) {
         JsonArray a = new JsonArray();
         a.add(obj);
@@ -0,0 +1,181 @@
+package io.braineous.dd.consumer.service;
+
+import ai.braineous.rag.prompt.models.cgo.graph.SnapshotHash;
+import com.google.gson.JsonObject;
+import io.braineous.dd.ingestion.persistence.IngestionReceipt;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestionLanesTest {
+
+    @Test
+    void records_of_a_key_keep_poll_order_across_polls() {
+        IngestionLanes lanes = new IngestionLanes(4);
+        Map<String, List<Long>> seen = Collections.synchronizedMap(new HashMap<String, List<Long>>());
+
+        try {
+            long offset = 0;
+            for (int poll = 0; poll < 20; poll++) {
+                List<JsonObject> batch = new ArrayList<JsonObject>();
+                for (int i = 0; i < 30; i++) {
+                    // every key shares partition 0: order must come from the key, not the partition
+                    batch.add(event("cust-" + (i % 6), offset++, null));
+                }
+
+                List<IngestionReceipt> receipts = lanes.dispatch(batch, IngestionLanes::shardKey, share -> {
+                    List<IngestionReceipt> out = new ArrayList<IngestionReceipt>();
+                    for (JsonObject e : share) {
+                        JsonObject k = e.getAsJsonObject("kafka");
+                        synchronized (seen) {
+                            seen.computeIfAbsent(k.get("key").getAsString(), x -> new ArrayList<Long>())
+                                    .add(k.get("offset").getAsLong());
+                        }
+                        out.add(receipt("id-" + k.get("offset").getAsLong()));
+                    }
+                    return out;
+                });
+
+                // receipts line up with the poll
+                assertEquals(batch.size(), receipts.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    long expected = batch.get(i).getAsJsonObject("kafka").get("offset").getAsLong();
+                    assertEquals("id-" + expected, receipts.get(i).ingestionId());
+                }
+            }
+        } finally {
+            lanes.shutdown();
+        }
+
+        assertEquals(6, seen.size());
+        for (List<Long> offsets : seen.values()) {
+            assertEquals(100, offsets.size());
+            for (int i = 1; i < offsets.size(); i++) {
+                assertTrue(offsets.get(i - 1) < offsets.get(i));
+            }
+        }
+    }
+
+    @Test
+    void dispatch_returns_only_after_every_lane_is_done() {
+        IngestionLanes lanes = new IngestionLanes(3);
+        Set<JsonObject> done = Collections.synchronizedSet(new HashSet<JsonObject>());
+
+        List<JsonObject> batch = new ArrayList<JsonObject>();
+        for (int i = 0; i < 12; i++) {
+            batch.add(event("k-" + i, i, null));
+        }
+
+        try {
+            lanes.dispatch(batch, IngestionLanes::shardKey, share -> {
+                try {
+                    Thread.sleep(50L);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                List<IngestionReceipt> out = new ArrayList<IngestionReceipt>();
+                for (JsonObject e : share) {
+                    done.add(e);
+                    out.add(receipt("id"));
+                }
+                return out;
+            });
+        } finally {
+            lanes.shutdown();
+        }
+
+        assertEquals(12, done.size());
+    }
+
+    @Test
+    void failed_lane_fails_the_poll_once_every_lane_is_done() {
+        IngestionLanes lanes = new IngestionLanes(2);
+
+        JsonObject bad = event("boom", 0, null);
+        JsonObject good = null;
+        for (int i = 0; good == null && i < 100; i++) {
+            JsonObject candidate = event("ok-" + i, 1, null);
+            if (IngestionLanes.laneOf(IngestionLanes.shardKey(candidate), 2)
+                    != IngestionLanes.laneOf(IngestionLanes.shardKey(bad), 2)) {
+                good = candidate;
+            }
+        }
+        assertNotNull(good);
+
+        List<JsonObject> batch = new ArrayList<JsonObject>();
+        batch.add(bad);
+        batch.add(good);
+
+        Set<JsonObject> done = Collections.synchronizedSet(new HashSet<JsonObject>());
+        try {
+            IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> lanes.dispatch(batch, IngestionLanes::shardKey, share -> {
+                if (share.get(0) == bad) {
+                    throw new IllegalStateException("boom");
+                }
+                try {
+                    Thread.sleep(50L);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                done.addAll(share);
+                return Collections.singletonList(receipt("id-good"));
+            }));
+            assertEquals("boom", thrown.getMessage());
+        } finally {
+            lanes.shutdown();
+        }
+
+        // the healthy lane finished before the poll was failed
+        assertEquals(Collections.singleton(good), done);
+    }
+
+    @Test
+    void shard_key_is_kafka_key_then_ingestionId() {
+        assertEquals("k:cust-7", IngestionLanes.shardKey(event("cust-7", 1L, "ING-1")));
+        assertEquals("i:ING-1", IngestionLanes.shardKey(event(null, 1L, "ING-1")));
+        assertEquals("", IngestionLanes.shardKey(event(null, 1L, null)));
+        assertEquals("", IngestionLanes.shardKey((JsonObject) null));
+
+        int lane = IngestionLanes.laneOf("k:cust-7", 8);
+        assertTrue(lane >= 0 && lane < 8);
+        assertEquals(lane, IngestionLanes.laneOf("k:cust-7", 8));
+    }
+
+    @Test
+    void empty_poll_is_a_no_op() {
+        IngestionLanes lanes = new IngestionLanes(2);
+        assertTrue(lanes.dispatch(new ArrayList<JsonObject>(), IngestionLanes::shardKey, share -> {
+            throw new AssertionError("no lane should run");
+        }).isEmpty());
+        assertTrue(lanes.<JsonObject>dispatch(null, IngestionLanes::shardKey, share -> null).isEmpty());
+    }
+
+    private static JsonObject event(String key, long offset, String ingestionId) {
+        JsonObject kafka = new JsonObject();
+        kafka.addProperty("topic", "ingestion");
+        kafka.addProperty("partition", 0);
+        kafka.addProperty("offset", offset);
+        if (key != null) {
+            kafka.addProperty("key", key);
+        }
+
+        JsonObject root = new JsonObject();
+        root.add("kafka", kafka);
+        if (ingestionId != null) {
+            root.addProperty("ingestionId", ingestionId);
+        }
+        return root;
+    }
+
+    private static IngestionReceipt receipt(String ingestionId) {
+        return IngestionReceipt.ok(ingestionId, "h", new SnapshotHash("s"), "memory");
+    }
+}
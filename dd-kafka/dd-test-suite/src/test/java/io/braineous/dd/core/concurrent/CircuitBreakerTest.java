@@ -0,0 +1,97 @@
+package io.braineous.dd.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    @Test
+    void opens_after_consecutive_failures_and_rejects() {
+        AtomicLong now = new AtomicLong(0L);
+        CircuitBreaker cb = new CircuitBreaker(3, 1_000L, 2, now::get);
+
+        cb.onFailure();
+        cb.onFailure();
+        cb.onSuccess(); // resets the streak
+        cb.onFailure();
+        cb.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, cb.state());
+
+        cb.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, cb.state());
+        assertFalse(cb.tryAcquire());
+        assertEquals(1, cb.openedCount());
+        assertEquals(1, cb.rejectedCount());
+    }
+
+    @Test
+    void half_open_probes_close_on_success() {
+        AtomicLong now = new AtomicLong(0L);
+        CircuitBreaker cb = new CircuitBreaker(1, 1_000L, 2, now::get);
+
+        cb.onFailure();
+        now.set(1_000L);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, cb.state());
+
+        assertTrue(cb.tryAcquire());
+        assertTrue(cb.tryAcquire());
+        assertFalse(cb.tryAcquire(), "only halfOpenProbes in flight");
+
+        cb.onSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, cb.state());
+        cb.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, cb.state());
+        assertTrue(cb.tryAcquire());
+    }
+
+    @Test
+    void half_open_failure_reopens() {
+        AtomicLong now = new AtomicLong(0L);
+        CircuitBreaker cb = new CircuitBreaker(1, 1_000L, 1, now::get);
+
+        cb.onFailure();
+        now.set(1_500L);
+        assertTrue(cb.tryAcquire());
+        cb.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, cb.state());
+        now.set(2_000L);
+        assertFalse(cb.tryAcquire(), "cool-down restarts from the failed probe");
+        assertEquals(2, cb.openedCount());
+    }
+
+    @Test
+    void rate_limiter_halves_on_failure_and_recovers() {
+        AtomicLong nanos = new AtomicLong(0L);
+        AdaptiveRateLimiter rl = new AdaptiveRateLimiter(1, 100, nanos::get);
+
+        int allowed = 0;
+        for (int i = 0; i < 200; i++) {
+            if (rl.tryAcquire()) {
+                allowed++;
+            }
+        }
+        assertEquals(100, allowed, "burst = one second at max rate");
+
+        rl.onFailure();
+        rl.onFailure();
+        assertEquals(25.0d, rl.rate(), 0.0001d);
+
+        nanos.addAndGet(1_000_000_000L);
+        allowed = 0;
+        for (int i = 0; i < 200; i++) {
+            if (rl.tryAcquire()) {
+                allowed++;
+            }
+        }
+        assertEquals(25, allowed);
+
+        for (int i = 0; i < 100; i++) {
+            rl.onSuccess();
+        }
+        assertEquals(100.0d, rl.rate(), 0.0001d);
+    }
+}
@@ -0,0 +1,51 @@
+package io.braineous.dd.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+
+    @Test
+    void burst_is_free_then_callers_wait_for_the_debt() throws Exception {
+        AtomicLong now = new AtomicLong(0L);
+        AtomicLong slept = new AtomicLong(0L);
+        TokenBucket b = new TokenBucket(10, now::get, slept::addAndGet);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0L, b.acquire(1));
+        }
+
+        // bucket empty: one permit at 10/s costs 100ms
+        long waited = b.acquire(1);
+        assertEquals(100_000_000L, waited);
+        assertEquals(100_000_000L, slept.get());
+    }
+
+    @Test
+    void refills_at_rate_up_to_one_second_of_burst() throws Exception {
+        AtomicLong now = new AtomicLong(0L);
+        TokenBucket b = new TokenBucket(100, now::get, n -> { });
+
+        b.acquire(100);
+        assertEquals(0.0d, b.available(), 1e-9);
+
+        now.set(500_000_000L);
+        assertEquals(50.0d, b.available(), 1e-9);
+
+        now.set(10_000_000_000L);
+        assertEquals(100.0d, b.available(), 1e-9);
+    }
+
+    @Test
+    void oversized_request_is_allowed_and_waits_proportionally() throws Exception {
+        AtomicLong now = new AtomicLong(0L);
+        TokenBucket b = new TokenBucket(1_000, now::get, n -> { });
+
+        // 3000 permits with 1000 in the bucket: 2s of debt
+        long waited = b.acquire(3_000);
+        assertEquals(2_000_000_000L, waited);
+    }
+}
@@ -0,0 +1,43 @@
+package io.braineous.dd.core.identity;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadIdentityTest {
+
+    @Test
+    void xxhash64_matches_reference_vectors() {
+        assertEquals(0xEF46DB3751D8E999L, PayloadIdentity.xxHash64(""));
+        assertEquals(0x44BC2CF5AD770999L, PayloadIdentity.xxHash64("abc"));
+        // > 32 bytes: exercises the four-lane loop
+        assertEquals(0xFBCEA83C8A378BF1L, PayloadIdentity.xxHash64("Nobody inspects the spammish repetition"));
+    }
+
+    @Test
+    void sha256_hex_matches_reference_vector() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                PayloadIdentity.sha256Hex("abc"));
+        assertEquals(PayloadIdentity.sha256Hex("abc"),
+                PayloadIdentity.sha256Hex("abc".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void fact_id_is_name_uuid_from_bytes() {
+        Random r = new Random(7);
+        for (int n = 0; n < 64; n++) {
+            byte[] b = new byte[n];
+            r.nextBytes(b);
+            assertEquals(UUID.nameUUIDFromBytes(b).toString(), PayloadIdentity.factId(b));
+        }
+    }
+
+    @Test
+    void hex_is_lowercase_and_zero_padded() {
+        assertEquals("000fff", PayloadIdentity.hex(new byte[]{0x00, 0x0f, (byte) 0xff}));
+    }
+}
@@ -0,0 +1,110 @@
+package io.braineous.dd.dlq.persistence;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DLQAnalyticsTest {
+
+    @Test
+    void hour_bucket_floors_to_the_hour() {
+        Date t = Date.from(Instant.parse("2026-03-01T10:59:59.999Z"));
+
+        assertEquals(Instant.parse("2026-03-01T10:00:00Z"), DLQAnalytics.hourBucket(t).toInstant());
+        assertEquals(DLQAnalytics.hourBucket(t),
+                DLQAnalytics.hourBucket(Date.from(Instant.parse("2026-03-01T10:00:00Z"))));
+    }
+
+    @Test
+    void rollup_id_is_stable_per_bucket_why_topic() {
+        Date b = DLQAnalytics.hourBucket(Date.from(Instant.parse("2026-03-01T10:15:00Z")));
+
+        assertEquals(DLQAnalytics.rollupId(b, "DD-DLQ-SYSTEM-EXCEPTION", "requests"),
+                DLQAnalytics.rollupId(b, "DD-DLQ-SYSTEM-EXCEPTION", "requests"));
+        assertNotEquals(DLQAnalytics.rollupId(b, "DD-DLQ-SYSTEM-EXCEPTION", "requests"),
+                DLQAnalytics.rollupId(b, "DD-DLQ-SYSTEM-EXCEPTION", "orders"));
+    }
+
+    @Test
+    void top_n_is_defaulted_and_capped() {
+        assertEquals(DLQAnalytics.DEFAULT_TOP_N, DLQAnalytics.clampTopN(0));
+        assertEquals(DLQAnalytics.DEFAULT_TOP_N, DLQAnalytics.clampTopN(-3));
+        assertEquals(7, DLQAnalytics.clampTopN(7));
+        assertEquals(DLQAnalytics.MAX_TOP_N, DLQAnalytics.clampTopN(10_000));
+    }
+
+    @Test
+    void render_totals_groups_by_why_and_topic() {
+        Date h10 = Date.from(Instant.parse("2026-03-01T10:00:00Z"));
+        Date h11 = Date.from(Instant.parse("2026-03-01T11:00:00Z"));
+
+        List<Document> groups = List.of(
+                group(h10, "DD-DLQ-SYSTEM-EXCEPTION", "requests", 3L),
+                group(h10, "DD-DLQ-SYSTEM-EXCEPTION", "orders", 2L),
+                group(h11, null, "requests", 5L));
+
+        JsonObject out = DLQAnalytics.render("system",
+                "2026-03-01T10:00:00Z", "2026-03-01T12:00:00Z", "rollup", groups, null);
+
+        assertEquals("system", out.get("kind").getAsString());
+        assertEquals("rollup", out.get("source").getAsString());
+        assertEquals(10L, out.get("total").getAsLong());
+
+        JsonObject byWhy = out.getAsJsonObject("byWhyCode");
+        assertEquals(5L, byWhy.get("DD-DLQ-SYSTEM-EXCEPTION").getAsLong());
+        assertEquals(5L, byWhy.get(DLQFingerprint.UNKNOWN).getAsLong());
+
+        JsonObject byTopic = out.getAsJsonObject("byTopic");
+        assertEquals(8L, byTopic.get("requests").getAsLong());
+        assertEquals(2L, byTopic.get("orders").getAsLong());
+
+        JsonArray rows = out.getAsJsonArray("groups");
+        assertEquals(3, rows.size());
+        assertEquals("2026-03-01T11:00:00Z", rows.get(2).getAsJsonObject().get("bucket").getAsString());
+
+        assertEquals(0, out.getAsJsonArray("topFingerprints").size());
+    }
+
+    @Test
+    void merge_sums_the_raw_and_rollup_halves_of_a_split_hour() {
+        Date h09 = Date.from(Instant.parse("2026-03-01T09:00:00Z"));
+        Date h10 = Date.from(Instant.parse("2026-03-01T10:00:00Z"));
+
+        // rollups switched on at 10:20: raw covers 09:00-10:20, rollups 10:20 on
+        List<Document> raw = List.of(
+                group(h09, "DD-DLQ-SYSTEM-EXCEPTION", "requests", 4L),
+                group(h10, "DD-DLQ-SYSTEM-EXCEPTION", "requests", 1L));
+        List<Document> rollup = List.of(
+                group(h10, "DD-DLQ-SYSTEM-EXCEPTION", "requests", 2L),
+                group(h10, null, "orders", 3L));
+
+        List<Document> merged = DLQAnalytics.mergeGroups(raw, rollup);
+
+        assertEquals(3, merged.size());
+        assertEquals(h09, merged.get(0).getDate("bucket"));
+        assertEquals(4L, merged.get(0).get("count"));
+        assertEquals(h10, merged.get(1).getDate("bucket"));
+        assertEquals("DD-DLQ-SYSTEM-EXCEPTION", merged.get(1).getString("whyCode"));
+        assertEquals(3L, merged.get(1).get("count"));
+        assertEquals(DLQFingerprint.UNKNOWN, merged.get(2).getString("whyCode"));
+
+        JsonObject out = DLQAnalytics.render("system",
+                "2026-03-01T09:00:00Z", "2026-03-01T11:00:00Z", "rollup+raw", merged, null);
+        assertEquals(10L, out.get("total").getAsLong());
+    }
+
+    private static Document group(Date bucket, String why, String topic, long count) {
+        return new Document()
+                .append("bucket", bucket)
+                .append("whyCode", why)
+                .append("topic", topic)
+                .append("count", count);
+    }
+}
@@ -0,0 +1,53 @@
+package io.braineous.dd.dlq.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DLQFingerprintTest {
+
+    private static final String SYSTEM_PAYLOAD =
+            "{\"kafka\":{\"topic\":\"requests\",\"partition\":0,\"offset\":7},"
+                    + "\"dlqSystemCode\":\"DD-DLQ-SYSTEM-EXCEPTION\",\"dlqSystemException\":\"boom\"}";
+
+    @Test
+    void extracts_why_code_and_topic() {
+        DLQFingerprint fp = DLQFingerprint.of("system", SYSTEM_PAYLOAD);
+
+        assertEquals("DD-DLQ-SYSTEM-EXCEPTION", fp.whyCode());
+        assertEquals("requests", fp.topic());
+        assertEquals(64, fp.payloadSha256().length());
+        assertEquals(64, fp.fingerprint().length());
+    }
+
+    @Test
+    void same_failure_same_fingerprint_different_payload_different_fingerprint() {
+        DLQFingerprint a = DLQFingerprint.of("system", SYSTEM_PAYLOAD);
+        DLQFingerprint b = DLQFingerprint.of("system", SYSTEM_PAYLOAD);
+        DLQFingerprint c = DLQFingerprint.of("system", SYSTEM_PAYLOAD.replace("\"offset\":7", "\"offset\":8"));
+
+        assertEquals(a.fingerprint(), b.fingerprint());
+        assertNotEquals(a.fingerprint(), c.fingerprint());
+    }
+
+    @Test
+    void domain_kind_reads_domain_code() {
+        String payload = "{\"kafka\":{\"topic\":\"orders\"},\"dlqDomainCode\":\"DD-DLQ-DOMAIN-EXCEPTION\"}";
+
+        DLQFingerprint domain = DLQFingerprint.of("domain", payload);
+        DLQFingerprint system = DLQFingerprint.of("system", payload);
+
+        assertEquals("DD-DLQ-DOMAIN-EXCEPTION", domain.whyCode());
+        assertEquals(DLQFingerprint.UNKNOWN, system.whyCode());
+        assertNotEquals(domain.fingerprint(), system.fingerprint());
+    }
+
+    @Test
+    void opaque_payload_is_defensive() {
+        DLQFingerprint fp = DLQFingerprint.of("system", "not-json {");
+
+        assertEquals(DLQFingerprint.UNKNOWN, fp.whyCode());
+        assertEquals(DLQFingerprint.UNKNOWN, fp.topic());
+        assertNotNull(fp.fingerprint());
+    }
+}
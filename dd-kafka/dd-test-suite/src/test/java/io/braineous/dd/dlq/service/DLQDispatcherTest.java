@@ -0,0 +1,109 @@
+package io.braineous.dd.dlq.service;
+
+import io.braineous.dd.dlq.model.DLQResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DLQDispatcherTest {
+
+    @Test
+    void disabled_dispatches_inline() {
+        RecordingOrchestrator orch = new RecordingOrchestrator(null);
+        DLQDispatcher d = new DLQDispatcher(orch, 10, 1_000L);
+
+        d.domainFailure(new Exception("x"), "{\"a\":1}");
+        d.systemFailure(new Exception("y"), "{\"a\":2}");
+
+        assertEquals(List.of("domain:{\"a\":1}", "system:{\"a\":2}"), orch.calls);
+        assertEquals(0, d.stats().get("enqueued").getAsLong());
+    }
+
+    @Test
+    void enabled_returns_immediately_dispatches_inline_when_full_and_drains_on_shutdown() throws Exception {
+        System.setProperty(DLQDispatcher.P_ENABLED, "true");
+        try {
+            CountDownLatch gate = new CountDownLatch(1);
+            RecordingOrchestrator orch = new RecordingOrchestrator(gate);
+            DLQDispatcher d = new DLQDispatcher(orch, 2, 5_000L);
+
+            // first task parks the sender on the gate; two more fill the queue; the fourth runs inline
+            d.systemFailure(new Exception("1"), "1");
+            assertTrue(orch.started.await(5, TimeUnit.SECONDS));
+            d.systemFailure(new Exception("2"), "2");
+            d.systemFailure(new Exception("3"), "3");
+            d.systemFailure(new Exception("4"), "4");
+
+            assertEquals(2, d.depth());
+            assertEquals(1, d.stats().get("overflowInline").getAsLong());
+            assertEquals(List.of("system:4"), orch.calls);
+
+            gate.countDown();
+            d.shutdown();
+
+            assertEquals(0, d.depth());
+            assertEquals(List.of("system:4", "system:1", "system:2", "system:3"), orch.calls);
+            assertEquals(4, d.stats().get("dispatched").getAsLong());
+        } finally {
+            System.clearProperty(DLQDispatcher.P_ENABLED);
+        }
+    }
+
+    @Test
+    void after_shutdown_dispatches_inline_instead_of_enqueueing() {
+        System.setProperty(DLQDispatcher.P_ENABLED, "true");
+        try {
+            RecordingOrchestrator orch = new RecordingOrchestrator(null);
+            DLQDispatcher d = new DLQDispatcher(orch, 10, 1_000L);
+
+            d.shutdown();
+            d.domainFailure(new Exception("late"), "late");
+
+            assertEquals(List.of("domain:late"), orch.calls);
+            assertEquals(0, d.stats().get("enqueued").getAsLong());
+            assertEquals(1, d.stats().get("dispatched").getAsLong());
+        } finally {
+            System.clearProperty(DLQDispatcher.P_ENABLED);
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private static final class RecordingOrchestrator extends DLQOrchestrator {
+        private final List<String> calls = new CopyOnWriteArrayList<String>();
+        private final CountDownLatch gate;
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private RecordingOrchestrator(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public DLQResult orchestrateDomainFailure(Exception exception, String ingestionStr) {
+            return record("domain:" + ingestionStr);
+        }
+
+        @Override
+        public DLQResult orchestrateSystemFailure(Exception exception, String ingestionStr) {
+            return record("system:" + ingestionStr);
+        }
+
+        private DLQResult record(String call) {
+            started.countDown();
+            // only the sender parks: inline dispatches run on the caller
+            if (gate != null && Thread.currentThread().getName().startsWith("dd-dlq-dispatch")) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            calls.add(call);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.braineous.dd.dlq.service.client;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonParser;
+import io.braineous.dd.core.processor.HttpPoster;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DLQBatchSenderTest {
+
+    @Test
+    void full_batch_ships_as_array_of_single_record_bodies() throws Exception {
+        List<String[]> calls = new CopyOnWriteArrayList<String[]>();
+        HttpPoster poster = (endpoint, body) -> {
+            calls.add(new String[]{endpoint, body});
+            return 200;
+        };
+
+        // huge linger: only the size trigger can ship
+        DLQBatchSender sender = new DLQBatchSender(() -> poster, 3, 60_000L, 100L);
+        try {
+            assertTrue(sender.offer("/domain_failure", "{\"id\":\"a\"}"));
+            assertTrue(sender.offer("/domain_failure", "{\"id\":\"b\"}"));
+            assertTrue(sender.offer("/domain_failure", "{\"id\":\"c\"}"));
+
+            waitFor(() -> calls.size() == 1);
+
+            String[] call = calls.get(0);
+            Console.log("dlq.batch.call", call[0] + " :: " + call[1]);
+
+            assertEquals("/domain_failure" + DLQBatchSender.BATCH_SUFFIX, call[0]);
+
+            JsonArray arr = JsonParser.parseString(call[1]).getAsJsonArray();
+            assertEquals(3, arr.size());
+            // elements are the exact single-record bodies (strings), not re-serialized objects
+            assertEquals("{\"id\":\"a\"}", arr.get(0).getAsString());
+            assertEquals("{\"id\":\"c\"}", arr.get(2).getAsString());
+
+            waitFor(() -> sender.pending() == 0);
+            assertEquals(3, sender.stats().get("recordsSent").getAsLong());
+        } finally {
+            sender.close();
+        }
+    }
+
+    @Test
+    void linger_flushes_partial_batch_per_endpoint() throws Exception {
+        List<String[]> calls = new CopyOnWriteArrayList<String[]>();
+        HttpPoster poster = (endpoint, body) -> {
+            calls.add(new String[]{endpoint, body});
+            return 202;
+        };
+
+        DLQBatchSender sender = new DLQBatchSender(() -> poster, 100, 20L, 100L);
+        try {
+            sender.offer("/domain_failure", "{\"id\":\"d1\"}");
+            sender.offer("/system_failure", "{\"id\":\"s1\"}");
+
+            waitFor(() -> calls.size() == 2);
+
+            for (String[] c : calls) {
+                assertTrue(c[0].endsWith(DLQBatchSender.BATCH_SUFFIX), c[0]);
+                assertEquals(1, JsonParser.parseString(c[1]).getAsJsonArray().size());
+            }
+        } finally {
+            sender.close();
+        }
+    }
+
+    @Test
+    void max_pending_rejects_and_counts() {
+        HttpPoster poster = (endpoint, body) -> 200;
+
+        DLQBatchSender sender = new DLQBatchSender(() -> poster, 100, 60_000L, 2L);
+        try {
+            assertTrue(sender.offer("/domain_failure", "1"));
+            assertTrue(sender.offer("/domain_failure", "2"));
+            assertFalse(sender.offer("/domain_failure", "3"));
+
+            assertEquals(2, sender.pending());
+            assertEquals(1, sender.stats().get("rejected").getAsLong());
+        } finally {
+            sender.close();
+        }
+
+        // close() drains what was buffered
+        assertEquals(0, sender.pending());
+    }
+
+    @Test
+    void send_failure_is_counted_not_thrown() {
+        HttpPoster poster = (endpoint, body) -> {
+            throw new RuntimeException("boom");
+        };
+
+        DLQBatchSender sender = new DLQBatchSender(() -> poster, 100, 60_000L, 100L);
+        sender.offer("/domain_failure", "x");
+        sender.flush();
+
+        assertEquals(0, sender.pending());
+        assertEquals(1, sender.stats().get("batchesFailed").getAsLong());
+        assertEquals(1, sender.stats().get("recordsFailed").getAsLong());
+        sender.close();
+    }
+
+    @Test
+    void failed_batch_hands_every_record_to_on_failed() {
+        HttpPoster poster = (endpoint, body) -> 503;
+        List<String> spilled = new CopyOnWriteArrayList<String>();
+
+        DLQBatchSender sender = new DLQBatchSender(() -> poster,
+                (endpoint, body) -> spilled.add(endpoint + " " + body), 100, 60_000L, 100L);
+        sender.offer("/system_failure", "a");
+        sender.offer("/system_failure", "b");
+        sender.flush();
+
+        assertEquals(List.of("/system_failure a", "/system_failure b"), spilled);
+        assertEquals(2, sender.stats().get("recordsFailed").getAsLong());
+        sender.close();
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private static void waitFor(java.util.function.BooleanSupplier cond) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (!cond.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not met within 5s");
+            }
+            Thread.sleep(10L);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.braineous.dd.dlq.service.client;
+
+import io.braineous.dd.core.concurrent.AdaptiveRateLimiter;
+import io.braineous.dd.core.concurrent.CircuitBreaker;
+import io.braineous.dd.core.processor.HttpPoster;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DLQGuardTest {
+
+    @Test
+    void open_breaker_spills_then_drain_recovers_via_probes() {
+        AtomicLong now = new AtomicLong(0L);
+        AtomicInteger status = new AtomicInteger(500);
+        List<String> posted = new CopyOnWriteArrayList<String>();
+        HttpPoster poster = (endpoint, body) -> {
+            posted.add(body);
+            return status.get();
+        };
+
+        // drainMs=0: no background thread, drain() driven by the test
+        DLQGuard g = new DLQGuard(
+                new CircuitBreaker(2, 1_000L, 1, now::get),
+                new AdaptiveRateLimiter(1_000, 1_000),
+                10_000L, 10, 1, () -> poster, 0L);
+
+        assertNull(g.admit());
+        g.record(false, 5L);
+        assertNull(g.admit());
+        g.record(false, 5L);
+
+        assertEquals(CircuitBreaker.State.OPEN, g.state());
+        assertEquals(DLQGuard.WHY_CIRCUIT_OPEN, g.admit());
+
+        g.spill("/domain_failure", "a", DLQGuard.WHY_CIRCUIT_OPEN);
+        g.spill("/domain_failure", "b", DLQGuard.WHY_CIRCUIT_OPEN);
+        assertEquals(2, g.spillSize());
+
+        // still open: nothing leaves the spill
+        assertEquals(0, g.drain(10));
+
+        // cool-down over, downstream healthy: the probe closes the breaker and the rest follows
+        now.set(1_000L);
+        status.set(204);
+        assertEquals(2, g.drain(10));
+        assertEquals(CircuitBreaker.State.CLOSED, g.state());
+        assertEquals(0, g.spillSize());
+        assertEquals(List.of("a", "b"), posted);
+    }
+
+    @Test
+    void spill_is_bounded_and_slow_calls_count_as_failures() {
+        DLQGuard g = new DLQGuard(
+                new CircuitBreaker(1, 60_000L, 1),
+                new AdaptiveRateLimiter(1_000, 1_000),
+                100L, 2, 1_000, () -> null, 0L);
+
+        g.spill("/system_failure", "1", "x");
+        g.spill("/system_failure", "2", "x");
+        g.spill("/system_failure", "3", "x");
+        assertEquals(2, g.spillSize());
+        assertEquals(1, g.stats().get("spillDropped").getAsLong());
+
+        assertNull(g.admit());
+        g.record(true, 250L); // ok but slow
+        assertEquals(CircuitBreaker.State.OPEN, g.state());
+        assertEquals(1, g.stats().get("slowCalls").getAsLong());
+    }
+}
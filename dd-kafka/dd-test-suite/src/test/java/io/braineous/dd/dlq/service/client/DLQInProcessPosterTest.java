@@ -0,0 +1,77 @@
+package io.braineous.dd.dlq.service.client;
+
+import io.braineous.dd.dlq.DlqProcessor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DLQInProcessPosterTest {
+
+    @Test
+    void single_record_routes_to_processor_with_identical_body() throws Exception {
+        RecordingProcessor p = new RecordingProcessor();
+        DLQInProcessPoster poster = new DLQInProcessPoster(p);
+
+        String body = "{\"id\":\"evt-1\"}";
+
+        assertEquals(204, poster.post("/domain_failure", body));
+        assertEquals(204, poster.post("system_failure", body));
+
+        assertEquals(List.of("domain:" + body, "system:" + body), p.calls);
+    }
+
+    @Test
+    void batch_endpoint_decodes_array() throws Exception {
+        RecordingProcessor p = new RecordingProcessor();
+        DLQInProcessPoster poster = new DLQInProcessPoster(p);
+
+        String wire = "[\"{\\\"id\\\":\\\"a\\\"}\",\"\",\"{\\\"id\\\":\\\"b\\\"}\"]";
+
+        assertEquals(204, poster.post("/system_failure/batch", wire));
+        assertEquals(List.of("system:{\"id\":\"a\"}", "system:{\"id\":\"b\"}"), p.calls);
+    }
+
+    @Test
+    void blank_body_and_unknown_endpoint_are_defensive() throws Exception {
+        RecordingProcessor p = new RecordingProcessor();
+        DLQInProcessPoster poster = new DLQInProcessPoster(p);
+
+        assertEquals(204, poster.post("/domain_failure", "  "));
+        assertEquals(404, poster.post("/nope", "{}"));
+        assertTrue(p.calls.isEmpty());
+
+        assertThrows(IllegalStateException.class, () -> new DLQInProcessPoster(null).post("/domain_failure", "{}"));
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private static final class RecordingProcessor extends DlqProcessor {
+        private final List<String> calls = new ArrayList<String>();
+
+        @Override
+        public void handleSystemFailure(String payload) {
+            calls.add("system:" + payload);
+        }
+
+        @Override
+        public void handleDomainFailure(String payload) {
+            calls.add("domain:" + payload);
+        }
+
+        @Override
+        public void handleSystemFailures(List<String> payloads) {
+            for (String s : payloads) {
+                calls.add("system:" + s);
+            }
+        }
+
+        @Override
+        public void handleDomainFailures(List<String> payloads) {
+            for (String s : payloads) {
+                calls.add("domain:" + s);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.braineous.dd.dlq.service.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DLQJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void append_peek_commit_in_order() throws Exception {
+        try (DLQJournal j = DLQJournal.open(dir, 4096, 4, false)) {
+            assertTrue(j.append("/domain_failure", "{\"id\":\"\u00e9-1\"}"));
+            assertTrue(j.append("/system_failure", "{\"id\":\"2\"}"));
+            assertEquals(2, j.pending());
+
+            DLQJournal.Entry e1 = j.peek();
+            assertEquals("/domain_failure", e1.endpoint());
+            assertEquals("{\"id\":\"\u00e9-1\"}", e1.body());
+
+            // not committed: same record again
+            assertEquals(e1.body(), j.peek().body());
+
+            j.commit(e1);
+            DLQJournal.Entry e2 = j.peek();
+            assertEquals("/system_failure", e2.endpoint());
+            j.commit(e2);
+
+            assertNull(j.peek());
+            assertEquals(0, j.pending());
+        }
+    }
+
+    @Test
+    void rolls_segments_deletes_delivered_and_survives_reopen() throws Exception {
+        String body = "x".repeat(1000);
+
+        try (DLQJournal j = DLQJournal.open(dir, 4096, 8, false)) {
+            for (int i = 0; i < 10; i++) {
+                assertTrue(j.append("/domain_failure", i + body));
+            }
+            assertTrue(j.segmentCount() > 1);
+
+            // deliver 5, leave 5
+            for (int i = 0; i < 5; i++) {
+                DLQJournal.Entry e = j.peek();
+                assertTrue(e.body().startsWith(String.valueOf(i)));
+                j.commit(e);
+            }
+        }
+
+        try (DLQJournal j = DLQJournal.open(dir, 4096, 8, false)) {
+            assertEquals(5, j.pending());
+            for (int i = 5; i < 10; i++) {
+                DLQJournal.Entry e = j.peek();
+                assertTrue(e.body().startsWith(String.valueOf(i)), e.body().substring(0, 3));
+                j.commit(e);
+            }
+            assertNull(j.peek());
+            assertEquals(1, j.segmentCount());
+        }
+        assertEquals(1, segmentFiles().size());
+    }
+
+    @Test
+    void torn_tail_is_dropped_and_appends_continue() throws Exception {
+        try (DLQJournal j = DLQJournal.open(dir, 4096, 2, false)) {
+            j.append("/domain_failure", "ok-1");
+            j.append("/domain_failure", "ok-2");
+        }
+
+        // corrupt the second record's body (simulates a torn write)
+        Path seg = segmentFiles().get(0);
+        try (FileChannel ch = FileChannel.open(seg, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(4);
+            ch.read(b, DLQJournal.SEGMENT_HEADER);
+            int firstLen = b.flip().getInt();
+            long second = DLQJournal.SEGMENT_HEADER + DLQJournal.FRAME_HEADER + firstLen;
+            ch.write(ByteBuffer.wrap(new byte[]{'Z'}), second + DLQJournal.FRAME_HEADER + 6);
+        }
+
+        try (DLQJournal j = DLQJournal.open(dir, 4096, 2, false)) {
+            assertEquals(1, j.pending());
+            assertTrue(j.append("/domain_failure", "ok-3"));
+
+            DLQJournal.Entry e = j.peek();
+            assertEquals("ok-1", e.body());
+            j.commit(e);
+            assertEquals("ok-3", j.peek().body());
+        }
+    }
+
+    @Test
+    void corrupt_segments_are_left_alone_and_new_ids_start_past_them() throws Exception {
+        // two segments with a bad header: skipped at open, left on disk for an operator
+        Files.write(dir.resolve(DLQJournal.fileName(1L)), new byte[64]);
+        Files.write(dir.resolve(DLQJournal.fileName(2L)), new byte[64]);
+
+        try (DLQJournal j = DLQJournal.open(dir, 4096, 2, false)) {
+            assertEquals(0, j.pending());
+            assertTrue(j.append("/domain_failure", "x".repeat(3000)));
+            // rolls to a fresh id instead of colliding with a skipped file
+            assertTrue(j.append("/domain_failure", "x".repeat(3000)));
+            assertEquals(2, j.segmentCount());
+        }
+
+        List<Path> files = segmentFiles();
+        assertEquals(4, files.size());
+        assertEquals(DLQJournal.fileName(3L), files.get(2).getFileName().toString());
+        assertEquals(DLQJournal.fileName(4L), files.get(3).getFileName().toString());
+    }
+
+    @Test
+    void rejects_oversize_and_when_full() throws Exception {
+        try (DLQJournal j = DLQJournal.open(dir, 4096, 1, false)) {
+            assertFalse(j.append("/domain_failure", "y".repeat(5000)));
+
+            int n = 0;
+            while (j.append("/domain_failure", "z".repeat(500))) {
+                n++;
+            }
+            assertTrue(n >= 7);
+            assertEquals(n, j.pending());
+            assertEquals(2, j.rejected());
+        }
+    }
+
+    @Test
+    void second_open_of_the_same_directory_fails_until_the_first_closes() throws Exception {
+        try (DLQJournal j = DLQJournal.open(dir, 4096, 2, false)) {
+            assertTrue(j.append("/domain_failure", "held"));
+
+            IOException e = assertThrows(IOException.class, () -> DLQJournal.open(dir, 4096, 2, false));
+            assertTrue(e.getMessage().contains("another instance"), e.getMessage());
+        }
+
+        try (DLQJournal j = DLQJournal.open(dir, 4096, 2, false)) {
+            assertEquals("held", j.peek().body());
+        }
+    }
+
+    //------------------------------------------------------------------------------------------------
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().endsWith(DLQJournal.SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
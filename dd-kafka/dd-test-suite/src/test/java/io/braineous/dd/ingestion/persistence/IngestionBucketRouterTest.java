@@ -0,0 +1,152 @@
+package io.braineous.dd.ingestion.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestionBucketRouterTest {
+
+    private static final List<String> NAMES = Arrays.asList(
+            "ingestion",
+            "ingestion_2026010509",
+            "ingestion_2026010511",
+            "ingestion_2026010510",
+            "ingestion_20260105",
+            "dlq_system"
+    );
+
+    @Test
+    void none_routes_to_legacy_collection() {
+        IngestionBucketRouter r = new IngestionBucketRouter(IngestionBucketRouter.Granularity.NONE, 24, 2);
+
+        assertFalse(r.isPartitioned());
+        assertEquals("ingestion", r.bucketFor(Instant.parse("2026-01-05T10:15:00Z")));
+        assertTrue(r.sortAscending(NAMES).isEmpty());
+        assertTrue(r.expired(NAMES, Instant.parse("2027-01-01T00:00:00Z")).isEmpty());
+    }
+
+    @Test
+    void bucket_names_are_utc_stamped() {
+        IngestionBucketRouter daily = new IngestionBucketRouter(IngestionBucketRouter.Granularity.DAILY, 0, 2);
+        IngestionBucketRouter hourly = new IngestionBucketRouter(IngestionBucketRouter.Granularity.HOURLY, 0, 2);
+
+        Instant t = Instant.parse("2026-01-05T10:15:00Z");
+        assertEquals("ingestion_20260105", daily.bucketFor(t));
+        assertEquals("ingestion_2026010510", hourly.bucketFor(t));
+
+        assertEquals(Instant.parse("2026-01-05T10:00:00Z"), hourly.bucketStart("ingestion_2026010510"));
+        assertEquals(Instant.parse("2026-01-05T11:00:00Z"), hourly.bucketEnd("ingestion_2026010510"));
+        assertEquals(Instant.parse("2026-01-06T00:00:00Z"), daily.bucketEnd("ingestion_20260105"));
+
+        // other granularity / foreign collections are not buckets
+        assertNull(hourly.bucketStart("ingestion_20260105"));
+        assertNull(hourly.bucketStart("ingestion"));
+        assertNull(hourly.bucketStart("ingestion_2026O10510"));
+    }
+
+    @Test
+    void overlapping_selects_only_window_buckets_oldest_first() {
+        IngestionBucketRouter r = new IngestionBucketRouter(IngestionBucketRouter.Granularity.HOURLY, 0, 2);
+
+        assertEquals(
+                Arrays.asList("ingestion_2026010509", "ingestion_2026010510", "ingestion_2026010511"),
+                r.sortAscending(NAMES)
+        );
+
+        // [10:30, 11:00) touches only the 10h bucket: exclusive end
+        assertEquals(
+                Arrays.asList("ingestion_2026010510"),
+                r.overlapping(NAMES, Instant.parse("2026-01-05T10:30:00Z"), Instant.parse("2026-01-05T11:00:00Z"))
+        );
+
+        assertEquals(
+                Arrays.asList("ingestion_2026010509", "ingestion_2026010510", "ingestion_2026010511"),
+                r.overlapping(NAMES, Instant.parse("2026-01-05T09:59:00Z"), Instant.parse("2026-01-05T11:01:00Z"))
+        );
+
+        assertTrue(r.overlapping(NAMES, Instant.parse("2026-01-05T11:00:00Z"), Instant.parse("2026-01-05T10:00:00Z")).isEmpty());
+    }
+
+    @Test
+    void newestFirst_is_capped_by_limit() {
+        IngestionBucketRouter r = new IngestionBucketRouter(IngestionBucketRouter.Granularity.HOURLY, 0, 2);
+
+        assertEquals(
+                Arrays.asList("ingestion_2026010511", "ingestion_2026010510"),
+                r.newestFirst(NAMES, r.lookbackBuckets())
+        );
+        assertEquals(3, r.newestFirst(NAMES, 0).size());
+    }
+
+    @Test
+    void expired_drops_whole_buckets_past_retention() {
+        IngestionBucketRouter r = new IngestionBucketRouter(IngestionBucketRouter.Granularity.HOURLY, 48, 2);
+
+        // cutoff = 2026-01-05T10:00Z: the 09h bucket ended exactly at cutoff
+        assertEquals(
+                Arrays.asList("ingestion_2026010509"),
+                r.expired(NAMES, Instant.parse("2026-01-07T10:00:00Z"))
+        );
+
+        IngestionBucketRouter keepAll = new IngestionBucketRouter(IngestionBucketRouter.Granularity.HOURLY, 0, 2);
+        assertTrue(keepAll.expired(NAMES, Instant.parse("2030-01-01T00:00:00Z")).isEmpty());
+    }
+
+    @Test
+    void bucket_names_are_cached_until_the_current_bucket_is_missing_or_the_refresh_is_due() {
+        IngestionBucketRouter r = new IngestionBucketRouter(IngestionBucketRouter.Granularity.HOURLY, 0, 2, 60_000L);
+        List<String> live = new java.util.ArrayList<String>(Arrays.asList("ingestion_2026010509", "ingestion_2026010510"));
+        int[] lists = new int[1];
+        java.util.function.Supplier<Iterable<String>> lister = () -> {
+            lists[0]++;
+            return new java.util.ArrayList<String>(live);
+        };
+
+        long at10 = Instant.parse("2026-01-05T10:15:00Z").toEpochMilli();
+        assertEquals(2, r.existingBuckets(lister, at10).size());
+        assertEquals(2, r.existingBuckets(lister, at10 + 5_000L).size());
+        assertEquals(1, lists[0]);
+
+        // next hour: the current bucket is not cached yet, re-list (at most once a second)
+        long at11 = Instant.parse("2026-01-05T11:00:00Z").toEpochMilli();
+        live.add("ingestion_2026010511");
+        assertEquals(3, r.existingBuckets(lister, at11).size());
+        assertEquals(2, lists[0]);
+
+        // dropped elsewhere: seen once the refresh interval passes
+        live.remove("ingestion_2026010509");
+        assertEquals(3, r.existingBuckets(lister, at11 + 1_000L).size());
+        assertEquals(List.of("ingestion_2026010510", "ingestion_2026010511"),
+                r.existingBuckets(lister, at11 + 60_000L));
+        assertEquals(3, lists[0]);
+    }
+
+    @Test
+    void legacy_collection_is_seen_from_the_same_listing_but_is_never_a_bucket() {
+        IngestionBucketRouter r = new IngestionBucketRouter(IngestionBucketRouter.Granularity.HOURLY, 1, 2, 60_000L);
+        List<String> live = new java.util.ArrayList<String>(Arrays.asList("ingestion", "ingestion_2026010510"));
+        int[] lists = new int[1];
+        java.util.function.Supplier<Iterable<String>> lister = () -> {
+            lists[0]++;
+            return new java.util.ArrayList<String>(live);
+        };
+
+        long at10 = Instant.parse("2026-01-05T10:15:00Z").toEpochMilli();
+        assertTrue(r.hasLegacy(lister, at10));
+        assertEquals(List.of("ingestion_2026010510"), r.existingBuckets(lister, at10));
+        assertEquals(1, lists[0]);
+
+        // retention never picks it
+        assertEquals(List.of("ingestion_2026010510"),
+                r.expired(live, Instant.parse("2026-01-06T00:00:00Z")));
+
+        // dropped by hand: gone after the next refresh
+        live.remove("ingestion");
+        assertTrue(r.hasLegacy(lister, at10 + 1_000L));
+        assertFalse(r.hasLegacy(lister, at10 + 60_000L));
+    }
+}
@@ -0,0 +1,122 @@
+package io.braineous.dd.ingestion.persistence;
+
+import ai.braineous.rag.prompt.observe.Console;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestionHotCacheTest {
+
+    @Test
+    void get_miss_then_put_then_hit_and_stats() {
+        IngestionHotCache cache = new IngestionHotCache(true, 60_000L, 1024L * 1024L);
+
+        assertNull(cache.get("DD-ING-1"));
+
+        cache.put("DD-ING-1", event("DD-ING-1", "{\"a\":1}"));
+
+        JsonObject hit = cache.get("DD-ING-1");
+        assertNotNull(hit);
+        assertEquals("DD-ING-1", hit.get("ingestionId").getAsString());
+
+        JsonObject stats = cache.stats();
+        Console.log("ut_hot_cache_stats", stats);
+
+        assertEquals(1L, stats.get("hits").getAsLong());
+        assertEquals(1L, stats.get("misses").getAsLong());
+        assertEquals(0.5d, stats.get("hitRate").getAsDouble(), 0.0001d);
+        assertEquals(1, stats.get("size").getAsInt());
+    }
+
+    @Test
+    void get_returnsDefensiveCopy() {
+        IngestionHotCache cache = new IngestionHotCache(true, 60_000L, 1024L * 1024L);
+        cache.put("DD-ING-1", event("DD-ING-1", "{\"a\":1}"));
+
+        JsonObject first = cache.get("DD-ING-1");
+        first.addProperty("payload", "mutated");
+
+        assertEquals("{\"a\":1}", cache.get("DD-ING-1").get("payload").getAsString());
+    }
+
+    @Test
+    void ttl_expires_entries() {
+        final long[] now = new long[]{1_000L};
+        IngestionHotCache cache = new IngestionHotCache(true, 100L, 1024L * 1024L) {
+            @Override
+            long nowMs() {
+                return now[0];
+            }
+        };
+
+        cache.put("DD-ING-1", event("DD-ING-1", "{}"));
+        assertNotNull(cache.get("DD-ING-1"));
+
+        now[0] = 1_100L;
+        assertNull(cache.get("DD-ING-1"));
+        assertEquals(1L, cache.stats().get("expirations").getAsLong());
+    }
+
+    @Test
+    void weight_bound_evicts_lru_first() {
+        String payload = repeat('x', 1000);
+
+        // room for ~2 entries of this size
+        IngestionHotCache cache = new IngestionHotCache(true, 60_000L, 5_000L);
+
+        cache.put("A", event("A", payload));
+        cache.put("B", event("B", payload));
+
+        // touch A so B becomes least recently used
+        assertNotNull(cache.get("A"));
+
+        cache.put("C", event("C", payload));
+
+        assertNotNull(cache.get("A"));
+        assertNull(cache.get("B"));
+        assertNotNull(cache.get("C"));
+
+        JsonObject stats = cache.stats();
+        Console.log("ut_hot_cache_evict_stats", stats);
+        assertTrue(stats.get("evictions").getAsLong() >= 1L);
+        assertTrue(stats.get("weight").getAsLong() <= 5_000L);
+    }
+
+    @Test
+    void disabled_cache_is_noop() {
+        IngestionHotCache cache = new IngestionHotCache(false, 60_000L, 1024L * 1024L);
+
+        cache.put("DD-ING-1", event("DD-ING-1", "{}"));
+
+        assertNull(cache.get("DD-ING-1"));
+        assertFalse(cache.stats().get("enabled").getAsBoolean());
+    }
+
+    @Test
+    void default_is_off_with_a_short_ttl() {
+        IngestionHotCache cache = new IngestionHotCache();
+
+        assertFalse(cache.isEnabled());
+        assertEquals(5_000L, cache.stats().get("ttlMs").getAsLong());
+    }
+
+    //------------------------------------------------------------------
+    private static JsonObject event(String ingestionId, String payload) {
+        JsonObject e = new JsonObject();
+        e.addProperty("ingestionId", ingestionId);
+        e.addProperty("createdAt", "2026-01-05T10:00:01Z");
+        e.addProperty("snapshotHash", "snap-" + ingestionId);
+        e.addProperty("payloadHash", "hash-" + ingestionId);
+        e.addProperty("payload", payload);
+        return e;
+    }
+
+    private static String repeat(char c, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
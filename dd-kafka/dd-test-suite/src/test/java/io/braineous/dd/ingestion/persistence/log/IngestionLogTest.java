@@ -0,0 +1,238 @@
+package io.braineous.dd.ingestion.persistence.log;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestionLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void put_get_and_touch_keeps_original_content() throws Exception {
+        long[] now = new long[]{1_000L};
+        try (IngestionLog log = IngestionLog.open(dir, cfg(1024L * 1024L, 0L, 0L), () -> now[0])) {
+
+            log.put("DD-ING-1", "snap-1", "hash-1", "{\"a\":1}");
+
+            now[0] = 2_000L;
+            LogRecord touched = log.put("DD-ING-1", "snap-other", "hash-other", "{\"b\":2}");
+
+            assertEquals("snap-1", touched.snapshotHash());
+            assertEquals("{\"a\":1}", touched.payload());
+            assertEquals(2_000L, touched.createdAtMs());
+
+            LogRecord got = log.get("DD-ING-1");
+            assertEquals(2_000L, got.createdAtMs());
+            assertEquals("DD-ING-1", log.idForSnapshot("snap-1"));
+            assertEquals(1, log.liveCount());
+            assertNull(log.get("DD-ING-missing"));
+        }
+    }
+
+    @Test
+    void scan_is_window_bounded_ordered_and_skips_dead_records() throws Exception {
+        long[] now = new long[]{1_000L};
+        // tiny index interval + segments so the scan crosses segment and index boundaries
+        try (IngestionLog log = IngestionLog.open(dir, cfg(128L, 0L, 1L), () -> now[0])) {
+
+            for (int i = 0; i < 10; i++) {
+                now[0] = 1_000L + (i * 100L);
+                log.put("DD-ING-" + i, "snap-" + i, "hash-" + i, "{\"i\":" + i + "}");
+            }
+
+            // touch #2: moves to the tail, old position is dead
+            now[0] = 5_000L;
+            log.put("DD-ING-2", null, null, null);
+
+            assertTrue(log.segmentCount() > 1);
+
+            List<String> ids = new ArrayList<String>();
+            log.scan(1_300L, 1_700L, r -> ids.add(r.ingestionId()));
+            assertEquals(List.of("DD-ING-3", "DD-ING-4", "DD-ING-5", "DD-ING-6"), ids);
+
+            ids.clear();
+            log.scan(1_000L, 6_000L, r -> ids.add(r.ingestionId()));
+            assertEquals(10, ids.size());
+            assertEquals("DD-ING-2", ids.get(ids.size() - 1));
+            assertEquals(1, ids.stream().filter("DD-ING-2"::equals).count());
+        }
+    }
+
+    @Test
+    void reopen_rebuilds_index_and_the_writer_cuts_the_torn_tail() throws Exception {
+        long[] now = new long[]{1_000L};
+        try (IngestionLog log = IngestionLog.open(dir, cfg(1024L * 1024L, 0L, 0L), () -> now[0])) {
+            log.put("DD-ING-1", "snap-1", "hash-1", "{\"a\":1}");
+            log.put("DD-ING-2", "snap-2", "hash-2", "{\"a\":2}");
+        }
+
+        Path seg = onlySegment();
+        long goodSize = Files.size(seg);
+
+        // simulate a crash mid-append: half a frame at the tail
+        try (FileChannel ch = FileChannel.open(seg, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer junk = ByteBuffer.allocate(12);
+            junk.putInt(500).putInt(42).putInt(7);
+            junk.flip();
+            ch.write(junk);
+        }
+
+        now[0] = 3_000L;
+        try (IngestionLog log = IngestionLog.open(dir, cfg(1024L * 1024L, 0L, 0L), () -> now[0])) {
+            // opening (as a reader) stops at the last valid frame and leaves the file alone
+            assertEquals(goodSize + 12, Files.size(seg));
+            assertEquals(2, log.liveCount());
+            assertEquals("{\"a\":2}", log.get("DD-ING-2").payload());
+            assertEquals("DD-ING-1", log.idForSnapshot("snap-1"));
+
+            // the first put takes writer.lock and cuts the tail before appending
+            log.put("DD-ING-3", "snap-3", "hash-3", "{\"a\":3}");
+            assertEquals(3, log.liveCount());
+            assertEquals("{\"a\":3}", log.get("DD-ING-3").payload());
+        }
+
+        try (IngestionLog log = IngestionLog.open(dir, cfg(1024L * 1024L, 0L, 0L), () -> now[0])) {
+            assertEquals(3, log.liveCount());
+            assertEquals("{\"a\":3}", log.get("DD-ING-3").payload());
+        }
+    }
+
+    @Test
+    void retention_drops_whole_sealed_segments() throws Exception {
+        long[] now = new long[]{1_000L};
+        // roll every 1s, keep 5s
+        try (IngestionLog log = IngestionLog.open(dir, cfg(1024L * 1024L, 1_000L, 0L, 5_000L), () -> now[0])) {
+
+            log.put("DD-ING-old", "snap-old", "hash-old", "{}");
+
+            now[0] = 2_500L;
+            log.put("DD-ING-mid", "snap-mid", "hash-mid", "{}");
+            assertEquals(2, log.segmentCount());
+
+            now[0] = 9_000L;
+            log.put("DD-ING-new", "snap-new", "hash-new", "{}");
+
+            // old (ts 1000) and mid (ts 2500) segments are sealed and older than 9000 - 5000
+            assertEquals(1, log.segmentCount());
+            assertNull(log.get("DD-ING-old"));
+            assertNull(log.get("DD-ING-mid"));
+            assertNull(log.idForSnapshot("snap-old"));
+            assertNotNull(log.get("DD-ING-new"));
+        }
+    }
+
+    @Test
+    void reader_instance_catches_up_with_tail_appends_and_rolled_segments() throws Exception {
+        long[] now = new long[]{1_000L};
+        // tiny segments: the writer rolls while the reader is open
+        try (IngestionLog writer = IngestionLog.open(dir, cfg(256L, 0L, 0L), () -> now[0])) {
+            writer.put("DD-ING-1", "snap-1", "hash-1", "{\"a\":1}");
+
+            try (IngestionLog reader = IngestionLog.open(dir, cfg(256L, 0L, 0L), () -> now[0])) {
+                assertNotNull(reader.get("DD-ING-1"));
+
+                for (int i = 2; i <= 8; i++) {
+                    now[0] = 1_000L + i;
+                    writer.put("DD-ING-" + i, "snap-" + i, "hash-" + i, "{\"a\":" + i + "}");
+                }
+                assertTrue(writer.segmentCount() > 1);
+
+                assertEquals("{\"a\":8}", reader.get("DD-ING-8").payload());
+                assertEquals("DD-ING-5", reader.idForSnapshot("snap-5"));
+
+                List<String> ids = new ArrayList<String>();
+                reader.scan(0L, 10_000L, r -> ids.add(r.ingestionId()));
+                assertEquals(8, ids.size());
+                assertEquals("DD-ING-1", ids.get(0));
+                assertEquals("DD-ING-8", ids.get(7));
+            }
+        }
+    }
+
+    @Test
+    void second_writer_is_refused() throws Exception {
+        try (IngestionLog writer = IngestionLog.open(dir, cfg(1024L * 1024L, 0L, 0L));
+             IngestionLog other = IngestionLog.open(dir, cfg(1024L * 1024L, 0L, 0L))) {
+
+            writer.put("DD-ING-1", "snap-1", "hash-1", "{}");
+
+            assertThrows(IOException.class, () -> other.put("DD-ING-2", "snap-2", "hash-2", "{}"));
+            assertNotNull(other.get("DD-ING-1"));
+        }
+    }
+
+    @Test
+    void reader_drops_segments_retired_by_the_writer() throws Exception {
+        long[] now = new long[]{1_000L};
+        LogConfig cfg = cfg(1024L * 1024L, 1_000L, 0L, 5_000L);
+        try (IngestionLog writer = IngestionLog.open(dir, cfg, () -> now[0])) {
+            writer.put("DD-ING-old", "snap-old", "hash-old", "{}");
+
+            try (IngestionLog reader = IngestionLog.open(dir, cfg, () -> now[0])) {
+                assertNotNull(reader.get("DD-ING-old"));
+
+                now[0] = 9_000L;
+                writer.put("DD-ING-new", "snap-new", "hash-new", "{}");
+                assertEquals(1, writer.segmentCount());
+
+                // a reader never deletes: retention is the writer's
+                assertEquals(0, reader.enforceRetention(now[0]));
+
+                assertNotNull(reader.get("DD-ING-new"));
+                assertNull(reader.get("DD-ING-old"));
+                assertNull(reader.idForSnapshot("snap-old"));
+                assertEquals(1, reader.segmentCount());
+            }
+        }
+    }
+
+    @Test
+    void scan_pages_through_large_windows() throws Exception {
+        long[] now = new long[]{1_000L};
+        try (IngestionLog log = IngestionLog.open(dir, cfg(64L * 1024L, 0L, 0L), () -> now[0])) {
+            for (int i = 0; i < 1_234; i++) {
+                now[0] = 1_000L + i;
+                log.put("DD-ING-" + i, "snap-" + i, "hash-" + i, "{}");
+            }
+
+            List<String> ids = new ArrayList<String>();
+            log.scan(0L, 1_000_000L, r -> ids.add(r.ingestionId()));
+
+            assertEquals(1_234, ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                assertEquals("DD-ING-" + i, ids.get(i));
+            }
+        }
+    }
+
+    //------------------------------------------------------------------
+    private static LogConfig cfg(long segmentBytes, long segmentMs, long indexInterval) {
+        return cfg(segmentBytes, segmentMs, indexInterval, 0L);
+    }
+
+    private static LogConfig cfg(long segmentBytes, long segmentMs, long indexInterval, long retentionMs) {
+        return new LogConfig("unused", segmentBytes, segmentMs, retentionMs,
+                indexInterval <= 0L ? 4096L : indexInterval, false);
+    }
+
+    private Path onlySegment() throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            List<Path> all = s.filter(LogSegment::isSegmentFile).toList();
+            assertEquals(1, all.size());
+            return all.get(0);
+        }
+    }
+}
@@ -86,6 +86,35 @@ public class ProcessorOrchestratorTest {
         Console.log("test.processor.orch.store.calls", store.storeCalls());
     }
 
+    @org.junit.jupiter.api.Test
+    void orchestrate_withShadowPoster_posts_there_and_not_to_live_transport() {
+        HttpPoster live = new HttpPoster() {
+            @Override
+            public int post(String endpoint, String jsonBody) {
+                throw new AssertionError("live transport must not be used");
+            }
+        };
+        this.orch.setHttpPoster(live);
+
+        java.util.List<String> shadowBodies = new java.util.ArrayList<>();
+        HttpPoster shadow = (endpoint, jsonBody) -> {
+            shadowBodies.add(jsonBody);
+            return 202;
+        };
+
+        JsonObject ddEvent = buildEvent_noKey("requests", 3, 48193L, 1767114000123L, "AAECAwQFBgcICQ==");
+
+        ProcessorResult pr = orch.orchestrate(ddEvent, shadow);
+
+        Console.log("test.processor.orch.shadow.result", pr == null ? null : pr.toJsonString());
+
+        // the live poster throws an Error (not swallowed): reaching here means it was never used
+        assertNotNull(pr);
+        assertTrue(pr.isOk(), "Expected ok=true but got ok=false: " + pr.toJsonString());
+        assertEquals(1, shadowBodies.size());
+        assertTrue(shadowBodies.get(0).contains(pr.getIngestionId()));
+    }
+
     @org.junit.jupiter.api.Test
     void orchestrate_httpPoster_exception_returns_fail_and_does_not_persist() {
         InMemoryIngestionStore store = (InMemoryIngestionStore) eventOrch.getStore();
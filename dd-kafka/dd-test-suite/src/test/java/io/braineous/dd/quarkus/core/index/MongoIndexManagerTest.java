@@ -0,0 +1,67 @@
+package io.braineous.dd.quarkus.core.index;
+
+import io.braineous.dd.dlq.persistence.DLQQueryShapes;
+import io.braineous.dd.ingestion.persistence.IngestionQueryShapes;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MongoIndexManagerTest {
+
+    @Test
+    void winningPlan_collscan_isDetected_rejectedPlans_ignored() {
+        Document explain = Document.parse("{"
+                + "\"queryPlanner\": {"
+                + "  \"winningPlan\": {\"stage\": \"SORT\", \"inputStage\": {\"stage\": \"COLLSCAN\", \"direction\": \"forward\"}},"
+                + "  \"rejectedPlans\": [{\"stage\": \"FETCH\", \"inputStage\": {\"stage\": \"IXSCAN\", \"indexName\": \"x_1\"}}]"
+                + "}}");
+
+        assertEquals(Arrays.asList("SORT", "COLLSCAN"), MongoIndexManager.winningPlanStages(explain));
+        assertTrue(MongoIndexManager.winningPlanIndexes(explain).isEmpty());
+    }
+
+    @Test
+    void winningPlan_ixscan_reportsIndex_sbeLayout() {
+        // 7.x slot-based engine nests the classic tree under queryPlan
+        Document explain = Document.parse("{"
+                + "\"queryPlanner\": {"
+                + "  \"winningPlan\": {"
+                + "    \"queryPlan\": {\"stage\": \"FETCH\", \"inputStage\": {\"stage\": \"IXSCAN\", \"indexName\": \"ingestionId_1\"}},"
+                + "    \"slotBasedPlan\": {\"stages\": \"[1] cfilter ...\"}"
+                + "  }"
+                + "}}");
+
+        List<String> stages = MongoIndexManager.winningPlanStages(explain);
+        assertEquals(Arrays.asList("FETCH", "IXSCAN"), stages);
+        assertFalse(stages.contains("COLLSCAN"));
+        assertEquals(Arrays.asList("ingestionId_1"), MongoIndexManager.winningPlanIndexes(explain));
+    }
+
+    @Test
+    void winningPlan_missing_isEmpty() {
+        assertTrue(MongoIndexManager.winningPlanStages(null).isEmpty());
+        assertTrue(MongoIndexManager.winningPlanStages(new Document("ok", 1)).isEmpty());
+    }
+
+    @Test
+    void declared_shapes_cover_every_store_query() {
+        List<QueryShape> ing = IngestionQueryShapes.shapesFor("ingestion");
+        assertEquals(4, ing.size());
+        assertTrue(ing.stream().anyMatch(s -> s.indexKeys().containsKey("snapshotHash")));
+        assertTrue(ing.stream().anyMatch(s -> s.indexKeys().containsKey("payloadHash")));
+        assertTrue(ing.stream().allMatch(s -> "ingestion".equals(s.collection())));
+
+        List<QueryShape> dlq = DLQQueryShapes.shapesFor("dlq_domain");
+        assertTrue(dlq.stream().anyMatch(s ->
+                s.indexKeys().containsKey("dlqId") && s.indexOptions().isUnique()));
+        assertTrue(dlq.stream().anyMatch(s -> Integer.valueOf(-1).equals(s.indexKeys().get("createdAt"))));
+
+        QueryShape moved = ing.get(0).on("ingestion_20260105");
+        assertEquals("ingestion_20260105", moved.collection());
+        assertEquals(ing.get(0).id(), moved.id());
+    }
+}
@@ -0,0 +1,54 @@
+package io.braineous.dd.replay.persistence;
+
+import io.braineous.dd.replay.model.ReplayEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KafkaReplaySourceTest {
+
+    @Test
+    void explicit_offsets_win_and_are_clamped_to_the_partition() {
+        // [10, 20) inside [0, 100)
+        assertArrayEquals(new long[]{10L, 20L}, KafkaReplaySource.range(0L, 100L, 10L, 20L, 50L, 60L));
+        // aged out below beginning, past the end at start time
+        assertArrayEquals(new long[]{40L, 100L}, KafkaReplaySource.range(40L, 100L, 5L, 500L, null, null));
+        // open ended
+        assertArrayEquals(new long[]{10L, 100L}, KafkaReplaySource.range(0L, 100L, 10L, null, null, null));
+    }
+
+    @Test
+    void time_resolved_offsets_apply_without_explicit_ones() {
+        assertArrayEquals(new long[]{50L, 60L}, KafkaReplaySource.range(0L, 100L, null, null, 50L, 60L));
+        // nothing at/after fromTime resolves to the end: empty range
+        assertArrayEquals(new long[]{100L, 100L}, KafkaReplaySource.range(0L, 100L, null, null, 100L, 100L));
+        // inverted never goes negative
+        assertArrayEquals(new long[]{70L, 70L}, KafkaReplaySource.range(0L, 100L, 70L, 30L, null, null));
+    }
+
+    @Test
+    void record_maps_to_event_with_topic_partition_offset_id() {
+        ConsumerRecord<String, String> r = new ConsumerRecord<>("ingestion", 3, 42L, "k", "{\"a\":1}");
+
+        ReplayEvent e = KafkaReplaySource.toEvent(r);
+
+        assertEquals("ingestion-3@42", e.id());
+        assertEquals("{\"a\":1}", e.payload());
+        // this constructor carries no timestamp (-1)
+        assertNull(e.timestamp());
+    }
+
+    @Test
+    void array_wrapped_record_replays_its_first_event_like_ingestion() {
+        ConsumerRecord<String, String> r = new ConsumerRecord<>("ingestion", 0, 7L, "k", "[{\"a\":1},{\"b\":2}]");
+
+        assertEquals("{\"a\":1}", KafkaReplaySource.toEvent(r).payload());
+
+        // not an event array, or not JSON at all: passed through for the bad-payload path
+        assertEquals("[]", KafkaReplaySource.unwrap("[]"));
+        assertEquals("[1,2]", KafkaReplaySource.unwrap("[1,2]"));
+        assertEquals("[not-json", KafkaReplaySource.unwrap("[not-json"));
+        assertEquals("{\"a\":1}", KafkaReplaySource.unwrap("{\"a\":1}"));
+    }
+}
@@ -0,0 +1,85 @@
+package io.braineous.dd.replay.persistence;
+
+import io.braineous.dd.ingestion.persistence.log.IngestionLog;
+import io.braineous.dd.ingestion.persistence.log.LogConfig;
+import io.braineous.dd.ingestion.persistence.log.LogIngestionStore;
+import io.braineous.dd.replay.model.ReplayCheckpoint;
+import io.braineous.dd.replay.model.ReplayEvent;
+import io.braineous.dd.replay.model.ReplayRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogReplayStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void stream_matches_find_and_resumes_after_the_checkpoint() throws Exception {
+        try (IngestionLog log = IngestionLog.open(dir, new LogConfig("unused", 256L, 0L, 0L, 64L, false))) {
+            for (int i = 0; i < 20; i++) {
+                log.put("DD-ING-" + i, "snap-" + i, "hash-" + i, "{\"i\":" + i + "}");
+            }
+
+            LogReplayStore store = new LogReplayStore();
+            store.ingestionStore = new LogIngestionStore(log);
+
+            ReplayRequest request = new ReplayRequest(
+                    Instant.now().minusSeconds(60).toString(),
+                    Instant.now().plusSeconds(60).toString());
+
+            List<ReplayEvent> found = store.findByTimeWindow(request);
+            List<ReplayEvent> streamed = new ArrayList<ReplayEvent>();
+            assertEquals(20, store.streamByTimeWindow(request, streamed::add));
+            assertEquals(ids(found), ids(streamed));
+
+            List<ReplayEvent> resumed = new ArrayList<ReplayEvent>();
+            int n = store.streamByTimeWindow(request, ReplayCheckpoint.of(streamed.get(6)), resumed::add);
+            assertEquals(13, n);
+            assertEquals(ids(streamed.subList(7, 20)), ids(resumed));
+
+            assertEquals(0, store.streamByTimeWindow(new ReplayRequest("bad", "window"), resumed::add));
+        }
+    }
+
+    @Test
+    void resume_filter_holds_the_checkpoint_millisecond_until_its_id_is_seen() {
+        List<ReplayEvent> out = new ArrayList<ReplayEvent>();
+        LogReplayStore.ResumeFilter f = new LogReplayStore.ResumeFilter(100L, "b", out::add);
+
+        assertEquals(0, f.accept(99L, ev("old")));
+        assertEquals(0, f.accept(100L, ev("a")));
+        assertEquals(0, f.accept(100L, ev("b")));
+        assertEquals(1, f.accept(100L, ev("c")));
+        assertEquals(1, f.accept(101L, ev("d")));
+        assertEquals(0, f.flush());
+        assertEquals(List.of("c", "d"), ids(out));
+
+        // checkpoint id gone from the log: the held millisecond is replayed, nothing is lost
+        out.clear();
+        f = new LogReplayStore.ResumeFilter(100L, "gone", out::add);
+        f.accept(100L, ev("a"));
+        f.accept(100L, ev("b"));
+        assertEquals(3, f.accept(101L, ev("c")));
+        assertEquals(List.of("a", "b", "c"), ids(out));
+    }
+
+    private static ReplayEvent ev(String id) {
+        return new ReplayEvent(id, "{}", Instant.EPOCH);
+    }
+
+    private static List<String> ids(List<ReplayEvent> events) {
+        List<String> out = new ArrayList<String>();
+        for (ReplayEvent e : events) {
+            out.add(e.id());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,45 @@
+package io.braineous.dd.replay.services;
+
+import io.braineous.dd.replay.model.ReplayCheckpoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompletionWatermarkTest {
+
+    @Test
+    void mark_waits_for_every_earlier_event() {
+        CompletionWatermark w = new CompletionWatermark();
+        CompletionWatermark.Slot a = w.register(cp("a", 1));
+        CompletionWatermark.Slot b = w.register(cp("b", 2));
+        CompletionWatermark.Slot c = w.register(cp("c", 3));
+
+        // c and b finish first: nothing below them is done yet
+        assertFalse(w.complete(c));
+        assertFalse(w.complete(b));
+        assertNull(w.mark());
+        assertEquals(0, w.processed());
+
+        assertTrue(w.complete(a));
+        assertEquals("c", w.mark().id());
+        assertEquals(3, w.processed());
+    }
+
+    @Test
+    void events_without_checkpoint_count_but_keep_previous_mark() {
+        CompletionWatermark w = new CompletionWatermark();
+        CompletionWatermark.Slot a = w.register(cp("a", 1));
+        CompletionWatermark.Slot skipped = w.register(null);
+
+        assertTrue(w.complete(a));
+        assertTrue(w.complete(skipped));
+        assertEquals("a", w.mark().id());
+        assertEquals(2, w.processed());
+    }
+
+    private static ReplayCheckpoint cp(String id, int second) {
+        return new ReplayCheckpoint(Instant.parse("2026-01-05T10:00:00Z").plusSeconds(second), id);
+    }
+}
@@ -0,0 +1,137 @@
+package io.braineous.dd.replay.services;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.braineous.dd.replay.model.ReplayEvent;
+import io.braineous.dd.replay.model.ReplayRequest;
+import io.braineous.dd.replay.persistence.ReplayStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeterminismVerifierTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-05T10:00:00Z");
+
+    @Test
+    void reports_only_mismatches_and_errors_then_summary() throws Exception {
+        List<ReplayEvent> events = new ArrayList<>();
+        events.add(stored("a", "h-a"));          // consistent
+        events.add(stored("b", "stale"));        // mismatch: recomputes to h-b
+        events.add(stored("c", null));           // no stored hash: skipped
+        events.add(stored("boom", "h-boom"));    // recompute throws
+        events.add(new ReplayEvent("bad", "not json", T0));
+
+        DeterminismVerifier v = new DeterminismVerifier() {
+            @Override
+            String recompute(String ddEventStr) {
+                JsonObject ev = JsonParser.parseString(ddEventStr).getAsJsonObject();
+                // orchestration output must not leak into the recomputation
+                assertFalse(ev.has("view"));
+                assertFalse(ev.has("ingestionId"));
+
+                String id = ev.get("id").getAsString();
+                if ("boom".equals(id)) {
+                    throw new IllegalStateException("cgo");
+                }
+                return "h-" + id;
+            }
+        };
+        v.setStore(new StreamingStore(events));
+
+        StringWriter out = new StringWriter();
+        JsonObject summary = v.verifyByTimeWindow(new ReplayRequest(), out);
+
+        String[] lines = out.toString().trim().split("\n");
+        assertEquals(4, lines.length);
+
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < lines.length - 1; i++) {
+            JsonObject line = JsonParser.parseString(lines[i]).getAsJsonObject();
+            types.add(line.get("type").getAsString() + ":" + line.get("id").getAsString());
+            if ("b".equals(line.get("id").getAsString())) {
+                assertEquals("stale", line.get("storedSnapshotHash").getAsString());
+                assertEquals("h-b", line.get("snapshotHash").getAsString());
+                assertEquals("DD-ING-b", line.get("ingestionId").getAsString());
+            }
+        }
+        assertTrue(types.containsAll(List.of("mismatch:b", "error:boom", "error:bad")));
+
+        JsonObject last = JsonParser.parseString(lines[3]).getAsJsonObject();
+        assertEquals(summary, last);
+        assertEquals("summary", last.get("type").getAsString());
+        assertEquals(5, last.get("matched").getAsInt());
+        assertEquals(2, last.get("verified").getAsInt());
+        assertEquals(1, last.get("consistent").getAsInt());
+        assertEquals(1, last.get("mismatched").getAsInt());
+        assertEquals(2, last.get("errors").getAsInt());
+        assertEquals(1, last.get("skipped").getAsInt());
+    }
+
+    @Test
+    void original_event_drops_what_orchestration_appended() {
+        JsonObject stored = JsonParser.parseString(
+                "{\"kafka\":{\"topic\":\"t\"},\"payload\":{\"value\":\"AA==\"},"
+                        + "\"ingestionId\":\"DD-ING-x\",\"view\":{\"snapshotHash\":\"x\"}}").getAsJsonObject();
+
+        assertEquals("{\"kafka\":{\"topic\":\"t\"},\"payload\":{\"value\":\"AA==\"}}",
+                DeterminismVerifier.originalEvent(stored).toString());
+        assertEquals("x", DeterminismVerifier.storedSnapshotHash(stored));
+        // input untouched
+        assertTrue(stored.has("view"));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private static ReplayEvent stored(String id, String snapshotHash) {
+        JsonObject ev = new JsonObject();
+        ev.addProperty("id", id);
+        ev.addProperty("ingestionId", "DD-ING-" + id);
+        if (snapshotHash != null) {
+            JsonObject view = new JsonObject();
+            view.addProperty("snapshotHash", snapshotHash);
+            ev.add("view", view);
+        }
+        return new ReplayEvent(id, ev.toString(), T0);
+    }
+
+    private static final class StreamingStore implements ReplayStore {
+        private final List<ReplayEvent> events;
+
+        StreamingStore(List<ReplayEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public int streamByTimeWindow(ReplayRequest request, Consumer<ReplayEvent> sink) {
+            events.forEach(sink);
+            return events.size();
+        }
+
+        @Override
+        public List<ReplayEvent> findByTimeWindow(ReplayRequest request) {
+            return events;
+        }
+
+        @Override
+        public List<ReplayEvent> findByTimeObjectKey(ReplayRequest request) {
+            return List.of();
+        }
+
+        @Override
+        public List<ReplayEvent> findByDomainDlqId(ReplayRequest request) {
+            return List.of();
+        }
+
+        @Override
+        public List<ReplayEvent> findBySystemDlqId(ReplayRequest request) {
+            return List.of();
+        }
+    }
+}
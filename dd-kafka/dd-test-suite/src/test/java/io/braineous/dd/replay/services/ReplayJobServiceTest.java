@@ -0,0 +1,309 @@
+package io.braineous.dd.replay.services;
+
+import io.braineous.dd.replay.model.ReplayCheckpoint;
+import io.braineous.dd.replay.model.ReplayEvent;
+import io.braineous.dd.replay.model.ReplayJob;
+import io.braineous.dd.replay.model.ReplayRequest;
+import io.braineous.dd.replay.model.ReplayResult;
+import io.braineous.dd.replay.persistence.ReplayJobStore;
+import io.braineous.dd.replay.persistence.ReplayStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayJobServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-05T10:00:00Z");
+
+    @Test
+    void run_completes_and_persists_checkpoint_of_last_event() {
+        List<String> seen = new ArrayList<>();
+        MemJobs jobs = new MemJobs();
+        ReplayJobService svc = service(events(5), seen, jobs, null);
+
+        ReplayJob job = ReplayJob.newJob(request());
+        svc.run(job);
+
+        ReplayJob saved = jobs.findById(job.getJobId());
+        assertEquals(ReplayJob.State.COMPLETED, saved.getState());
+        assertEquals(5, saved.getProcessedCount());
+        assertEquals(5, saved.getReplayedCount());
+        assertEquals("e4", saved.getCheckpointId());
+        assertEquals(T0.plusSeconds(4), saved.getCheckpointAt());
+        assertEquals(List.of("e0", "e1", "e2", "e3", "e4"), seen);
+    }
+
+    @Test
+    void resumed_job_starts_after_checkpoint_and_keeps_cumulative_counts() {
+        List<String> seen = new ArrayList<>();
+        MemJobs jobs = new MemJobs();
+        ReplayJobService svc = service(events(5), seen, jobs, null);
+
+        ReplayJob job = ReplayJob.newJob(request());
+        job.setCheckpointAt(T0.plusSeconds(2));
+        job.setCheckpointId("e2");
+        job.setProcessedCount(3);
+        job.setReplayedCount(3);
+
+        svc.run(job);
+
+        ReplayJob saved = jobs.findById(job.getJobId());
+        assertEquals(List.of("e3", "e4"), seen);
+        assertEquals(ReplayJob.State.COMPLETED, saved.getState());
+        assertEquals(5, saved.getProcessedCount());
+        assertEquals(5, saved.getReplayedCount());
+    }
+
+    @Test
+    void cancel_requested_mid_run_stops_before_next_event() {
+        List<String> seen = new ArrayList<>();
+        MemJobs jobs = new MemJobs();
+        ReplayJob job = ReplayJob.newJob(request());
+
+        // cancel while handling e1
+        ReplayJobService svc = service(events(5), seen, jobs, id -> {
+            if ("e1".equals(id)) {
+                synchronized (job) {
+                    job.setCancelRequested(true);
+                }
+            }
+        });
+
+        svc.run(job);
+
+        ReplayJob saved = jobs.findById(job.getJobId());
+        assertEquals(List.of("e0", "e1"), seen);
+        assertEquals(ReplayJob.State.CANCELLED, saved.getState());
+        assertEquals(2, saved.getProcessedCount());
+        assertEquals("e1", saved.getCheckpointId());
+    }
+
+    @Test
+    void cancel_of_stored_running_job_marks_it_cancelled_and_terminal_jobs_are_unchanged() {
+        MemJobs jobs = new MemJobs();
+        ReplayJobService svc = service(events(1), new ArrayList<>(), jobs, null);
+
+        ReplayJob running = ReplayJob.newJob(request());
+        jobs.save(running);
+        ReplayJob done = ReplayJob.newJob(request());
+        done.setState(ReplayJob.State.COMPLETED);
+        jobs.save(done);
+
+        assertEquals(ReplayJob.State.CANCELLED, svc.cancel(running.getJobId()).getState());
+        assertEquals(ReplayJob.State.CANCELLED, jobs.findById(running.getJobId()).getState());
+        assertEquals(ReplayJob.State.COMPLETED, svc.cancel(done.getJobId()).getState());
+        assertNull(svc.cancel("nope"));
+    }
+
+    @Test
+    void cancel_request_never_reopens_a_job_whose_final_state_is_saved() {
+        MemJobs jobs = new MemJobs();
+        ReplayJobService svc = service(events(3), new ArrayList<>(), jobs, null);
+
+        ReplayJob job = ReplayJob.newJob(request());
+        svc.run(job);
+
+        // a cancel that lost the race with the final save is a no-op
+        assertFalse(jobs.requestCancel(job.getJobId(), Instant.now()));
+        ReplayJob saved = jobs.findById(job.getJobId());
+        assertEquals(ReplayJob.State.COMPLETED, saved.getState());
+        assertFalse(saved.isCancelRequested());
+
+        ReplayJob running = ReplayJob.newJob(request());
+        jobs.save(running);
+        assertTrue(jobs.requestCancel(running.getJobId(), Instant.now()));
+        assertTrue(jobs.findById(running.getJobId()).isCancelRequested());
+        assertEquals(ReplayJob.State.RUNNING, jobs.findById(running.getJobId()).getState());
+    }
+
+    @Test
+    void interrupted_hand_over_stops_the_run_without_checkpointing_past_the_event() {
+        System.setProperty(ReplayLanes.P_ENABLED, "true");
+        try {
+            ReplayService replay = new ReplayService() {
+                @Override
+                void orchestrate(com.google.gson.JsonObject payloadJson) {
+                }
+            };
+            replay.setStore(new StreamingStore(events(5)) {
+                @Override
+                public int streamByTimeWindow(ReplayRequest request, ReplayCheckpoint after, Consumer<ReplayEvent> sink) {
+                    int n = 0;
+                    for (ReplayEvent e : events(5)) {
+                        if ("e2".equals(e.id())) {
+                            Thread.currentThread().interrupt();
+                        }
+                        n++;
+                        sink.accept(e);
+                    }
+                    return n;
+                }
+            });
+
+            List<ReplayCheckpoint> marks = java.util.Collections.synchronizedList(new ArrayList<>());
+            ReplayResult r = replay.replayByTimeWindow(request(), null, new ReplayProgress() {
+                @Override
+                public void onProgress(ReplayCheckpoint checkpoint, int processed, int replayed) {
+                    marks.add(checkpoint);
+                }
+
+                @Override
+                public boolean cancelled() {
+                    return false;
+                }
+            });
+
+            assertFalse(r.isOk());
+            assertEquals("DD-REPLAY-cancelled", r.getReason());
+            for (ReplayCheckpoint c : marks) {
+                assertTrue(c.createdAt().isBefore(T0.plusSeconds(2)), "checkpoint passed an event that never ran: " + c.id());
+            }
+        } finally {
+            Thread.interrupted();
+            System.clearProperty(ReplayLanes.P_ENABLED);
+        }
+    }
+
+    @Test
+    void store_that_cannot_resume_refuses_jobs_up_front() {
+        ReplayJobService svc = service(events(1), new ArrayList<>(), new MemJobs(), null);
+        assertTrue(svc.accepting());
+
+        ReplayService replay = new ReplayService();
+        replay.setStore(new StreamingStore(events(1)) {
+            @Override
+            public boolean resumable() {
+                return false;
+            }
+        });
+        svc.setReplayService(replay);
+
+        assertFalse(svc.accepting());
+        ReplayResult r = replay.replayByTimeWindow(request(), null, null);
+        assertFalse(r.isOk());
+        assertEquals("store_not_resumable", r.getReason());
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private static ReplayRequest request() {
+        ReplayRequest r = new ReplayRequest(T0.toString(), T0.plusSeconds(60).toString());
+        r.setReason("test");
+        return r;
+    }
+
+    private static List<ReplayEvent> events(int n) {
+        List<ReplayEvent> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.add(new ReplayEvent("e" + i, "{\"id\":\"e" + i + "\"}", T0.plusSeconds(i)));
+        }
+        return out;
+    }
+
+    private static ReplayJobService service(List<ReplayEvent> events, List<String> seen, MemJobs jobs,
+                                            Consumer<String> onEvent) {
+        ReplayService replay = new ReplayService() {
+            @Override
+            void orchestrate(com.google.gson.JsonObject payloadJson) {
+                String id = payloadJson.get("id").getAsString();
+                seen.add(id);
+                if (onEvent != null) {
+                    onEvent.accept(id);
+                }
+            }
+        };
+        replay.setStore(new StreamingStore(events));
+
+        ReplayJobService svc = new ReplayJobService();
+        svc.setReplayService(replay);
+        svc.setJobStore(jobs);
+        return svc;
+    }
+
+    private static class StreamingStore implements ReplayStore {
+        private final List<ReplayEvent> events;
+
+        StreamingStore(List<ReplayEvent> events) {
+            this.events = events;
+        }
+
+        @Override
+        public int streamByTimeWindow(ReplayRequest request, Consumer<ReplayEvent> sink) {
+            return streamByTimeWindow(request, null, sink);
+        }
+
+        @Override
+        public int streamByTimeWindow(ReplayRequest request, ReplayCheckpoint after, Consumer<ReplayEvent> sink) {
+            int n = 0;
+            for (ReplayEvent e : events) {
+                if (after != null) {
+                    int c = e.timestamp().compareTo(after.createdAt());
+                    if (c < 0 || (c == 0 && e.id().compareTo(after.id()) <= 0)) {
+                        continue;
+                    }
+                }
+                n++;
+                sink.accept(e);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean resumable() {
+            return true;
+        }
+
+        @Override
+        public List<ReplayEvent> findByTimeWindow(ReplayRequest request) {
+            return events;
+        }
+
+        @Override
+        public List<ReplayEvent> findByTimeObjectKey(ReplayRequest request) {
+            return List.of();
+        }
+
+        @Override
+        public List<ReplayEvent> findByDomainDlqId(ReplayRequest request) {
+            return List.of();
+        }
+
+        @Override
+        public List<ReplayEvent> findBySystemDlqId(ReplayRequest request) {
+            return List.of();
+        }
+    }
+
+    private static final class MemJobs implements ReplayJobStore {
+        private final Map<String, ReplayJob> byId = new HashMap<>();
+
+        @Override
+        public synchronized void save(ReplayJob job) {
+            byId.put(job.getJobId(), job.copy());
+        }
+
+        @Override
+        public synchronized ReplayJob findById(String jobId) {
+            ReplayJob j = byId.get(jobId);
+            return (j == null) ? null : j.copy();
+        }
+
+        @Override
+        public synchronized List<ReplayJob> findRunning() {
+            List<ReplayJob> out = new ArrayList<>();
+            for (ReplayJob j : byId.values()) {
+                if (!j.terminal()) {
+                    out.add(j.copy());
+                }
+            }
+            return out;
+        }
+    }
+}
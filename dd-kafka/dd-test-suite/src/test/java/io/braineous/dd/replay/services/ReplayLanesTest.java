@@ -0,0 +1,87 @@
+package io.braineous.dd.replay.services;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayLanesTest {
+
+    @Test
+    void events_within_a_partition_keep_submission_order() throws Exception {
+        Map<String, List<Long>> seen = Collections.synchronizedMap(new HashMap<String, List<Long>>());
+
+        ReplayLanes lanes = new ReplayLanes(4, 8, false, j -> {
+            JsonObject k = j.getAsJsonObject("kafka");
+            String shard = k.get("topic").getAsString() + "/" + k.get("partition").getAsInt();
+            synchronized (seen) {
+                seen.computeIfAbsent(shard, s -> new ArrayList<Long>()).add(k.get("offset").getAsLong());
+            }
+            return true;
+        });
+
+        int total = 0;
+        for (long offset = 0; offset < 200; offset++) {
+            for (int partition = 0; partition < 6; partition++) {
+                lanes.submit(event("requests", partition, offset, null));
+                total++;
+            }
+        }
+
+        assertEquals(total, lanes.finish());
+        assertEquals(6, seen.size());
+        for (List<Long> offsets : seen.values()) {
+            assertEquals(200, offsets.size());
+            for (int i = 0; i < offsets.size(); i++) {
+                assertEquals(i, offsets.get(i).longValue());
+            }
+        }
+    }
+
+    @Test
+    void failed_handoffs_are_not_counted() throws Exception {
+        ReplayLanes lanes = new ReplayLanes(2, 4, false,
+                j -> j.getAsJsonObject("kafka").get("offset").getAsLong() % 2 == 0);
+
+        for (long offset = 0; offset < 10; offset++) {
+            lanes.submit(event("requests", 0, offset, null));
+        }
+
+        assertEquals(5, lanes.finish());
+    }
+
+    @Test
+    void shard_key_by_partition_or_key() {
+        JsonObject keyed = event("orders", 3, 1L, "cust-7");
+        JsonObject unkeyed = event("orders", 3, 2L, null);
+
+        assertEquals("p:orders/3", ReplayLanes.shardKey(keyed, false));
+        assertEquals("k:cust-7", ReplayLanes.shardKey(keyed, true));
+        assertEquals("p:orders/3", ReplayLanes.shardKey(unkeyed, true));
+        assertEquals("", ReplayLanes.shardKey(JsonParser.parseString("{\"id\":\"x\"}").getAsJsonObject(), false));
+
+        int lane = ReplayLanes.laneOf("p:orders/3", 8);
+        assertTrue(lane >= 0 && lane < 8);
+        assertEquals(lane, ReplayLanes.laneOf("p:orders/3", 8));
+    }
+
+    private static JsonObject event(String topic, int partition, long offset, String key) {
+        JsonObject kafka = new JsonObject();
+        kafka.addProperty("topic", topic);
+        kafka.addProperty("partition", partition);
+        kafka.addProperty("offset", offset);
+        if (key != null) {
+            kafka.addProperty("key", key);
+        }
+        JsonObject j = new JsonObject();
+        j.add("kafka", kafka);
+        return j;
+    }
+}
@@ -0,0 +1,71 @@
+package io.braineous.dd.replay.services;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.braineous.dd.replay.model.ReplayOutcome;
+import io.braineous.dd.replay.model.ReplayRequest;
+import io.braineous.dd.replay.model.ReplayResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayOutcomeWriterTest {
+
+    @Test
+    void writes_one_line_per_outcome_then_summary() throws Exception {
+        StringWriter sw = new StringWriter();
+        ReplayOutcomeWriter w = new ReplayOutcomeWriter(sw);
+
+        w.onOutcome(new ReplayOutcome("e1", "ING-1", true, "ignored-when-ok", 12L));
+        w.onOutcome(new ReplayOutcome("e2", null, false, "DD-REPLAY-payload_invalid", 0L));
+        w.finish(ReplayResult.ok(new ReplayRequest(), 1, 2));
+
+        String[] lines = sw.toString().split("\n");
+        assertEquals(3, lines.length);
+
+        JsonObject first = JsonParser.parseString(lines[0]).getAsJsonObject();
+        assertEquals("outcome", first.get("type").getAsString());
+        assertEquals("e1", first.get("eventId").getAsString());
+        assertEquals("ING-1", first.get("ingestionId").getAsString());
+        assertTrue(first.get("ok").getAsBoolean());
+        assertFalse(first.has("why"));
+        assertEquals(12L, first.get("durationMs").getAsLong());
+
+        JsonObject second = JsonParser.parseString(lines[1]).getAsJsonObject();
+        assertFalse(second.get("ok").getAsBoolean());
+        assertEquals("DD-REPLAY-payload_invalid", second.get("why").getAsString());
+
+        JsonObject summary = JsonParser.parseString(lines[2]).getAsJsonObject();
+        assertEquals("summary", summary.get("type").getAsString());
+        assertTrue(summary.get("ok").getAsBoolean());
+        assertEquals(2, summary.get("matched").getAsInt());
+        assertEquals(1, summary.get("replayed").getAsInt());
+    }
+
+    @Test
+    void write_failure_cancels_and_is_rethrown_on_finish() {
+        Writer broken = new Writer() {
+            @Override public void write(char[] cbuf, int off, int len) throws IOException { throw new IOException("client_gone"); }
+            @Override public void flush() { }
+            @Override public void close() { }
+        };
+        ReplayOutcomeWriter w = new ReplayOutcomeWriter(broken);
+
+        assertFalse(w.cancelled());
+        w.onOutcome(new ReplayOutcome("e1", null, true, null, 1L));
+        assertTrue(w.cancelled());
+
+        IOException thrown = null;
+        try {
+            w.finish(ReplayResult.fail("DD-REPLAY-cancelled"));
+        } catch (IOException io) {
+            thrown = io;
+        }
+        assertNotNull(thrown);
+        assertEquals("client_gone", thrown.getMessage());
+    }
+}
@@ -166,6 +166,250 @@ public class ReplayServiceTest {
         org.junit.jupiter.api.Assertions.assertEquals(2, getCalls(svc));
     }
 
+    @org.junit.jupiter.api.Test
+    void replayByTimeWindow_streamingStore_replaysInCursorOrder_withoutFind() {
+        java.util.List<String> seen = new java.util.ArrayList<>();
+        ReplayService svc = new ReplayService() {
+            @Override
+            void orchestrate(com.google.gson.JsonObject payloadJson) {
+                seen.add(payloadJson.get("id").getAsString());
+            }
+        };
+
+        ReplayStore streaming = new ReplayStore() {
+            @Override
+            public int streamByTimeWindow(ReplayRequest request, java.util.function.Consumer<ReplayEvent> sink) {
+                sink.accept(new ReplayEvent("a", "{\"id\":\"a\"}", java.time.Instant.parse("2026-01-05T10:00:01Z")));
+                sink.accept(new ReplayEvent("b", "NOT_JSON", java.time.Instant.parse("2026-01-05T10:00:02Z")));
+                sink.accept(new ReplayEvent("c", "{\"id\":\"c\"}", java.time.Instant.parse("2026-01-05T10:00:03Z")));
+                return 3;
+            }
+
+            @Override public java.util.List<ReplayEvent> findByTimeWindow(ReplayRequest request) { throw new AssertionError("streaming path expected"); }
+            @Override public java.util.List<ReplayEvent> findByTimeObjectKey(ReplayRequest request) { return java.util.List.of(); }
+            @Override public java.util.List<ReplayEvent> findByDomainDlqId(ReplayRequest request) { return java.util.List.of(); }
+            @Override public java.util.List<ReplayEvent> findBySystemDlqId(ReplayRequest request) { return java.util.List.of(); }
+        };
+
+        svc.setStore(streaming);
+
+        ReplayResult result = svc.replayByTimeWindow(new ReplayRequest());
+
+        org.junit.jupiter.api.Assertions.assertTrue(result.ok());
+        org.junit.jupiter.api.Assertions.assertEquals(3, result.matchedCount());
+        org.junit.jupiter.api.Assertions.assertEquals(2, result.replayedCount());
+        org.junit.jupiter.api.Assertions.assertEquals(java.util.List.of("a", "c"), seen);
+    }
+
+    @org.junit.jupiter.api.Test
+    void replayFromKafka_replaysInOffsetOrder_withoutTouchingStore() {
+        java.util.List<String> seen = new java.util.ArrayList<>();
+        ReplayService svc = new ReplayService() {
+            @Override
+            void orchestrate(com.google.gson.JsonObject payloadJson) {
+                seen.add(payloadJson.get("id").getAsString());
+            }
+        };
+
+        svc.setKafkaSource(new io.braineous.dd.replay.persistence.KafkaReplaySource() {
+            @Override
+            public int stream(ReplayRequest request, java.util.function.Consumer<ReplayEvent> sink) {
+                sink.accept(new ReplayEvent("ingestion-0@7", "{\"id\":\"x\"}", null));
+                sink.accept(new ReplayEvent("ingestion-0@8", "{\"id\":\"y\"}", null));
+                return 2;
+            }
+        });
+
+        ReplayResult result = svc.replayFromKafka(new ReplayRequest());
+
+        org.junit.jupiter.api.Assertions.assertTrue(result.ok());
+        org.junit.jupiter.api.Assertions.assertEquals(2, result.matchedCount());
+        org.junit.jupiter.api.Assertions.assertEquals(2, result.replayedCount());
+        org.junit.jupiter.api.Assertions.assertEquals(java.util.List.of("x", "y"), seen);
+    }
+
+    @org.junit.jupiter.api.Test
+    void replayByIngestionIds_streamsWholeSet_inOneRun() {
+        java.util.List<String> seen = new java.util.ArrayList<>();
+        ReplayService svc = new ReplayService() {
+            @Override
+            void orchestrate(com.google.gson.JsonObject payloadJson) {
+                seen.add(payloadJson.get("id").getAsString());
+            }
+        };
+
+        java.util.List<String> asked = new java.util.ArrayList<>();
+        ReplayStore byId = new ReplayStore() {
+            @Override public java.util.List<ReplayEvent> findByTimeWindow(ReplayRequest request) { return java.util.List.of(); }
+            @Override public java.util.List<ReplayEvent> findByTimeObjectKey(ReplayRequest request) {
+                asked.add(request.ingestionId());
+                if ("missing".equals(request.ingestionId())) return null;
+                return java.util.List.of(new ReplayEvent(request.ingestionId(),
+                        "{\"id\":\"" + request.ingestionId() + "\"}", null));
+            }
+            @Override public java.util.List<ReplayEvent> findByDomainDlqId(ReplayRequest request) { return java.util.List.of(); }
+            @Override public java.util.List<ReplayEvent> findBySystemDlqId(ReplayRequest request) { return java.util.List.of(); }
+        };
+        svc.setStore(byId);
+
+        ReplayRequest req = new ReplayRequest();
+        req.setIngestionIds(java.util.List.of("i1", "missing", "i2"));
+
+        ReplayResult result = svc.replayByIngestionIds(req);
+
+        org.junit.jupiter.api.Assertions.assertTrue(result.ok());
+        org.junit.jupiter.api.Assertions.assertEquals(2, result.matchedCount());
+        org.junit.jupiter.api.Assertions.assertEquals(2, result.replayedCount());
+        org.junit.jupiter.api.Assertions.assertEquals(java.util.List.of("i1", "missing", "i2"), asked);
+        org.junit.jupiter.api.Assertions.assertEquals(java.util.List.of("i1", "i2"), seen);
+    }
+
+    @org.junit.jupiter.api.Test
+    void replayByDlqIds_noMatches_returnsEmpty() {
+        ReplayService svc = serviceSpy(storeReturning(null, null, null, null), new java.util.ArrayList<>());
+
+        ReplayRequest req = new ReplayRequest();
+        req.setDlqIds(java.util.List.of("d1", "d2"));
+
+        org.junit.jupiter.api.Assertions.assertEquals(0, svc.replayByDomainDlqIds(req).matchedCount());
+        org.junit.jupiter.api.Assertions.assertEquals(0, svc.replayBySystemDlqIds(req).matchedCount());
+    }
+
+    @org.junit.jupiter.api.Test
+    void replayByTimeWindow_withOutcomes_reportsEveryEvent_inOrder() {
+        ReplayService svc = new ReplayService() {
+            @Override
+            io.braineous.dd.processor.ProcessorResult orchestrateForOutcome(com.google.gson.JsonObject payloadJson) {
+                String id = payloadJson.get("id").getAsString();
+                if ("boom".equals(id)) throw new IllegalStateException("boom");
+                if ("rejected".equals(id)) {
+                    return io.braineous.dd.processor.ProcessorResult.fail(payloadJson,
+                            new io.braineous.dd.core.model.Why("DD-ORCH-INGESTION_ID-cgo", "cgo_view_null"));
+                }
+                io.braineous.dd.processor.ProcessorResult r = io.braineous.dd.processor.ProcessorResult.ok(payloadJson);
+                r.setIngestionId("ING-" + id);
+                return r;
+            }
+        };
+
+        svc.setStore(new ReplayStore() {
+            @Override
+            public int streamByTimeWindow(ReplayRequest request, java.util.function.Consumer<ReplayEvent> sink) {
+                sink.accept(new ReplayEvent("e1", "{\"id\":\"a\"}", null));
+                sink.accept(new ReplayEvent("e2", "NOT_JSON", null));
+                sink.accept(new ReplayEvent("e3", "{\"id\":\"rejected\",\"ingestionId\":\"ING-r\"}", null));
+                sink.accept(new ReplayEvent("e4", "{\"id\":\"boom\"}", null));
+                return 4;
+            }
+
+            @Override public java.util.List<ReplayEvent> findByTimeWindow(ReplayRequest request) { throw new AssertionError("streaming path expected"); }
+            @Override public java.util.List<ReplayEvent> findByTimeObjectKey(ReplayRequest request) { return java.util.List.of(); }
+            @Override public java.util.List<ReplayEvent> findByDomainDlqId(ReplayRequest request) { return java.util.List.of(); }
+            @Override public java.util.List<ReplayEvent> findBySystemDlqId(ReplayRequest request) { return java.util.List.of(); }
+        });
+
+        java.util.List<io.braineous.dd.replay.model.ReplayOutcome> seen = new java.util.ArrayList<>();
+        ReplayResult result = svc.replayByTimeWindow(new ReplayRequest(), seen::add);
+
+        org.junit.jupiter.api.Assertions.assertTrue(result.ok());
+        org.junit.jupiter.api.Assertions.assertEquals(4, result.matchedCount());
+        org.junit.jupiter.api.Assertions.assertEquals(2, result.replayedCount());
+
+        org.junit.jupiter.api.Assertions.assertEquals(4, seen.size());
+
+        org.junit.jupiter.api.Assertions.assertEquals("e1", seen.get(0).eventId());
+        org.junit.jupiter.api.Assertions.assertEquals("ING-a", seen.get(0).ingestionId());
+        org.junit.jupiter.api.Assertions.assertTrue(seen.get(0).ok());
+        org.junit.jupiter.api.Assertions.assertNull(seen.get(0).why());
+
+        org.junit.jupiter.api.Assertions.assertEquals("e2", seen.get(1).eventId());
+        org.junit.jupiter.api.Assertions.assertFalse(seen.get(1).ok());
+        org.junit.jupiter.api.Assertions.assertEquals("DD-REPLAY-payload_invalid", seen.get(1).why());
+
+        org.junit.jupiter.api.Assertions.assertEquals("ING-r", seen.get(2).ingestionId());
+        org.junit.jupiter.api.Assertions.assertFalse(seen.get(2).ok());
+        org.junit.jupiter.api.Assertions.assertEquals("DD-ORCH-INGESTION_ID-cgo", seen.get(2).why());
+
+        org.junit.jupiter.api.Assertions.assertFalse(seen.get(3).ok());
+        org.junit.jupiter.api.Assertions.assertEquals("DD-REPLAY-orchestrate_failed-IllegalStateException", seen.get(3).why());
+    }
+
+    @org.junit.jupiter.api.Test
+    void replayByTimeWindow_outcomesCancelled_stopsBeforeNextEvent() {
+        java.util.List<String> seen = new java.util.ArrayList<>();
+        ReplayService svc = new ReplayService() {
+            @Override
+            io.braineous.dd.processor.ProcessorResult orchestrateForOutcome(com.google.gson.JsonObject payloadJson) {
+                seen.add(payloadJson.get("id").getAsString());
+                return io.braineous.dd.processor.ProcessorResult.ok(payloadJson);
+            }
+        };
+        svc.setStore(storeReturning(null, null, java.util.List.of(
+                new ReplayEvent("1", "{\"id\":\"a\"}", java.time.Instant.parse("2026-01-05T10:00:01Z")),
+                new ReplayEvent("2", "{\"id\":\"b\"}", java.time.Instant.parse("2026-01-05T10:00:02Z"))), null));
+
+        ReplayOutcomes stopAfterFirst = new ReplayOutcomes() {
+            private boolean gone;
+            @Override public void onOutcome(io.braineous.dd.replay.model.ReplayOutcome outcome) { gone = true; }
+            @Override public boolean cancelled() { return gone; }
+        };
+
+        ReplayResult result = svc.replayByTimeWindow(new ReplayRequest(), stopAfterFirst);
+
+        org.junit.jupiter.api.Assertions.assertFalse(result.ok());
+        org.junit.jupiter.api.Assertions.assertEquals("DD-REPLAY-cancelled", result.reason());
+        org.junit.jupiter.api.Assertions.assertEquals(java.util.List.of("a"), seen);
+    }
+
+    @org.junit.jupiter.api.Test
+    void replay_toShadowTarget_runsPipelineWithShadowPoster_notLiveTransport() {
+        java.util.List<io.braineous.dd.core.processor.HttpPoster> posters = new java.util.ArrayList<>();
+        ReplayService svc = new ReplayService() {
+            @Override
+            void orchestrate(com.google.gson.JsonObject payloadJson) {
+                throw new AssertionError("live transport must not be used");
+            }
+
+            @Override
+            io.braineous.dd.processor.ProcessorResult orchestrateForOutcome(com.google.gson.JsonObject payloadJson,
+                                                                            io.braineous.dd.core.processor.HttpPoster poster) {
+                posters.add(poster);
+                return io.braineous.dd.processor.ProcessorResult.ok(payloadJson);
+            }
+        };
+        svc.setStore(storeReturning(null, null, java.util.List.of(
+                new ReplayEvent("1", "{\"id\":\"a\"}", java.time.Instant.parse("2026-01-05T10:00:01Z")),
+                new ReplayEvent("2", "{\"id\":\"b\"}", java.time.Instant.parse("2026-01-05T10:00:02Z"))), null));
+        svc.setShadowSink(new ReplayShadowSink());
+
+        ReplayRequest req = new ReplayRequest();
+        req.setTarget("null");
+
+        ReplayResult result = svc.replayByTimeWindow(req);
+
+        org.junit.jupiter.api.Assertions.assertTrue(result.ok());
+        org.junit.jupiter.api.Assertions.assertEquals(2, result.replayedCount());
+        org.junit.jupiter.api.Assertions.assertEquals(2, posters.size());
+        org.junit.jupiter.api.Assertions.assertNotNull(posters.get(0));
+    }
+
+    @org.junit.jupiter.api.Test
+    void replay_toShadowTarget_withoutSink_neverFallsBackToLive() {
+        ReplayService svc = new ReplayService() {
+            @Override
+            void orchestrate(com.google.gson.JsonObject payloadJson) {
+                throw new AssertionError("live transport must not be used");
+            }
+        };
+        svc.setStore(storeReturning(null, null, java.util.List.of(
+                new ReplayEvent("1", "{\"id\":\"a\"}", null)), null));
+
+        ReplayRequest req = new ReplayRequest();
+        req.setTarget("shadow");
+
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalStateException.class, () -> svc.replayByTimeWindow(req));
+    }
+
     @org.junit.jupiter.api.Test
     void replayByTimeWindow_replaysAllSelected_whenAllValid() {
         ReplayService svc = new ReplayService() {
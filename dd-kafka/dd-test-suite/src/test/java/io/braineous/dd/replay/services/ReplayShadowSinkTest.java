@@ -0,0 +1,98 @@
+package io.braineous.dd.replay.services;
+
+import io.braineous.dd.core.processor.HttpPoster;
+import io.braineous.dd.replay.model.ReplayRequest;
+import io.braineous.dd.replay.persistence.KafkaReplaySource;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayShadowSinkTest {
+
+    @Test
+    void live_target_uses_the_live_transport() {
+        ReplayShadowSink sink = new ReplayShadowSink();
+
+        assertNull(sink.posterFor(null));
+        assertNull(sink.posterFor(new ReplayRequest()));
+        assertNull(sink.posterFor(target("LIVE", null)));
+    }
+
+    @Test
+    void null_target_accepts_and_drops() throws Exception {
+        ReplayShadowSink sink = new ReplayShadowSink();
+
+        HttpPoster poster = sink.posterFor(target("null", null));
+        assertEquals(202, poster.post("/api/ingestion", "{\"a\":1}"));
+        assertEquals(202, poster.post("/api/ingestion", "{\"a\":2}"));
+
+        assertEquals(2L, sink.dropped());
+        assertEquals(0L, sink.sent());
+    }
+
+    @Test
+    void shadow_target_produces_to_the_shadow_topic() throws Exception {
+        MockProducer<String, String> mock = new MockProducer<>(true, null, new StringSerializer(), new StringSerializer());
+        ReplayShadowSink sink = new ReplayShadowSink() {
+            @Override
+            Producer<String, String> newProducer() {
+                return mock;
+            }
+        };
+
+        HttpPoster poster = sink.posterFor(target("shadow", "bench-ingestion"));
+        assertEquals(202, poster.post("/api/ingestion", "{\"a\":1}"));
+
+        assertEquals(1, mock.history().size());
+        assertEquals("bench-ingestion", mock.history().get(0).topic());
+        assertEquals("{\"a\":1}", mock.history().get(0).value());
+        assertEquals(1L, sink.sent());
+
+        sink.close();
+        assertTrue(mock.closed());
+    }
+
+    @Test
+    void unknown_target_is_rejected_never_live() {
+        assertFalse(ReplayShadowSink.knownTarget("prod"));
+        assertTrue(ReplayShadowSink.knownTarget(null));
+        assertTrue(ReplayShadowSink.knownTarget(" Shadow "));
+
+        ReplayShadowSink sink = new ReplayShadowSink();
+        assertThrows(IllegalArgumentException.class, () -> sink.posterFor(target("prod", null)));
+    }
+
+    @Test
+    void shadow_topic_naming_the_live_ingestion_topic_is_refused() {
+        ReplayShadowSink sink = new ReplayShadowSink();
+
+        assertThrows(IllegalArgumentException.class, () -> sink.posterFor(target("shadow", "ingestion")));
+        assertThrows(IllegalArgumentException.class, () -> sink.posterFor(target("shadow", " ingestion ")));
+
+        System.setProperty(KafkaReplaySource.P_TOPIC, "ingestion-v2");
+        try {
+            assertThrows(IllegalArgumentException.class, () -> sink.posterFor(target("shadow", "ingestion-v2")));
+            assertNotNull(sink.posterFor(target("shadow", "ingestion")));
+        } finally {
+            System.clearProperty(KafkaReplaySource.P_TOPIC);
+        }
+
+        System.setProperty(ReplayShadowSink.P_TOPIC, "ingestion");
+        try {
+            // the configured default is checked too
+            assertThrows(IllegalArgumentException.class, () -> sink.posterFor(target("shadow", null)));
+        } finally {
+            System.clearProperty(ReplayShadowSink.P_TOPIC);
+        }
+    }
+
+    private static ReplayRequest target(String target, String shadowTopic) {
+        ReplayRequest r = new ReplayRequest();
+        r.setTarget(target);
+        r.setShadowTopic(shadowTopic);
+        return r;
+    }
+}
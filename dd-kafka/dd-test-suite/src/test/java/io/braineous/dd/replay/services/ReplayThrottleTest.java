@@ -0,0 +1,86 @@
+package io.braineous.dd.replay.services;
+
+import io.braineous.dd.replay.model.ReplayRequest;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayThrottleTest {
+
+    @Test
+    void unlimited_without_request_or_property_limits() {
+        assertNull(ReplayThrottle.of(new ReplayRequest()));
+        assertNull(ReplayThrottle.of(null));
+    }
+
+    @Test
+    void request_limit_applies_and_lower_of_both_wins() {
+        ReplayRequest r = new ReplayRequest();
+        r.setMaxEventsPerSec(50L);
+        assertNotNull(ReplayThrottle.of(r));
+
+        assertEquals(50L, ReplayThrottle.lower(0L, 50L));
+        assertEquals(200L, ReplayThrottle.lower(200L, null));
+        assertEquals(200L, ReplayThrottle.lower(200L, 0L));
+        assertEquals(50L, ReplayThrottle.lower(200L, 50L));
+        assertEquals(200L, ReplayThrottle.lower(200L, 5_000L));
+        assertEquals(0L, ReplayThrottle.lower(0L, -1L));
+    }
+
+    @Test
+    void utf8_length_matches_encoding() {
+        String[] samples = {"", "{\"a\":1}", "caf\u00e9", "\u20ac10", "emoji \ud83d\ude00 end"};
+        for (String s : samples) {
+            assertEquals(s.getBytes(StandardCharsets.UTF_8).length, ReplayThrottle.utf8Length(s), s);
+        }
+        assertEquals(0, ReplayThrottle.utf8Length(null));
+    }
+
+    @Test
+    void speedup_keeps_recorded_gaps_scaled_down() throws Exception {
+        long[] now = {0L};
+        java.util.List<Long> slept = new java.util.ArrayList<>();
+        ReplayThrottle t = new ReplayThrottle(null, null, 4d, () -> now[0], nanos -> {
+            slept.add(nanos);
+            now[0] += nanos;
+        });
+
+        java.time.Instant t0 = java.time.Instant.parse("2026-01-05T10:00:00Z");
+        t.acquire(new io.braineous.dd.replay.model.ReplayEvent("1", "{}", t0));
+        t.acquire(new io.braineous.dd.replay.model.ReplayEvent("2", "{}", t0.plusSeconds(4)));   // due at 1s
+        now[0] += 3_000_000_000L;                                                                 // slow handover
+        t.acquire(new io.braineous.dd.replay.model.ReplayEvent("3", "{}", t0.plusSeconds(8)));   // due at 2s: late, no wait
+        t.acquire(new io.braineous.dd.replay.model.ReplayEvent("4", "{}", null));                // no timestamp: no wait
+
+        assertEquals(java.util.List.of(1_000_000_000L), slept);
+    }
+
+    @Test
+    void interrupted_wait_cancels_instead_of_letting_the_event_through() {
+        ReplayThrottle t = new ReplayThrottle(null, null, 1d, () -> 0L, nanos -> {
+            throw new InterruptedException();
+        });
+
+        java.time.Instant t0 = java.time.Instant.parse("2026-01-05T10:00:00Z");
+        t.acquire(new io.braineous.dd.replay.model.ReplayEvent("1", "{}", t0));
+        try {
+            assertThrows(java.util.concurrent.CancellationException.class,
+                    () -> t.acquire(new io.braineous.dd.replay.model.ReplayEvent("2", "{}", t0.plusSeconds(1))));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void speedup_alone_enables_the_throttle() {
+        ReplayRequest r = new ReplayRequest();
+        r.setSpeedup(2d);
+        assertNotNull(ReplayThrottle.of(r));
+
+        r.setSpeedup(0d);
+        assertNull(ReplayThrottle.of(r));
+    }
+}
@@ -324,10 +324,192 @@ public class ReplayResourceTest {
 
         verifyNoInteractions(svc);
     }
-}
 
+    @Test
+    public void replayFromKafka_delegates_to_service() {
+        ReplayRequest req = mock(ReplayRequest.class);
+        validCommon(req);
+        when(req.partition()).thenReturn(0);
+        when(req.fromOffset()).thenReturn(100L);
+        when(req.toOffset()).thenReturn(200L);
+
+        ReplayResult expected = okResult();
+
+        ReplayService svc = mock(ReplayService.class);
+        when(svc.replayFromKafka(req)).thenReturn(expected);
+
+        ReplayResource r = new ReplayResource();
+        r.setService(svc);
+        r.setGate(enabledGate());
+
+        Response resp = r.replayFromKafka(req);
+        assertEquals(200, resp.getStatus());
+        assertSame(expected, entity(resp));
+
+        verify(svc).replayFromKafka(req);
+        verifyNoMoreInteractions(svc);
+    }
+
+    @Test
+    public void replayFromKafka_badRequest_when_offsets_without_partition_and_doesNotCallService() {
+        ReplayRequest req = mock(ReplayRequest.class);
+        validCommon(req);
+        when(req.fromOffset()).thenReturn(100L); // partition missing
+
+        ReplayService svc = mock(ReplayService.class);
+
+        ReplayResource r = new ReplayResource();
+        r.setService(svc);
+        r.setGate(enabledGate());
+
+        Response resp = r.replayFromKafka(req);
+        assertEquals(400, resp.getStatus());
+
+        ReplayResult actual = entity(resp);
+        assertFalse(actual.ok());
+        assertEquals("DD-REPLAY-bad_request-partition_missing", actual.reason());
+
+        verifyNoInteractions(svc);
+    }
 
+    @Test
+    public void replayByIngestionIds_delegates_to_service() {
+        ReplayRequest req = mock(ReplayRequest.class);
+        validCommon(req);
+        when(req.ingestionIds()).thenReturn(java.util.List.of("ID-1", "ID-2"));
 
+        ReplayResult expected = okResult();
 
+        ReplayService svc = mock(ReplayService.class);
+        when(svc.replayByIngestionIds(req)).thenReturn(expected);
 
+        ReplayResource r = new ReplayResource();
+        r.setService(svc);
+        r.setGate(enabledGate());
+
+        Response resp = r.replayByIngestionIds(req);
+        assertEquals(200, resp.getStatus());
+        assertSame(expected, entity(resp));
+
+        verify(svc).replayByIngestionIds(req);
+        verifyNoMoreInteractions(svc);
+    }
+
+    @Test
+    public void replayBySystemDlqIds_badRequest_when_ids_missing_and_doesNotCallService() {
+        ReplayRequest req = mock(ReplayRequest.class);
+        validCommon(req);
+        when(req.dlqIds()).thenReturn(java.util.List.of());
+
+        ReplayService svc = mock(ReplayService.class);
+
+        ReplayResource r = new ReplayResource();
+        r.setService(svc);
+        r.setGate(enabledGate());
+
+        Response resp = r.replayBySystemDlqIds(req);
+        assertEquals(400, resp.getStatus());
+
+        ReplayResult actual = entity(resp);
+        assertFalse(actual.ok());
+        assertEquals("DD-REPLAY-bad_request-ids_missing", actual.reason());
+
+        verifyNoInteractions(svc);
+    }
 
+    @Test
+    public void parseIds_oneIdPerLine_skipsBlankAndCommentLines() {
+        String body = "# incident 42\r\nID-1\n\n  ID-2  \nID-3";
+
+        assertEquals(java.util.List.of("ID-1", "ID-2", "ID-3"), ReplayResource.parseIds(body));
+        assertTrue(ReplayResource.parseIds(null).isEmpty());
+    }
+
+    @Test
+    public void streamByTimeWindow_writes_outcome_lines_then_summary() throws Exception {
+        ReplayRequest req = mock(ReplayRequest.class);
+        validTimeWindow(req);
+
+        ReplayService svc = mock(ReplayService.class);
+        when(svc.replayByTimeWindow(eq(req), any(io.braineous.dd.replay.services.ReplayOutcomes.class)))
+                .thenAnswer(inv -> {
+                    io.braineous.dd.replay.services.ReplayOutcomes outcomes = inv.getArgument(1);
+                    outcomes.onOutcome(new io.braineous.dd.replay.model.ReplayOutcome("e1", "ING-1", true, null, 3L));
+                    outcomes.onOutcome(new io.braineous.dd.replay.model.ReplayOutcome("e2", null, false, "DD-REPLAY-payload_invalid", 0L));
+                    return ReplayResult.ok(req, 1, 2);
+                });
+
+        ReplayResource r = new ReplayResource();
+        r.setService(svc);
+        r.setGate(enabledGate());
+
+        Response resp = r.streamByTimeWindow(req);
+        assertEquals(200, resp.getStatus());
+        assertEquals("application/x-ndjson", String.valueOf(resp.getMediaType()));
+
+        java.io.ByteArrayOutputStream os = new java.io.ByteArrayOutputStream();
+        ((jakarta.ws.rs.core.StreamingOutput) resp.getEntity()).write(os);
+
+        String[] lines = os.toString(java.nio.charset.StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"eventId\":\"e1\""));
+        assertTrue(lines[1].contains("\"why\":\"DD-REPLAY-payload_invalid\""));
+        assertTrue(lines[2].contains("\"type\":\"summary\""));
+    }
+
+    @Test
+    public void streamByTimeWindow_badRequest_when_reason_missing_and_doesNotCallService() {
+        ReplayRequest req = mock(ReplayRequest.class);
+
+        ReplayService svc = mock(ReplayService.class);
+
+        ReplayResource r = new ReplayResource();
+        r.setService(svc);
+        r.setGate(enabledGate());
+
+        Response resp = r.streamByTimeWindow(req);
+        assertEquals(400, resp.getStatus());
+        assertEquals("DD-REPLAY-bad_request-reason_missing", entity(resp).reason());
+
+        verifyNoInteractions(svc);
+    }
+
+    @Test
+    public void replayByTimeWindow_badRequest_when_target_unknown_and_doesNotCallService() {
+        ReplayRequest req = mock(ReplayRequest.class);
+        validTimeWindow(req);
+        when(req.target()).thenReturn("prod");
+
+        ReplayService svc = mock(ReplayService.class);
+
+        ReplayResource r = new ReplayResource();
+        r.setService(svc);
+        r.setGate(enabledGate());
+
+        Response resp = r.replayByTimeWindow(req);
+        assertEquals(400, resp.getStatus());
+        assertEquals("DD-REPLAY-bad_request-target_invalid", entity(resp).reason());
+
+        verifyNoInteractions(svc);
+    }
+
+    @Test
+    public void replayByTimeWindow_badRequest_when_shadow_topic_is_the_live_topic() {
+        ReplayRequest req = mock(ReplayRequest.class);
+        validTimeWindow(req);
+        when(req.target()).thenReturn("shadow");
+        when(req.shadowTopic()).thenReturn("ingestion");
+
+        ReplayService svc = mock(ReplayService.class);
+
+        ReplayResource r = new ReplayResource();
+        r.setService(svc);
+        r.setGate(enabledGate());
+
+        Response resp = r.replayByTimeWindow(req);
+        assertEquals(400, resp.getStatus());
+        assertEquals("DD-REPLAY-bad_request-shadow_topic_live", entity(resp).reason());
+
+        verifyNoInteractions(svc);
+    }
+}
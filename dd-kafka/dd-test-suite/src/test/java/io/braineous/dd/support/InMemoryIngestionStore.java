@@ -38,6 +38,7 @@ public class InMemoryIngestionStore implements IngestionStore {
     private final List<String> storedPayloads = new ArrayList<String>();
     private final List<IngestionReceipt> receipts = new ArrayList<IngestionReceipt>();
     private int storeCalls;
+    private int bulkCalls;
 
     @Override
     public synchronized IngestionReceipt storeIngestion(String payload) {
@@ -169,6 +170,14 @@ public class InMemoryIngestionStore implements IngestionStore {
         return r;
     }
 
+    @Override
+    public List<IngestionReceipt> storeIngestions(List<String> payloads) {
+        synchronized (this) {
+            bulkCalls = bulkCalls + 1;
+        }
+        return IngestionStore.super.storeIngestions(payloads);
+    }
+
     @Override
     public String resolveIngestionId(String payload, String snap) {
 
@@ -207,12 +216,17 @@ public class InMemoryIngestionStore implements IngestionStore {
         storedPayloads.clear();
         receipts.clear();
         storeCalls = 0;
+        bulkCalls = 0;
     }
 
     public synchronized int storeCalls() {
         return storeCalls;
     }
 
+    public synchronized int bulkCalls() {
+        return bulkCalls;
+    }
+
     public synchronized String lastStoredPayload() {
         if (storedPayloads.isEmpty()) {
             return null;